@@ -0,0 +1,101 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end benchmark of {@link Enricher#enrich()} on generated source trees.
+ * <p>
+ * The enricher runs in patch mode with all files enriched, so every invocation sees the same unmodified tree.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = EnricherBenchmark.LOG_CONFIGURATION)
+public class EnricherBenchmark {
+
+    /**
+     * Only logs warnings. The enricher logs each handled file otherwise.
+     */
+    static final String LOG_CONFIGURATION = "-Dlog4j.configurationFile=log4j2-benchmarks.xml";
+
+    @Param({"10", "1000", "10000"})
+    private int repositories;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private Path root;
+
+    private String sourcePath;
+
+    private String patchFile;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        root = Files.createTempDirectory("enricher-benchmark");
+        sourcePath = RepositoryTreeGenerator.generate(root, repositories).toString();
+        patchFile = root.resolve("enrich.patch").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        delete(root);
+    }
+
+    @Benchmark
+    public void enrich() {
+        new Enricher.Builder(sourcePath).threads(threads).full(true).patchFile(patchFile).build().enrich();
+    }
+
+    /**
+     * Creates a context writing the changes as pending changes.
+     *
+     * @param root       The root of the generated tree.
+     * @param sourcePath The source path.
+     * @return the context.
+     */
+    static EnrichmentContext createContext(Path root, String sourcePath) {
+        Manifest manifest = new Manifest(root.resolve(Manifest.MANIFEST_FILE_NAME).toFile(), "");
+        return new EnrichmentContext(manifest, new SourceRoots(sourcePath), 1,
+                new PendingChanges(Paths.get(sourcePath)), false);
+    }
+
+    /**
+     * Deletes a generated tree.
+     *
+     * @param root The root of the generated tree.
+     * @throws IOException if the tree cannot be deleted.
+     */
+    static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
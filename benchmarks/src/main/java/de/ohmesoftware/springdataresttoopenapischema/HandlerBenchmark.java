@@ -0,0 +1,179 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the single steps of the enrichment of a repository.
+ * <p>
+ * The repository extends a generic repository, so the lookups have to visit the supertype. The enrichment runs in
+ * patch mode and does not modify the generated sources.
+ * </p>
+ * <p>
+ * The warm benchmarks share a context for all invocations of an iteration, after the first invocation the parsed
+ * source files and the looked up types are cached as for the later repositories of a run. The cold benchmarks run a
+ * single invocation with a fresh context per iteration as for the first repository of a run, only the repository
+ * itself is parsed in the setup.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = EnricherBenchmark.LOG_CONFIGURATION)
+public class HandlerBenchmark {
+
+    private static final int REPOSITORIES = 10;
+
+    private static final int COLD_WARMUP_ITERATIONS = 20;
+
+    private static final int COLD_ITERATIONS = 100;
+
+    private Path root;
+
+    private String sourcePath;
+
+    private File repositoryFile;
+
+    private EnrichmentContext context;
+
+    private FindByIdResourceMethodHandler resourceMethodHandler;
+
+    private ClassOrInterfaceDeclaration repository;
+
+    private ClassOrInterfaceType domainClass;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        root = Files.createTempDirectory("handler-benchmark");
+        sourcePath = RepositoryTreeGenerator.generate(root, REPOSITORIES).toString();
+        repositoryFile = RepositoryTreeGenerator.getRepositoryFile(root.resolve(RepositoryTreeGenerator.ROOT_PACKAGE),
+                0).toFile();
+    }
+
+    @Setup(Level.Iteration)
+    public void createContext() {
+        context = EnricherBenchmark.createContext(root, sourcePath);
+        CompilationUnit compilationUnit = context.getCompilationUnitCache().get(repositoryFile);
+        resourceMethodHandler = new FindByIdResourceMethodHandler(repositoryFile.getPath(), sourcePath,
+                ResourceHandler.getBaseSourcePath(compilationUnit, sourcePath), compilationUnit, context);
+        repository = compilationUnit.getType(0).asClassOrInterfaceDeclaration();
+        domainClass = resourceMethodHandler.getDomainClass(repository);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        EnricherBenchmark.delete(root);
+    }
+
+    @Benchmark
+    public CompilationUnit parse() {
+        return context.getCompilationUnitCache().get(repositoryFile);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = COLD_WARMUP_ITERATIONS)
+    @Measurement(iterations = COLD_ITERATIONS)
+    public CompilationUnit parseCold(ColdContext coldContext) {
+        return coldContext.context.getCompilationUnitCache().get(coldContext.domainClassFile);
+    }
+
+    @Benchmark
+    public ClassOrInterfaceType getDomainClass() {
+        return resourceMethodHandler.getDomainClass(repository);
+    }
+
+    @Benchmark
+    public MethodDeclaration findClosestMethod() {
+        return resourceMethodHandler.findClosestMethod(repository, "findById", "String");
+    }
+
+    @Benchmark
+    public String getTypeSummary() {
+        return resourceMethodHandler.getTypeSummary(repository.findCompilationUnit().get(), domainClass);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = COLD_WARMUP_ITERATIONS)
+    @Measurement(iterations = COLD_ITERATIONS)
+    public String getTypeSummaryCold(ColdContext coldContext) {
+        return coldContext.resourceMethodHandler.getTypeSummary(coldContext.compilationUnit,
+                coldContext.domainClass);
+    }
+
+    @Benchmark
+    public void addResourceAnnotations() {
+        CompilationUnit compilationUnit = context.getCompilationUnitCache().get(repositoryFile);
+        new DomainResourceHandler(repositoryFile.getPath(), sourcePath,
+                ResourceHandler.getBaseSourcePath(compilationUnit, sourcePath), compilationUnit, context,
+                false, null, null).addResourceAnnotations();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = COLD_WARMUP_ITERATIONS)
+    @Measurement(iterations = COLD_ITERATIONS)
+    public void addResourceAnnotationsCold(ColdContext coldContext) {
+        new DomainResourceHandler(repositoryFile.getPath(), sourcePath,
+                ResourceHandler.getBaseSourcePath(coldContext.compilationUnit, sourcePath),
+                coldContext.compilationUnit, coldContext.context, false, null, null).addResourceAnnotations();
+    }
+
+    /**
+     * A fresh context for each iteration of a cold benchmark running a single invocation per iteration.
+     */
+    @State(Scope.Thread)
+    public static class ColdContext {
+
+        private EnrichmentContext context;
+
+        private CompilationUnit compilationUnit;
+
+        private FindByIdResourceMethodHandler resourceMethodHandler;
+
+        private ClassOrInterfaceType domainClass;
+
+        private File domainClassFile;
+
+        @Setup(Level.Iteration)
+        public void createContext(HandlerBenchmark benchmark) {
+            context = EnricherBenchmark.createContext(benchmark.root, benchmark.sourcePath);
+            compilationUnit = context.getCompilationUnitCache().get(benchmark.repositoryFile);
+            resourceMethodHandler = new FindByIdResourceMethodHandler(benchmark.repositoryFile.getPath(),
+                    benchmark.sourcePath, ResourceHandler.getBaseSourcePath(compilationUnit, benchmark.sourcePath),
+                    compilationUnit, context);
+            domainClass = resourceMethodHandler.getDomainClass(compilationUnit.getType(0).
+                    asClassOrInterfaceDeclaration());
+            domainClassFile = resourceMethodHandler.getSourceFile(compilationUnit, domainClass);
+        }
+    }
+}
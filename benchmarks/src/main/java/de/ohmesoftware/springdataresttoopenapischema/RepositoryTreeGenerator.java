@@ -0,0 +1,140 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates a source tree with Spring Data REST repositories for the benchmarks.
+ * <p>
+ * For each repository a domain class with Javadoc is created. Every second repository extends a common generic
+ * repository, the others extend the <code>PagingAndSortingRepository</code> directly. All repositories declare a
+ * custom finder.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class RepositoryTreeGenerator {
+
+    /**
+     * The root package of the generated sources.
+     */
+    public static final String ROOT_PACKAGE = "bench";
+
+    private static final String MODEL_PACKAGE = ROOT_PACKAGE + ".model";
+
+    private static final String REPOSITORY_PACKAGE = ROOT_PACKAGE + ".repository";
+
+    private static final String BASE_REPOSITORY = "BaseRepository";
+
+    private RepositoryTreeGenerator() {
+    }
+
+    /**
+     * Generates the source tree.
+     *
+     * @param root         The directory for the source tree.
+     * @param repositories The number of repositories.
+     * @return the source path to enrich. This is the directory of the root package, because the base path of the
+     * Java sources is derived from the overlap of the source path with the package name.
+     * @throws IOException if the files cannot be written.
+     */
+    public static Path generate(Path root, int repositories) throws IOException {
+        Path sourcePath = root.resolve(ROOT_PACKAGE);
+        Path modelDir = Files.createDirectories(root.resolve(MODEL_PACKAGE.replace('.', '/')));
+        Path repositoryDir = Files.createDirectories(root.resolve(REPOSITORY_PACKAGE.replace('.', '/')));
+        write(repositoryDir.resolve(BASE_REPOSITORY + ".java"), String.join("\n",
+                "package " + REPOSITORY_PACKAGE + ";",
+                "",
+                "import org.springframework.data.repository.NoRepositoryBean;",
+                "import org.springframework.data.repository.PagingAndSortingRepository;",
+                "",
+                "import java.util.Optional;",
+                "",
+                "/**",
+                " * Common repository.",
+                " */",
+                "@NoRepositoryBean",
+                "public interface " + BASE_REPOSITORY + "<T> extends PagingAndSortingRepository<T, String> {",
+                "",
+                "    Optional<T> findById(String id);",
+                "}",
+                ""));
+        for (int i = 0; i < repositories; i++) {
+            String domainClass = getDomainClassName(i);
+            write(modelDir.resolve(domainClass + ".java"), String.join("\n",
+                    "package " + MODEL_PACKAGE + ";",
+                    "",
+                    "/**",
+                    " * Entity number " + i + ".",
+                    " */",
+                    "public class " + domainClass + " {",
+                    "",
+                    "    /**",
+                    "     * The id.",
+                    "     */",
+                    "    private String id;",
+                    "",
+                    "    /**",
+                    "     * The name.",
+                    "     */",
+                    "    private String name;",
+                    "}",
+                    ""));
+            String supertype = i % 2 == 0 ? BASE_REPOSITORY + "<" + domainClass + ">" :
+                    "PagingAndSortingRepository<" + domainClass + ", String>";
+            String finder = String.join("\n",
+                    "",
+                    "    /**",
+                    "     * Finds by name.",
+                    "     *",
+                    "     * @param name The name.",
+                    "     * @return the found entities.",
+                    "     */",
+                    "    List<" + domainClass + "> findByName(String name);");
+            write(repositoryDir.resolve(getRepositoryName(i) + ".java"), String.join("\n",
+                    "package " + REPOSITORY_PACKAGE + ";",
+                    "",
+                    "import " + MODEL_PACKAGE + "." + domainClass + ";",
+                    "import org.springframework.data.repository.PagingAndSortingRepository;",
+                    "import org.springframework.data.rest.core.annotation.RepositoryRestResource;",
+                    "",
+                    "import java.util.List;",
+                    "",
+                    "/**",
+                    " * Repository for entity number " + i + ".",
+                    " */",
+                    "@RepositoryRestResource(path = \"entities" + i + "\")",
+                    "public interface " + getRepositoryName(i) + " extends " + supertype + " {",
+                    finder,
+                    "}",
+                    ""));
+        }
+        return sourcePath;
+    }
+
+    /**
+     * Gets the source file of a generated repository.
+     *
+     * @param sourcePath The source path returned by {@link #generate(Path, int)}.
+     * @param index      The number of the repository.
+     * @return the source file.
+     */
+    public static Path getRepositoryFile(Path sourcePath, int index) {
+        return sourcePath.resolve("repository").resolve(getRepositoryName(index) + ".java");
+    }
+
+    private static String getDomainClassName(int index) {
+        return "Entity" + index;
+    }
+
+    private static String getRepositoryName(int index) {
+        return getDomainClassName(index) + "Repository";
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
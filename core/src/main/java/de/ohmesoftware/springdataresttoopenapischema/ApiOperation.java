@@ -0,0 +1,361 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.ArrayInitializerExpr;
+import com.github.javaparser.ast.expr.BooleanLiteralExpr;
+import com.github.javaparser.ast.expr.ClassExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.IntegerLiteralExpr;
+import com.github.javaparser.ast.expr.MemberValuePair;
+import com.github.javaparser.ast.expr.NormalAnnotationExpr;
+import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * An operation of the REST API as described by the annotations of an enriched repository.
+ * <p>
+ * The JAX-RS annotations give the HTTP method and the path, the <code>Operation</code> annotation the OpenAPI
+ * description. The members of the <code>Operation</code> annotation are kept as tree of maps, lists and values named
+ * like the annotation members.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class ApiOperation {
+
+    private static final String VALUE = "value";
+
+    private static final String PARAMETERS = "parameters";
+
+    private static final String NAME = "name";
+
+    private static final String IN = "in";
+
+    private static final String HIDDEN = "hidden";
+
+    private static final String REF = "ref";
+
+    private static final String SCHEMA = "schema";
+
+    private static final String ARRAY = "array";
+
+    private static final String IMPLEMENTATION = "implementation";
+
+    private static final String COMPONENTS_SCHEMAS = "#/components/schemas/";
+
+    private static final String PAGE = "Page";
+
+    private static final String[] HTTP_METHOD_CLASSES = {ResourceMethodHandler.JAXRS_GET_CLASS,
+            ResourceMethodHandler.JAXRS_POST_CLASS, ResourceMethodHandler.JAXRS_PUT_CLASS,
+            ResourceMethodHandler.JAXRS_PATCH_CLASS, ResourceMethodHandler.JAXRS_DELETE_CLASS};
+
+    /**
+     * The fully qualified name of the repository.
+     */
+    private final String repository;
+
+    /**
+     * The HTTP method in lower case.
+     */
+    private final String method;
+
+    private final String path;
+
+    private final List<String> tags;
+
+    /**
+     * The members of the <code>Operation</code> annotation with the parameters of the method added.
+     */
+    private final Map<String, Object> operation;
+
+    /**
+     * The fully qualified names of the types referenced by the schemas of the operation by their names as written.
+     */
+    private final Map<String, String> types;
+
+    ApiOperation(String repository, String method, String path, List<String> tags,
+                 Map<String, Object> operation, Map<String, String> types) {
+        this.repository = repository;
+        this.method = method;
+        this.path = path;
+        this.tags = tags;
+        this.operation = operation;
+        this.types = types;
+    }
+
+    /**
+     * Collects the operations of the repositories of an enriched compilation unit.
+     * <p>
+     * The operations of the extended interfaces with source code are also collected, e.g. the update methods of the
+     * custom repository interface. Their paths are relative to the path of the repository. A method declared by the
+     * repository takes precedence over an extended method with the same HTTP method and path.
+     * </p>
+     *
+     * @param compilationUnit The enriched compilation unit.
+     * @param typeLoader      Loads the compilation unit of a fully qualified type name or returns <code>null</code>
+     *                        if there is no source code.
+     * @return the operations.
+     */
+    public static List<ApiOperation> collect(CompilationUnit compilationUnit,
+                                             Function<String, CompilationUnit> typeLoader) {
+        List<ApiOperation> operations = new ArrayList<>();
+        String _package = compilationUnit.getPackageDeclaration().map(p -> p.getName().asString() +
+                ResourceHandler.DOT).orElse(ResourceHandler.EMPTY_STRING);
+        for (ClassOrInterfaceDeclaration classOrInterfaceDeclaration :
+                compilationUnit.findAll(ClassOrInterfaceDeclaration.class)) {
+            Optional<String> resourcePath = getStringMember(classOrInterfaceDeclaration,
+                    ResourceHandler.JAXRS_PATH_CLASS, VALUE);
+            if (!resourcePath.isPresent() || isCustomInterface(classOrInterfaceDeclaration)) {
+                continue;
+            }
+            String repository = _package + classOrInterfaceDeclaration.getNameAsString();
+            List<String> tags = getStringMember(classOrInterfaceDeclaration, ResourceHandler.TAG_CLASS,
+                    ResourceHandler.TAG_NAME).map(Collections::singletonList).orElse(Collections.emptyList());
+            Set<String> keys = new HashSet<>();
+            Set<String> visited = new HashSet<>();
+            collect(classOrInterfaceDeclaration, typeLoader, repository, resourcePath.get(), tags, keys, visited,
+                    operations);
+        }
+        return operations;
+    }
+
+    private static void collect(ClassOrInterfaceDeclaration classOrInterfaceDeclaration,
+                                Function<String, CompilationUnit> typeLoader, String repository, String resourcePath,
+                                List<String> tags, Set<String> keys, Set<String> visited,
+                                List<ApiOperation> operations) {
+        for (MethodDeclaration methodDeclaration : classOrInterfaceDeclaration.getMethods()) {
+            String method = getHttpMethod(methodDeclaration);
+            Optional<AnnotationExpr> operationAnnotation = getAnnotation(methodDeclaration,
+                    ResourceMethodHandler.OPERATION_ANNOTATION_CLASS);
+            if (method == null || !operationAnnotation.isPresent()) {
+                continue;
+            }
+            String path = resourcePath + getStringMember(methodDeclaration, ResourceHandler.JAXRS_PATH_CLASS, VALUE).
+                    orElse(ResourceHandler.EMPTY_STRING);
+            if (!keys.add(method + ResourceHandler.SPACE_STRING + path)) {
+                continue;
+            }
+            Map<String, Object> operation = toMap(operationAnnotation.get());
+            List<Object> parameters = new ArrayList<>();
+            Object operationParameters = operation.get(PARAMETERS);
+            if (operationParameters instanceof List) {
+                parameters.addAll((List<?>) operationParameters);
+            }
+            for (Parameter parameter : methodDeclaration.getParameters()) {
+                Map<String, Object> methodParameter = getParameter(parameter);
+                if (methodParameter != null) {
+                    parameters.add(methodParameter);
+                }
+            }
+            if (!parameters.isEmpty()) {
+                operation.put(PARAMETERS, parameters);
+            }
+            operations.add(new ApiOperation(repository, method, path, tags, operation,
+                    getTypes(operationAnnotation.get(), classOrInterfaceDeclaration.findCompilationUnit().get())));
+        }
+        CompilationUnit compilationUnit = classOrInterfaceDeclaration.findCompilationUnit().get();
+        for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
+            String className;
+            try {
+                className = ResourceHandler.getFullClassName(compilationUnit, extent);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            if (!visited.add(className)) {
+                continue;
+            }
+            CompilationUnit extendedCompilationUnit = typeLoader.apply(className);
+            if (extendedCompilationUnit == null) {
+                continue;
+            }
+            extendedCompilationUnit.getInterfaceByName(ResourceHandler.getSimpleNameFromClass(className)).ifPresent(
+                    c -> collect(c, typeLoader, repository, resourcePath, tags, keys, visited, operations));
+        }
+    }
+
+    /**
+     * Resolves the types of the class literals of an annotation and the domain types of referenced page schemas.
+     */
+    private static Map<String, String> getTypes(AnnotationExpr annotationExpr, CompilationUnit compilationUnit) {
+        Map<String, String> types = new LinkedHashMap<>();
+        for (ClassExpr classExpr : annotationExpr.findAll(ClassExpr.class)) {
+            if (classExpr.getType().isClassOrInterfaceType()) {
+                putType(types, compilationUnit, classExpr.getType().asString());
+            }
+        }
+        for (StringLiteralExpr stringLiteralExpr : annotationExpr.findAll(StringLiteralExpr.class)) {
+            String ref = stringLiteralExpr.asString();
+            if (stringLiteralExpr.getParentNode().filter(p -> p instanceof MemberValuePair &&
+                    ((MemberValuePair) p).getNameAsString().equals(REF)).isPresent() &&
+                    ref.startsWith(COMPONENTS_SCHEMAS + PAGE)) {
+                putType(types, compilationUnit, ref.substring(COMPONENTS_SCHEMAS.length() + PAGE.length()));
+            }
+        }
+        return types;
+    }
+
+    private static void putType(Map<String, String> types, CompilationUnit compilationUnit, String className) {
+        try {
+            types.put(className, ResourceHandler.getFullClassName(compilationUnit, className));
+        } catch (RuntimeException e) {
+            // not resolvable, e.g. a type of a wildcard import
+        }
+    }
+
+    /**
+     * A custom interface has no annotations of a repository, but might carry the path of the repository.
+     */
+    private static boolean isCustomInterface(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+        return !getAnnotation(classOrInterfaceDeclaration, ResourceHandler.TAG_CLASS).isPresent();
+    }
+
+    private static String getHttpMethod(MethodDeclaration methodDeclaration) {
+        for (String httpMethodClass : HTTP_METHOD_CLASSES) {
+            if (getAnnotation(methodDeclaration, httpMethodClass).isPresent()) {
+                return ResourceHandler.getSimpleNameFromClass(httpMethodClass).toLowerCase();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the JAX-RS parameter of a method parameter with the members of its <code>Parameter</code> annotation.
+     *
+     * @return the parameter or <code>null</code> if not a JAX-RS parameter or hidden.
+     */
+    private static Map<String, Object> getParameter(Parameter parameter) {
+        String in = null;
+        Optional<String> name = getStringMember(parameter, ResourceMethodHandler.JAXRS_PATH_PARAM_CLASS, VALUE);
+        if (name.isPresent()) {
+            in = "path";
+        } else {
+            name = getStringMember(parameter, ResourceMethodHandler.JAXRS_QUERY_PARAM_CLASS, VALUE);
+            if (name.isPresent()) {
+                in = "query";
+            }
+        }
+        if (in == null) {
+            return null;
+        }
+        Map<String, Object> methodParameter = new LinkedHashMap<>();
+        methodParameter.put(NAME, name.get());
+        methodParameter.put(IN, in);
+        getAnnotation(parameter, ResourceMethodHandler.PARAMETER_CLASS).ifPresent(
+                a -> toMap(a).forEach(methodParameter::putIfAbsent));
+        if (!methodParameter.containsKey(SCHEMA) && !methodParameter.containsKey(ARRAY)) {
+            methodParameter.put(SCHEMA, Collections.singletonMap(IMPLEMENTATION, parameter.getType().asString()));
+        }
+        if (Boolean.TRUE.equals(methodParameter.get(HIDDEN))) {
+            return null;
+        }
+        return methodParameter;
+    }
+
+    /**
+     * Gets an annotation by its fully qualified or simple name.
+     */
+    private static Optional<AnnotationExpr> getAnnotation(NodeWithAnnotations<?> node, String annotationClass) {
+        String simpleName = ResourceHandler.getSimpleNameFromClass(annotationClass);
+        return node.getAnnotations().stream().filter(a -> a.getName().getIdentifier().equals(simpleName)).
+                findFirst();
+    }
+
+    private static Optional<String> getStringMember(NodeWithAnnotations<?> node, String annotationClass,
+                                                    String member) {
+        return getAnnotation(node, annotationClass).map(a -> toMap(a).get(member)).filter(v -> v instanceof String).
+                map(v -> (String) v);
+    }
+
+    /**
+     * Converts the members of an annotation. A single member annotation has the member <code>value</code>.
+     *
+     * @param annotationExpr The annotation.
+     * @return the member values by name.
+     */
+    static Map<String, Object> toMap(AnnotationExpr annotationExpr) {
+        Map<String, Object> members = new LinkedHashMap<>();
+        if (annotationExpr instanceof NormalAnnotationExpr) {
+            for (MemberValuePair pair : ((NormalAnnotationExpr) annotationExpr).getPairs()) {
+                members.put(pair.getNameAsString(), toValue(pair.getValue()));
+            }
+        } else if (annotationExpr instanceof SingleMemberAnnotationExpr) {
+            members.put(VALUE, toValue(((SingleMemberAnnotationExpr) annotationExpr).getMemberValue()));
+        }
+        return members;
+    }
+
+    /**
+     * Converts an annotation member value. Class literals are converted to the class name as written, enum constants
+     * to their name.
+     */
+    private static Object toValue(Expression expression) {
+        if (expression instanceof StringLiteralExpr) {
+            return ((StringLiteralExpr) expression).asString();
+        }
+        if (expression instanceof BooleanLiteralExpr) {
+            return ((BooleanLiteralExpr) expression).getValue();
+        }
+        if (expression instanceof IntegerLiteralExpr) {
+            return ((IntegerLiteralExpr) expression).asInt();
+        }
+        if (expression instanceof ClassExpr) {
+            return ((ClassExpr) expression).getType().asString();
+        }
+        if (expression instanceof FieldAccessExpr) {
+            return ((FieldAccessExpr) expression).getNameAsString();
+        }
+        if (expression instanceof AnnotationExpr) {
+            return toMap((AnnotationExpr) expression);
+        }
+        if (expression instanceof ArrayInitializerExpr) {
+            List<Object> values = new ArrayList<>();
+            for (Expression value : ((ArrayInitializerExpr) expression).getValues()) {
+                values.add(toValue(value));
+            }
+            return values;
+        }
+        return expression.toString();
+    }
+
+    public String getRepository() {
+        return repository;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public Map<String, Object> getOperation() {
+        return operation;
+    }
+
+    public Map<String, String> getTypes() {
+        return types;
+    }
+}
@@ -0,0 +1,283 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks the annotations and members removed and added again by the handlers and keeps the parsed nodes which end up
+ * unchanged.
+ * <p>
+ * This is no single pass diff: the handlers still remove all annotations and generated methods they are responsible
+ * for and add the desired ones, also in the parent and custom repository interfaces of a repository, so the
+ * declarations are still changed in each run. While tracking, the handlers report each declaration or parameter before
+ * changing its annotations and each type before changing its members. Afterwards an added annotation printed as an
+ * original annotation of the same node is replaced by the original one, and a generated method added again is
+ * replaced by the removed original method if it differs only by its annotations. So only annotations which were
+ * really added, replaced or removed differ from the parsed compilation unit, unchanged code keeps its parsed nodes
+ * and is copied from the source by the {@link FormattingPreservingPrinter}, and a source file is only saved if it has
+ * changed.
+ * </p>
+ * <p>
+ * The handlers create the annotations differently than the parser, e.g. a string value as name, so annotations are
+ * compared by their printed code. The state is kept per thread, a repository is enriched by a single thread.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class ChangeTracker {
+
+    private final ThreadLocal<State> state = new ThreadLocal<>();
+
+    /**
+     * Starts tracking the changes of the current thread.
+     */
+    public void start() {
+        state.set(new State());
+    }
+
+    /**
+     * Stops tracking without restoring the parsed nodes, e.g. after an error.
+     */
+    public void stop() {
+        state.remove();
+    }
+
+    /**
+     * Reports a declaration or parameter before its annotations are changed. Nothing is recorded if not tracking.
+     *
+     * @param node The declaration or parameter.
+     * @param <N>  The node type.
+     * @return the node.
+     */
+    public <N extends NodeWithAnnotations<?>> N beforeAnnotationChange(N node) {
+        State state = this.state.get();
+        if (state != null) {
+            state.annotations.computeIfAbsent((Node) node, n -> new ArrayList<>(node.getAnnotations()));
+        }
+        return node;
+    }
+
+    /**
+     * Reports a type before members are added to it or removed from it. Nothing is recorded if not tracking.
+     *
+     * @param type The type.
+     */
+    public void beforeMemberChange(TypeDeclaration<?> type) {
+        State state = this.state.get();
+        if (state != null) {
+            state.members.computeIfAbsent(type, t -> new ArrayList<>(type.getMembers()));
+        }
+    }
+
+    /**
+     * Reports a member before it is removed from its type. Nothing is recorded if not tracking.
+     *
+     * @param member The member.
+     */
+    public void beforeRemove(BodyDeclaration<?> member) {
+        State state = this.state.get();
+        if (state == null) {
+            return;
+        }
+        member.getParentNode().filter(p -> p instanceof TypeDeclaration).ifPresent(p -> {
+            beforeMemberChange((TypeDeclaration<?>) p);
+            state.removedMembers.computeIfAbsent((TypeDeclaration<?>) p, t -> new ArrayList<>()).add(member);
+        });
+        beforeAnnotationChange(member);
+        if (member.isCallableDeclaration()) {
+            CallableDeclaration<?> callableDeclaration = member.asCallableDeclaration();
+            for (Parameter parameter : callableDeclaration.getParameters()) {
+                beforeAnnotationChange(parameter);
+            }
+        }
+    }
+
+    /**
+     * Reports a change not tracked by annotations or members, e.g. a removed import or an added extended type.
+     * Nothing is recorded if not tracking.
+     *
+     * @param node The changed node.
+     */
+    public void changed(Node node) {
+        State state = this.state.get();
+        if (state != null) {
+            node.findCompilationUnit().ifPresent(state.changed::add);
+        }
+    }
+
+    /**
+     * Restores the parsed nodes unchanged by the recorded changes of the current thread and stops tracking.
+     *
+     * @return the compilation units differing from the parsed ones.
+     */
+    public Set<CompilationUnit> finish() {
+        State state = this.state.get();
+        this.state.remove();
+        if (state == null) {
+            return Collections.emptySet();
+        }
+        for (Map.Entry<TypeDeclaration<?>, List<BodyDeclaration<?>>> entry : state.members.entrySet()) {
+            restoreMembers(entry.getKey(), entry.getValue(), state);
+        }
+        for (Map.Entry<Node, List<AnnotationExpr>> entry : state.annotations.entrySet()) {
+            Node node = entry.getKey();
+            // nodes of removed members are restored with their members
+            if (node.findCompilationUnit().isPresent() && !state.restored.containsKey(node) &&
+                    restoreAnnotations((NodeWithAnnotations<?>) node,
+                            new ArrayList<>(((NodeWithAnnotations<?>) node).getAnnotations()), entry.getValue())) {
+                state.changed.add(node.findCompilationUnit().get());
+            }
+        }
+        return state.changed;
+    }
+
+    /**
+     * Replaces the added members differing only by their annotations from a removed member by the removed member.
+     */
+    private static void restoreMembers(TypeDeclaration<?> type, List<BodyDeclaration<?>> originals, State state) {
+        Set<Node> originalMembers = Collections.newSetFromMap(new IdentityHashMap<>());
+        originalMembers.addAll(originals);
+        List<BodyDeclaration<?>> removed = new ArrayList<>(state.removedMembers.getOrDefault(type,
+                Collections.emptyList()));
+        for (BodyDeclaration<?> member : new ArrayList<>(type.getMembers())) {
+            if (originalMembers.contains(member)) {
+                continue;
+            }
+            BodyDeclaration<?> original = removed.stream().filter(r -> isEqualWithoutAnnotations(r, member)).
+                    findFirst().orElse(null);
+            if (original == null) {
+                continue;
+            }
+            removed.removeIf(r -> r == original);
+            member.replace(original);
+            boolean changed = restoreAnnotations(original, new ArrayList<>(member.getAnnotations()),
+                    getOriginalAnnotations(original, state));
+            state.restored.put(original, Boolean.TRUE);
+            if (member.isCallableDeclaration()) {
+                CallableDeclaration<?> callableDeclaration = member.asCallableDeclaration();
+                CallableDeclaration<?> originalCallableDeclaration = original.asCallableDeclaration();
+                List<Parameter> parameters = callableDeclaration.getParameters();
+                List<Parameter> originalParameters = originalCallableDeclaration.getParameters();
+                for (int i = 0; i < parameters.size(); i++) {
+                    changed |= restoreAnnotations(originalParameters.get(i), new ArrayList<>(parameters.get(i).
+                            getAnnotations()), getOriginalAnnotations(originalParameters.get(i), state));
+                    state.restored.put(originalParameters.get(i), Boolean.TRUE);
+                }
+            }
+            if (changed) {
+                type.findCompilationUnit().ifPresent(state.changed::add);
+            }
+        }
+        if (!isSame(type.getMembers(), originals)) {
+            type.findCompilationUnit().ifPresent(state.changed::add);
+        }
+    }
+
+    private static List<AnnotationExpr> getOriginalAnnotations(NodeWithAnnotations<?> node, State state) {
+        List<AnnotationExpr> annotations = state.annotations.get((Node) node);
+        return annotations != null ? annotations : new ArrayList<>(node.getAnnotations());
+    }
+
+    /**
+     * Sets the desired annotations of a node taking the original annotation for each annotation printed the same.
+     *
+     * @return <code>true</code> if the annotations differ from the original annotations.
+     */
+    private static boolean restoreAnnotations(NodeWithAnnotations<?> node, List<AnnotationExpr> desired,
+                                                List<AnnotationExpr> originals) {
+        List<AnnotationExpr> unmatched = new ArrayList<>(originals);
+        NodeList<AnnotationExpr> annotations = new NodeList<>();
+        for (AnnotationExpr annotation : desired) {
+            AnnotationExpr original = unmatched.stream().filter(o -> o.getName().equals(annotation.getName()) &&
+                    (o.equals(annotation) || o.toString().equals(annotation.toString()))).findFirst().orElse(null);
+            if (original != null) {
+                unmatched.remove(original);
+                annotations.add(original);
+            } else {
+                annotations.add(annotation);
+            }
+        }
+        if (!isSame(annotations, node.getAnnotations())) {
+            node.setAnnotations(annotations);
+        }
+        return !isSame(annotations, originals);
+    }
+
+    private static boolean isEqualWithoutAnnotations(BodyDeclaration<?> original, BodyDeclaration<?> member) {
+        if (original.getClass() != member.getClass()) {
+            return false;
+        }
+        return removeAnnotations(original).equals(removeAnnotations(member));
+    }
+
+    private static BodyDeclaration<?> removeAnnotations(BodyDeclaration<?> declaration) {
+        BodyDeclaration<?> copy = declaration.clone();
+        copy.setAnnotations(new NodeList<>());
+        if (copy.isCallableDeclaration()) {
+            CallableDeclaration<?> callableDeclaration = copy.asCallableDeclaration();
+            callableDeclaration.getParameters().forEach(p -> p.setAnnotations(new NodeList<>()));
+        }
+        return copy;
+    }
+
+    /**
+     * Checks if two lists contain the same nodes in the same order.
+     */
+    private static boolean isSame(List<? extends Node> nodes, List<? extends Node> others) {
+        if (nodes.size() != others.size()) {
+            return false;
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i) != others.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The changes recorded by a thread.
+     */
+    private static class State {
+
+        /**
+         * The original annotations by reported declaration or parameter.
+         */
+        private final Map<Node, List<AnnotationExpr>> annotations = new IdentityHashMap<>();
+
+        /**
+         * The original members by reported type.
+         */
+        private final Map<TypeDeclaration<?>, List<BodyDeclaration<?>>> members = new IdentityHashMap<>();
+
+        /**
+         * The removed members by type.
+         */
+        private final Map<TypeDeclaration<?>, List<BodyDeclaration<?>>> removedMembers = new IdentityHashMap<>();
+
+        /**
+         * The nodes of removed members already restored.
+         */
+        private final Map<Node, Boolean> restored = new IdentityHashMap<>();
+
+        /**
+         * The compilation units differing from the parsed ones.
+         */
+        private final Set<CompilationUnit> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+}
@@ -0,0 +1,534 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lightweight reader of the header of a class file.
+ * <p>
+ * Only the constant pool, the access flags, the supertypes, the generic signature and the annotations of the class are
+ * read. Fields and methods are skipped. The class is not loaded into the JVM, so reading a class does neither need
+ * its dependencies nor run static initializers.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_INTERFACE = 0x0200;
+
+    private static final int ACC_ENUM = 0x4000;
+
+    private static final String SIGNATURE = "Signature";
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private static final String RUNTIME_INVISIBLE_ANNOTATIONS = "RuntimeInvisibleAnnotations";
+
+    private static final String ANNOTATION_VALUE = "value";
+
+    /**
+     * The erasure of a wild card type argument.
+     */
+    static final String OBJECT = "java.lang.Object";
+
+    private final DataInputStream input;
+
+    /**
+     * The constants of the constant pool: the strings of UTF-8 entries, the values of integer entries and the name
+     * indices of class entries.
+     */
+    private Object[] constants;
+
+    private ClassFileReader(byte[] bytes) {
+        this.input = new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Reads the header of a class file.
+     *
+     * @param bytes The content of the class file.
+     * @return the header.
+     * @throws IOException if the content is not a valid class file.
+     */
+    public static ClassHeader read(byte[] bytes) throws IOException {
+        return new ClassFileReader(bytes).read();
+    }
+
+    private ClassHeader read() throws IOException {
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a class file.");
+        }
+        // minor and major version
+        input.readUnsignedShort();
+        input.readUnsignedShort();
+        readConstantPool();
+        int accessFlags = input.readUnsignedShort();
+        String name = getClassName(input.readUnsignedShort());
+        int superclassIndex = input.readUnsignedShort();
+        String superclass = superclassIndex == 0 ? null : getClassName(superclassIndex);
+        int interfaceCount = input.readUnsignedShort();
+        List<String> interfaces = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces.add(getClassName(input.readUnsignedShort()));
+        }
+        // fields and methods
+        for (int members = 0; members < 2; members++) {
+            int memberCount = input.readUnsignedShort();
+            for (int i = 0; i < memberCount; i++) {
+                skip(6);
+                skipAttributes();
+            }
+        }
+        String signature = null;
+        Map<String, Map<String, List<String>>> annotations = new LinkedHashMap<>();
+        int attributeCount = input.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = (String) constants[input.readUnsignedShort()];
+            int length = input.readInt();
+            if (SIGNATURE.equals(attributeName)) {
+                signature = (String) constants[input.readUnsignedShort()];
+            } else if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName) ||
+                    RUNTIME_INVISIBLE_ANNOTATIONS.equals(attributeName)) {
+                int annotationCount = input.readUnsignedShort();
+                for (int j = 0; j < annotationCount; j++) {
+                    readAnnotation(annotations);
+                }
+            } else {
+                skip(length);
+            }
+        }
+        List<String> typeParameters = new ArrayList<>();
+        List<GenericType> genericSupertypes = new ArrayList<>();
+        if (signature != null) {
+            new SignatureParser(signature).parseClassSignature(typeParameters, genericSupertypes);
+        } else {
+            if (superclass != null) {
+                genericSupertypes.add(new GenericType(superclass, Collections.emptyList()));
+            }
+            interfaces.forEach(i -> genericSupertypes.add(new GenericType(i, Collections.emptyList())));
+        }
+        genericSupertypes.removeIf(t -> OBJECT.equals(t.getClassName()));
+        return new ClassHeader(name, superclass, interfaces, (accessFlags & ACC_INTERFACE) != 0,
+                (accessFlags & ACC_ENUM) != 0, typeParameters, genericSupertypes, annotations);
+    }
+
+    private void readConstantPool() throws IOException {
+        int count = input.readUnsignedShort();
+        constants = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = input.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    constants[i] = input.readUTF();
+                    break;
+                case 3:
+                    constants[i] = input.readInt();
+                    break;
+                case 7:
+                    // resolved by getClassName
+                    constants[i] = new int[]{input.readUnsignedShort()};
+                    break;
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    skip(2);
+                    break;
+                case 15:
+                    skip(3);
+                    break;
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    skip(4);
+                    break;
+                case 5:
+                case 6:
+                    // takes two entries
+                    skip(8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException(String.format("Unknown constant pool tag: %d", tag));
+            }
+        }
+    }
+
+    private String getClassName(int classIndex) {
+        return toClassName((String) constants[((int[]) constants[classIndex])[0]]);
+    }
+
+    /**
+     * Converts an internal name, e.g. <code>java/util/Map$Entry</code>, to a class name as used in source code.
+     */
+    private static String toClassName(String internalName) {
+        return internalName.replace('/', '.').replace('$', '.');
+    }
+
+    private void skipAttributes() throws IOException {
+        int attributeCount = input.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            skip(2);
+            skip(input.readInt());
+        }
+    }
+
+    private void skip(int bytes) throws IOException {
+        if (input.skipBytes(bytes) != bytes) {
+            throw new IOException("Unexpected end of class file.");
+        }
+    }
+
+    private void readAnnotation(Map<String, Map<String, List<String>>> annotations) throws IOException {
+        String descriptor = (String) constants[input.readUnsignedShort()];
+        Map<String, List<String>> elements = new LinkedHashMap<>();
+        int pairCount = input.readUnsignedShort();
+        for (int i = 0; i < pairCount; i++) {
+            String elementName = (String) constants[input.readUnsignedShort()];
+            List<String> values = new ArrayList<>();
+            readElementValue(values);
+            elements.put(elementName, values);
+        }
+        annotations.put(toClassName(descriptor.substring(1, descriptor.length() - 1)), elements);
+    }
+
+    /**
+     * Reads an element value of an annotation. Constants, enum constants and classes are added as strings, nested
+     * annotations are skipped.
+     */
+    private void readElementValue(List<String> values) throws IOException {
+        int tag = input.readUnsignedByte();
+        switch (tag) {
+            case 's':
+                values.add((String) constants[input.readUnsignedShort()]);
+                break;
+            case 'Z':
+                values.add(String.valueOf(!Integer.valueOf(0).equals(constants[input.readUnsignedShort()])));
+                break;
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+                values.add(String.valueOf(constants[input.readUnsignedShort()]));
+                break;
+            case 'e':
+                skip(2);
+                values.add((String) constants[input.readUnsignedShort()]);
+                break;
+            case 'c':
+                String descriptor = (String) constants[input.readUnsignedShort()];
+                values.add(descriptor.startsWith("L") ?
+                        toClassName(descriptor.substring(1, descriptor.length() - 1)) : descriptor);
+                break;
+            case '@':
+                readAnnotation(new LinkedHashMap<>());
+                break;
+            case '[':
+                int count = input.readUnsignedShort();
+                for (int i = 0; i < count; i++) {
+                    readElementValue(values);
+                }
+                break;
+            default:
+                throw new IOException(String.format("Unknown element value tag: %c", (char) tag));
+        }
+    }
+
+    /**
+     * Parser of a generic class signature. Type arguments are reduced to the erasure of the type, type variables are
+     * kept by name.
+     */
+    private static class SignatureParser {
+
+        private final String signature;
+
+        private int position;
+
+        private SignatureParser(String signature) {
+            this.signature = signature;
+        }
+
+        private void parseClassSignature(List<String> typeParameters, List<GenericType> supertypes) {
+            if (peek() == '<') {
+                position++;
+                while (peek() != '>') {
+                    int colon = signature.indexOf(':', position);
+                    typeParameters.add(signature.substring(position, colon));
+                    position = colon;
+                    // class bound and interface bounds, the class bound may be empty
+                    while (peek() == ':') {
+                        position++;
+                        if (peek() != ':') {
+                            parseFieldType();
+                        }
+                    }
+                }
+                position++;
+            }
+            while (position < signature.length()) {
+                supertypes.add(parseClassType());
+            }
+        }
+
+        private char peek() {
+            return signature.charAt(position);
+        }
+
+        private GenericType parseClassType() {
+            // 'L'
+            position++;
+            StringBuilder name = new StringBuilder();
+            List<String> typeArguments = Collections.emptyList();
+            while (true) {
+                char c = signature.charAt(position++);
+                switch (c) {
+                    case ';':
+                        return new GenericType(toClassName(name.toString()), typeArguments);
+                    case '<':
+                        typeArguments = new ArrayList<>();
+                        while (peek() != '>') {
+                            typeArguments.add(parseTypeArgument());
+                        }
+                        position++;
+                        break;
+                    case '.':
+                        // inner class of a parameterized type, the arguments of the outer type are dropped
+                        name.append('$');
+                        typeArguments = Collections.emptyList();
+                        break;
+                    default:
+                        name.append(c);
+                }
+            }
+        }
+
+        private String parseTypeArgument() {
+            char c = peek();
+            if (c == '*') {
+                position++;
+                return OBJECT;
+            }
+            if (c == '+' || c == '-') {
+                position++;
+                String bound = parseFieldType();
+                return c == '+' ? bound : OBJECT;
+            }
+            return parseFieldType();
+        }
+
+        private String parseFieldType() {
+            char c = peek();
+            switch (c) {
+                case 'L':
+                    return parseClassType().getClassName();
+                case 'T':
+                    int end = signature.indexOf(';', position);
+                    String typeVariable = signature.substring(position + 1, end);
+                    position = end + 1;
+                    return typeVariable;
+                case '[':
+                    position++;
+                    return parseFieldType() + "[]";
+                default:
+                    position++;
+                    return getPrimitiveType(c);
+            }
+        }
+
+        private static String getPrimitiveType(char descriptor) {
+            switch (descriptor) {
+                case 'B':
+                    return "byte";
+                case 'C':
+                    return "char";
+                case 'D':
+                    return "double";
+                case 'F':
+                    return "float";
+                case 'I':
+                    return "int";
+                case 'J':
+                    return "long";
+                case 'S':
+                    return "short";
+                case 'Z':
+                    return "boolean";
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown type descriptor: %c", descriptor));
+            }
+        }
+    }
+
+    /**
+     * A supertype with its type arguments.
+     */
+    public static class GenericType {
+
+        private final String className;
+
+        private final List<String> typeArguments;
+
+        public GenericType(String className, List<String> typeArguments) {
+            this.className = className;
+            this.typeArguments = typeArguments;
+        }
+
+        /**
+         * Gets the fully qualified class name.
+         *
+         * @return the class name.
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Gets the type arguments.
+         *
+         * @return the fully qualified class names of the erasures of the type arguments or the names of type
+         * variables.
+         */
+        public List<String> getTypeArguments() {
+            return typeArguments;
+        }
+    }
+
+    /**
+     * The header of a class file.
+     */
+    public static class ClassHeader {
+
+        private final String name;
+
+        private final String superclass;
+
+        private final List<String> interfaces;
+
+        private final boolean _interface;
+
+        private final boolean _enum;
+
+        private final List<String> typeParameters;
+
+        private final List<GenericType> genericSupertypes;
+
+        /**
+         * The element values of the annotations by fully qualified annotation name and element name.
+         */
+        private final Map<String, Map<String, List<String>>> annotations;
+
+        private ClassHeader(String name, String superclass, List<String> interfaces, boolean _interface,
+                            boolean _enum, List<String> typeParameters, List<GenericType> genericSupertypes,
+                            Map<String, Map<String, List<String>>> annotations) {
+            this.name = name;
+            this.superclass = superclass;
+            this.interfaces = interfaces;
+            this._interface = _interface;
+            this._enum = _enum;
+            this.typeParameters = typeParameters;
+            this.genericSupertypes = genericSupertypes;
+            this.annotations = annotations;
+        }
+
+        /**
+         * Gets the fully qualified class name.
+         *
+         * @return the class name with nested classes separated by dot.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the superclass.
+         *
+         * @return the fully qualified class name or <code>null</code> for <code>java.lang.Object</code>.
+         */
+        public String getSuperclass() {
+            return superclass;
+        }
+
+        public List<String> getInterfaces() {
+            return interfaces;
+        }
+
+        /**
+         * Gets the direct supertypes as used by the {@link TypeIndex}.
+         *
+         * @return the superclass if it is not <code>java.lang.Object</code> followed by the interfaces.
+         */
+        public List<String> getSupertypes() {
+            List<String> supertypes = new ArrayList<>();
+            if (superclass != null && !superclass.equals(OBJECT)) {
+                supertypes.add(superclass);
+            }
+            supertypes.addAll(interfaces);
+            return supertypes;
+        }
+
+        public boolean isInterface() {
+            return _interface;
+        }
+
+        public boolean isEnum() {
+            return _enum;
+        }
+
+        public List<String> getTypeParameters() {
+            return typeParameters;
+        }
+
+        /**
+         * Gets the supertypes with their type arguments.
+         *
+         * @return the superclass followed by the interfaces without <code>java.lang.Object</code>.
+         */
+        public List<GenericType> getGenericSupertypes() {
+            return genericSupertypes;
+        }
+
+        /**
+         * Gets the values of an annotation as by {@link ProjectModel.TypeModel#getAnnotationValues(String)}.
+         *
+         * @param simpleName The simple name of the annotation.
+         * @return the values of the <code>value</code> element or <code>null</code> if the annotation is not
+         * present.
+         */
+        public List<String> getAnnotationValues(String simpleName) {
+            for (Map.Entry<String, Map<String, List<String>>> annotation : annotations.entrySet()) {
+                if (ResourceHandler.getSimpleNameFromClass(annotation.getKey()).equals(simpleName)) {
+                    List<String> values = annotation.getValue().get(ANNOTATION_VALUE);
+                    return values == null ? Collections.emptyList() : values;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Checks if the class is annotated.
+         *
+         * @param simpleName The simple name of the annotation.
+         * @return <code>true</code> if the annotation is present.
+         */
+        public boolean hasAnnotation(String simpleName) {
+            return getAnnotationValues(simpleName) != null;
+        }
+    }
+}
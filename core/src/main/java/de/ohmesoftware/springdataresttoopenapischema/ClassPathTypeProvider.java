@@ -0,0 +1,281 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Provider of the types without source code, e.g. repository interfaces of a shared library or domain classes of a
+ * dependency.
+ * <p>
+ * The types are read from the class files of a class path of jar files and directories by the
+ * {@link ClassFileReader}. No class is loaded into the JVM. The jar files are kept open with the headers read from
+ * them by a {@link JarCache}, either of this provider or shared by all runs of a daemon. A type found in several class
+ * path entries is taken from the first entry. The jar file or class file of a found type is recorded as dependency of
+ * the enriched source file, for a type not found all jar files and the probed class files are recorded, so a changed
+ * class path entry enriches the source file again.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class ClassPathTypeProvider implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassPathTypeProvider.class);
+
+    private static final String CLASS_EXT = ".class";
+
+    private final List<File> entries;
+
+    private final RunMetrics metrics;
+
+    private final Consumer<String> recorder;
+
+    private final JarCache jarCache;
+
+    /**
+     * <code>true</code> if the jar cache is closed with this provider.
+     */
+    private final boolean ownJarCache;
+
+    /**
+     * The looked up types by fully qualified class name.
+     */
+    private final ConcurrentMap<String, LookupResult> types = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param entries The jar files and directories of the class path.
+     * @param metrics The metrics of the run recording the read class files.
+     */
+    public ClassPathTypeProvider(List<File> entries, RunMetrics metrics) {
+        this(entries, null, metrics, f -> {
+        });
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param entries  The jar files and directories of the class path.
+     * @param jarCache The cache of the jar files shared with other providers, e.g. by the runs of a daemon, or
+     *                 <code>null</code> to open the jar files only for this provider until it is closed.
+     * @param metrics  The metrics of the run recording the read class files.
+     * @param recorder The recorder of the canonical paths of the jar files and class files read for a type, e.g.
+     *                 {@link CompilationUnitCache#record(String)}.
+     */
+    public ClassPathTypeProvider(List<File> entries, JarCache jarCache, RunMetrics metrics,
+                                 Consumer<String> recorder) {
+        this.entries = entries;
+        this.ownJarCache = jarCache == null;
+        this.jarCache = jarCache == null ? new JarCache() : jarCache;
+        this.metrics = metrics;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Splits a class path.
+     *
+     * @param classPath The jar files and directories separated by the platform path separator or <code>null</code>.
+     * @return the entries.
+     */
+    public static List<File> parse(String classPath) {
+        List<File> entries = new ArrayList<>();
+        if (classPath == null) {
+            return entries;
+        }
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (!entry.trim().isEmpty()) {
+                entries.add(new File(entry.trim()));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Gets the header of a type.
+     *
+     * @param className The fully qualified class name. Nested classes are separated by dot.
+     * @return the header or <code>null</code> if the type is not on the class path.
+     */
+    public ClassFileReader.ClassHeader getType(String className) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        LookupResult lookupResult = types.computeIfAbsent(className, this::lookup);
+        // also for a cached lookup, each enriched source file records its own dependencies
+        lookupResult.files.forEach(recorder);
+        return lookupResult.classHeader;
+    }
+
+    /**
+     * Gets the direct supertypes of a type as needed by the {@link TypeIndex}.
+     *
+     * @param className The fully qualified class name.
+     * @return the fully qualified class names of the extended types or <code>null</code> if the type is not on the
+     * class path.
+     */
+    public List<String> getSupertypes(String className) {
+        ClassFileReader.ClassHeader classHeader = getType(className);
+        return classHeader == null ? null : classHeader.getSupertypes();
+    }
+
+    /**
+     * Gets the type arguments of a supertype of a type, e.g. the domain and ID type of the Spring Data repository
+     * extended by a shared repository interface. Type variables are replaced by the passed type arguments.
+     *
+     * @param className     The fully qualified class name.
+     * @param typeArguments The type arguments of the type.
+     * @param simpleNames   The simple names of the wanted supertypes.
+     * @return the type arguments of the first wanted supertype or <code>null</code> if the type is not on the class
+     * path or does not extend a wanted supertype with type arguments.
+     */
+    public List<String> getTypeArguments(String className, List<String> typeArguments, Set<String> simpleNames) {
+        return findTypeArguments(className, typeArguments, simpleNames, new HashSet<>());
+    }
+
+    private List<String> findTypeArguments(String className, List<String> typeArguments, Set<String> simpleNames,
+                                           Set<String> visited) {
+        ClassFileReader.ClassHeader classHeader = getType(className);
+        if (classHeader == null || !visited.add(className)) {
+            return null;
+        }
+        Map<String, String> substitutions = new HashMap<>();
+        for (int i = 0; i < classHeader.getTypeParameters().size() && i < typeArguments.size(); i++) {
+            substitutions.put(classHeader.getTypeParameters().get(i), typeArguments.get(i));
+        }
+        for (ClassFileReader.GenericType supertype : classHeader.getGenericSupertypes()) {
+            List<String> supertypeArguments = new ArrayList<>();
+            for (String typeArgument : supertype.getTypeArguments()) {
+                supertypeArguments.add(substitutions.getOrDefault(typeArgument, typeArgument));
+            }
+            if (simpleNames.contains(ResourceHandler.getSimpleNameFromClass(supertype.getClassName())) &&
+                    !supertypeArguments.isEmpty()) {
+                return supertypeArguments;
+            }
+            List<String> found = findTypeArguments(supertype.getClassName(), supertypeArguments, simpleNames,
+                    visited);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private LookupResult lookup(String className) {
+        Set<String> files = new LinkedHashSet<>();
+        for (String classFile : getClassFileNames(className)) {
+            for (File entry : entries) {
+                File file = entry.isDirectory() ? new File(entry, classFile) : entry;
+                files.add(getCanonicalPath(file));
+                ClassFileReader.ClassHeader classHeader = entry.isDirectory() ? readClassHeader(file, metrics) :
+                        jarCache.getType(entry, getCanonicalPath(entry), classFile, b -> readClassHeader(b, classFile,
+                                entry, metrics));
+                if (classHeader != null) {
+                    return new LookupResult(classHeader, Collections.singleton(getCanonicalPath(file)));
+                }
+            }
+        }
+        return new LookupResult(null, files);
+    }
+
+    private static String getCanonicalPath(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    /**
+     * Gets the possible class file names of a class name. The dots of a class name can also separate nested classes.
+     */
+    private static List<String> getClassFileNames(String className) {
+        List<String> classFileNames = new ArrayList<>();
+        String name = className.replace('.', '/');
+        classFileNames.add(name + CLASS_EXT);
+        for (int i = name.lastIndexOf('/'); i > 0; i = name.lastIndexOf('/', i - 1)) {
+            name = name.substring(0, i) + '$' + name.substring(i + 1);
+            classFileNames.add(name + CLASS_EXT);
+        }
+        return classFileNames;
+    }
+
+    private static ClassFileReader.ClassHeader readClassHeader(File file, RunMetrics metrics) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return readClassHeader(Files.readAllBytes(file.toPath()), metrics);
+        } catch (IOException e) {
+            LOGGER.warn(String.format("Could not read class file: %s", file), e);
+            return null;
+        }
+    }
+
+    private static ClassFileReader.ClassHeader readClassHeader(byte[] bytes, RunMetrics metrics) throws IOException {
+        metrics.recordClassFile(bytes.length);
+        try {
+            return ClassFileReader.read(bytes);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid class file.", e);
+        }
+    }
+
+    private static ClassFileReader.ClassHeader readClassHeader(byte[] bytes, String name, File jar,
+                                                               RunMetrics metrics) {
+        try {
+            return readClassHeader(bytes, metrics);
+        } catch (IOException e) {
+            LOGGER.warn(String.format("Could not read class file '%s' of '%s'", name, jar), e);
+            return null;
+        }
+    }
+
+    /**
+     * Closes the jar files opened by this provider. A shared jar cache is closed by its owner.
+     */
+    @Override
+    public void close() {
+        if (ownJarCache) {
+            jarCache.close();
+        }
+    }
+
+    /**
+     * The result of the lookup of a type.
+     */
+    private static class LookupResult {
+
+        /**
+         * The header or <code>null</code> if the type is not on the class path.
+         */
+        private final ClassFileReader.ClassHeader classHeader;
+
+        /**
+         * The canonical paths of the jar file or class file of the type or of all jar files and probed class files
+         * if the type is not on the class path.
+         */
+        private final Set<String> files;
+
+        private LookupResult(ClassFileReader.ClassHeader classHeader, Set<String> files) {
+            this.classHeader = classHeader;
+            this.files = files;
+        }
+    }
+}
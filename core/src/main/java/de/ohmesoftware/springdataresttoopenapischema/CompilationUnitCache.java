@@ -0,0 +1,699 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.comments.Comment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Run-scoped cache of parsed compilation units.
+ * <p>
+ * Entries are keyed by the canonical path of the source file and are only valid as long as the modification time and
+ * the size of the file are unchanged. Files written during a run are therefore parsed again on their next lookup.
+ * </p>
+ * <p>
+ * Callers always receive a copy of the cached compilation unit. The handlers modify the returned units and only
+ * persist some of these modifications, so a shared instance would leak unsaved changes into later lookups. The saved
+ * compilation units are owned by the {@link Workspace} of the run.
+ * </p>
+ * <p>
+ * The cache can be bounded by a heap budget. The size of a compilation unit is estimated from the length of its
+ * source and the least recently used compilation units are evicted when the budget is exceeded. The
+ * {@link ProjectModel.TypeModel} derived from a compilation unit, e.g. its supertypes, the type arguments and the
+ * Javadoc summary, is small and kept after the compilation unit is evicted, so the project model can be built again
+ * without parsing the file.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class CompilationUnitCache {
+
+    /**
+     * The content hash of a file which has changed while it was read. It never matches a recorded hash.
+     */
+    private static final String CHANGED_CONTENT = "changed";
+
+    /**
+     * The estimated heap size of a parsed compilation unit per character of its source, including the tokens and
+     * ranges kept by the parser.
+     */
+    static final int AST_BYTES_PER_CHAR = 25;
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    /**
+     * The source files written in patch mode or <code>null</code>.
+     */
+    private final PendingChanges pendingChanges;
+
+    /**
+     * Returns copies set up for the {@link FormattingPreservingPrinter}.
+     */
+    private final boolean preserveFormatting;
+
+    /**
+     * The metrics of the current run.
+     */
+    private volatile RunMetrics metrics;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The heap budget in bytes or 0 if unbounded.
+     */
+    private final long maxBytes;
+
+    /**
+     * The cached entries in the order of their last use if the cache is bounded. Guarded by itself.
+     */
+    private final LinkedHashMap<String, Entry> recentlyUsed = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The estimated size of the cached entries if the cache is bounded. Guarded by {@link #recentlyUsed}.
+     */
+    private long usedBytes;
+
+    /**
+     * The type models of parsed files by canonical path, kept after the compilation unit has been evicted.
+     */
+    private final ConcurrentMap<String, TypeSummary> typeSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * The canonical paths of the files whose compilation unit has been evicted.
+     */
+    private final Set<String> evictedFiles = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The contents read ahead of parsing by {@link #prefetch(File)}.
+     */
+    private final ConcurrentMap<String, Prefetched> prefetched = new ConcurrentHashMap<>();
+
+    /**
+     * The types of the source path for resolving wild card imports.
+     */
+    private final PackageIndex packageIndex = new PackageIndex();
+
+    /**
+     * The hashes of the content last parsed from or written to disk.
+     */
+    private final ConcurrentMap<String, String> contentHashes = new ConcurrentHashMap<>();
+
+    /**
+     * The persistent index of the type models or <code>null</code>.
+     */
+    private volatile ProjectIndex projectIndex;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * The files requested by the current thread while recording.
+     */
+    private final ThreadLocal<Set<String>> recordedFiles = new ThreadLocal<>();
+
+    /**
+     * Constructor.
+     */
+    public CompilationUnitCache() {
+        this(null, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pendingChanges     The source files written in patch mode or <code>null</code> if source files are
+     *                           written to disk.
+     * @param preserveFormatting <code>true</code> to set up the returned copies for the
+     *                           {@link FormattingPreservingPrinter}.
+     */
+    public CompilationUnitCache(PendingChanges pendingChanges, boolean preserveFormatting) {
+        this(pendingChanges, preserveFormatting, new RunMetrics());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pendingChanges     The source files written in patch mode or <code>null</code> if source files are
+     *                           written to disk.
+     * @param preserveFormatting <code>true</code> to set up the returned copies for the
+     *                           {@link FormattingPreservingPrinter}.
+     * @param metrics            The metrics recording the parsed files.
+     */
+    public CompilationUnitCache(PendingChanges pendingChanges, boolean preserveFormatting, RunMetrics metrics) {
+        this(pendingChanges, preserveFormatting, metrics, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pendingChanges     The source files written in patch mode or <code>null</code> if source files are
+     *                           written to disk.
+     * @param preserveFormatting <code>true</code> to set up the returned copies for the
+     *                           {@link FormattingPreservingPrinter}.
+     * @param metrics            The metrics recording the parsed files.
+     * @param maxMb              The heap budget of the cached compilation units in MB or 0 if unbounded.
+     */
+    public CompilationUnitCache(PendingChanges pendingChanges, boolean preserveFormatting, RunMetrics metrics,
+                                int maxMb) {
+        this.pendingChanges = pendingChanges;
+        this.preserveFormatting = preserveFormatting;
+        this.metrics = metrics;
+        this.maxBytes = maxMb * BYTES_PER_MB;
+    }
+
+    /**
+     * Gets the compilation unit for a file and parses it if is not cached or has changed.
+     *
+     * @param file The source file.
+     * @return a copy of the parsed compilation unit.
+     */
+    public CompilationUnit get(File file) {
+        String key = getKey(file);
+        record(key);
+        Entry entry = getEntry(file, key);
+        CompilationUnit compilationUnit = copy(entry.compilationUnit);
+        ImportIndex.attach(compilationUnit, entry.importIndex);
+        if (preserveFormatting) {
+            FormattingPreservingPrinter.setup(compilationUnit, entry.compilationUnit, entry.source);
+        }
+        return compilationUnit;
+    }
+
+    /**
+     * Sets the metrics of the current run. A cache kept for several runs records the parsed files of each run in the
+     * metrics of this run.
+     *
+     * @param metrics The metrics.
+     */
+    public void setMetrics(RunMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the source roots of all source paths. Simple class names are also resolved to the types of the other
+     * source paths.
+     *
+     * @param sourceRoots The source roots.
+     */
+    public void setSourceRoots(Collection<File> sourceRoots) {
+        packageIndex.setSourceRoots(sourceRoots);
+    }
+
+    /**
+     * Sets the persistent index of the type models. Type models of unchanged files are read from the index instead of
+     * parsing the files and the type models of parsed files are added to it.
+     *
+     * @param projectIndex The index or <code>null</code>.
+     */
+    public void setProjectIndex(ProjectIndex projectIndex) {
+        this.projectIndex = projectIndex;
+    }
+
+    /**
+     * @return the persistent index of the type models or <code>null</code>.
+     */
+    public ProjectIndex getProjectIndex() {
+        return projectIndex;
+    }
+
+    /**
+     * Drops the cached compilation unit of a file, e.g. because it was reported as changed. The check of the
+     * modification time might not detect a change within its resolution.
+     *
+     * @param file The canonical path of the file.
+     */
+    public void invalidate(String file) {
+        remove(file);
+        prefetched.remove(file);
+        typeSummaries.remove(file);
+        contentHashes.remove(file);
+        ProjectIndex projectIndex = this.projectIndex;
+        if (projectIndex != null) {
+            projectIndex.remove(file);
+        }
+        // the file might have been created or deleted
+        packageIndex.invalidate(new File(file));
+    }
+
+    /**
+     * Records the content written to a file.
+     *
+     * @param file    The canonical path of the file.
+     * @param content The written content.
+     */
+    public void recordContent(String file, String content) {
+        contentHashes.put(file, Manifest.hash(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Gets the hash of the content a file had when it was last parsed or written. A file changed afterwards still
+     * has the hash of the content the handlers have seen. A file parsed with different contents has a hash matching no
+     * content.
+     *
+     * @param file The canonical path of the file.
+     * @return the hash or <code>null</code> if the file was neither parsed nor written.
+     */
+    public String getContentHash(String file) {
+        return contentHashes.get(file);
+    }
+
+    /**
+     * Records a file as requested by the current thread if recording.
+     *
+     * @param file The canonical path of the file.
+     */
+    public void record(String file) {
+        Set<String> files = recordedFiles.get();
+        if (files != null) {
+            files.add(file);
+        }
+    }
+
+    /**
+     * Reads the content of a file ahead of parsing it, e.g. by an I/O thread. The next lookup parses the read content
+     * if the file has not changed in between. Nothing is read if the file is cached. Errors are reported by the lookup.
+     *
+     * @param file The source file.
+     */
+    public void prefetch(File file) {
+        String key = getKey(file);
+        if (pendingChanges != null && pendingChanges.get(key) != null) {
+            return;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            Entry entry = entries.get(key);
+            if (entry != null && entry.matches(attributes)) {
+                return;
+            }
+            prefetched.put(key, new Prefetched(attributes, Files.readAllBytes(file.toPath())));
+        } catch (IOException e) {
+            // reported by the lookup
+        }
+    }
+
+    /**
+     * Reads the compilation unit for a file without copying it. The file is not recorded.
+     *
+     * @param file   The source file.
+     * @param reader The reader. It must not modify the compilation unit.
+     * @param <T>    The result type.
+     * @return the result of the reader.
+     */
+    public <T> T read(File file, Function<CompilationUnit, T> reader) {
+        return reader.apply(getEntry(file, getKey(file)).compilationUnit);
+    }
+
+    /**
+     * Gets the model of the first type declared in a file. The model is kept after the compilation unit has been
+     * evicted and the file is only parsed again if it has changed. If a {@link ProjectIndex} is set, the model of an
+     * unchanged file is read from it.
+     *
+     * @param file The source file.
+     * @return the type model or <code>null</code> if the file does not declare a type.
+     */
+    public ProjectModel.TypeModel getTypeModel(File file) {
+        String key = getKey(file);
+        ProjectIndex projectIndex = this.projectIndex;
+        if (pendingChanges == null || pendingChanges.get(key) == null) {
+            TypeSummary typeSummary = typeSummaries.get(key);
+            if (typeSummary != null && typeSummary.matches(file)) {
+                hits.incrementAndGet();
+                return typeSummary.typeModel;
+            }
+            if (projectIndex != null) {
+                TypeSummary indexed = getIndexedTypeSummary(projectIndex, file, key);
+                if (indexed != null) {
+                    metrics.recordIndexedTypeModel();
+                    typeSummaries.put(key, indexed);
+                    return indexed.typeModel;
+                }
+            }
+        }
+        Entry entry = getEntry(file, key);
+        ProjectModel.TypeModel typeModel = entry.compilationUnit.findFirst(TypeDeclaration.class).isPresent() ?
+                ProjectModel.createTypeModel(entry.compilationUnit, key) : null;
+        if (entry.content == null) {
+            typeSummaries.put(key, new TypeSummary(entry.lastModified, entry.size, typeModel));
+            if (projectIndex != null) {
+                projectIndex.put(key, entry.lastModified, entry.size, typeModel);
+            }
+        }
+        return typeModel;
+    }
+
+    private static TypeSummary getIndexedTypeSummary(ProjectIndex projectIndex, File file, String key) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+        ProjectIndex.Entry indexEntry = projectIndex.get(key, attributes.lastModifiedTime(), attributes.size());
+        return indexEntry == null ? null : new TypeSummary(attributes.lastModifiedTime(), attributes.size(),
+                indexEntry.getTypeModel());
+    }
+
+    private static String getKey(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not resolve file: %s", file), e);
+        }
+    }
+
+    private Entry getEntry(File file, String key) {
+        String pendingContent = pendingChanges == null ? null : pendingChanges.get(key);
+        if (pendingContent != null) {
+            return getEntry(key, pendingContent);
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException(String.format("Could not find file: %s", file), e);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read file attributes: %s", file), e);
+        }
+        Entry entry = entries.get(key);
+        if (entry != null && entry.matches(attributes)) {
+            hits.incrementAndGet();
+            touch(key);
+            return entry;
+        }
+        misses.incrementAndGet();
+        long start = metrics.start();
+        byte[] bytes = readBytes(file, key, attributes);
+        String source = new String(bytes, StandardCharsets.UTF_8);
+        CompilationUnit compilationUnit = JavaParser.parse(source);
+        // the handlers might have seen both contents, e.g. the old one in the project model
+        contentHashes.merge(key, Manifest.hash(bytes), (previous, hash) -> previous.equals(hash) ? previous :
+                CHANGED_CONTENT);
+        metrics.stop(RunMetrics.PARSE, start);
+        metrics.recordParse(bytes.length);
+        entry = new Entry(attributes.lastModifiedTime(), attributes.size(), null,
+                preserveFormatting ? source : null, compilationUnit, createImportIndex(key, compilationUnit),
+                estimateSize(source));
+        put(key, entry);
+        return entry;
+    }
+
+    private byte[] readBytes(File file, String key, BasicFileAttributes attributes) {
+        Prefetched prefetchedContent = prefetched.remove(key);
+        if (prefetchedContent != null && prefetchedContent.matches(attributes)) {
+            return prefetchedContent.bytes;
+        }
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException(String.format("Could not find file: %s", file), e);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read file: %s", file), e);
+        }
+    }
+
+    private Entry getEntry(String key, String content) {
+        Entry entry = entries.get(key);
+        // the pending content is replaced on each write, so the same instance means unchanged
+        if (entry != null && entry.content == content) {
+            hits.incrementAndGet();
+            touch(key);
+            return entry;
+        }
+        misses.incrementAndGet();
+        long start = metrics.start();
+        CompilationUnit compilationUnit = JavaParser.parse(content);
+        metrics.stop(RunMetrics.PARSE, start);
+        // parsed from memory
+        metrics.recordParse(0);
+        entry = new Entry(null, -1, content, content, compilationUnit, createImportIndex(key, compilationUnit),
+                estimateSize(content));
+        put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Starts recording the files requested by the current thread.
+     */
+    public void startRecording() {
+        recordedFiles.set(new HashSet<>());
+    }
+
+    /**
+     * Stops recording the files requested by the current thread.
+     *
+     * @return the canonical paths of the files requested since {@link #startRecording()}.
+     */
+    public Set<String> stopRecording() {
+        Set<String> files = recordedFiles.get();
+        recordedFiles.remove();
+        return files == null ? Collections.emptySet() : files;
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups which had to parse the file.
+     *
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the estimated size of the cached compilation units.
+     *
+     * @return the size in bytes or 0 if the cache is unbounded.
+     */
+    public long getUsedBytes() {
+        synchronized (recentlyUsed) {
+            return usedBytes;
+        }
+    }
+
+    /**
+     * Gets the number of cached compilation units.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private long estimateSize(String source) {
+        // the source is kept for preserving the formatting
+        return (long) source.length() * (preserveFormatting ? AST_BYTES_PER_CHAR + 2 : AST_BYTES_PER_CHAR);
+    }
+
+    private void put(String key, Entry entry) {
+        if (evictedFiles.remove(key)) {
+            metrics.recordReparse();
+        }
+        Entry previous = entries.put(key, entry);
+        if (maxBytes <= 0) {
+            return;
+        }
+        synchronized (recentlyUsed) {
+            if (previous != null && recentlyUsed.remove(key) != null) {
+                usedBytes -= previous.estimatedSize;
+            }
+            recentlyUsed.put(key, entry);
+            usedBytes += entry.estimatedSize;
+            // the most recently used entry is kept even if exceeding the budget alone
+            Iterator<Map.Entry<String, Entry>> iterator = recentlyUsed.entrySet().iterator();
+            while (usedBytes > maxBytes && recentlyUsed.size() > 1) {
+                Map.Entry<String, Entry> eldest = iterator.next();
+                iterator.remove();
+                usedBytes -= eldest.getValue().estimatedSize;
+                entries.remove(eldest.getKey(), eldest.getValue());
+                evictedFiles.add(eldest.getKey());
+                metrics.recordEviction();
+            }
+        }
+    }
+
+    private void touch(String key) {
+        if (maxBytes > 0) {
+            synchronized (recentlyUsed) {
+                recentlyUsed.get(key);
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        evictedFiles.remove(key);
+        if (entry != null && maxBytes > 0) {
+            synchronized (recentlyUsed) {
+                if (recentlyUsed.remove(key) != null) {
+                    usedBytes -= entry.estimatedSize;
+                }
+            }
+        }
+    }
+
+    private ImportIndex createImportIndex(String key, CompilationUnit compilationUnit) {
+        ImportIndex importIndex = ImportIndex.create(compilationUnit, new File(key), packageIndex);
+        // the cached compilation unit is only read
+        ImportIndex.attach(compilationUnit, importIndex);
+        return importIndex;
+    }
+
+    private static CompilationUnit copy(CompilationUnit compilationUnit) {
+        CompilationUnit copy = compilationUnit.clone();
+        copyOrphanComments(compilationUnit, copy);
+        return copy;
+    }
+
+    /**
+     * Cloning does not copy orphan comments, e.g. comments in method bodies or after the last member of a type.
+     * They must be kept because copies of supertypes are written back to disk.
+     */
+    private static void copyOrphanComments(Node source, Node target) {
+        for (Comment comment : source.getOrphanComments()) {
+            target.addOrphanComment(comment.clone());
+        }
+        List<Node> sourceChildren = getNonCommentChildNodes(source);
+        List<Node> targetChildren = getNonCommentChildNodes(target);
+        if (sourceChildren.size() != targetChildren.size()) {
+            return;
+        }
+        for (int i = 0; i < sourceChildren.size(); i++) {
+            copyOrphanComments(sourceChildren.get(i), targetChildren.get(i));
+        }
+    }
+
+    private static List<Node> getNonCommentChildNodes(Node node) {
+        return node.getChildNodes().stream().filter(n -> !(n instanceof Comment)).collect(Collectors.toList());
+    }
+
+    /**
+     * A content read ahead of parsing.
+     */
+    private static class Prefetched {
+
+        private final FileTime lastModified;
+
+        private final long size;
+
+        private final byte[] bytes;
+
+        private Prefetched(BasicFileAttributes attributes, byte[] bytes) {
+            this.lastModified = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.bytes = bytes;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return lastModified.equals(attributes.lastModifiedTime()) && size == attributes.size() &&
+                    size == bytes.length;
+        }
+    }
+
+    /**
+     * The type model of a parsed file, kept after its compilation unit has been evicted.
+     */
+    private static class TypeSummary {
+
+        private final FileTime lastModified;
+
+        private final long size;
+
+        /**
+         * The type model or <code>null</code> if the file does not declare a type.
+         */
+        private final ProjectModel.TypeModel typeModel;
+
+        private TypeSummary(FileTime lastModified, long size, ProjectModel.TypeModel typeModel) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.typeModel = typeModel;
+        }
+
+        private boolean matches(File file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                return lastModified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final FileTime lastModified;
+
+        private final long size;
+
+        /**
+         * The pending content the compilation unit was parsed from or <code>null</code> if parsed from disk.
+         */
+        private final String content;
+
+        /**
+         * The source the compilation unit was parsed from. Only kept when preserving the formatting.
+         */
+        private final String source;
+
+        private final CompilationUnit compilationUnit;
+
+        /**
+         * The resolution table of the class names, shared by all copies.
+         */
+        private final ImportIndex importIndex;
+
+        /**
+         * The estimated heap size in bytes.
+         */
+        private final long estimatedSize;
+
+        private Entry(FileTime lastModified, long size, String content, String source,
+                      CompilationUnit compilationUnit, ImportIndex importIndex, long estimatedSize) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.content = content;
+            this.source = source;
+            this.compilationUnit = compilationUnit;
+            this.importIndex = importIndex;
+            this.estimatedSize = estimatedSize;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return content == null && lastModified.equals(attributes.lastModifiedTime())
+                    && size == attributes.size();
+        }
+    }
+}
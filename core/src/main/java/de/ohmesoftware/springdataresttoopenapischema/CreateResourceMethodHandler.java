@@ -17,7 +17,7 @@ import java.util.Collections;
  */
 public class CreateResourceMethodHandler extends ResourceMethodHandler {
 
-    private static final String SAVE_METHOD = "save";
+    private static final String SAVE_METHOD = ResourceNaming.SAVE_METHOD;
     private static final String SAVE_METHOD_PARAM = "entity";
 
     /**
@@ -27,10 +27,11 @@ public class CreateResourceMethodHandler extends ResourceMethodHandler {
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      */
     protected CreateResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
-                                          CompilationUnit compilationUnit) {
-        super(sourceFile, sourcePath, basePath, compilationUnit);
+                                          CompilationUnit compilationUnit, EnrichmentContext context) {
+        super(sourceFile, sourcePath, basePath, compilationUnit, context);
     }
 
     @Override
@@ -95,7 +96,7 @@ public class CreateResourceMethodHandler extends ResourceMethodHandler {
                     Collections.singletonList(
                             createApiResponseAnnotation201WithContent(compilationUnit,
                                     classOrInterfaceDeclaration)),
-                    String.format("Creates a(n) %s.",
+                    ResourceNaming.getCreateSummary(
                             getSimpleNameFromClass(
                                     getDomainClass(classOrInterfaceDeclaration).asString())));
         }
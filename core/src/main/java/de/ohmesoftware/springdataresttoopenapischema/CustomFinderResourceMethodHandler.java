@@ -22,11 +22,6 @@ import java.util.stream.Collectors;
  */
 public class CustomFinderResourceMethodHandler extends ResourceMethodHandler {
 
-    private static final String CUSTOM_FIND_METHOD_PREFIX = "findBy";
-    private static final String FIND_BY_ID_METHOD = "findById";
-    private static final String SEARCH_PATH = "search" + SLASH;
-    private static final String COMMA = ",";
-
     /**
      * The Sortable annotation.
      */
@@ -44,13 +39,14 @@ public class CustomFinderResourceMethodHandler extends ResourceMethodHandler {
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      * @param searchableAnnotation The searchable annotation.
      * @param sortableAnnotation The sortable annotation.
      */
     protected CustomFinderResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
-                                                CompilationUnit compilationUnit,
+                                                CompilationUnit compilationUnit, EnrichmentContext context,
                                                 String searchableAnnotation, String sortableAnnotation) {
-        super(sourceFile, sourcePath, basePath, compilationUnit);
+        super(sourceFile, sourcePath, basePath, compilationUnit, context);
         this.searchableAnnotation = searchableAnnotation;
         this.sortableAnnotation = sortableAnnotation;
     }
@@ -74,8 +70,8 @@ public class CustomFinderResourceMethodHandler extends ResourceMethodHandler {
     }
 
     private List<MethodDeclaration> getCustomFinderMethods(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
-        return findCustomMethods(classOrInterfaceDeclaration, CUSTOM_FIND_METHOD_PREFIX,
-                Collections.singleton(FIND_BY_ID_METHOD));
+        return findCustomMethods(classOrInterfaceDeclaration, ResourceNaming.CUSTOM_FIND_METHOD_PREFIX,
+                Collections.singleton(ResourceNaming.FIND_BY_ID_METHOD));
     }
 
     private void removeCustomFinderOperation(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
@@ -112,11 +108,11 @@ public class CustomFinderResourceMethodHandler extends ResourceMethodHandler {
                 getMethodPath(methodDeclaration),
                 methodDeclaration.getParameters().stream().map(Parameter::getType).toArray(Type[]::new));
         if (exportPathConfig.a) {
-            String parameterSummary = methodDeclaration.getParameters().stream().
+            List<String> parameterNames = methodDeclaration.getParameters().stream().
                     filter(p ->
                             !p.getTypeAsString().endsWith(getSimpleNameFromClass(PAGEABLE_CLASS))
                     && !p.getTypeAsString().endsWith(getSimpleNameFromClass(SORT_CLASS))).
-                    map(NodeWithSimpleName::getNameAsString).collect(Collectors.joining(COMMA));
+                    map(NodeWithSimpleName::getNameAsString).collect(Collectors.toList());
 
             List<String> params = getMethodParameterTypes(methodDeclaration);
             List<NormalAnnotationExpr> parameters = getPageableSortingAndPredicateParameterAnnotations(methodDeclaration,
@@ -145,7 +141,7 @@ public class CustomFinderResourceMethodHandler extends ResourceMethodHandler {
                         }
                 );
             }
-            addPathAnnotation(methodDeclaration, SEARCH_PATH + exportPathConfig.b);
+            addPathAnnotation(methodDeclaration, ResourceNaming.getSearchPath(exportPathConfig.b));
             addGETAnnotation(methodDeclaration);
             List<NormalAnnotationExpr> responses = null;
             if (isPageReturnType(methodDeclaration)) {
@@ -160,7 +156,7 @@ public class CustomFinderResourceMethodHandler extends ResourceMethodHandler {
                     parameters,
                     null,
                     responses,
-                    String.format("Custom finder by %s for %s.", createCustomNaming(methodDeclaration), parameterSummary));
+                    ResourceNaming.getCustomFinderSummary(methodDeclaration.getNameAsString(), parameterNames));
             if (!methodDeclaration.getParentNode().get().equals(classOrInterfaceDeclaration)) {
                 saveClassOrInterfaceToFile((ClassOrInterfaceDeclaration) methodDeclaration.getParentNode().get());
             }
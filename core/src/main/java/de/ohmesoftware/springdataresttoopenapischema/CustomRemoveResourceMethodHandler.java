@@ -19,12 +19,6 @@ import java.util.stream.Collectors;
  */
 public class CustomRemoveResourceMethodHandler extends ResourceMethodHandler {
 
-    private static final String CUSTOM_DELETE_METHOD_PREFIX = "deleteBy";
-    private static final String DELETE_BY_ID_METHOD = "deleteById";
-    private static final String CUSTOM_REMOVE_METHOD_PREFIX = "removeBy";
-    private static final String SEARCH_PATH = "search" + SLASH;
-    private static final String COMMA = ",";
-
     /**
      * Constructor.
      *
@@ -32,9 +26,11 @@ public class CustomRemoveResourceMethodHandler extends ResourceMethodHandler {
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      */
-    protected CustomRemoveResourceMethodHandler(String sourceFile, String sourcePath, String basePath, CompilationUnit compilationUnit) {
-        super(sourceFile, sourcePath, basePath, compilationUnit);
+    protected CustomRemoveResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
+                                                CompilationUnit compilationUnit, EnrichmentContext context) {
+        super(sourceFile, sourcePath, basePath, compilationUnit, context);
     }
 
     @Override
@@ -57,10 +53,10 @@ public class CustomRemoveResourceMethodHandler extends ResourceMethodHandler {
 
     private List<MethodDeclaration> getCustomFinderMethods(CompilationUnit compilationUnit, ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
         List<MethodDeclaration> methodDeclarations = new ArrayList<>();
-        methodDeclarations.addAll(findCustomMethods(classOrInterfaceDeclaration, CUSTOM_REMOVE_METHOD_PREFIX,
-                Collections.singleton(DELETE_BY_ID_METHOD)));
-        methodDeclarations.addAll(findCustomMethods(classOrInterfaceDeclaration, CUSTOM_DELETE_METHOD_PREFIX,
-                Collections.singleton(DELETE_BY_ID_METHOD)));
+        methodDeclarations.addAll(findCustomMethods(classOrInterfaceDeclaration,
+                ResourceNaming.CUSTOM_REMOVE_METHOD_PREFIX, Collections.singleton(ResourceNaming.DELETE_BY_ID_METHOD)));
+        methodDeclarations.addAll(findCustomMethods(classOrInterfaceDeclaration,
+                ResourceNaming.CUSTOM_DELETE_METHOD_PREFIX, Collections.singleton(ResourceNaming.DELETE_BY_ID_METHOD)));
         return methodDeclarations;
     }
 
@@ -97,15 +93,16 @@ public class CustomRemoveResourceMethodHandler extends ResourceMethodHandler {
         Pair<Boolean, String> exportPathConfig = getResourceConfig(methodDeclaration.getNameAsString(), classOrInterfaceDeclaration,
                 getMethodPath(methodDeclaration), methodDeclaration.getParameter(0).getType());
         if (exportPathConfig.a) {
-            String parameterSummary = methodDeclaration.getParameters().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.joining(COMMA));
+            List<String> parameterNames = methodDeclaration.getParameters().stream().
+                    map(NodeWithSimpleName::getNameAsString).collect(Collectors.toList());
             methodDeclaration.getParameters().forEach(p ->
                     addQueryParamAnnotation(methodDeclaration, p.getNameAsString(), true, null));
-            addPathAnnotation(methodDeclaration, SEARCH_PATH + exportPathConfig.b);
+            addPathAnnotation(methodDeclaration, ResourceNaming.getSearchPath(exportPathConfig.b));
             addDELETEAnnotation(methodDeclaration);
             addOperationAnnotation(methodDeclaration,
                     null,
                     Collections.singletonList(createApiResponse204()),
-                    String.format("Custom remover by %s for %s.", createCustomNaming(methodDeclaration), parameterSummary)
+                    ResourceNaming.getCustomRemoverSummary(methodDeclaration.getNameAsString(), parameterNames)
             );
             if (!methodDeclaration.getParentNode().get().equals(classOrInterfaceDeclaration)) {
                 saveClassOrInterfaceToFile((ClassOrInterfaceDeclaration) methodDeclaration.getParentNode().get());
@@ -14,8 +14,6 @@ import java.util.Collections;
  */
 public class DeleteByIdResourceMethodHandler extends MethodByIdResourceMethodHandler {
 
-    private static final String DELETE_BY_ID_METHOD = "deleteById";
-
     /**
      * Constructor.
      *
@@ -23,9 +21,11 @@ public class DeleteByIdResourceMethodHandler extends MethodByIdResourceMethodHan
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      */
-    protected DeleteByIdResourceMethodHandler(String sourceFile, String sourcePath, String basePath, CompilationUnit compilationUnit) {
-        super(sourceFile, sourcePath, basePath, compilationUnit, DELETE_BY_ID_METHOD, true);
+    protected DeleteByIdResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
+                                              CompilationUnit compilationUnit, EnrichmentContext context) {
+        super(sourceFile, sourcePath, basePath, compilationUnit, context, ResourceNaming.DELETE_BY_ID_METHOD, true);
     }
 
     @Override
@@ -35,7 +35,7 @@ public class DeleteByIdResourceMethodHandler extends MethodByIdResourceMethodHan
                 null,
                 Collections.singletonList(
                         createApiResponse204()),
-                String.format("Deletes a(n) %s by its id.",
+                ResourceNaming.getDeleteByIdSummary(
                         getSimpleNameFromClass(
                                 getDomainClass(classOrInterfaceDeclaration).asString())));
     }
@@ -0,0 +1,72 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Streaming writer for documents of objects, arrays and scalar values like JSON or YAML.
+ * <p>
+ * Values are written as soon as they are passed, a writer only keeps the nesting of the open objects and arrays.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public interface DocumentWriter extends Closeable {
+
+    DocumentWriter beginObject() throws IOException;
+
+    DocumentWriter endObject() throws IOException;
+
+    DocumentWriter beginArray() throws IOException;
+
+    DocumentWriter endArray() throws IOException;
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name The name.
+     * @return this writer.
+     * @throws IOException if the writer fails.
+     */
+    DocumentWriter name(String name) throws IOException;
+
+    DocumentWriter value(String value) throws IOException;
+
+    DocumentWriter value(boolean value) throws IOException;
+
+    DocumentWriter value(Number value) throws IOException;
+
+    /**
+     * Writes a tree of maps, collections, strings, numbers and booleans. Other values are written as string.
+     *
+     * @param value The value.
+     * @return this writer.
+     * @throws IOException if the writer fails.
+     */
+    default DocumentWriter value(Object value) throws IOException {
+        if (value instanceof Map) {
+            beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                name(String.valueOf(entry.getKey())).value(entry.getValue());
+            }
+            return endObject();
+        }
+        if (value instanceof Collection) {
+            beginArray();
+            for (Object element : (Collection<?>) value) {
+                value(element);
+            }
+            return endArray();
+        }
+        if (value instanceof Boolean) {
+            return value(((Boolean) value).booleanValue());
+        }
+        if (value instanceof Number) {
+            return value((Number) value);
+        }
+        return value(value == null ? null : value.toString());
+    }
+}
@@ -0,0 +1,191 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Handler for adding annotation for the domain.
+ *
+ * @author <a href="mailto:karsten@simless.com">Karsten Ohme
+ * (karsten@simless.com)</a>
+ */
+public class DomainResourceHandler extends ResourceHandler {
+
+    private List<ResourceMethodHandler> resourceMethodHandlers;
+
+    /**
+     * Constructor.
+     *
+     * @param sourceFile The source file.
+     * @param sourcePath      The source path of the Java sources.
+     * @param basePath        The base path no not include package directories.
+     * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
+     * @param disablePut Disabled the PUT command.
+     * @param searchableAnnotation The searchable annotation.
+     * @param sortableAnnotation The sortable annotation.
+     */
+    protected DomainResourceHandler(String sourceFile, String sourcePath, String basePath,
+                                    CompilationUnit compilationUnit, EnrichmentContext context, boolean disablePut,
+                                    String searchableAnnotation, String sortableAnnotation) {
+        super(sourceFile, sourcePath, basePath, compilationUnit, context);
+        resourceMethodHandlers = new ArrayList<>();
+        resourceMethodHandlers.add(new FindByIdResourceMethodHandler(sourceFile, sourcePath, basePath, compilationUnit, context));
+        resourceMethodHandlers.add(new CustomFinderResourceMethodHandler(sourceFile, sourcePath, basePath, compilationUnit, context,
+                searchableAnnotation,
+                sortableAnnotation));
+        resourceMethodHandlers.add(new CustomRemoveResourceMethodHandler(sourceFile, sourcePath, basePath, compilationUnit, context));
+        resourceMethodHandlers.add(new FinderResourceMethodHandler(sourceFile, sourcePath, basePath, compilationUnit, context,
+                searchableAnnotation,
+                sortableAnnotation));
+        resourceMethodHandlers.add(new DeleteByIdResourceMethodHandler(sourceFile, sourcePath, basePath, compilationUnit, context));
+        resourceMethodHandlers.add(new CreateResourceMethodHandler(sourceFile, sourcePath, basePath, compilationUnit, context));
+        resourceMethodHandlers.add(new PutResourceMethodHandler(sourceFile, sourcePath, basePath, compilationUnit, context, disablePut));
+        resourceMethodHandlers.add(new PatchResourceMethodHandler(sourceFile, sourcePath, basePath, compilationUnit, context));
+    }
+
+    /**
+     * Enriches all repositories of the compilation unit.
+     * <p>
+     * The added annotations and methods are removed once and the desired ones are added for all exported
+     * repositories. A repository without domain type is skipped, the other repositories of the compilation unit are
+     * still enriched. The {@link ChangeTracker} keeps the parsed annotations and methods which end up as before,
+     * also in the parent and custom repository interfaces, so the formatting preserving printer copies them from the
+     * source. A source file is only saved if one of its declarations has changed.
+     * </p>
+     */
+    @Override
+    public void addResourceAnnotations() {
+        ChangeTracker changeTracker = context.getChangeTracker();
+        changeTracker.start();
+        try {
+            // clean all first
+            removeResourceAnnotations();
+            boolean exported = false;
+            for (ClassOrInterfaceDeclaration classOrInterfaceDeclaration : compilationUnit.
+                    findAll(ClassOrInterfaceDeclaration.class)) {
+                // check if annotated with RepositoryRestResource
+                Optional<AnnotationExpr> restResourceOptional = checkResourceAnnotationPresent(classOrInterfaceDeclaration);
+                if (restResourceOptional.isPresent() && checkResourceExported(restResourceOptional.get(), false)) {
+                    String resourcePath = getResourcePath(restResourceOptional.get());
+                    if (resourcePath == null) {
+                        resourcePath = getDomainPath(classOrInterfaceDeclaration);
+                        if (resourcePath == null) {
+                            // this means this class has no domain type, this is a special class, skip it
+                            continue;
+                        }
+                    }
+                    // add JAX-RS path annotation
+                    addPathAnnotation(classOrInterfaceDeclaration, resourcePath);
+                    addTagAnnotation(classOrInterfaceDeclaration, ResourceNaming.getTagName(
+                            getSimpleNameFromClass(getDomainClass(classOrInterfaceDeclaration).asString())));
+                    exported = true;
+                }
+            }
+            if (!exported) {
+                return;
+            }
+            addAllOperations();
+            if (changeTracker.finish().contains(compilationUnit)) {
+                context.getWorkspace().save(new File(sourceFile), compilationUnit);
+            }
+        } finally {
+            changeTracker.stop();
+        }
+    }
+
+    /**
+     * Gets the source files which might be read or written when enriching the compilation unit.
+     * <p>
+     * These are the source file itself, the source files of all supertypes and the custom repository interfaces
+     * created for the domain classes.
+     * </p>
+     *
+     * @return the canonical paths of the source files.
+     */
+    public Set<String> getAffectedSourceFiles() {
+        Set<File> files = new LinkedHashSet<>();
+        files.add(new File(sourceFile));
+        String _package = compilationUnit.getPackageDeclaration().map(p -> p.getName().asString() + DOT).
+                orElse(EMPTY_STRING);
+        for (ClassOrInterfaceDeclaration classOrInterfaceDeclaration : compilationUnit.
+                findAll(ClassOrInterfaceDeclaration.class)) {
+            for (String className : getSupertypeClassNames(classOrInterfaceDeclaration)) {
+                File file = getSourceFile(className);
+                if (sourceFileExists(file)) {
+                    files.add(file);
+                }
+            }
+            if (checkIfExtendingRepository(classOrInterfaceDeclaration)) {
+                ClassOrInterfaceType domainClassOrInterfaceType;
+                try {
+                    domainClassOrInterfaceType = getDomainClass(classOrInterfaceDeclaration);
+                } catch (RuntimeException e) {
+                    // reported when the repository is enriched
+                    continue;
+                }
+                if (domainClassOrInterfaceType != null) {
+                    files.add(getSourceFile(_package + ResourceNaming.getCustomRepositoryName(
+                            domainClassOrInterfaceType.getName().getIdentifier())));
+                }
+            }
+        }
+        Set<String> paths = new TreeSet<>();
+        for (File file : files) {
+            try {
+                paths.add(file.getCanonicalPath());
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Could not resolve source file: %s", file), e);
+            }
+        }
+        return paths;
+    }
+
+    @Override
+    public void removeResourceAnnotations() {
+        List<ClassOrInterfaceDeclaration> classOrInterfaceDeclarations = compilationUnit.
+                findAll(ClassOrInterfaceDeclaration.class);
+        boolean removed = false;
+        for (ClassOrInterfaceDeclaration classOrInterfaceDeclaration : classOrInterfaceDeclarations) {
+            if(!isCustomInterface(classOrInterfaceDeclaration)) {
+                // remove all JAX-RS annotations
+                removeAnnotation(classOrInterfaceDeclaration, JAXRS_PATH_CLASS);
+                removeAnnotation(classOrInterfaceDeclaration, TAG_CLASS);
+                removed = true;
+            }
+        }
+        if (removed) {
+            // the handlers process all classes of the compilation unit at once
+            removeAllOperations();
+            removeImport(compilationUnit, JAXRS_PATH_CLASS);
+        }
+    }
+
+    private void removeAllOperations() {
+        for (ResourceMethodHandler resourceMethodHandler : resourceMethodHandlers) {
+            long start = context.getMetrics().start();
+            resourceMethodHandler.removeResourceAnnotations();
+            context.getMetrics().stopHandler(resourceMethodHandler, start);
+        }
+    }
+
+    private void addAllOperations() {
+        for (ResourceMethodHandler resourceMethodHandler : resourceMethodHandlers) {
+            long start = context.getMetrics().start();
+            resourceMethodHandler.addResourceAnnotations();
+            context.getMetrics().stopHandler(resourceMethodHandler, start);
+        }
+    }
+
+}
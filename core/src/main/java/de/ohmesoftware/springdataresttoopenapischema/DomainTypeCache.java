@@ -0,0 +1,132 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache of the documentation of the domain types shared by all handlers of a run.
+ * <p>
+ * A domain type is looked up by each handler building a request body or response of a repository, e.g. for create,
+ * update, patch, find by id and find all. The Javadoc and the properties of a type are extracted only once per run.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class DomainTypeCache {
+
+    private final ConcurrentMap<String, DomainType> domainTypes = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Gets a domain type and creates it if it is not cached.
+     *
+     * @param qualifiedName The fully qualified class name.
+     * @param factory       Creates the domain type for the fully qualified class name.
+     * @return the domain type.
+     */
+    public DomainType get(String qualifiedName, Function<String, DomainType> factory) {
+        DomainType domainType = domainTypes.get(qualifiedName);
+        if (domainType != null) {
+            hits.incrementAndGet();
+            return domainType;
+        }
+        misses.incrementAndGet();
+        // a type created concurrently by another thread is equal
+        domainType = factory.apply(qualifiedName);
+        DomainType previous = domainTypes.putIfAbsent(qualifiedName, domainType);
+        return previous != null ? previous : domainType;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the ratio of the lookups served from the cache.
+     *
+     * @return the hit rate between 0 and 1, 0 if nothing was looked up.
+     */
+    public double getHitRate() {
+        long lookups = hits.get() + misses.get();
+        return lookups == 0 ? 0 : (double) hits.get() / lookups;
+    }
+
+    public int size() {
+        return domainTypes.size();
+    }
+
+    /**
+     * The documentation of a domain type.
+     */
+    public static class DomainType {
+
+        private final String qualifiedName;
+        private final String sourceFile;
+        private final String summary;
+        private final String description;
+        private final boolean _enum;
+        private final List<String> properties;
+
+        /**
+         * Constructor.
+         *
+         * @param qualifiedName The fully qualified class name.
+         * @param sourceFile    The canonical path of the source file.
+         * @param summary       The summary of the Javadoc or <code>null</code>.
+         * @param description   The description of the Javadoc after the summary or <code>null</code>.
+         * @param _enum         <code>true</code> if the type is an enum.
+         * @param properties    The names of the properties, without ignored and write only properties.
+         */
+        public DomainType(String qualifiedName, String sourceFile, String summary, String description,
+                          boolean _enum, List<String> properties) {
+            this.qualifiedName = qualifiedName;
+            this.sourceFile = sourceFile;
+            this.summary = summary;
+            this.description = description;
+            this._enum = _enum;
+            this.properties = Collections.unmodifiableList(properties);
+        }
+
+        public String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        /**
+         * @return the canonical path of the source file.
+         */
+        public String getSourceFile() {
+            return sourceFile;
+        }
+
+        public String getSummary() {
+            return summary;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public boolean isEnum() {
+            return _enum;
+        }
+
+        /**
+         * @return the names of the properties declared by the type, without ignored and write only properties.
+         */
+        public List<String> getProperties() {
+            return properties;
+        }
+    }
+}
@@ -0,0 +1,936 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.javadoc.Javadoc;
+import com.github.javaparser.utils.StringEscapeUtils;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the operations of a repository compiled by javac.
+ * <p>
+ * The operations are built from the elements, annotation mirrors and doc comments of javac like the handlers of the
+ * {@link DomainResourceHandler} enrich a repository and {@link ApiOperation#collect} reads the enriched annotations,
+ * no source file is parsed. The paths, names and default summaries are taken from the {@link ResourceNaming}.
+ * </p>
+ * <p>
+ * The Spring Data interfaces are detected by their simple names like the {@link TypeIndex} does, methods are matched
+ * by their names and the simple names of their parameter types like the {@link MethodIndex} does. Operations only
+ * added manually to a repository with JAX-RS annotations are not collected.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class ElementOperationCollector {
+
+    private static final String[] DOMAIN_REPOSITORIES = {ResourceHandler.PAGING_AND_SORTING_REPOSITORY,
+            ResourceHandler.QUERYDSL_PREDICATE_EXECUTOR, ResourceHandler.REPOSITORY,
+            ResourceHandler.CRUD_REPOSITORY};
+
+    private static final String[] ID_REPOSITORIES = {ResourceHandler.PAGING_AND_SORTING_REPOSITORY,
+            ResourceHandler.CRUD_REPOSITORY};
+
+    private static final String[] PRIMITIVE_OBJECTS = {"String", "Long", "Integer", "Double", "Float", "Date",
+            "Boolean"};
+
+    private static final String[] COLLECTIONS = {"Iterable", "List", "Set", "Collection"};
+
+    private static final String OPTIONAL = "Optional";
+
+    private static final String PAGE = "Page";
+
+    private static final String VALUE = "value";
+
+    private static final String OPERATION_ID = "operationId";
+    private static final String PARAMETERS = "parameters";
+    private static final String REQUEST_BODY = "requestBody";
+    private static final String RESPONSES = "responses";
+    private static final String RESPONSE_CODE = "responseCode";
+    private static final String CONTENT = "content";
+    private static final String MEDIA_TYPE = "mediaType";
+    private static final String SCHEMA = "schema";
+    private static final String ARRAY = "array";
+    private static final String IMPLEMENTATION = "implementation";
+    private static final String REF = "ref";
+    private static final String NAME = "name";
+    private static final String IN = "in";
+    private static final String REQUIRED = "required";
+
+    private static final String IN_PATH = "path";
+    private static final String IN_QUERY = "query";
+    private static final String IN_QUERY_PARAMETER = "QUERY";
+
+    private static final String NO_CONTENT = "No Content.";
+
+    private static final String COMPONENTS_SCHEMAS = "#/components/schemas/";
+
+    private final Types types;
+
+    private final ElementSchemaModel schemaModel;
+
+    private final boolean disablePut;
+
+    private final String searchableAnnotation;
+
+    private final String sortableAnnotation;
+
+    /**
+     * Constructor.
+     *
+     * @param processingEnv        The processing environment of javac.
+     * @param schemaModel          The model of the types with source code.
+     * @param disablePut           <code>true</code> to not collect the PUT operations.
+     * @param searchableAnnotation The annotation of the domain classes listing the searchable properties or
+     *                             <code>null</code>.
+     * @param sortableAnnotation   The annotation of the domain classes listing the sortable properties or
+     *                             <code>null</code>.
+     */
+    public ElementOperationCollector(ProcessingEnvironment processingEnv, ElementSchemaModel schemaModel,
+                                     boolean disablePut, String searchableAnnotation, String sortableAnnotation) {
+        this.types = processingEnv.getTypeUtils();
+        this.schemaModel = schemaModel;
+        this.disablePut = disablePut;
+        this.searchableAnnotation = searchableAnnotation;
+        this.sortableAnnotation = sortableAnnotation;
+    }
+
+    /**
+     * Collects the operations of an exported repository.
+     *
+     * @param typeElement The type, also checked if it is an exported concrete repository.
+     * @return the operations or an empty list if the type is not an exported concrete repository with domain type.
+     */
+    public List<ApiOperation> collect(TypeElement typeElement) {
+        Repository repository = getRepository(typeElement);
+        if (repository == null) {
+            return Collections.emptyList();
+        }
+        List<ApiOperation> operations = new ArrayList<>();
+        addMethodByIdOperation(repository, ResourceNaming.FIND_BY_ID_METHOD, operations);
+        addCustomFinderOperations(repository, operations);
+        addCustomRemoverOperations(repository, operations);
+        addFindAllOperation(repository, operations);
+        addMethodByIdOperation(repository, ResourceNaming.DELETE_BY_ID_METHOD, operations);
+        addCreateOperation(repository, operations);
+        if (!disablePut) {
+            addUpdateOperation(repository, ResourceNaming.UPDATE_METHOD, operations);
+        }
+        addUpdateOperation(repository, ResourceNaming.PATCH_METHOD, operations);
+        return operations;
+    }
+
+    private Repository getRepository(TypeElement typeElement) {
+        if (typeElement.getKind() != ElementKind.INTERFACE || !typeElement.getTypeParameters().isEmpty() ||
+                (getFlags(typeElement) & TypeIndex.REPOSITORY) == 0) {
+            return null;
+        }
+        AnnotationMirror resource = getResourceAnnotation(typeElement);
+        if (resource == null || !isExported(resource)) {
+            return null;
+        }
+        DeclaredType domainType = getRepositoryTypeArgument(typeElement, 0, DOMAIN_REPOSITORIES);
+        if (domainType == null) {
+            return null;
+        }
+        TypeMirror idType = getRepositoryTypeArgument(typeElement, 1, ID_REPOSITORIES);
+        return new Repository(typeElement, getFlags(typeElement), domainType, idType,
+                ResourceHandler.SLASH + getResourcePath(resource,
+                        ResourceNaming.getDomainPath(getSimpleName(domainType))));
+    }
+
+    // handlers
+
+    private void addMethodByIdOperation(Repository repository, String methodName, List<ApiOperation> operations) {
+        ExecutableElement method = findClosestMethod(repository.type, methodName, String.class.getSimpleName());
+        if (isHidden(method)) {
+            return;
+        }
+        if (method != null && !isConcrete(getDeclaringType(method))) {
+            method = null;
+        }
+        if (method == null && !repository.isCrud()) {
+            return;
+        }
+        AnnotationMirror resource = findClosestMethodResourceAnnotation(repository.type, methodName,
+                String.class.getSimpleName());
+        if (resource != null && !isExported(resource)) {
+            return;
+        }
+        String path = ResourceHandler.SLASH + ResourceNaming.getMethodByIdPath(resource == null ? null :
+                getResourcePath(resource, null));
+        Map<String, String> types = new LinkedHashMap<>();
+        Javadoc javadoc = method == null ? null : schemaModel.getJavadoc(method);
+        List<Map<String, Object>> methodParameters = new ArrayList<>();
+        TypeMirror idType = method == null ? repository.idType : getParameterType(method, ResourceNaming.ID_PARAM);
+        if (idType != null) {
+            methodParameters.add(createMethodParameter(ResourceNaming.ID_PARAM, IN_PATH, idType,
+                    javadoc != null ? ResourceHandler.getJavadocParameter(javadoc, ResourceNaming.ID_PARAM) :
+                            ResourceNaming.ID_PARAM_DESCRIPTION));
+        }
+        boolean findById = methodName.equals(ResourceNaming.FIND_BY_ID_METHOD);
+        List<Map<String, Object>> responses = Collections.singletonList(findById ?
+                createResponse(200, getTypeSummary(repository.domainType),
+                        createContent(repository.domainType, false, types)) :
+                createResponse204());
+        String domainName = getSimpleName(repository.domainType);
+        operations.add(createOperation(repository, findById ? "get" : "delete", path,
+                getTypeName(repository, method), methodName, javadoc, null, null, responses, methodParameters,
+                findById ? ResourceNaming.getFindByIdSummary(domainName) :
+                        ResourceNaming.getDeleteByIdSummary(domainName), types));
+    }
+
+    private void addCustomFinderOperations(Repository repository, List<ApiOperation> operations) {
+        for (ExecutableElement method : findCustomMethods(repository.type, ResourceNaming.CUSTOM_FIND_METHOD_PREFIX,
+                Collections.singleton(ResourceNaming.FIND_BY_ID_METHOD))) {
+            if (isHidden(method)) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            List<String> parameterTypes = getParameterTypes(method);
+            AnnotationMirror resource = findClosestMethodResourceAnnotation(repository.type, methodName,
+                    parameterTypes.toArray(new String[0]));
+            if (resource != null && !isExported(resource)) {
+                continue;
+            }
+            String path = ResourceHandler.SLASH + ResourceNaming.getSearchPath(resource == null ? methodName :
+                    getResourcePath(resource, methodName));
+            Javadoc javadoc = schemaModel.getJavadoc(method);
+            List<String> parameterNames = new ArrayList<>();
+            for (VariableElement parameter : method.getParameters()) {
+                if (!isPageable(parameter.asType()) && !isSort(parameter.asType())) {
+                    parameterNames.add(parameter.getSimpleName().toString());
+                }
+            }
+            List<Map<String, Object>> parameters = getPageableSortingAndPredicateParameters(repository,
+                    parameterTypes);
+            List<Map<String, Object>> methodParameters = new ArrayList<>();
+            if (parameters.isEmpty()) {
+                for (VariableElement parameter : method.getParameters()) {
+                    String name = parameter.getSimpleName().toString();
+                    methodParameters.add(createMethodParameter(name, IN_QUERY, parameter.asType(),
+                            javadoc == null ? null : ResourceHandler.getJavadocParameter(javadoc, name)));
+                }
+            } else {
+                for (VariableElement parameter : method.getParameters()) {
+                    if (!isPageable(parameter.asType()) && !isSort(parameter.asType())) {
+                        String name = parameter.getSimpleName().toString();
+                        parameters.add(createParameter(name,
+                                javadoc == null ? null : ResourceHandler.getJavadocParameter(javadoc, name)));
+                    }
+                }
+            }
+            Map<String, String> types = new LinkedHashMap<>();
+            List<Map<String, Object>> responses = null;
+            if (!isPage(method.getReturnType())) {
+                TypeMirror returnType = unwrapOptional(method.getReturnType());
+                responses = Collections.singletonList(createResponse(200, getTypeSummary(returnType),
+                        createContent(returnType, false, types)));
+            }
+            operations.add(createOperation(repository, "get", path, getTypeName(repository, method), methodName,
+                    javadoc, parameters, null, responses, methodParameters,
+                    ResourceNaming.getCustomFinderSummary(methodName, parameterNames), types));
+        }
+    }
+
+    private void addCustomRemoverOperations(Repository repository, List<ApiOperation> operations) {
+        List<ExecutableElement> methods = new ArrayList<>(findCustomMethods(repository.type,
+                ResourceNaming.CUSTOM_REMOVE_METHOD_PREFIX, Collections.emptySet()));
+        methods.addAll(findCustomMethods(repository.type, ResourceNaming.CUSTOM_DELETE_METHOD_PREFIX,
+                Collections.singleton(ResourceNaming.DELETE_BY_ID_METHOD)));
+        for (ExecutableElement method : methods) {
+            if (isHidden(method)) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            // the resource configuration is looked up by the type of the first parameter
+            List<String> parameterTypes = getParameterTypes(method);
+            AnnotationMirror resource = findClosestMethodResourceAnnotation(repository.type, methodName,
+                    parameterTypes.isEmpty() ? new String[0] : new String[]{parameterTypes.get(0)});
+            if (resource != null && !isExported(resource)) {
+                continue;
+            }
+            String path = ResourceHandler.SLASH + ResourceNaming.getSearchPath(resource == null ? methodName :
+                    getResourcePath(resource, methodName));
+            Javadoc javadoc = schemaModel.getJavadoc(method);
+            List<String> parameterNames = new ArrayList<>();
+            List<Map<String, Object>> methodParameters = new ArrayList<>();
+            for (VariableElement parameter : method.getParameters()) {
+                String name = parameter.getSimpleName().toString();
+                parameterNames.add(name);
+                methodParameters.add(createMethodParameter(name, IN_QUERY, parameter.asType(),
+                        javadoc == null ? null : ResourceHandler.getJavadocParameter(javadoc, name)));
+            }
+            operations.add(createOperation(repository, "delete", path, getTypeName(repository, method), methodName,
+                    javadoc, null, null, Collections.singletonList(createResponse204()), methodParameters,
+                    ResourceNaming.getCustomRemoverSummary(methodName, parameterNames), new LinkedHashMap<>()));
+        }
+    }
+
+    private void addFindAllOperation(Repository repository, List<ApiOperation> operations) {
+        String predicate = ResourceHandler.getSimpleNameFromClass(ResourceMethodHandler.QUERYDSL_PREDICATE_CLASS);
+        String pageable = ResourceHandler.getSimpleNameFromClass(ResourceMethodHandler.PAGEABLE_CLASS);
+        String sort = ResourceHandler.getSimpleNameFromClass(ResourceMethodHandler.SORT_CLASS);
+        List<List<String>> variants = Arrays.asList(Arrays.asList(predicate, pageable),
+                Collections.singletonList(pageable), Collections.singletonList(sort), Collections.emptyList());
+        ExecutableElement method = null;
+        ExecutableElement exportedMethod = null;
+        ExecutableElement notExportedMethod = null;
+        for (List<String> variant : variants) {
+            String[] parameterTypes = variant.toArray(new String[0]);
+            ExecutableElement variantMethod = findClosestMethod(repository.type, ResourceNaming.FIND_ALL_METHOD,
+                    parameterTypes);
+            if (variantMethod == null) {
+                continue;
+            }
+            AnnotationMirror resource = findClosestMethodResourceAnnotation(repository.type,
+                    ResourceNaming.FIND_ALL_METHOD, parameterTypes);
+            if (resource == null) {
+                if (isConcrete(getDeclaringType(variantMethod))) {
+                    method = variantMethod;
+                    break;
+                }
+            } else if (isExported(resource)) {
+                exportedMethod = exportedMethod == null ? variantMethod : exportedMethod;
+            } else {
+                notExportedMethod = notExportedMethod == null ? variantMethod : notExportedMethod;
+            }
+        }
+        if (method == null) {
+            method = exportedMethod != null ? exportedMethod : notExportedMethod;
+        }
+        List<String> parameterTypes;
+        if (method != null) {
+            parameterTypes = getParameterTypes(method);
+        } else if (repository.isQuerydsl()) {
+            parameterTypes = variants.get(0);
+        } else if (repository.isCrud()) {
+            parameterTypes = variants.get(1);
+        } else {
+            return;
+        }
+        AnnotationMirror resource = findClosestMethodResourceAnnotation(repository.type,
+                ResourceNaming.FIND_ALL_METHOD, parameterTypes.toArray(new String[0]));
+        if (resource != null && !isExported(resource)) {
+            return;
+        }
+        List<Map<String, Object>> parameters = getPageableSortingAndPredicateParameters(repository, parameterTypes);
+        boolean paged = method == null || isPage(method.getReturnType());
+        Map<String, String> types = new LinkedHashMap<>();
+        Map<String, Object> response;
+        String domainName = getSimpleName(repository.domainType);
+        if (paged) {
+            types.put(domainName, getQualifiedName(repository.domainType));
+            response = createResponse(200, ResourceNaming.getPageSummary(getTypeSummary(repository.domainType)),
+                    createContent(Collections.singletonMap(REF, COMPONENTS_SCHEMAS + PAGE + domainName), false));
+        } else {
+            response = createResponse(200, getTypeSummary(method.getReturnType()),
+                    createContent(method.getReturnType(), false, types));
+        }
+        operations.add(createOperation(repository, "get", ResourceHandler.EMPTY_STRING,
+                getTypeName(repository, method), ResourceNaming.FIND_ALL_METHOD,
+                method == null ? null : schemaModel.getJavadoc(method), parameters, null,
+                Collections.singletonList(response), Collections.emptyList(),
+                ResourceNaming.getFindAllSummary(domainName, paged), types));
+    }
+
+    private void addCreateOperation(Repository repository, List<ApiOperation> operations) {
+        String domainName = getSimpleName(repository.domainType);
+        ExecutableElement method = findClosestMethod(repository.type, ResourceNaming.SAVE_METHOD, domainName);
+        if (isHidden(method)) {
+            return;
+        }
+        if (method != null && !isConcrete(getDeclaringType(method))) {
+            method = null;
+        }
+        if (method == null && !repository.isCrud()) {
+            return;
+        }
+        AnnotationMirror resource = findClosestMethodResourceAnnotation(repository.type, ResourceNaming.SAVE_METHOD,
+                domainName);
+        if (resource != null && !isExported(resource)) {
+            return;
+        }
+        Map<String, String> types = new LinkedHashMap<>();
+        operations.add(createOperation(repository, "post", ResourceHandler.EMPTY_STRING,
+                getTypeName(repository, method), ResourceNaming.SAVE_METHOD,
+                method == null ? null : schemaModel.getJavadoc(method), null, createRequestBody(repository, types),
+                Collections.singletonList(createResponse(201, getTypeSummary(repository.domainType),
+                        createContent(repository.domainType, false, types))),
+                Collections.emptyList(), ResourceNaming.getCreateSummary(domainName), types));
+    }
+
+    /**
+     * Adds the PUT or PATCH operation declared by the custom repository interface.
+     */
+    private void addUpdateOperation(Repository repository, String methodName, List<ApiOperation> operations) {
+        String domainName = getSimpleName(repository.domainType);
+        AnnotationMirror saveResource = findClosestMethodResourceAnnotation(repository.type,
+                ResourceNaming.SAVE_METHOD, domainName);
+        if (saveResource != null && !isExported(saveResource)) {
+            return;
+        }
+        TypeElement customInterface = findCustomRepositoryInterface(repository.type);
+        ExecutableElement method = customInterface == null ? null :
+                findMethod(customInterface, methodName, domainName);
+        // a method without resource annotation is replaced by the handlers
+        if (method != null && getResourceAnnotation(method) == null) {
+            method = null;
+        }
+        if (isHidden(method)) {
+            return;
+        }
+        String typeName = customInterface != null ? customInterface.getSimpleName().toString() :
+                ResourceNaming.getCustomRepositoryName(domainName);
+        Map<String, String> types = new LinkedHashMap<>();
+        boolean update = methodName.equals(ResourceNaming.UPDATE_METHOD);
+        List<Map<String, Object>> responses = new ArrayList<>();
+        responses.add(createResponse204());
+        if (update) {
+            responses.add(createResponse(200, getTypeSummary(repository.domainType),
+                    createContent(repository.domainType, false, types)));
+        }
+        operations.add(createOperation(repository, update ? "put" : "patch",
+                ResourceHandler.SLASH + ResourceNaming.ID_PATH, typeName, methodName,
+                method == null ? null : schemaModel.getJavadoc(method), null, createRequestBody(repository, types),
+                responses, Collections.emptyList(), update ? ResourceNaming.getUpdateSummary(domainName) :
+                        ResourceNaming.getPatchSummary(domainName), types));
+    }
+
+    // operation
+
+    /**
+     * Creates an operation with the members in the order of the annotation written by the handlers.
+     *
+     * @param path             The path relative to the path of the repository.
+     * @param typeName         The simple name of the type declaring the method.
+     * @param parameters       The parameters of the operation or <code>null</code>.
+     * @param requestBody      The request body or <code>null</code>.
+     * @param responses        The responses or <code>null</code>.
+     * @param methodParameters The JAX-RS parameters of the method.
+     * @param defaultSummary   The summary if the method is not documented.
+     */
+    private ApiOperation createOperation(Repository repository, String httpMethod, String path, String typeName,
+                                         String methodName, Javadoc javadoc, List<Map<String, Object>> parameters,
+                                         Map<String, Object> requestBody, List<Map<String, Object>> responses,
+                                         List<Map<String, Object>> methodParameters, String defaultSummary,
+                                         Map<String, String> types) {
+        String summary = defaultSummary;
+        String description = null;
+        if (javadoc != null) {
+            summary = ResourceHandler.getJavadocSummary(ResourceHandler.getJavadocText(javadoc));
+            description = ResourceNaming.getJavadocDescription(ResourceHandler.getJavadocText(javadoc));
+        }
+        Map<String, Object> operation = new LinkedHashMap<>();
+        operation.put(OPERATION_ID, ResourceNaming.getOperationId(typeName, methodName));
+        if (summary != null) {
+            operation.put(ResourceMethodHandler.OPERATION_SUMMARY, escape(summary));
+        }
+        if (description != null) {
+            operation.put(ResourceMethodHandler.OPERATION_DESCRIPTION, escape(description));
+        }
+        if (parameters != null && !parameters.isEmpty()) {
+            operation.put(PARAMETERS, parameters);
+        }
+        if (requestBody != null) {
+            operation.put(REQUEST_BODY, requestBody);
+        }
+        if (responses != null && !responses.isEmpty()) {
+            operation.put(RESPONSES, responses);
+        }
+        if (!methodParameters.isEmpty()) {
+            List<Object> allParameters = new ArrayList<>();
+            if (parameters != null) {
+                allParameters.addAll(parameters);
+            }
+            allParameters.addAll(methodParameters);
+            operation.put(PARAMETERS, allParameters);
+        }
+        return new ApiOperation(repository.type.getQualifiedName().toString(), httpMethod,
+                repository.path + path, Collections.singletonList(ResourceNaming.getTagName(
+                getSimpleName(repository.domainType))), operation, types);
+    }
+
+    /**
+     * Creates a parameter of the operation passed as query parameter.
+     */
+    private static Map<String, Object> createParameter(String name, String description) {
+        Map<String, Object> parameter = new LinkedHashMap<>();
+        parameter.put(NAME, name);
+        parameter.put(ResourceMethodHandler.PARAMETER_DESCRIPTION,
+                escape(description == null ? ResourceNaming.NO_DESCRIPTION : description));
+        parameter.put(IN, IN_QUERY_PARAMETER);
+        return parameter;
+    }
+
+    /**
+     * Creates a required JAX-RS parameter of the method.
+     */
+    private Map<String, Object> createMethodParameter(String name, String in, TypeMirror type, String description) {
+        Map<String, Object> parameter = new LinkedHashMap<>();
+        parameter.put(NAME, name);
+        parameter.put(IN, in);
+        parameter.put(REQUIRED, true);
+        if (description != null) {
+            parameter.put(ResourceMethodHandler.PARAMETER_DESCRIPTION, escape(description));
+        }
+        TypeMirror erasure = types.erasure(type);
+        parameter.put(SCHEMA, Collections.singletonMap(IMPLEMENTATION, erasure.getKind() == TypeKind.DECLARED ?
+                getQualifiedName((DeclaredType) erasure) : erasure.toString()));
+        return parameter;
+    }
+
+    private List<Map<String, Object>> getPageableSortingAndPredicateParameters(Repository repository,
+                                                                               List<String> parameterTypes) {
+        List<Map<String, Object>> parameters = new ArrayList<>();
+        TypeElement domainElement = (TypeElement) repository.domainType.asElement();
+        for (String parameterType : parameterTypes) {
+            if (parameterType.endsWith(ResourceHandler.getSimpleNameFromClass(
+                    ResourceMethodHandler.PAGEABLE_CLASS))) {
+                parameters.addAll(getSortParameters(domainElement));
+                parameters.add(createParameter(ResourceNaming.PAGE_PARAM, ResourceNaming.PAGE_PARAM_DESCRIPTION));
+                parameters.add(createParameter(ResourceNaming.SIZE_PARAM, ResourceNaming.SIZE_PARAM_DESCRIPTION));
+            } else if (parameterType.endsWith(ResourceHandler.getSimpleNameFromClass(
+                    ResourceMethodHandler.QUERYDSL_PREDICATE_CLASS))) {
+                for (String property : getAnnotationValues(domainElement, searchableAnnotation)) {
+                    parameters.add(createParameter(property, ResourceNaming.getSearchParamDescription(property)));
+                }
+            } else if (parameterType.endsWith(ResourceHandler.getSimpleNameFromClass(
+                    ResourceMethodHandler.SORT_CLASS))) {
+                parameters.addAll(getSortParameters(domainElement));
+            }
+        }
+        return parameters;
+    }
+
+    private List<Map<String, Object>> getSortParameters(TypeElement domainElement) {
+        List<String> properties = getAnnotationValues(domainElement, sortableAnnotation);
+        if (properties.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(createParameter(ResourceNaming.SORT_PARAM,
+                ResourceNaming.getSortParamDescription(properties)));
+    }
+
+    /**
+     * Gets the values of an annotation of a domain class or its closest annotated superclass.
+     */
+    private static List<String> getAnnotationValues(TypeElement typeElement, String annotationClass) {
+        if (annotationClass == null) {
+            return Collections.emptyList();
+        }
+        while (typeElement != null) {
+            AnnotationMirror annotationMirror = ElementSchemaModel.getAnnotation(typeElement, annotationClass);
+            if (annotationMirror != null) {
+                Object value = ElementSchemaModel.getAnnotationValue(annotationMirror, VALUE);
+                if (value instanceof List) {
+                    return ((List<?>) value).stream().map(v -> ((AnnotationValue) v).getValue().toString()).
+                            collect(Collectors.toList());
+                }
+                return value == null ? Collections.emptyList() : Collections.singletonList(value.toString());
+            }
+            typeElement = typeElement.getSuperclass().getKind() == TypeKind.DECLARED ?
+                    (TypeElement) ((DeclaredType) typeElement.getSuperclass()).asElement() : null;
+        }
+        return Collections.emptyList();
+    }
+
+    private Map<String, Object> createRequestBody(Repository repository, Map<String, String> types) {
+        Map<String, Object> requestBody = new LinkedHashMap<>();
+        String summary = getTypeSummary(repository.domainType);
+        if (summary != null) {
+            requestBody.put(ResourceMethodHandler.REQUEST_BODY_API_RESPONSE_DESCRIPTION,
+                    StringEscapeUtils.unescapeJava(summary));
+        }
+        requestBody.put(CONTENT, createContent(repository.domainType, true, types));
+        return requestBody;
+    }
+
+    private static Map<String, Object> createResponse(int statusCode, String summary, List<Object> content) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put(RESPONSE_CODE, Integer.toString(statusCode));
+        if (summary != null) {
+            response.put(ResourceMethodHandler.REQUEST_BODY_API_RESPONSE_DESCRIPTION, escape(summary));
+        }
+        response.put(CONTENT, content);
+        return response;
+    }
+
+    private static Map<String, Object> createResponse204() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put(RESPONSE_CODE, "204");
+        response.put(ResourceMethodHandler.REQUEST_BODY_API_RESPONSE_DESCRIPTION, NO_CONTENT);
+        return response;
+    }
+
+    private List<Object> createContent(TypeMirror type, boolean request, Map<String, String> types) {
+        if (isCollection(type)) {
+            return createContent(ARRAY, Collections.singletonMap(SCHEMA, createSchema(getElementType(type), types)),
+                    request);
+        }
+        return createContent(SCHEMA, createSchema(type, types), request);
+    }
+
+    private static List<Object> createContent(Map<String, ?> schema, boolean request) {
+        return createContent(SCHEMA, schema, request);
+    }
+
+    private static List<Object> createContent(String member, Map<String, ?> schema, boolean request) {
+        List<Object> content = new ArrayList<>();
+        for (String mediaType : request ? new String[]{ResourceMethodHandler.MEDIATYPE_JSON} :
+                new String[]{ResourceMethodHandler.MEDIATYPE_JSON, ResourceMethodHandler.MEDIATYPE_JSON_HAL}) {
+            Map<String, Object> mediaTypeContent = new LinkedHashMap<>();
+            mediaTypeContent.put(MEDIA_TYPE, mediaType);
+            mediaTypeContent.put(member, schema);
+            content.add(mediaTypeContent);
+        }
+        return content;
+    }
+
+    /**
+     * Creates the schema of a type. Primitive types are boxed, type variables are described as objects.
+     */
+    private Map<String, Object> createSchema(TypeMirror type, Map<String, String> types) {
+        if (type.getKind().isPrimitive()) {
+            type = this.types.boxedClass((PrimitiveType) type).asType();
+        }
+        String qualifiedName = type.getKind() == TypeKind.DECLARED ? getQualifiedName((DeclaredType) type) :
+                Object.class.getName();
+        types.put(qualifiedName, qualifiedName);
+        return Collections.singletonMap(IMPLEMENTATION, qualifiedName);
+    }
+
+    // types
+
+    private String getTypeSummary(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.toString();
+        }
+        if (type.getKind() == TypeKind.DECLARED && Arrays.asList(PRIMITIVE_OBJECTS).contains(
+                getSimpleName((DeclaredType) type))) {
+            return getSimpleName((DeclaredType) type);
+        }
+        if (isCollection(type)) {
+            String elementSummary = getTypeSummary(getElementType(type));
+            return elementSummary == null ? null : ResourceNaming.getArraySummary(elementSummary);
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return schemaModel.getJavadocSummary(((DeclaredType) type).asElement());
+    }
+
+    private static boolean isCollection(TypeMirror type) {
+        return type.getKind() == TypeKind.ARRAY || type.getKind() == TypeKind.DECLARED &&
+                Arrays.asList(COLLECTIONS).contains(getSimpleName((DeclaredType) type)) &&
+                !((DeclaredType) type).getTypeArguments().isEmpty();
+    }
+
+    private static TypeMirror getElementType(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return ((ArrayType) type).getComponentType();
+        }
+        return ((DeclaredType) type).getTypeArguments().get(0);
+    }
+
+    private static TypeMirror unwrapOptional(TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED && getSimpleName((DeclaredType) type).equals(OPTIONAL) &&
+                !((DeclaredType) type).getTypeArguments().isEmpty()) {
+            return ((DeclaredType) type).getTypeArguments().get(0);
+        }
+        return type;
+    }
+
+    private static boolean isPage(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && getSimpleName((DeclaredType) type).endsWith(PAGE);
+    }
+
+    private static boolean isPageable(TypeMirror type) {
+        return getSimpleTypeName(type).endsWith(ResourceHandler.getSimpleNameFromClass(
+                ResourceMethodHandler.PAGEABLE_CLASS));
+    }
+
+    private static boolean isSort(TypeMirror type) {
+        return getSimpleTypeName(type).endsWith(ResourceHandler.getSimpleNameFromClass(
+                ResourceMethodHandler.SORT_CLASS));
+    }
+
+    private static String getSimpleName(DeclaredType type) {
+        return type.asElement().getSimpleName().toString();
+    }
+
+    private static String getQualifiedName(DeclaredType type) {
+        return ((TypeElement) type.asElement()).getQualifiedName().toString();
+    }
+
+    /**
+     * Gets the type name as matched by the {@link MethodIndex}, the simple name of a class or the name of a type
+     * variable.
+     */
+    private static String getSimpleTypeName(TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED) {
+            return getSimpleName((DeclaredType) type);
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            return getSimpleTypeName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        return type.toString();
+    }
+
+    // hierarchy
+
+    /**
+     * Gets the properties of the Spring Data interfaces extended by a type.
+     *
+     * @return the combination of {@link TypeIndex#CRUD}, {@link TypeIndex#QUERYDSL} and {@link TypeIndex#REPOSITORY}.
+     */
+    private int getFlags(TypeElement typeElement) {
+        int flags = 0;
+        Deque<TypeElement> typeElements = new ArrayDeque<>(Collections.singleton(typeElement));
+        Set<String> visited = new HashSet<>();
+        while (!typeElements.isEmpty()) {
+            for (TypeMirror supertype : typeElements.poll().getInterfaces()) {
+                TypeElement supertypeElement = (TypeElement) ((DeclaredType) supertype).asElement();
+                if (visited.add(supertypeElement.getQualifiedName().toString())) {
+                    flags |= TypeIndex.getDeclaredFlags(supertypeElement.getSimpleName().toString());
+                    typeElements.add(supertypeElement);
+                }
+            }
+        }
+        return flags;
+    }
+
+    /**
+     * Gets a type argument of the closest Spring Data interface extended by a type with the type variables of the
+     * hierarchy substituted.
+     */
+    private DeclaredType getRepositoryTypeArgument(TypeElement typeElement, int index, String... repositories) {
+        Deque<TypeMirror> supertypes = new ArrayDeque<>(Collections.singleton(typeElement.asType()));
+        Set<String> visited = new HashSet<>();
+        while (!supertypes.isEmpty()) {
+            for (TypeMirror supertype : types.directSupertypes(supertypes.poll())) {
+                if (supertype.getKind() != TypeKind.DECLARED || !visited.add(getQualifiedName(
+                        (DeclaredType) supertype))) {
+                    continue;
+                }
+                List<? extends TypeMirror> typeArguments = ((DeclaredType) supertype).getTypeArguments();
+                if (Arrays.asList(repositories).contains(getSimpleName((DeclaredType) supertype)) &&
+                        typeArguments.size() > index) {
+                    TypeMirror typeArgument = typeArguments.get(index);
+                    return typeArgument.getKind() == TypeKind.DECLARED ? (DeclaredType) typeArgument : null;
+                }
+                supertypes.add(supertype);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the extended interfaces with source code. The Spring Data interfaces are not part of the source code.
+     */
+    private List<TypeElement> getSourceSupertypes(TypeElement typeElement) {
+        List<TypeElement> supertypes = new ArrayList<>();
+        for (TypeMirror supertype : typeElement.getInterfaces()) {
+            TypeElement supertypeElement = (TypeElement) ((DeclaredType) supertype).asElement();
+            if (schemaModel.hasSource(supertypeElement)) {
+                supertypes.add(supertypeElement);
+            }
+        }
+        return supertypes;
+    }
+
+    private TypeElement findCustomRepositoryInterface(TypeElement typeElement) {
+        for (TypeElement supertype : getSourceSupertypes(typeElement)) {
+            if (getFlags(supertype) == 0) {
+                return supertype;
+            }
+            TypeElement customInterface = findCustomRepositoryInterface(supertype);
+            if (customInterface != null) {
+                return customInterface;
+            }
+        }
+        return null;
+    }
+
+    // methods
+
+    private ExecutableElement findMethod(TypeElement typeElement, String methodName, String... parameterTypes) {
+        for (ExecutableElement method : ElementFilter.methodsIn(typeElement.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(methodName) &&
+                    getParameterTypes(method).equals(Arrays.asList(parameterTypes))) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds a method of a repository or the closest extended repository with source code.
+     */
+    private ExecutableElement findClosestMethod(TypeElement typeElement, String methodName,
+                                                String... parameterTypes) {
+        if ((getFlags(typeElement) & TypeIndex.REPOSITORY) != 0) {
+            ExecutableElement method = findMethod(typeElement, methodName, parameterTypes);
+            if (method != null) {
+                return method;
+            }
+        }
+        for (TypeElement supertype : getSourceSupertypes(typeElement)) {
+            ExecutableElement method = findClosestMethod(supertype, methodName, parameterTypes);
+            if (method != null) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the resource annotation of the closest method of a repository having one.
+     */
+    private AnnotationMirror findClosestMethodResourceAnnotation(TypeElement typeElement, String methodName,
+                                                                 String... parameterTypes) {
+        if ((getFlags(typeElement) & TypeIndex.REPOSITORY) != 0) {
+            ExecutableElement method = findMethod(typeElement, methodName, parameterTypes);
+            AnnotationMirror resource = method == null ? null : getResourceAnnotation(method);
+            if (resource != null) {
+                return resource;
+            }
+        }
+        for (TypeElement supertype : getSourceSupertypes(typeElement)) {
+            AnnotationMirror resource = findClosestMethodResourceAnnotation(supertype, methodName, parameterTypes);
+            if (resource != null) {
+                return resource;
+            }
+        }
+        return null;
+    }
+
+    private List<ExecutableElement> findCustomMethods(TypeElement typeElement, String prefix,
+                                                      Set<String> excludedMethods) {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(typeElement.getEnclosedElements()).stream().
+                filter(m -> !excludedMethods.contains(m.getSimpleName().toString()) &&
+                        m.getSimpleName().toString().startsWith(prefix)).collect(Collectors.toList());
+        for (TypeElement supertype : getSourceSupertypes(typeElement)) {
+            methods.addAll(findCustomMethods(supertype, prefix, excludedMethods));
+        }
+        return methods;
+    }
+
+    private static List<String> getParameterTypes(ExecutableElement method) {
+        return method.getParameters().stream().map(p -> getSimpleTypeName(p.asType())).collect(Collectors.toList());
+    }
+
+    private static TypeMirror getParameterType(ExecutableElement method, String name) {
+        return method.getParameters().stream().filter(p -> p.getSimpleName().contentEquals(name)).
+                map(Element::asType).findFirst().orElse(null);
+    }
+
+    private static TypeElement getDeclaringType(ExecutableElement method) {
+        return (TypeElement) method.getEnclosingElement();
+    }
+
+    /**
+     * Gets the simple name of the type declaring a method or of the repository for a method added by the handlers.
+     */
+    private static String getTypeName(Repository repository, ExecutableElement method) {
+        return (method == null ? repository.type : getDeclaringType(method)).getSimpleName().toString();
+    }
+
+    private static boolean isConcrete(TypeElement typeElement) {
+        return typeElement.getTypeParameters().isEmpty();
+    }
+
+    private static boolean isHidden(ExecutableElement method) {
+        return method != null && ElementSchemaModel.getAnnotationValue(method,
+                ResourceMethodHandler.OPERATION_ANNOTATION_CLASS, ResourceMethodHandler.OPERATION_HIDDEN) != null;
+    }
+
+    // resource annotations
+
+    private static AnnotationMirror getResourceAnnotation(Element element) {
+        AnnotationMirror resource = ElementSchemaModel.getAnnotation(element,
+                ResourceHandler.REPOSITORY_REST_RESOURCE_CLASS);
+        return resource != null ? resource : ElementSchemaModel.getAnnotation(element,
+                ResourceHandler.RESOURCE_CLASS);
+    }
+
+    private static boolean isExported(AnnotationMirror resource) {
+        return !Boolean.FALSE.equals(ElementSchemaModel.getAnnotationValue(resource,
+                ResourceHandler.RESOURCE_EXPORTED));
+    }
+
+    private static String getResourcePath(AnnotationMirror resource, String defaultPath) {
+        Object path = ElementSchemaModel.getAnnotationValue(resource, ResourceHandler.RESOURCE_PATH);
+        return path == null ? defaultPath : path.toString();
+    }
+
+    /**
+     * Escapes a text like the handlers do for a string member of an annotation and reads it back as the member
+     * value.
+     */
+    private static String escape(String string) {
+        return StringEscapeUtils.unescapeJava(ResourceNaming.escapeString(string));
+    }
+
+    /**
+     * An exported concrete repository.
+     */
+    private static class Repository {
+
+        private final TypeElement type;
+
+        private final int flags;
+
+        private final DeclaredType domainType;
+
+        /**
+         * The id type or <code>null</code> if no CRUD repository.
+         */
+        private final TypeMirror idType;
+
+        /**
+         * The path with leading slash.
+         */
+        private final String path;
+
+        private Repository(TypeElement type, int flags, DeclaredType domainType, TypeMirror idType, String path) {
+            this.type = type;
+            this.flags = flags;
+            this.domainType = domainType;
+            this.idType = idType;
+            this.path = path;
+        }
+
+        private boolean isCrud() {
+            return (flags & TypeIndex.CRUD) != 0;
+        }
+
+        private boolean isQuerydsl() {
+            return (flags & TypeIndex.QUERYDSL) != 0;
+        }
+    }
+}
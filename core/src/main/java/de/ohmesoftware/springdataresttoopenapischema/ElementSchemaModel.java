@@ -0,0 +1,268 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.javadoc.Javadoc;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Model of the domain types read from the elements of javac.
+ * <p>
+ * Only types with source code are written as schemas, like the {@link SourceSchemaModel} only considers types with
+ * source files. These are the types compiled by javac and the types found in the source path. The properties of a
+ * domain class are derived from its fields and the fields of its superclasses, considering the Jackson annotations.
+ * Annotations are matched by their simple names like the handlers do. The Javadoc is taken from the doc comments of
+ * the elements.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class ElementSchemaModel implements SchemaModel {
+
+    private static final String OBJECT = "Object";
+
+    private static final String DESCRIPTION = "description";
+
+    private static final String JAVA_EXT = ".java";
+
+    private final ProcessingEnvironment processingEnv;
+
+    private final Elements elements;
+
+    /**
+     * The fully qualified names of the types compiled by javac.
+     */
+    private final Set<String> compiledTypes;
+
+    /**
+     * Cache if a type by its fully qualified name has source code.
+     */
+    private final Map<String, Boolean> sourceTypes = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param processingEnv The processing environment of javac.
+     * @param compiledTypes The fully qualified names of the types compiled by javac. The set might grow in later
+     *                      rounds.
+     */
+    public ElementSchemaModel(ProcessingEnvironment processingEnv, Set<String> compiledTypes) {
+        this.processingEnv = processingEnv;
+        this.elements = processingEnv.getElementUtils();
+        this.compiledTypes = compiledTypes;
+    }
+
+    @Override
+    public boolean contains(String qualifiedName) {
+        return getSourceType(qualifiedName) != null;
+    }
+
+    @Override
+    public SchemaType getType(String qualifiedName) {
+        TypeElement typeElement = getSourceType(qualifiedName);
+        if (typeElement == null) {
+            return null;
+        }
+        if (typeElement.getKind() == ElementKind.ENUM) {
+            return new SchemaType(true, getJavadocSummary(typeElement),
+                    typeElement.getEnclosedElements().stream().filter(e -> e.getKind() == ElementKind.ENUM_CONSTANT).
+                            map(e -> e.getSimpleName().toString()).collect(Collectors.toList()),
+                    Collections.emptyList());
+        }
+        List<SchemaProperty> properties = new ArrayList<>();
+        if (typeElement.getKind() == ElementKind.CLASS) {
+            addProperties(typeElement, new HashSet<>(), properties);
+        }
+        return new SchemaType(false, getJavadocSummary(typeElement), Collections.emptyList(), properties);
+    }
+
+    /**
+     * Gets a type with source code.
+     *
+     * @param qualifiedName The fully qualified class name.
+     * @return the type or <code>null</code> if the type is unknown or has no source code.
+     */
+    private TypeElement getSourceType(String qualifiedName) {
+        TypeElement typeElement = elements.getTypeElement(qualifiedName);
+        if (typeElement == null || !hasSource(typeElement)) {
+            return null;
+        }
+        return typeElement;
+    }
+
+    /**
+     * Checks if a type has source code. The type is compiled by javac or the source file of its top level type is
+     * found in the source path.
+     *
+     * @param typeElement The type.
+     * @return <code>true</code> if the type has source code.
+     */
+    boolean hasSource(TypeElement typeElement) {
+        TypeElement topLevelElement = typeElement;
+        while (topLevelElement.getNestingKind() != NestingKind.TOP_LEVEL &&
+                topLevelElement.getEnclosingElement() instanceof TypeElement) {
+            topLevelElement = (TypeElement) topLevelElement.getEnclosingElement();
+        }
+        String qualifiedName = topLevelElement.getQualifiedName().toString();
+        if (compiledTypes.contains(qualifiedName)) {
+            return true;
+        }
+        PackageElement packageElement = elements.getPackageOf(topLevelElement);
+        String fileName = topLevelElement.getSimpleName() + JAVA_EXT;
+        return sourceTypes.computeIfAbsent(qualifiedName, n -> {
+            try {
+                processingEnv.getFiler().getResource(StandardLocation.SOURCE_PATH,
+                        packageElement.getQualifiedName(), fileName);
+                return true;
+            } catch (IOException | IllegalArgumentException e) {
+                // not in the source path or no source path given
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Gets the Javadoc of an element.
+     *
+     * @param element The element.
+     * @return the parsed doc comment or <code>null</code> if the element is not documented.
+     */
+    Javadoc getJavadoc(Element element) {
+        String docComment = elements.getDocComment(element);
+        return docComment == null ? null : JavaParser.parseJavadoc(docComment);
+    }
+
+    /**
+     * Gets the summary of the Javadoc of an element.
+     *
+     * @param element The element.
+     * @return the summary or <code>null</code> if the element is not documented.
+     */
+    String getJavadocSummary(Element element) {
+        Javadoc javadoc = getJavadoc(element);
+        return javadoc == null ? null : ResourceHandler.getJavadocSummary(ResourceHandler.getJavadocText(javadoc));
+    }
+
+    /**
+     * Adds the properties of the fields of a class, starting with the fields of the superclasses.
+     */
+    private void addProperties(TypeElement typeElement, Set<String> names, List<SchemaProperty> properties) {
+        if (typeElement.getSuperclass().getKind() == TypeKind.DECLARED) {
+            TypeElement superclass = (TypeElement) ((DeclaredType) typeElement.getSuperclass()).asElement();
+            if (hasSource(superclass)) {
+                addProperties(superclass, names, properties);
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(typeElement.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.TRANSIENT) ||
+                    getAnnotation(field, ResourceMethodHandler.JSON_IGNORE_CLASS) != null) {
+                continue;
+            }
+            if (!names.add(field.getSimpleName().toString())) {
+                continue;
+            }
+            Object description = getAnnotationValue(field, ResourceMethodHandler.SCHEMA_ANNOTATION_CLASS,
+                    DESCRIPTION);
+            if (description == null) {
+                description = getJavadocSummary(field);
+            }
+            Object access = getAnnotationValue(field, ResourceMethodHandler.JSON_PROPERTY_CLASS,
+                    ResourceMethodHandler.JSON_PROPERTY_ACCESS);
+            properties.add(new SchemaProperty(field.getSimpleName().toString(), getTypeReference(field.asType()),
+                    description == null ? null : description.toString(), access == null ? null : access.toString()));
+        }
+    }
+
+    private static TypeReference getTypeReference(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return new TypeReference(type.toString(), null,
+                    getTypeReference(((ArrayType) type).getComponentType()), Collections.emptyList());
+        }
+        if (type.getKind().isPrimitive()) {
+            return new TypeReference(type.toString(), null, null, Collections.emptyList());
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return new TypeReference(OBJECT, null, null, Collections.emptyList());
+        }
+        TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+        return new TypeReference(typeElement.getSimpleName().toString(), typeElement.getQualifiedName().toString(),
+                null, ((DeclaredType) type).getTypeArguments().stream().map(ElementSchemaModel::getTypeReference).
+                collect(Collectors.toList()));
+    }
+
+    /**
+     * Gets an annotation by its simple name.
+     *
+     * @param element         The annotated element.
+     * @param annotationClass The fully qualified class name of the annotation.
+     * @return the annotation or <code>null</code>.
+     */
+    static AnnotationMirror getAnnotation(Element element, String annotationClass) {
+        String simpleName = ResourceHandler.getSimpleNameFromClass(annotationClass);
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            if (annotationMirror.getAnnotationType().asElement().getSimpleName().contentEquals(simpleName)) {
+                return annotationMirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the explicitly set value of an annotation member. Enum constants are converted to their names.
+     *
+     * @param element         The annotated element.
+     * @param annotationClass The fully qualified class name of the annotation.
+     * @param member          The member name.
+     * @return the value or <code>null</code> if the annotation or the member is not present.
+     */
+    static Object getAnnotationValue(Element element, String annotationClass, String member) {
+        AnnotationMirror annotationMirror = getAnnotation(element, annotationClass);
+        return annotationMirror == null ? null : getAnnotationValue(annotationMirror, member);
+    }
+
+    /**
+     * Gets the explicitly set value of an annotation member. Enum constants are converted to their names.
+     *
+     * @param annotationMirror The annotation.
+     * @param member           The member name.
+     * @return the value or <code>null</code> if the member is not present.
+     */
+    static Object getAnnotationValue(AnnotationMirror annotationMirror, String member) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value :
+                annotationMirror.getElementValues().entrySet()) {
+            if (value.getKey().getSimpleName().contentEquals(member)) {
+                Object _value = value.getValue().getValue();
+                return _value instanceof VariableElement ? ((VariableElement) _value).getSimpleName().toString() :
+                        _value;
+            }
+        }
+        return null;
+    }
+}
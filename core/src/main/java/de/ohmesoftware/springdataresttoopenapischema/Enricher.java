@@ -0,0 +1,1096 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.ast.CompilationUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Enriches the passed source path and sub directories and adds or sets the "description" property of the @Schema annotation
+ * from the Javadoc.
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class Enricher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Enricher.class);
+
+    private static final String INCLUDE_EXCLUDE_SEPARATOR = ",";
+
+    private static final String SLASH = "/";
+
+    private static final String JAVA_EXT = ".java";
+
+    private static final String EXCLUDES_OPT = "-excludes";
+    private static final String INCLUDES_OPT = "-includes";
+    private static final String SOURCE_OPT = "-sourcePath";
+    private static final String REFERENCE_OPT = "-referencePath";
+    private static final String DISABLED_PUT = "-disablePUT";
+    private static final String SORTABLE_ANNOTATION = "-sortableAnnotation";
+    private static final String SEARCHABLE_ANNOTATION = "-searchableAnnotation";
+    private static final String THREADS_OPT = "-threads";
+    private static final String FULL_OPT = "-full";
+    private static final String STATE_DIR_OPT = "-stateDir";
+    private static final String PATCH_OPT = "-patch";
+    private static final String PATCH_DIR_OPT = "-patchDir";
+    private static final String PRESERVE_FORMATTING_OPT = "-preserveFormatting";
+    private static final String METRICS_OUT_OPT = "-metricsOut";
+    private static final String DAEMON_OPT = "-daemon";
+    private static final String PORT_OPT = "-port";
+    private static final String OPENAPI_OUT_OPT = "-openApiOut";
+    private static final String CACHE_MAX_MB_OPT = "-cacheMaxMb";
+    private static final String CLASS_PATH_OPT = "-classPath";
+
+    /**
+     * The source path to enrich, several source paths are separated by comma.
+     */
+    private String sourcePath;
+
+    /**
+     * The source paths to enrich and the source paths only read.
+     */
+    private SourceRoots sourceRoots;
+
+    /**
+     * The jar files and directories of the types without source code separated by the platform path separator.
+     */
+    private String classPath;
+
+    /**
+     * The includes.
+     */
+    private Set<String> includes;
+
+    /**
+     * The excludes.
+     */
+    private Set<String> excludes;
+
+    /**
+     * Disables the PUT command.
+     */
+    private boolean disabledPut;
+
+    /**
+     * The Sortable annotation.
+     */
+    private String sortableAnnotation;
+
+    /**
+     * The Searchable annotation.
+     */
+    private String searchableAnnotation;
+
+    /**
+     * The number of threads for enriching source files.
+     */
+    private int threads = 1;
+
+    /**
+     * Enriches all source files, also the unchanged ones.
+     */
+    private boolean full;
+
+    /**
+     * The directory for the manifest and the index. Defaults to the source path.
+     */
+    private String stateDir;
+
+    /**
+     * The unified diff file to write the changes to instead of writing the source files.
+     */
+    private String patchFile;
+
+    /**
+     * The directory to write a unified diff for each changed source file to instead of writing the source files.
+     */
+    private String patchDir;
+
+    /**
+     * Keeps the formatting of the code not changed by the enrichment.
+     */
+    private boolean preserveFormatting;
+
+    /**
+     * The JSON file to write the metrics of a run to.
+     */
+    private String metricsOut;
+
+    /**
+     * The JSON or YAML file to write the OpenAPI document to.
+     */
+    private String openApiOut;
+
+    /**
+     * The heap budget of the parsed source files in MB or 0 if unbounded.
+     */
+    private int cacheMaxMb;
+
+    /**
+     * The metrics of the last run.
+     */
+    private RunMetrics metrics;
+
+    /**
+     * The state kept between runs or <code>null</code> if each run starts from scratch.
+     */
+    private WarmState warmState;
+
+    /**
+     * The number of source files enriched by the last run.
+     */
+    private int processedFiles;
+
+    /**
+     * The number of unchanged source files skipped by the last run.
+     */
+    private int skippedFiles;
+
+    /**
+     * Constructor.
+     *
+     * @param sourcePath The source path to enrich, several source paths are separated by comma.
+     * @param includes   The includes.
+     * @param excludes   The excludes.
+     * @param disablePut Disables the PUT command.
+     * @param searchableAnnotation The searchable annotation.
+     * @param sortableAnnotation The sortable annotation.
+     */
+    public Enricher(String sourcePath, Set<String> includes, Set<String> excludes, boolean disablePut,
+                    String searchableAnnotation, String sortableAnnotation) {
+        this.sourcePath = sourcePath;
+        if (sourcePath.endsWith(SLASH)) {
+            this.sourcePath = sourcePath.substring(0, sourcePath.length() - 1);
+        }
+        this.sourceRoots = new SourceRoots(this.sourcePath);
+        this.includes = includes;
+        this.excludes = excludes;
+        this.disabledPut = disablePut;
+        this.searchableAnnotation = searchableAnnotation;
+        this.sortableAnnotation = sortableAnnotation;
+    }
+
+    /**
+     * Builder for an enricher.
+     */
+    public static class Builder {
+
+        private String sourcePath;
+        private String referencePath;
+        private String classPath;
+        private Set<String> includes;
+        private Set<String> excludes;
+        private boolean disablePut;
+        private String searchableAnnotation;
+        private String sortableAnnotation;
+        private int threads = 1;
+        private boolean full;
+        private String stateDir;
+        private String patchFile;
+        private String patchDir;
+        private boolean preserveFormatting;
+        private String metricsOut;
+        private String openApiOut;
+        private int cacheMaxMb;
+
+        /**
+         * Constructor.
+         *
+         * @param sourcePath The source path to enrich, several source paths are separated by comma.
+         */
+        public Builder(String sourcePath) {
+            this.sourcePath = sourcePath;
+        }
+
+        /**
+         * Sets the source paths only read, e.g. the modules containing the domain classes or the supertypes of the
+         * repositories. Their source files are resolved but never written.
+         *
+         * @param referencePath The source paths separated by comma or <code>null</code>.
+         * @return this builder.
+         */
+        public Builder referencePath(String referencePath) {
+            this.referencePath = referencePath;
+            return this;
+        }
+
+        /**
+         * Sets the class path of the types without source code, e.g. repository interfaces of a shared library or
+         * domain classes of a dependency. Their supertypes, type arguments and annotations are read from the class
+         * files without loading the classes.
+         *
+         * @param classPath The jar files and directories separated by the platform path separator or
+         *                  <code>null</code>.
+         * @return this builder.
+         */
+        public Builder classPath(String classPath) {
+            this.classPath = classPath;
+            return this;
+        }
+
+        public Builder includes(Set<String> includes) {
+            this.includes = includes;
+            return this;
+        }
+
+        public Builder excludes(Set<String> excludes) {
+            this.excludes = excludes;
+            return this;
+        }
+
+        public Builder disablePut(boolean disablePut) {
+            this.disablePut = disablePut;
+            return this;
+        }
+
+        public Builder searchableAnnotation(String searchableAnnotation) {
+            this.searchableAnnotation = searchableAnnotation;
+            return this;
+        }
+
+        public Builder sortableAnnotation(String sortableAnnotation) {
+            this.sortableAnnotation = sortableAnnotation;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads for enriching source files. Source files sharing a supertype or a custom
+         * repository interface are still enriched one after another in the order of the sequential run.
+         *
+         * @param threads The number of threads. Must be at least 1.
+         * @return this builder.
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException(String.format("Invalid number of threads: %d", threads));
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Enriches all source files, also the ones unchanged since the last run.
+         *
+         * @param full <code>true</code> to disable the incremental enrichment.
+         * @return this builder.
+         */
+        public Builder full(boolean full) {
+            this.full = full;
+            return this;
+        }
+
+        /**
+         * Sets the directory for the manifest of the incremental enrichment and the persistent index of the types.
+         *
+         * @param stateDir The state directory. If <code>null</code> the manifest and the index are kept in the source
+         *                 path.
+         * @return this builder.
+         */
+        public Builder stateDir(String stateDir) {
+            this.stateDir = stateDir;
+            return this;
+        }
+
+        /**
+         * Writes all changes as a single unified diff instead of writing the source files. Patch mode always
+         * enriches all source files and does not update the manifest.
+         *
+         * @param patchFile The patch file. If <code>null</code> the source files are written.
+         * @return this builder.
+         */
+        public Builder patchFile(String patchFile) {
+            this.patchFile = patchFile;
+            return this;
+        }
+
+        /**
+         * Writes a unified diff for each changed source file instead of writing the source files. Patch mode always
+         * enriches all source files and does not update the manifest.
+         *
+         * @param patchDir The directory for the patch files. If <code>null</code> the source files are written.
+         * @return this builder.
+         */
+        public Builder patchDir(String patchDir) {
+            this.patchDir = patchDir;
+            return this;
+        }
+
+        /**
+         * Keeps the formatting of the code not changed by the enrichment. Only the added or removed annotations and
+         * methods are printed, all other bytes of an enriched source file stay the same.
+         *
+         * @param preserveFormatting <code>true</code> to preserve the formatting.
+         * @return this builder.
+         */
+        public Builder preserveFormatting(boolean preserveFormatting) {
+            this.preserveFormatting = preserveFormatting;
+            return this;
+        }
+
+        /**
+         * Writes the metrics of each run as JSON report.
+         *
+         * @param metricsOut The report file. If <code>null</code> the metrics are only logged.
+         * @return this builder.
+         */
+        public Builder metricsOut(String metricsOut) {
+            this.metricsOut = metricsOut;
+            return this;
+        }
+
+        /**
+         * Writes an OpenAPI document of all included repositories after each run of {@link #enrich()}. A file name
+         * ending with <code>.yaml</code> or <code>.yml</code> is written as YAML, otherwise as JSON.
+         *
+         * @param openApiOut The document file. If <code>null</code> no document is written.
+         * @return this builder.
+         */
+        public Builder openApiOut(String openApiOut) {
+            this.openApiOut = openApiOut;
+            return this;
+        }
+
+        /**
+         * Bounds the parsed source files kept in memory by a heap budget. The least recently used parsed files are
+         * evicted when their estimated size exceeds the budget and parsed again if needed.
+         *
+         * @param cacheMaxMb The heap budget in MB or 0 to keep all parsed source files. Must not be negative.
+         * @return this builder.
+         */
+        public Builder cacheMaxMb(int cacheMaxMb) {
+            if (cacheMaxMb < 0) {
+                throw new IllegalArgumentException(String.format("Invalid cache budget: %d", cacheMaxMb));
+            }
+            this.cacheMaxMb = cacheMaxMb;
+            return this;
+        }
+
+        public Enricher build() {
+            Enricher enricher = new Enricher(sourcePath, includes, excludes, disablePut, searchableAnnotation,
+                    sortableAnnotation);
+            enricher.sourceRoots = new SourceRoots(enricher.sourcePath, referencePath);
+            enricher.classPath = classPath;
+            enricher.threads = threads;
+            enricher.full = full;
+            enricher.stateDir = stateDir;
+            enricher.patchFile = patchFile;
+            enricher.patchDir = patchDir;
+            enricher.preserveFormatting = preserveFormatting;
+            enricher.metricsOut = metricsOut;
+            enricher.openApiOut = openApiOut;
+            enricher.cacheMaxMb = cacheMaxMb;
+            return enricher;
+        }
+    }
+
+
+    public static void main(String[] args) {
+        if (args == null || args.length == 0) {
+            System.err.println("No command line options passed.");
+            System.exit(-1);
+        }
+        String sourcePath = parseOption(args, SOURCE_OPT, true, null);
+        String referencePath = parseOption(args, REFERENCE_OPT, false, null);
+        String classPath = parseOption(args, CLASS_PATH_OPT, false, null);
+        String includes = parseOption(args, INCLUDES_OPT, false, null);
+        String excludes = parseOption(args, EXCLUDES_OPT, false, null);
+        String sortableAnnotation = parseOption(args, SORTABLE_ANNOTATION, false, null);
+        String searchableAnnotation = parseOption(args, SEARCHABLE_ANNOTATION, false, null);
+        boolean disablePut = parseFlag(args, DISABLED_PUT);
+        String threads = parseOption(args, THREADS_OPT, false, "1");
+        boolean full = parseFlag(args, FULL_OPT);
+        String stateDir = parseOption(args, STATE_DIR_OPT, false, null);
+        String patchFile = parseOption(args, PATCH_OPT, false, null);
+        String patchDir = parseOption(args, PATCH_DIR_OPT, false, null);
+        boolean preserveFormatting = parseFlag(args, PRESERVE_FORMATTING_OPT);
+        String metricsOut = parseOption(args, METRICS_OUT_OPT, false, null);
+        boolean daemon = parseFlag(args, DAEMON_OPT);
+        String port = parseOption(args, PORT_OPT, false, "0");
+        String openApiOut = parseOption(args, OPENAPI_OUT_OPT, false, null);
+        String cacheMaxMb = parseOption(args, CACHE_MAX_MB_OPT, false, "0");
+        Enricher enricher = new Enricher.Builder(sourcePath).
+                referencePath(referencePath).
+                classPath(classPath).
+                includes(includes == null ? null : Arrays.stream(includes.split(INCLUDE_EXCLUDE_SEPARATOR)).map(String::trim).collect(Collectors.toSet())).
+                excludes(excludes == null ? null : Arrays.stream(excludes.split(INCLUDE_EXCLUDE_SEPARATOR)).map(String::trim).collect(Collectors.toSet())).
+                disablePut(disablePut).
+                searchableAnnotation(searchableAnnotation).sortableAnnotation(sortableAnnotation).
+                threads(parseIntOption(threads, THREADS_OPT)).
+                full(full).stateDir(stateDir).
+                patchFile(patchFile).patchDir(patchDir).
+                preserveFormatting(preserveFormatting).
+                metricsOut(metricsOut).
+                openApiOut(openApiOut).
+                cacheMaxMb(parseIntOption(cacheMaxMb, CACHE_MAX_MB_OPT)).
+                build();
+        if (daemon) {
+            EnricherDaemon enricherDaemon = new EnricherDaemon(enricher, parseIntOption(port, PORT_OPT));
+            Runtime.getRuntime().addShutdownHook(new Thread(enricherDaemon::close));
+            enricherDaemon.start();
+            try {
+                enricherDaemon.awaitClose();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        enricher.enrich();
+    }
+
+    private static boolean parseFlag(String[] args, String option) {
+        Optional<String> optionArg = Arrays.stream(args).filter(s -> s.equals(option)).findFirst();
+        if (optionArg.isPresent()) {
+            return true;
+        }
+        return false;
+    }
+
+    private static int parseIntOption(String value, String option) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println(String.format("Option argument for '%s' is not a number: %s", option, value));
+            System.exit(-2);
+            return -1;
+        }
+    }
+
+    private static String parseOption(String[] args, String option, boolean required,
+                                      String _default) {
+        Optional<String> optionArg = Arrays.stream(args).filter(s -> s.equals(option)).findFirst();
+        if (!optionArg.isPresent() && required) {
+            System.err.println(String.format("Required option '%s' is missing.", option));
+            System.exit(-2);
+        }
+        // get next element after option
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(option)) {
+                if (args.length > i + 1) {
+                    return args[i + 1];
+                }
+                System.err.println(String.format("Required option argument for '%s' is missing.", option));
+                System.exit(-2);
+            }
+        }
+        if (required) {
+            System.err.println(String.format("Required option '%s' is missing.", option));
+            System.exit(-2);
+        }
+        return _default;
+    }
+
+    /**
+     * Gets the number of source files enriched by the last run.
+     *
+     * @return the number of enriched source files.
+     */
+    public int getProcessedFiles() {
+        return processedFiles;
+    }
+
+    /**
+     * Gets the number of source files skipped by the last run because they and their dependencies are unchanged.
+     *
+     * @return the number of skipped source files.
+     */
+    public int getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    /**
+     * Gets the metrics of the last run.
+     *
+     * @return the metrics or <code>null</code> if not run yet.
+     */
+    public RunMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void enrich() {
+        long start = System.nanoTime();
+        LOGGER.info(String.format("Enriching source path '%s'", sourceRoots));
+        boolean patchMode = patchFile != null || patchDir != null;
+        if (warmState != null) {
+            // changes since the last run are unknown
+            warmState.projectModel = null;
+        }
+        EnrichmentContext context = createContext(patchMode);
+        RunMetrics metrics = context.getMetrics();
+        Set<Path> stateFiles = new HashSet<>(Arrays.asList(getManifestFile().toPath().toAbsolutePath().normalize(),
+                getIndexFile().toPath().toAbsolutePath().normalize()));
+        SourceFileFilter sourceFileFilter = createSourceFileFilter();
+        List<Path> includedPaths = new ArrayList<>();
+        // the time for enriching the files in a sequential run is not part of the walk
+        long[] handleTime = new long[1];
+        Consumer<Consumer<Path>> discovery = sink -> {
+            long walkStart = metrics.start();
+            try {
+                walk(stateFiles, sourceFileFilter, metrics, path -> {
+                    if (openApiOut != null) {
+                        includedPaths.add(path);
+                    }
+                    sink.accept(path);
+                });
+            } finally {
+                metrics.stop(RunMetrics.WALK, walkStart + handleTime[0]);
+            }
+        };
+        if (threads > 1) {
+            handleResources(discovery, context);
+        } else {
+            discovery.accept(path -> {
+                long handleStart = System.nanoTime();
+                handleResource(path, context);
+                handleTime[0] += System.nanoTime() - handleStart;
+            });
+        }
+        context.flush();
+        if (openApiOut != null) {
+            writeOpenApi(includedPaths, context);
+        }
+        finish(context, sourceFileFilter, start);
+    }
+
+    /**
+     * Walks the source paths to enrich and passes the included files to a consumer.
+     */
+    private void walk(Set<Path> stateFiles, SourceFileFilter sourceFileFilter, RunMetrics metrics,
+                      Consumer<Path> consumer) {
+        for (Path root : sourceRoots.getEnrichedPaths()) {
+            walk(root, stateFiles, sourceFileFilter, metrics, consumer);
+        }
+    }
+
+    private static void walk(Path root, Set<Path> stateFiles, SourceFileFilter sourceFileFilter, RunMetrics metrics,
+                             Consumer<Path> consumer) {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+                @Override
+                public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs) {
+                    if (!path.equals(root) && sourceFileFilter.isExcludedDirectory(path)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path path,
+                                                 BasicFileAttributes attrs) throws IOException {
+                    LOGGER.debug(String.format("Checking file '%s' for inclusion / exclusion", path.toAbsolutePath().toString()));
+                    if (stateFiles.contains(path.toAbsolutePath().normalize())) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    metrics.incrementVisitedFiles();
+                    if (!sourceFileFilter.isIncludedFile(path, attrs)) {
+                        metrics.incrementExcludedFiles();
+                        return FileVisitResult.CONTINUE;
+                    }
+                    metrics.incrementIncludedFiles();
+                    // handle
+                    consumer.accept(path);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    LOGGER.warn(String.format("Could not check file '%s'", file.toFile().getAbsolutePath()), exc);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.error("Could not walk through source files.", e);
+            throw new RuntimeException("Could not walk through source files.", e);
+        }
+    }
+
+    /**
+     * Writes the OpenAPI document of the operations of the enriched source files. In patch mode the operations are
+     * read from the pending changes.
+     * <p>
+     * Source files filtered by the {@link RepositoryPreFilter} are not parsed. The source files are visited in the
+     * order of their paths and the operations of each source file are written before the next one is parsed.
+     * </p>
+     */
+    private void writeOpenApi(List<Path> paths, EnrichmentContext context) {
+        long start = context.getMetrics().start();
+        CompilationUnitCache compilationUnitCache = context.getCompilationUnitCache();
+        List<Path> sortedPaths = new ArrayList<>(paths);
+        Collections.sort(sortedPaths);
+        long operations = 0;
+        try (DocumentWriter writer = OpenApiDocument.createWriter(openApiOut,
+                Files.newBufferedWriter(Paths.get(openApiOut), StandardCharsets.UTF_8))) {
+            Function<String, CompilationUnit> typeLoader = null;
+            OpenApiDocument openApiDocument = null;
+            for (Path path : sortedPaths) {
+                if (isFiltered(path, getCanonicalPath(path), context)) {
+                    continue;
+                }
+                CompilationUnit compilationUnit = compilationUnitCache.get(path.toFile());
+                if (openApiDocument == null) {
+                    typeLoader = getTypeLoader(ResourceHandler.getBaseSourcePath(compilationUnit,
+                            getEnrichedPath(path).toString()), context);
+                    openApiDocument = new OpenApiDocument(OpenApiDocument.DEFAULT_TITLE,
+                            OpenApiDocument.DEFAULT_VERSION, new SourceSchemaModel(typeLoader));
+                    openApiDocument.writeStart(writer);
+                }
+                List<ApiOperation> fileOperations = ApiOperation.collect(compilationUnit, typeLoader);
+                openApiDocument.writePaths(fileOperations, writer);
+                operations += fileOperations.size();
+            }
+            if (openApiDocument == null) {
+                openApiDocument = new OpenApiDocument(OpenApiDocument.DEFAULT_TITLE, OpenApiDocument.DEFAULT_VERSION,
+                        new SourceSchemaModel(c -> null));
+                openApiDocument.writeStart(writer);
+            }
+            openApiDocument.writeEnd(writer);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not write OpenAPI document: %s", openApiOut), e);
+        }
+        context.getMetrics().stop(RunMetrics.OPENAPI, start);
+        LOGGER.info(String.format("Wrote %d operations to OpenAPI document '%s'", operations, openApiOut));
+    }
+
+    /**
+     * Gets a loader of the compilation units of the source files of fully qualified class names. With several source
+     * paths the types are located in all source paths.
+     *
+     * @param basePath The base path of the package directories.
+     * @param context  The enrichment context.
+     * @return the loader returning <code>null</code> if there is no source file.
+     */
+    static Function<String, CompilationUnit> getTypeLoader(String basePath, EnrichmentContext context) {
+        return className -> {
+            File file = context.locateType(className);
+            if (file == null) {
+                file = new File(basePath + className.replace('.', '/') + JAVA_EXT);
+            }
+            return context.sourceFileExists(file) ? context.getCompilationUnitCache().get(file) : null;
+        };
+    }
+
+    /**
+     * Enriches the source files affected by changed source files. These are the changed files themselves and all
+     * files which have read a changed file when they were enriched, e.g. the repositories of a changed domain class or
+     * supertype. As in {@link #enrich()} files unchanged since the last run are skipped and only included and not
+     * excluded files are enriched. The source path is not walked.
+     *
+     * @param changedFiles The changed, created or deleted source files.
+     * @return the metrics of the run.
+     */
+    public RunMetrics enrich(Collection<File> changedFiles) {
+        long start = System.nanoTime();
+        Set<String> sourceFiles = new TreeSet<>();
+        for (File changedFile : changedFiles) {
+            sourceFiles.add(ProjectModel.getSourceFile(changedFile));
+        }
+        if (warmState != null) {
+            warmState.update(sourceFiles);
+        }
+        EnrichmentContext context = createContext(false);
+        RunMetrics metrics = context.getMetrics();
+        Manifest manifest = context.getManifest();
+        Set<String> affectedFiles = new TreeSet<>(sourceFiles);
+        for (String sourceFile : sourceFiles) {
+            affectedFiles.addAll(manifest.getDependents(sourceFile));
+        }
+        LOGGER.info(String.format("Enriching %d source files affected by %d changed source files",
+                affectedFiles.size(), sourceFiles.size()));
+        SourceFileFilter sourceFileFilter = createSourceFileFilter();
+        List<Path> paths = new ArrayList<>();
+        for (String affectedFile : affectedFiles) {
+            Path path = Paths.get(affectedFile);
+            if (!Files.isRegularFile(path) || !path.toString().endsWith(JAVA_EXT)) {
+                continue;
+            }
+            metrics.incrementVisitedFiles();
+            if (isIncluded(path, sourceFileFilter)) {
+                metrics.incrementIncludedFiles();
+                paths.add(path);
+            } else {
+                metrics.incrementExcludedFiles();
+            }
+        }
+        if (threads > 1) {
+            handleResources(paths::forEach, context);
+        } else {
+            paths.forEach(p -> handleResource(p, context));
+        }
+        context.flush();
+        finish(context, sourceFileFilter, start);
+        return metrics;
+    }
+
+    /**
+     * Checks if a file is part of a source path to enrich and included by a source file filter, also taking its
+     * directories into account.
+     */
+    private boolean isIncluded(Path path, SourceFileFilter sourceFileFilter) {
+        Path enrichedPath = sourceRoots.getEnrichedPath(path);
+        if (enrichedPath == null) {
+            return false;
+        }
+        Path root = enrichedPath.toAbsolutePath().normalize();
+        Path absolutePath = path.toAbsolutePath().normalize();
+        for (Path directory = absolutePath.getParent(); !directory.equals(root); directory = directory.getParent()) {
+            if (sourceFileFilter.isExcludedDirectory(directory)) {
+                return false;
+            }
+        }
+        try {
+            return sourceFileFilter.isIncludedFile(path, Files.readAttributes(path, BasicFileAttributes.class));
+        } catch (IOException e) {
+            LOGGER.warn(String.format("Could not check file '%s'", path.toFile().getAbsolutePath()), e);
+            return false;
+        }
+    }
+
+    /**
+     * Keeps the manifest, the parsed source files and the project model between the runs of this enricher. Only
+     * changes reported to {@link #enrich(Collection)} are applied to the project model.
+     */
+    void keepWarm() {
+        if (warmState == null) {
+            warmState = new WarmState();
+        }
+    }
+
+    /**
+     * Drops the state kept between the runs of this enricher and closes the jar files of the class path.
+     */
+    void dropWarmState() {
+        if (warmState != null && warmState.jarCache != null) {
+            warmState.jarCache.close();
+        }
+        warmState = null;
+    }
+
+    SourceFileFilter createSourceFileFilter() {
+        return new SourceFileFilter(includes, excludes);
+    }
+
+    SourceRoots getSourceRoots() {
+        return sourceRoots;
+    }
+
+    private File getManifestFile() {
+        return new File(stateDir != null ? stateDir : sourceRoots.getPrimaryPath().toString(),
+                Manifest.MANIFEST_FILE_NAME);
+    }
+
+    private File getIndexFile() {
+        return new File(stateDir != null ? stateDir : sourceRoots.getPrimaryPath().toString(),
+                ProjectIndex.INDEX_FILE_NAME);
+    }
+
+    /**
+     * Gets the canonical enriched and reference source paths in the order passed.
+     */
+    private String getCanonicalSourcePaths() {
+        return sourceRoots.getPaths().stream().map(Enricher::getCanonicalPath).collect(Collectors.joining(
+                SourceRoots.SEPARATOR));
+    }
+
+    /**
+     * Gets the source path to enrich containing a source file or the primary source path, e.g. for a source file
+     * outside of the source paths to enrich.
+     */
+    private Path getEnrichedPath(Path path) {
+        Path enrichedPath = sourceRoots.getEnrichedPath(path);
+        return enrichedPath != null ? enrichedPath : sourceRoots.getPrimaryPath();
+    }
+
+    private EnrichmentContext createContext(boolean patchMode) {
+        long start = System.nanoTime();
+        EnrichmentContext context;
+        if (warmState != null && !patchMode) {
+            if (warmState.manifest == null) {
+                warmState.manifest = loadManifest(false);
+                warmState.compilationUnitCache = new CompilationUnitCache(null, preserveFormatting, new RunMetrics(),
+                        cacheMaxMb);
+                warmState.typeLocationIndex = sourceRoots.isMultiRoot() ? new TypeLocationIndex(sourceRoots) : null;
+                warmState.compilationUnitCache.setProjectIndex(loadProjectIndex());
+                warmState.jarCache = new JarCache();
+            }
+            context = new EnrichmentContext(warmState.manifest, sourceRoots, threads, warmState.compilationUnitCache,
+                    warmState.projectModel, warmState.typeLocationIndex, ClassPathTypeProvider.parse(classPath),
+                    warmState.jarCache);
+        } else {
+            context = new EnrichmentContext(loadManifest(patchMode), sourceRoots, threads,
+                    patchMode ? new PendingChanges(sourceRoots.getPrimaryPath()) : null, preserveFormatting,
+                    cacheMaxMb, ClassPathTypeProvider.parse(classPath));
+            if (!patchMode) {
+                context.getCompilationUnitCache().setProjectIndex(loadProjectIndex());
+            }
+        }
+        context.getMetrics().stop(RunMetrics.MANIFEST, start);
+        return context;
+    }
+
+    /**
+     * Loads the persistent index of the types. A full run does not read the index but rebuilds it.
+     */
+    private ProjectIndex loadProjectIndex() {
+        ProjectIndex projectIndex = new ProjectIndex(getIndexFile(), getCanonicalSourcePaths());
+        if (!full) {
+            projectIndex.load();
+        }
+        return projectIndex;
+    }
+
+    private Manifest loadManifest(boolean patchMode) {
+        // the source paths and the class path resolve the types, an added entry can change the output
+        Manifest manifest = new Manifest(getManifestFile(), String.join(INCLUDE_EXCLUDE_SEPARATOR,
+                String.valueOf(disabledPut), String.valueOf(searchableAnnotation), String.valueOf(sortableAnnotation),
+                String.valueOf(preserveFormatting), getCanonicalSourcePaths(), ClassPathTypeProvider.parse(classPath).
+                        stream().map(f -> getCanonicalPath(f.toPath())).collect(Collectors.joining(
+                                File.pathSeparator))));
+        if (!patchMode) {
+            manifest.load();
+        }
+        return manifest;
+    }
+
+    /**
+     * Writes the results of a run and logs the summary.
+     */
+    private void finish(EnrichmentContext context, SourceFileFilter sourceFileFilter, long start) {
+        context.getClassPathTypes().close();
+        RunMetrics metrics = context.getMetrics();
+        Manifest manifest = context.getManifest();
+        if (context.getPendingChanges() != null) {
+            long patchStart = metrics.start();
+            if (patchFile != null) {
+                context.getPendingChanges().writePatch(new File(patchFile));
+            }
+            if (patchDir != null) {
+                context.getPendingChanges().writePatches(new File(patchDir));
+            }
+            metrics.stop(RunMetrics.PATCH, patchStart);
+        } else {
+            long manifestStart = metrics.start();
+            manifest.save();
+            metrics.stop(RunMetrics.MANIFEST, manifestStart);
+            ProjectIndex projectIndex = context.getCompilationUnitCache().getProjectIndex();
+            if (projectIndex != null) {
+                long indexStart = metrics.start();
+                projectIndex.save();
+                metrics.stop(RunMetrics.INDEX, indexStart);
+            }
+        }
+        LOGGER.info(String.format("Pruned %d excluded directories, skipped %d not included or excluded files.",
+                sourceFileFilter.getPrunedDirectories(), sourceFileFilter.getExcludedFiles()));
+        processedFiles = context.getProcessedFiles().get();
+        skippedFiles = context.getSkippedFiles().get();
+        LOGGER.info(String.format("Enriched %d source files, skipped %d unchanged source files.",
+                processedFiles, skippedFiles));
+        CompilationUnitCache compilationUnitCache = context.getCompilationUnitCache();
+        long cacheHits = compilationUnitCache.getHits() - context.getInitialCacheHits();
+        long filteredFiles = context.getRepositoryPreFilter().getFilteredFiles();
+        LOGGER.info(String.format("Filtered %d source files without repository, parsed %d source files, " +
+                "%d parses served from cache.", filteredFiles, metrics.getParsedFiles(), cacheHits));
+        LOGGER.info(String.format("Indexed %d types of the repository hierarchy.", context.getTypeIndex().size()));
+        metrics.setPrunedDirectories(sourceFileFilter.getPrunedDirectories());
+        metrics.setProcessedFiles(processedFiles);
+        metrics.setSkippedFiles(skippedFiles);
+        metrics.setFilteredFiles(filteredFiles);
+        metrics.setCacheHits(cacheHits);
+        metrics.setDomainTypeLookups(context.getDomainTypeCache().getHits(),
+                context.getDomainTypeCache().getMisses());
+        metrics.setWallTime(start);
+        for (String line : metrics.getSummary()) {
+            LOGGER.info(line);
+        }
+        if (metricsOut != null) {
+            metrics.writeJson(new File(metricsOut));
+            LOGGER.info(String.format("Wrote metrics to '%s'", metricsOut));
+        }
+        if (warmState != null && context.getPendingChanges() == null) {
+            warmState.projectModel = context.getBuiltProjectModel();
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * Enriches the source files in parallel with the {@link EnrichmentPipeline}.
+     * <p>
+     * The source files are read and checked by I/O threads. Then the source files read or written by each file are
+     * determined in parallel. Each file is scheduled after the preceding files it shares a source file with, e.g. a
+     * common supertype or custom repository interface. This produces the same output as the sequential run.
+     * </p>
+     *
+     * @param discovery Passes the source files in the order of the sequential run.
+     * @param context   The enrichment context.
+     */
+    private void handleResources(Consumer<Consumer<Path>> discovery, EnrichmentContext context) {
+        LOGGER.info(String.format("Enriching source files with %d threads", threads));
+        new EnrichmentPipeline(threads, context.getMetrics()).run(discovery,
+                p -> {
+                    if (isSkipped(p, context)) {
+                        return false;
+                    }
+                    context.getCompilationUnitCache().prefetch(p.toFile());
+                    return true;
+                },
+                p -> getAffectedSourceFiles(p, context),
+                p -> enrichResource(p, context));
+    }
+
+    /**
+     * The state kept between runs.
+     */
+    private static class WarmState {
+
+        private Manifest manifest;
+
+        private CompilationUnitCache compilationUnitCache;
+
+        /**
+         * The project model of the last run or <code>null</code> if not built.
+         */
+        private ProjectModel projectModel;
+
+        /**
+         * The index of the types of all source paths or <code>null</code> for a single source path.
+         */
+        private TypeLocationIndex typeLocationIndex;
+
+        /**
+         * The open jar files of the class path.
+         */
+        private JarCache jarCache;
+
+        /**
+         * Drops the cached compilation units of changed source files and updates the project model and the type
+         * locations.
+         *
+         * @param sourceFiles The canonical paths of the changed source files.
+         */
+        private void update(Set<String> sourceFiles) {
+            if (compilationUnitCache == null) {
+                return;
+            }
+            sourceFiles.forEach(compilationUnitCache::invalidate);
+            if (typeLocationIndex != null) {
+                typeLocationIndex.update(sourceFiles);
+            }
+            if (projectModel != null) {
+                projectModel = projectModel.update(sourceFiles, compilationUnitCache);
+            }
+        }
+    }
+
+    /**
+     * Gets the source files read or written when enriching a source file.
+     */
+    private Set<String> getAffectedSourceFiles(Path path, EnrichmentContext context) {
+        long start = context.getMetrics().start();
+        // other files are enriched concurrently
+        Set<String> affectedSourceFiles = context.getWorkspace().readParsed(() ->
+                createDomainResourceHandler(path, context).getAffectedSourceFiles());
+        context.getMetrics().stop(RunMetrics.DEPENDENCIES, start);
+        return affectedSourceFiles;
+    }
+
+    private static String getCanonicalPath(Path path) {
+        try {
+            return path.toFile().getCanonicalPath();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not resolve source file: %s", path), e);
+        }
+    }
+
+    private DomainResourceHandler createDomainResourceHandler(Path path, EnrichmentContext context) {
+        CompilationUnit compilationUnit = context.getWorkspace().get(path.toFile());
+        String sourcePath = getEnrichedPath(path).toString();
+        String basePath = ResourceHandler.getBaseSourcePath(compilationUnit, sourcePath);
+        return new DomainResourceHandler(path.toString(), sourcePath, basePath,
+                compilationUnit, context, disabledPut, searchableAnnotation, sortableAnnotation);
+    }
+
+    private void handleResource(Path path, EnrichmentContext context) {
+        if (!isSkipped(path, context)) {
+            enrichResource(path, context);
+        }
+    }
+
+    /**
+     * Checks if a source file is unchanged since the last run or cannot contain a repository.
+     */
+    private boolean isSkipped(Path path, EnrichmentContext context) {
+        String sourceFile = getCanonicalPath(path);
+        if (!full && isUpToDate(sourceFile, context)) {
+            LOGGER.debug(String.format("Skipping unchanged file: '%s'", path.getFileName().toString()));
+            context.getSkippedFiles().incrementAndGet();
+            return true;
+        }
+        if (isFiltered(path, sourceFile, context)) {
+            // not recorded in the manifest, checking again is cheaper than hashing
+            LOGGER.debug(String.format("Skipping file without repository: '%s'", path.getFileName().toString()));
+            return true;
+        }
+        return false;
+    }
+
+    private void enrichResource(Path path, EnrichmentContext context) {
+        String sourceFile = getCanonicalPath(path);
+        LOGGER.info(String.format("Handling file: '%s'", path.getFileName().toString()));
+        long start = context.getMetrics().start();
+        CompilationUnitCache compilationUnitCache = context.getCompilationUnitCache();
+        compilationUnitCache.startRecording();
+        Set<String> dependencies = new HashSet<>();
+        try {
+            DomainResourceHandler domainResourceHandler = createDomainResourceHandler(path, context);
+            domainResourceHandler.addResourceAnnotations();
+            dependencies.addAll(domainResourceHandler.getAffectedSourceFiles());
+        } finally {
+            dependencies.addAll(compilationUnitCache.stopRecording());
+        }
+        context.getMetrics().stop(RunMetrics.HANDLE, start);
+        context.addDependencies(sourceFile, dependencies);
+        context.getProcessedFiles().incrementAndGet();
+    }
+
+    /**
+     * Checks if a source file cannot contain a repository. A source file changed in this run is never filtered.
+     */
+    private static boolean isFiltered(Path path, String sourceFile, EnrichmentContext context) {
+        if (context.getWorkspace().contains(path.toFile())) {
+            return false;
+        }
+        long start = context.getMetrics().start();
+        boolean filtered = context.getRepositoryPreFilter().isFiltered(path.toFile(), sourceFile);
+        context.getMetrics().stop(RunMetrics.FILTER, start);
+        return filtered;
+    }
+
+    private static boolean isUpToDate(String sourceFile, EnrichmentContext context) {
+        long start = context.getMetrics().start();
+        boolean upToDate = context.getManifest().isUpToDate(sourceFile);
+        context.getMetrics().stop(RunMetrics.MANIFEST, start);
+        return upToDate;
+    }
+
+}
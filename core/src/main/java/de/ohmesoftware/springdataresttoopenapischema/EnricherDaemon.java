@@ -0,0 +1,368 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-running enrichment of a source path.
+ * <p>
+ * The daemon keeps the manifest, the parsed source files and the project model of its {@link Enricher} between runs.
+ * After an initial incremental run it watches all source paths and enriches the source files affected by each batch of
+ * changed Java source files. Files written by the daemon itself are reported as well, but are skipped because the
+ * manifest already records their new content.
+ * </p>
+ * <p>
+ * Clients can also request the enrichment of source files over a socket bound to the loopback address. Each request
+ * is a single line, the response a single line of JSON:
+ * </p>
+ * <ul>
+ *     <li><code>enrich &lt;path&gt;[TAB&lt;path&gt;...]</code> enriches the source files affected by the passed
+ *     changed source files. Relative paths are resolved against the first source path. The response contains the number of
+ *     enriched and skipped source files, the changed source files and the elapsed time.</li>
+ *     <li><code>ping</code> responds with the status <code>ok</code>.</li>
+ *     <li><code>shutdown</code> stops the daemon.</li>
+ * </ul>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class EnricherDaemon implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EnricherDaemon.class);
+
+    /**
+     * The time to wait for further events after a change, e.g. for the other files of a save-all in the IDE.
+     */
+    private static final long DEBOUNCE_MILLIS = 20;
+
+    private static final String JAVA_EXT = ".java";
+
+    private static final String ENRICH_COMMAND = "enrich";
+
+    private static final String PING_COMMAND = "ping";
+
+    private static final String SHUTDOWN_COMMAND = "shutdown";
+
+    private static final String PATH_SEPARATOR = "\t";
+
+    private final Enricher enricher;
+
+    /**
+     * The first source path to enrich.
+     */
+    private final Path root;
+
+    /**
+     * All watched source paths.
+     */
+    private final List<Path> roots = new ArrayList<>();
+
+    private final SourceFileFilter sourceFileFilter;
+
+    private final ServerSocket serverSocket;
+
+    private final WatchService watchService;
+
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, EnricherDaemon.class.getSimpleName());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    private volatile boolean running;
+
+    /**
+     * Constructor.
+     *
+     * @param enricher The enricher. It must not write patches.
+     * @param port     The port to listen on the loopback address or 0 for any free port.
+     */
+    public EnricherDaemon(Enricher enricher, int port) {
+        this.enricher = enricher;
+        this.root = enricher.getSourceRoots().getPrimaryPath().toAbsolutePath().normalize();
+        enricher.getSourceRoots().getPaths().forEach(p -> roots.add(p.toAbsolutePath().normalize()));
+        this.sourceFileFilter = enricher.createSourceFileFilter();
+        enricher.keepWarm();
+        try {
+            serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not listen on port: %d", port), e);
+        }
+        try {
+            watchService = root.getFileSystem().newWatchService();
+        } catch (IOException e) {
+            closeQuietly(serverSocket);
+            throw new RuntimeException(String.format("Could not watch source path: %s", root), e);
+        }
+    }
+
+    /**
+     * Gets the port the daemon listens on.
+     *
+     * @return the port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Enriches the source path and starts watching it and listening for requests.
+     */
+    public void start() {
+        running = true;
+        roots.forEach(r -> register(r, null));
+        synchronized (enricher) {
+            enricher.enrich();
+        }
+        executorService.execute(this::watch);
+        executorService.execute(this::serve);
+        LOGGER.info(String.format("Watching source path '%s', listening on port %d", enricher.getSourceRoots(),
+                getPort()));
+    }
+
+    /**
+     * Waits until the daemon is closed, e.g. by a shutdown request.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(serverSocket);
+        closeQuietly(watchService);
+        executorService.shutdownNow();
+        // after a running run
+        synchronized (enricher) {
+            enricher.dropWarmState();
+        }
+        closed.countDown();
+    }
+
+    /**
+     * Enriches the source files affected by changed source files. Runs are executed one after another.
+     *
+     * @param changedFiles The changed source files.
+     * @return the metrics of the run.
+     */
+    public RunMetrics enrich(Set<File> changedFiles) {
+        synchronized (enricher) {
+            return enricher.enrich(changedFiles);
+        }
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                Set<File> changedFiles = new LinkedHashSet<>();
+                boolean overflow = collect(watchService.take(), changedFiles);
+                WatchKey watchKey;
+                while ((watchKey = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(watchKey, changedFiles);
+                }
+                if (overflow) {
+                    LOGGER.info("Missed file system events, enriching the whole source path.");
+                    synchronized (enricher) {
+                        enricher.enrich();
+                    }
+                } else if (!changedFiles.isEmpty()) {
+                    enrich(changedFiles);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not enrich changed source files.", e);
+            }
+        }
+    }
+
+    /**
+     * Collects the changed Java source files of a watch key. Created directories are watched and their source files
+     * are collected.
+     *
+     * @return <code>true</code> if events were lost.
+     */
+    private boolean collect(WatchKey watchKey, Set<File> changedFiles) {
+        boolean overflow = false;
+        Path directory = watchedDirectories.get(watchKey);
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                overflow = true;
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                register(path, changedFiles);
+            } else if (path.toString().endsWith(JAVA_EXT)) {
+                changedFiles.add(path.toFile());
+            }
+        }
+        if (!watchKey.reset()) {
+            watchedDirectories.remove(watchKey);
+        }
+        return overflow;
+    }
+
+    /**
+     * Watches a directory and its not excluded sub directories.
+     *
+     * @param directory    The directory.
+     * @param changedFiles The set to add the contained source files to or <code>null</code>.
+     */
+    private void register(Path directory, Set<File> changedFiles) {
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+
+                @Override
+                public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs) throws IOException {
+                    if (!roots.contains(path) && sourceFileFilter.isExcludedDirectory(path)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    watchedDirectories.put(path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), path);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+                    if (changedFiles != null && path.toString().endsWith(JAVA_EXT)) {
+                        changedFiles.add(path.toFile());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not watch directory: %s", directory), e);
+        }
+    }
+
+    private void serve() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                executorService.execute(() -> handleConnection(socket));
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.warn("Could not accept connection.", e);
+                }
+            }
+        }
+    }
+
+    private void handleConnection(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(),
+                     StandardCharsets.UTF_8));
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                writer.write(handleRequest(line));
+                writer.newLine();
+                writer.flush();
+                if (line.trim().equals(SHUTDOWN_COMMAND)) {
+                    close();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not handle connection.", e);
+        }
+    }
+
+    /**
+     * Handles a single request.
+     *
+     * @param request The request line.
+     * @return the JSON response.
+     */
+    String handleRequest(String request) {
+        String command = request.trim();
+        String arguments = "";
+        int separator = request.indexOf(' ');
+        if (separator > 0) {
+            command = request.substring(0, separator).trim();
+            arguments = request.substring(separator + 1);
+        }
+        switch (command) {
+            case PING_COMMAND:
+            case SHUTDOWN_COMMAND:
+                return "{\"status\": \"ok\"}";
+            case ENRICH_COMMAND:
+                Set<File> files = new LinkedHashSet<>();
+                for (String path : arguments.split(PATH_SEPARATOR)) {
+                    if (!path.trim().isEmpty()) {
+                        files.add(root.resolve(path.trim()).toFile());
+                    }
+                }
+                try {
+                    return toJson(enrich(files));
+                } catch (RuntimeException e) {
+                    LOGGER.error(String.format("Could not enrich source files: %s", arguments), e);
+                    return String.format("{\"status\": \"error\", \"message\": %s}",
+                            JsonWriter.quote(String.valueOf(e.getMessage())));
+                }
+            default:
+                return String.format("{\"status\": \"error\", \"message\": %s}",
+                        JsonWriter.quote(String.format("Unknown command: %s", command)));
+        }
+    }
+
+    private static String toJson(RunMetrics metrics) {
+        List<String> changedFiles = new ArrayList<>();
+        metrics.getChangedSourceFiles().forEach(f -> changedFiles.add(JsonWriter.quote(f)));
+        return String.format("{\"status\": \"ok\", \"processed\": %d, \"skipped\": %d, \"changed\": [%s], " +
+                        "\"millis\": %s}", metrics.getProcessedFiles(), metrics.getSkippedFiles(),
+                String.join(", ", changedFiles), metrics.getWallTimeMillis());
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close.", e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Annotation processor producing the operations of the Spring Data REST repositories compiled by javac.
+ * <p>
+ * The operations are built by the {@link ElementOperationCollector} from the elements, annotation mirrors and doc
+ * comments of javac, no source file is parsed or rewritten. The operations are written as JSON resource to the class
+ * output, by default <code>META-INF/springdataresttoopenapischema/operations.json</code>. The operations of each
+ * repository are written when it is compiled, the resource is only created if a repository is exported.
+ * </p>
+ * <p>
+ * The processor is registered as service and runs when the library is on the processor path. The options are
+ * <code>disablePut</code>, <code>searchableAnnotation</code>, <code>sortableAnnotation</code>, <code>output</code>
+ * and <code>openApiOutput</code> for writing an OpenAPI document resource, all prefixed with
+ * <code>springdataresttoopenapischema.</code>. The domain types of the OpenAPI document are read from the types
+ * compiled by javac and the source path.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions({EnricherProcessor.DISABLE_PUT_OPTION, EnricherProcessor.SEARCHABLE_ANNOTATION_OPTION,
+        EnricherProcessor.SORTABLE_ANNOTATION_OPTION, EnricherProcessor.OUTPUT_OPTION,
+        EnricherProcessor.OPENAPI_OUTPUT_OPTION})
+public class EnricherProcessor extends AbstractProcessor {
+
+    private static final String OPTION_PREFIX = "springdataresttoopenapischema.";
+
+    public static final String DISABLE_PUT_OPTION = OPTION_PREFIX + "disablePut";
+    public static final String SEARCHABLE_ANNOTATION_OPTION = OPTION_PREFIX + "searchableAnnotation";
+    public static final String SORTABLE_ANNOTATION_OPTION = OPTION_PREFIX + "sortableAnnotation";
+    public static final String OUTPUT_OPTION = OPTION_PREFIX + "output";
+    public static final String OPENAPI_OUTPUT_OPTION = OPTION_PREFIX + "openApiOutput";
+
+    private static final String DEFAULT_OUTPUT = "META-INF/springdataresttoopenapischema/operations.json";
+
+    /**
+     * The fully qualified names of the top level types of all rounds.
+     */
+    private final Set<String> compiledTypes = new HashSet<>();
+
+    private ElementOperationCollector collector;
+
+    private String output;
+
+    private String openApiOutput;
+
+    private OpenApiDocument openApiDocument;
+
+    private JsonWriter writer;
+
+    private DocumentWriter openApiWriter;
+
+    private int repositories;
+
+    private int operations;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        Map<String, String> options = processingEnv.getOptions();
+        ElementSchemaModel schemaModel = new ElementSchemaModel(processingEnv, compiledTypes);
+        collector = new ElementOperationCollector(processingEnv, schemaModel,
+                Boolean.parseBoolean(options.get(DISABLE_PUT_OPTION)), options.get(SEARCHABLE_ANNOTATION_OPTION),
+                options.get(SORTABLE_ANNOTATION_OPTION));
+        output = options.getOrDefault(OUTPUT_OPTION, DEFAULT_OUTPUT);
+        openApiOutput = options.get(OPENAPI_OUTPUT_OPTION);
+        if (openApiOutput != null) {
+            openApiDocument = new OpenApiDocument(OpenApiDocument.DEFAULT_TITLE, OpenApiDocument.DEFAULT_VERSION,
+                    schemaModel);
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            finish();
+            return false;
+        }
+        // the types of a round are known before the first repository is collected
+        Map<String, TypeElement> types = new TreeMap<>();
+        for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            compiledTypes.add(typeElement.getQualifiedName().toString());
+            addTypes(typeElement, types);
+        }
+        for (TypeElement typeElement : types.values()) {
+            try {
+                List<ApiOperation> repositoryOperations = collector.collect(typeElement);
+                if (!repositoryOperations.isEmpty()) {
+                    writeOperations(repositoryOperations);
+                }
+            } catch (IOException | RuntimeException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        String.format("Could not create operations of repository '%s': %s",
+                                typeElement.getQualifiedName(), e.getMessage()), typeElement);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a type and its nested types by their fully qualified names.
+     */
+    private static void addTypes(TypeElement typeElement, Map<String, TypeElement> types) {
+        types.put(typeElement.getQualifiedName().toString(), typeElement);
+        for (TypeElement nestedElement : ElementFilter.typesIn(typeElement.getEnclosedElements())) {
+            addTypes(nestedElement, types);
+        }
+    }
+
+    /**
+     * Writes the operations of a repository, the resources are created for the first repository.
+     */
+    private void writeOperations(List<ApiOperation> repositoryOperations) throws IOException {
+        if (writer == null) {
+            writer = new JsonWriter(createResource(output));
+            writer.beginObject().name("operations").beginArray();
+            if (openApiDocument != null) {
+                openApiWriter = OpenApiDocument.createWriter(openApiOutput, createResource(openApiOutput));
+                openApiDocument.writeStart(openApiWriter);
+            }
+        }
+        for (ApiOperation operation : repositoryOperations) {
+            writeOperation(operation, writer);
+        }
+        if (openApiDocument != null) {
+            openApiDocument.writePaths(repositoryOperations, openApiWriter);
+        }
+        repositories++;
+        operations += repositoryOperations.size();
+    }
+
+    private void finish() {
+        if (writer == null) {
+            return;
+        }
+        try (JsonWriter writer = this.writer; DocumentWriter openApiWriter = this.openApiWriter) {
+            writer.endArray().endObject();
+            if (openApiDocument != null) {
+                openApiDocument.writeEnd(openApiWriter);
+            }
+        } catch (IOException | RuntimeException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    String.format("Could not write operations of repositories: %s", e.getMessage()));
+            return;
+        } finally {
+            this.writer = null;
+        }
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                String.format("Wrote %d operations of %d repositories to '%s'", operations, repositories, output));
+        if (openApiOutput != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    String.format("Wrote OpenAPI document to '%s'", openApiOutput));
+        }
+    }
+
+    private static void writeOperation(ApiOperation operation, JsonWriter writer) throws IOException {
+        writer.beginObject().
+                name("repository").value(operation.getRepository()).
+                name("method").value(operation.getMethod()).
+                name("path").value(operation.getPath()).
+                name("tags").value((Object) operation.getTags());
+        for (Map.Entry<String, Object> member : operation.getOperation().entrySet()) {
+            writer.name(member.getKey()).value(member.getValue());
+        }
+        writer.endObject();
+    }
+
+    private Writer createResource(String name) throws IOException {
+        FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", name);
+        return new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8);
+    }
+}
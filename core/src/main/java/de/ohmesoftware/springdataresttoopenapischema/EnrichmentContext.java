@@ -0,0 +1,423 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * State shared by all handlers of a single {@link Enricher#enrich()} run.
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class EnrichmentContext {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EnrichmentContext.class);
+
+    /**
+     * The manifest of the last run.
+     */
+    private final Manifest manifest;
+
+    /**
+     * The source paths to build the project model from.
+     */
+    private final SourceRoots sourceRoots;
+
+    /**
+     * The index of the types of all source paths or <code>null</code> for a single source path.
+     */
+    private final TypeLocationIndex typeLocationIndex;
+
+    /**
+     * The number of threads for building the project model and writing the changed source files.
+     */
+    private final int threads;
+
+    /**
+     * The source files written in patch mode or <code>null</code> if source files are written to disk.
+     */
+    private final PendingChanges pendingChanges;
+
+    /**
+     * The metrics of the run.
+     */
+    private final RunMetrics metrics = new RunMetrics();
+
+    /**
+     * The types without source code.
+     */
+    private final ClassPathTypeProvider classPathTypes;
+
+    /**
+     * The filter for the source files without repository.
+     */
+    private final RepositoryPreFilter repositoryPreFilter = new RepositoryPreFilter(metrics);
+
+    /**
+     * The project model, built on first use.
+     */
+    private volatile ProjectModel projectModel;
+
+    /**
+     * The cache of parsed source files.
+     */
+    private final CompilationUnitCache compilationUnitCache;
+
+    /**
+     * The compilation units changed in this run.
+     */
+    private final Workspace workspace;
+
+    /**
+     * The tracker of the annotations and methods changed by the handlers.
+     */
+    private final ChangeTracker changeTracker = new ChangeTracker();
+
+    /**
+     * The dependencies of the source files enriched in this run by canonical path. They are recorded in the manifest
+     * when the changed source files are written.
+     */
+    private final ConcurrentMap<String, Set<String>> dependencies = new ConcurrentHashMap<>();
+
+    /**
+     * The hits of the cache before this run.
+     */
+    private final long initialCacheHits;
+
+    /**
+     * The index of the repository type hierarchy.
+     */
+    private final TypeIndex typeIndex = new TypeIndex();
+
+    /**
+     * The cache of the documentation of the domain types.
+     */
+    private final DomainTypeCache domainTypeCache = new DomainTypeCache();
+
+    /**
+     * The number of enriched source files.
+     */
+    private final AtomicInteger processedFiles = new AtomicInteger();
+
+    /**
+     * The number of source files skipped because they are unchanged.
+     */
+    private final AtomicInteger skippedFiles = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param manifest    The manifest of the last run.
+     * @param sourceRoots The source paths to build the project model from.
+     * @param threads     The number of threads for building the project model.
+     */
+    public EnrichmentContext(Manifest manifest, SourceRoots sourceRoots, int threads) {
+        this(manifest, sourceRoots, threads, null, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param manifest           The manifest of the last run.
+     * @param sourceRoots        The source paths to build the project model from.
+     * @param threads            The number of threads for building the project model.
+     * @param pendingChanges     The source files written in patch mode or <code>null</code> to write source files
+     *                           to disk.
+     * @param preserveFormatting <code>true</code> to keep the formatting of the code not changed by the handlers.
+     */
+    public EnrichmentContext(Manifest manifest, SourceRoots sourceRoots, int threads, PendingChanges pendingChanges,
+                             boolean preserveFormatting) {
+        this(manifest, sourceRoots, threads, pendingChanges, preserveFormatting, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param manifest           The manifest of the last run.
+     * @param sourceRoots        The source paths to build the project model from.
+     * @param threads            The number of threads for building the project model.
+     * @param pendingChanges     The source files written in patch mode or <code>null</code> to write source files
+     *                           to disk.
+     * @param preserveFormatting <code>true</code> to keep the formatting of the code not changed by the handlers.
+     * @param cacheMaxMb         The heap budget of the parsed source files in MB or 0 if unbounded.
+     */
+    public EnrichmentContext(Manifest manifest, SourceRoots sourceRoots, int threads, PendingChanges pendingChanges,
+                             boolean preserveFormatting, int cacheMaxMb) {
+        this(manifest, sourceRoots, threads, pendingChanges, preserveFormatting, cacheMaxMb,
+                Collections.emptyList());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param manifest           The manifest of the last run.
+     * @param sourceRoots        The source paths to build the project model from.
+     * @param threads            The number of threads for building the project model.
+     * @param pendingChanges     The source files written in patch mode or <code>null</code> to write source files
+     *                           to disk.
+     * @param preserveFormatting <code>true</code> to keep the formatting of the code not changed by the handlers.
+     * @param cacheMaxMb         The heap budget of the parsed source files in MB or 0 if unbounded.
+     * @param classPath          The jar files and directories of the types without source code.
+     */
+    public EnrichmentContext(Manifest manifest, SourceRoots sourceRoots, int threads, PendingChanges pendingChanges,
+                             boolean preserveFormatting, int cacheMaxMb, List<File> classPath) {
+        this.manifest = manifest;
+        this.sourceRoots = sourceRoots;
+        this.typeLocationIndex = sourceRoots.isMultiRoot() ? new TypeLocationIndex(sourceRoots) : null;
+        this.threads = threads;
+        this.pendingChanges = pendingChanges;
+        this.compilationUnitCache = new CompilationUnitCache(pendingChanges, preserveFormatting, metrics,
+                cacheMaxMb);
+        this.workspace = new Workspace(compilationUnitCache);
+        this.initialCacheHits = 0;
+        this.classPathTypes = new ClassPathTypeProvider(classPath, null, metrics, compilationUnitCache::record);
+        setSourceRoots(compilationUnitCache, sourceRoots);
+    }
+
+    /**
+     * Constructor for a run continuing with the state of a previous run. Source files are written to disk.
+     *
+     * @param manifest             The manifest of the last run.
+     * @param sourceRoots          The source paths to build the project model from.
+     * @param threads              The number of threads for building the project model.
+     * @param compilationUnitCache The cache of parsed source files of the previous run. It must not be shared with a
+     *                             concurrent run.
+     * @param projectModel         The up-to-date project model or <code>null</code> to build it on first use.
+     * @param typeLocationIndex    The up-to-date index of the types of all source paths or <code>null</code> for a
+     *                             single source path.
+     * @param classPath            The jar files and directories of the types without source code.
+     * @param jarCache             The open jar files of the previous run.
+     */
+    public EnrichmentContext(Manifest manifest, SourceRoots sourceRoots, int threads,
+                             CompilationUnitCache compilationUnitCache, ProjectModel projectModel,
+                             TypeLocationIndex typeLocationIndex, List<File> classPath, JarCache jarCache) {
+        this.manifest = manifest;
+        this.sourceRoots = sourceRoots;
+        this.typeLocationIndex = typeLocationIndex;
+        this.threads = threads;
+        this.pendingChanges = null;
+        this.compilationUnitCache = compilationUnitCache;
+        this.projectModel = projectModel;
+        this.workspace = new Workspace(compilationUnitCache);
+        compilationUnitCache.setMetrics(metrics);
+        this.initialCacheHits = compilationUnitCache.getHits();
+        this.classPathTypes = new ClassPathTypeProvider(classPath, jarCache, metrics, compilationUnitCache::record);
+        setSourceRoots(compilationUnitCache, sourceRoots);
+    }
+
+    private static void setSourceRoots(CompilationUnitCache compilationUnitCache, SourceRoots sourceRoots) {
+        if (sourceRoots.isMultiRoot()) {
+            compilationUnitCache.setSourceRoots(sourceRoots.getSourceRoots().values().stream().
+                    map(p -> p.toAbsolutePath().normalize().toFile()).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Gets the project model. The model is built when it is needed the first time, so a run skipping all files does
+     * not have to scan the source path.
+     *
+     * @return the project model.
+     */
+    public ProjectModel getProjectModel() {
+        ProjectModel model = projectModel;
+        if (model == null) {
+            synchronized (this) {
+                model = projectModel;
+                if (model == null) {
+                    long start = metrics.start();
+                    model = ProjectModel.build(sourceRoots.getPaths(), compilationUnitCache, threads);
+                    metrics.stop(RunMetrics.PROJECT_MODEL, start);
+                    projectModel = model;
+                }
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Gets the project model if it was built or passed to this context.
+     *
+     * @return the project model or <code>null</code>.
+     */
+    public ProjectModel getBuiltProjectModel() {
+        return projectModel;
+    }
+
+    /**
+     * Records the dependencies of an enriched source file. They are recorded in the manifest by {@link #flush()}.
+     *
+     * @param sourceFile   The canonical path of the enriched source file.
+     * @param dependencies The canonical paths of the source files read or written while enriching the source file.
+     */
+    public void addDependencies(String sourceFile, Set<String> dependencies) {
+        this.dependencies.put(sourceFile, dependencies);
+    }
+
+    /**
+     * Writes the source files changed in this run and records the dependencies of the enriched source files with
+     * the written contents in the manifest.
+     */
+    public void flush() {
+        workspace.flush(this::writeSourceFile, threads);
+        if (pendingChanges == null) {
+            long start = metrics.start();
+            dependencies.forEach((f, d) -> manifest.put(f, d, compilationUnitCache::getContentHash));
+            metrics.stop(RunMetrics.MANIFEST, start);
+        }
+        dependencies.clear();
+    }
+
+    /**
+     * Writes a source file. In patch mode the content is only kept as pending change. With several source paths only
+     * source files of the enriched source paths are written.
+     *
+     * @param file    The source file.
+     * @param content The new content.
+     */
+    public void writeSourceFile(File file, String content) {
+        if (sourceRoots.isMultiRoot() && !sourceRoots.isEnriched(file)) {
+            LOGGER.warn(String.format("Not writing source file outside of the enriched source paths: %s",
+                    file.getAbsolutePath()));
+            return;
+        }
+        long start = metrics.start();
+        String sourceFile = ProjectModel.getSourceFile(file);
+        metrics.recordWrite(sourceFile, () -> readSourceFile(file), content);
+        if (pendingChanges != null) {
+            pendingChanges.put(sourceFile, content);
+        } else {
+            try {
+                // written as read by the compilation unit cache
+                Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Could not write source file: %s", file.getAbsolutePath()), e);
+            }
+            compilationUnitCache.recordContent(sourceFile, content);
+        }
+        metrics.stop(RunMetrics.WRITE, start);
+    }
+
+    /**
+     * Reads the content of a source file on disk.
+     *
+     * @return the content or <code>null</code> if the file does not exist.
+     */
+    private String readSourceFile(File file) {
+        try {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            metrics.recordRead(bytes.length);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read source file: %s", file.getAbsolutePath()), e);
+        }
+    }
+
+    /**
+     * Checks if a source file exists. This includes the source files created by this run, also if not written yet.
+     * A missing source file is recorded as dependency of the source file enriched by the current thread.
+     *
+     * @param file The source file.
+     * @return <code>true</code> if the source file exists.
+     */
+    public boolean sourceFileExists(File file) {
+        boolean exists = file.exists() || workspace.contains(file) ||
+                (pendingChanges != null && pendingChanges.contains(ProjectModel.getSourceFile(file)));
+        if (!exists) {
+            // recorded as missing, the file is enriched again if the source file is created
+            compilationUnitCache.record(ProjectModel.getSourceFile(file));
+        }
+        return exists;
+    }
+
+    /**
+     * Gets the source file of a type in the source paths. The located source file is recorded as dependency of the
+     * source file enriched by the current thread.
+     *
+     * @param className The fully qualified class name.
+     * @return the source file or <code>null</code> if not found or for a single source path, in this case the source
+     * file is derived from the base path of the enriched source file.
+     */
+    public File locateType(String className) {
+        File file = typeLocationIndex == null ? null : typeLocationIndex.locate(className);
+        if (file != null) {
+            // also if only the existence of the type is checked
+            compilationUnitCache.record(ProjectModel.getSourceFile(file));
+        }
+        return file;
+    }
+
+    public SourceRoots getSourceRoots() {
+        return sourceRoots;
+    }
+
+    public TypeLocationIndex getTypeLocationIndex() {
+        return typeLocationIndex;
+    }
+
+    public ClassPathTypeProvider getClassPathTypes() {
+        return classPathTypes;
+    }
+
+    public RunMetrics getMetrics() {
+        return metrics;
+    }
+
+    public RepositoryPreFilter getRepositoryPreFilter() {
+        return repositoryPreFilter;
+    }
+
+    public PendingChanges getPendingChanges() {
+        return pendingChanges;
+    }
+
+    public Manifest getManifest() {
+        return manifest;
+    }
+
+    public CompilationUnitCache getCompilationUnitCache() {
+        return compilationUnitCache;
+    }
+
+    public Workspace getWorkspace() {
+        return workspace;
+    }
+
+    public ChangeTracker getChangeTracker() {
+        return changeTracker;
+    }
+
+    public long getInitialCacheHits() {
+        return initialCacheHits;
+    }
+
+    public TypeIndex getTypeIndex() {
+        return typeIndex;
+    }
+
+    public DomainTypeCache getDomainTypeCache() {
+        return domainTypeCache;
+    }
+
+    public AtomicInteger getProcessedFiles() {
+        return processedFiles;
+    }
+
+    public AtomicInteger getSkippedFiles() {
+        return skippedFiles;
+    }
+}
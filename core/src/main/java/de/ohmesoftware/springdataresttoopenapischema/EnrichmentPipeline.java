@@ -0,0 +1,355 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Staged pipeline for enriching the source files in parallel.
+ * <p>
+ * The source files are discovered by a separate thread and passed through a bounded queue to the read stage. The read
+ * stage does the blocking I/O, e.g. checking the manifest and pre-filtering the files, on an I/O executor. This uses
+ * virtual threads if the JVM supports them, otherwise a pool larger than the number of threads. The parse stage
+ * determines the source files each file shares with other files and the enrich stage runs the handlers, both on a pool
+ * of the passed number of threads. Each file is enriched after the preceding files it shares a source file with, e.g.
+ * a common supertype or custom repository interface, so the output is the same as for the sequential run. The
+ * changed source files are written when the run is flushed.
+ * </p>
+ * <p>
+ * At most {@link #AST_PER_THREAD} parsed files per thread are in flight between the parse and the enrich stage and at
+ * most {@link #QUEUED_PER_THREAD} files per thread are queued before the parse stage. For each stage the number of
+ * files, the busy time and the maximum queue depth are recorded in the metrics of the run.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class EnrichmentPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EnrichmentPipeline.class);
+
+    /**
+     * Discovering the source files.
+     */
+    public static final String DISCOVER = "discover";
+
+    /**
+     * Reading the source files and checking if they have to be enriched.
+     */
+    public static final String READ = "read";
+
+    /**
+     * Parsing the source files and determining the source files read or written when enriching them.
+     */
+    public static final String PARSE = "parse";
+
+    /**
+     * Enriching the source files.
+     */
+    public static final String ENRICH = "enrich";
+
+    /**
+     * The maximum number of parsed files per thread waiting for or being enriched.
+     */
+    public static final int AST_PER_THREAD = 4;
+
+    /**
+     * The maximum number of discovered or read files per thread waiting for the next stage.
+     */
+    public static final int QUEUED_PER_THREAD = 16;
+
+    /**
+     * The number of I/O threads per thread if virtual threads are not supported.
+     */
+    private static final int IO_THREADS_PER_THREAD = 4;
+
+    /**
+     * Marks the end of the discovered files.
+     */
+    private static final Object END = new Object();
+
+    private final int threads;
+
+    private final RunMetrics metrics;
+
+    private final Stage discoverStage = new Stage(DISCOVER);
+
+    private final Stage readStage = new Stage(READ);
+
+    private final Stage parseStage = new Stage(PARSE);
+
+    private final Stage enrichStage = new Stage(ENRICH);
+
+    /**
+     * Constructor.
+     *
+     * @param threads The number of threads for parsing and enriching.
+     * @param metrics The metrics of the run.
+     */
+    public EnrichmentPipeline(int threads, RunMetrics metrics) {
+        this.threads = threads;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs the pipeline and waits until all discovered files are enriched.
+     *
+     * @param discovery Passes the source files in the order of the sequential run to the consumer.
+     * @param reader    Checks if a source file has to be enriched. Does the blocking I/O.
+     * @param parser    Gets the canonical paths of the source files read or written when enriching a source file.
+     * @param enricher  Enriches a source file.
+     */
+    public void run(Consumer<Consumer<Path>> discovery, Predicate<Path> reader, Function<Path, Set<String>> parser,
+                    Consumer<Path> enricher) {
+        int capacity = QUEUED_PER_THREAD * threads;
+        BlockingQueue<Object> discovered = new ArrayBlockingQueue<>(capacity);
+        Semaphore permits = new Semaphore(AST_PER_THREAD * threads);
+        ExecutorService discoveryExecutor = Executors.newSingleThreadExecutor();
+        ExecutorService ioExecutor = newIoExecutor(threads * IO_THREADS_PER_THREAD);
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        Deque<Read> reads = new ArrayDeque<>();
+        Deque<Parse> parses = new ArrayDeque<>();
+        Map<String, CompletableFuture<Void>> lastTasks = new HashMap<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        try {
+            Future<?> discovering = discoveryExecutor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    discovery.accept(p -> {
+                        put(discovered, p);
+                        discoverStage.discovered(discovered.size());
+                    });
+                } finally {
+                    discoverStage.busy(System.nanoTime() - start);
+                    put(discovered, END);
+                }
+            });
+            for (Object next = discovered.take(); next != END; next = discovered.take()) {
+                Path path = (Path) next;
+                reads.add(new Read(path, submit(readStage, () -> reader.test(path), ioExecutor)));
+                // parse the read files in order, waiting if too many are queued
+                while (!reads.isEmpty() && (reads.peek().reading.isDone() || reads.size() > capacity)) {
+                    parse(reads.poll(), parser, permits, parses, tasks, lastTasks, enricher, executorService);
+                }
+                while (!parses.isEmpty() && (parses.peek().parsing.isDone() || parses.size() > capacity)) {
+                    schedule(parses.poll(), permits, tasks, lastTasks, enricher, executorService);
+                }
+            }
+            while (!reads.isEmpty()) {
+                parse(reads.poll(), parser, permits, parses, tasks, lastTasks, enricher, executorService);
+            }
+            while (!parses.isEmpty()) {
+                schedule(parses.poll(), permits, tasks, lastTasks, enricher, executorService);
+            }
+            tasks.forEach(EnrichmentPipeline::join);
+            discovering.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while enriching source files.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Could not discover source files.", e.getCause());
+        } finally {
+            discoveryExecutor.shutdownNow();
+            ioExecutor.shutdownNow();
+            executorService.shutdownNow();
+        }
+        for (Stage stage : new Stage[]{discoverStage, readStage, parseStage, enrichStage}) {
+            metrics.recordStage(stage.name, stage.count.get(), stage.nanos.get(), stage.maxQueueDepth.get());
+        }
+    }
+
+    /**
+     * Starts parsing a read file if it has to be enriched. Waits for a free permit, after scheduling the parsed files
+     * still holding permits.
+     */
+    private void parse(Read read, Function<Path, Set<String>> parser, Semaphore permits, Deque<Parse> parses,
+                       List<CompletableFuture<Void>> tasks, Map<String, CompletableFuture<Void>> lastTasks,
+                       Consumer<Path> enricher, ExecutorService executorService) throws InterruptedException {
+        if (!join(read.reading)) {
+            return;
+        }
+        if (!permits.tryAcquire()) {
+            // the scheduled files release their permits when enriched
+            while (!parses.isEmpty()) {
+                schedule(parses.poll(), permits, tasks, lastTasks, enricher, executorService);
+            }
+            permits.acquire();
+        }
+        CompletableFuture<Set<String>> parsing = submit(parseStage, () -> parser.apply(read.path), executorService);
+        parsing.whenComplete((s, e) -> {
+            if (e != null) {
+                permits.release();
+            }
+        });
+        parses.add(new Parse(read.path, parsing));
+    }
+
+    /**
+     * Schedules the enrichment of a parsed file after the preceding files it shares a source file with.
+     */
+    private void schedule(Parse parse, Semaphore permits, List<CompletableFuture<Void>> tasks,
+                          Map<String, CompletableFuture<Void>> lastTasks, Consumer<Path> enricher,
+                          ExecutorService executorService) {
+        Set<String> sourceFiles = join(parse.parsing);
+        enrichStage.queued();
+        CompletableFuture<Void> task = CompletableFuture.allOf(sourceFiles.stream().map(lastTasks::get).
+                filter(Objects::nonNull).toArray(CompletableFuture[]::new)).
+                thenRunAsync(() -> enrichStage.run(() -> {
+                    enricher.accept(parse.path);
+                    return null;
+                }), executorService);
+        task.whenComplete((v, e) -> permits.release());
+        sourceFiles.forEach(f -> lastTasks.put(f, task));
+        tasks.add(task);
+    }
+
+    private static <T> CompletableFuture<T> submit(Stage stage, Supplier<T> supplier,
+                                                   ExecutorService executorService) {
+        stage.queued();
+        return CompletableFuture.supplyAsync(() -> stage.run(supplier), executorService);
+    }
+
+    /**
+     * Creates the executor for blocking I/O. Virtual threads are used if supported by the JVM.
+     *
+     * @param threads The number of threads if virtual threads are not supported.
+     * @return the executor.
+     */
+    static ExecutorService newIoExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.debug("Virtual threads not supported, using a thread pool for I/O.");
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    private static void put(BlockingQueue<Object> queue, Object element) {
+        try {
+            queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while discovering source files.", e);
+        }
+    }
+
+    /**
+     * Waits for a future and rethrows a runtime exception thrown by its computation unwrapped.
+     *
+     * @param future The future.
+     * @param <T>    The result type.
+     * @return the result.
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A file in the read stage.
+     */
+    private static class Read {
+
+        private final Path path;
+
+        private final CompletableFuture<Boolean> reading;
+
+        private Read(Path path, CompletableFuture<Boolean> reading) {
+            this.path = path;
+            this.reading = reading;
+        }
+    }
+
+    /**
+     * A file in the parse stage.
+     */
+    private static class Parse {
+
+        private final Path path;
+
+        private final CompletableFuture<Set<String>> parsing;
+
+        private Parse(Path path, CompletableFuture<Set<String>> parsing) {
+            this.path = path;
+            this.parsing = parsing;
+        }
+    }
+
+    /**
+     * The counters of a stage.
+     */
+    private static class Stage {
+
+        private final String name;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        private final AtomicInteger queueDepth = new AtomicInteger();
+
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        private Stage(String name) {
+            this.name = name;
+        }
+
+        private void queued() {
+            int depth = queueDepth.incrementAndGet();
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+        }
+
+        private <T> T run(Supplier<T> supplier) {
+            queueDepth.decrementAndGet();
+            long start = System.nanoTime();
+            try {
+                return supplier.get();
+            } finally {
+                count.incrementAndGet();
+                busy(System.nanoTime() - start);
+            }
+        }
+
+        private void discovered(int queueDepth) {
+            count.incrementAndGet();
+            maxQueueDepth.accumulateAndGet(queueDepth, Math::max);
+        }
+
+        private void busy(long nanos) {
+            this.nanos.addAndGet(nanos);
+        }
+    }
+}
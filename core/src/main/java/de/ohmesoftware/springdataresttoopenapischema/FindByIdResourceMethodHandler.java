@@ -14,8 +14,6 @@ import java.util.Collections;
  */
 public class FindByIdResourceMethodHandler extends MethodByIdResourceMethodHandler {
 
-    private static final String FIND_BY_ID_METHOD = "findById";
-
     /**
      * Constructor.
      *
@@ -23,9 +21,11 @@ public class FindByIdResourceMethodHandler extends MethodByIdResourceMethodHandl
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      */
-    protected FindByIdResourceMethodHandler(String sourceFile, String sourcePath, String basePath, CompilationUnit compilationUnit) {
-        super(sourceFile, sourcePath, basePath, compilationUnit, FIND_BY_ID_METHOD, false);
+    protected FindByIdResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
+                                            CompilationUnit compilationUnit, EnrichmentContext context) {
+        super(sourceFile, sourcePath, basePath, compilationUnit, context, ResourceNaming.FIND_BY_ID_METHOD, false);
     }
 
     @Override
@@ -36,7 +36,7 @@ public class FindByIdResourceMethodHandler extends MethodByIdResourceMethodHandl
                 Collections.singletonList(
                         createApiResponseAnnotation200WithContent(
                                 classOrInterfaceDeclaration)),
-                String.format("Gets a(n) %s by its id.",
+                ResourceNaming.getFindByIdSummary(
                         getSimpleNameFromClass(
                                 getDomainClass(classOrInterfaceDeclaration).asString())));
     }
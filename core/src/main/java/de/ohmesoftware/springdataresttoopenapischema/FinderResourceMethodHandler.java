@@ -22,7 +22,7 @@ import java.util.List;
  */
 public class FinderResourceMethodHandler extends ResourceMethodHandler {
 
-    private static final String FIND_ALL_METHOD = "findAll";
+    private static final String FIND_ALL_METHOD = ResourceNaming.FIND_ALL_METHOD;
     private static final String ITERABLE_CLASS = "java.lang.Iterable";
     private static final String PREDICATE_PARAM = "predicate";
     private static final String PAGE = "Page";
@@ -44,13 +44,14 @@ public class FinderResourceMethodHandler extends ResourceMethodHandler {
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      * @param searchableAnnotation The searchable annotation.
      * @param sortableAnnotation The sortable annotation.
      */
     protected FinderResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
-                                          CompilationUnit compilationUnit,
+                                          CompilationUnit compilationUnit, EnrichmentContext context,
     String searchableAnnotation, String sortableAnnotation) {
-        super(sourceFile, sourcePath, basePath, compilationUnit);
+        super(sourceFile, sourcePath, basePath, compilationUnit, context);
         this.searchableAnnotation = searchableAnnotation;
         this.sortableAnnotation = sortableAnnotation;
     }
@@ -152,8 +153,8 @@ public class FinderResourceMethodHandler extends ResourceMethodHandler {
             String defaultDescription;
             if (isPageReturnType(methodDeclaration)) {
                 String className = getSimpleNameFromClass(getDomainClass(classOrInterfaceDeclaration).asString());
-                defaultDescription = String.format("Finds all %ss and returns the result paginated.", className);
-                String summary = String.format("Paged view with list of: %s",
+                defaultDescription = ResourceNaming.getFindAllSummary(className, true);
+                String summary = ResourceNaming.getPageSummary(
                         getTypeSummary(compilationUnit, getDomainClass(classOrInterfaceDeclaration)));
                 responses = Collections.singletonList(createApiResponseAnnotation200WithRef(compilationUnit, summary,
                         PAGE +className));
@@ -162,9 +163,9 @@ public class FinderResourceMethodHandler extends ResourceMethodHandler {
                 responses = Collections.singletonList(
                         createApiResponseAnnotation200WithContentForType(classOrInterfaceDeclaration.findCompilationUnit().get(),
                                 methodDeclaration.getType()));
-                defaultDescription = String.format("Finds all %ss and returns the result as array.",
+                defaultDescription = ResourceNaming.getFindAllSummary(
                         getSimpleNameFromClass(
-                                getDomainClass(classOrInterfaceDeclaration).asString()));
+                                getDomainClass(classOrInterfaceDeclaration).asString()), false);
             }
             addOperationAnnotation(methodDeclaration, parameters,
                     null,
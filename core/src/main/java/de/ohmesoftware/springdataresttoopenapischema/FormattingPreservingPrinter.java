@@ -0,0 +1,330 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.Position;
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Printer which keeps the original text of all unchanged code.
+ * <p>
+ * The compilation unit to print must be a copy of a compilation unit parsed from a known source. Copies keep the
+ * ranges of the parsed nodes. When printing, the declarations of the copy are matched by their range to the original
+ * declarations. Unchanged declarations and all text between declarations, e.g. blank lines and orphan comments, are
+ * copied from the source. Of a changed declaration only the annotations and, if changed, the remaining declaration are
+ * printed. New declarations are pretty printed with the indentation of their siblings.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class FormattingPreservingPrinter {
+
+    private static final DataKey<String> SOURCE = new DataKey<String>() {
+    };
+
+    private static final DataKey<CompilationUnit> ORIGINAL = new DataKey<CompilationUnit>() {
+    };
+
+    private static final String LF = "\n";
+
+    private static final String CRLF = "\r\n";
+
+    private static final String INDENTATION = "    ";
+
+    private static final String EMPTY_INDENTATION = "";
+
+    private final String source;
+
+    private final String lineSeparator;
+
+    private final List<Integer> lineOffsets = new ArrayList<>();
+
+    private final StringBuilder out = new StringBuilder();
+
+    private FormattingPreservingPrinter(String source) {
+        this.source = source;
+        this.lineSeparator = source.contains(CRLF) ? CRLF : LF;
+        lineOffsets.add(0);
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') {
+                lineOffsets.add(i + 1);
+            }
+        }
+    }
+
+    /**
+     * Sets up a copy of a compilation unit for printing.
+     *
+     * @param compilationUnit The copy which is modified and printed later.
+     * @param original        The unmodified compilation unit. It must not be modified afterwards.
+     * @param source          The source the original compilation unit was parsed from.
+     */
+    public static void setup(CompilationUnit compilationUnit, CompilationUnit original, String source) {
+        compilationUnit.setData(SOURCE, source);
+        compilationUnit.setData(ORIGINAL, original);
+    }
+
+    /**
+     * Checks if a compilation unit was set up for printing.
+     *
+     * @param compilationUnit The compilation unit.
+     * @return <code>true</code> if set up.
+     */
+    public static boolean isSetUp(CompilationUnit compilationUnit) {
+        return compilationUnit.containsData(SOURCE);
+    }
+
+    /**
+     * Prints a compilation unit keeping the original text of all unchanged code.
+     *
+     * @param compilationUnit The compilation unit set up with {@link #setup(CompilationUnit, CompilationUnit, String)}.
+     * @return the source code.
+     */
+    public static String print(CompilationUnit compilationUnit) {
+        String source = compilationUnit.getData(SOURCE);
+        CompilationUnit original = compilationUnit.getData(ORIGINAL);
+        if (compilationUnit.equals(original)) {
+            return source;
+        }
+        if (!Objects.equals(compilationUnit.getPackageDeclaration(), original.getPackageDeclaration())) {
+            return compilationUnit.toString();
+        }
+        FormattingPreservingPrinter printer = new FormattingPreservingPrinter(source);
+        printer.printCompilationUnit(compilationUnit, original);
+        return printer.out.toString();
+    }
+
+    private void printCompilationUnit(CompilationUnit compilationUnit, CompilationUnit original) {
+        int importsStart = original.getPackageDeclaration().map(this::getEnd).orElse(0);
+        out.append(source, 0, importsStart);
+        int importsEnd = original.getImports().isEmpty() ? importsStart :
+                getEnd(original.getImports().get(original.getImports().size() - 1));
+        printNodes(original.getImports(), compilationUnit.getImports(), importsStart, importsEnd,
+                lineSeparator + lineSeparator, lineSeparator, EMPTY_INDENTATION);
+        printNodes(original.getTypes(), compilationUnit.getTypes(), importsEnd, source.length(),
+                lineSeparator + lineSeparator, lineSeparator + lineSeparator, EMPTY_INDENTATION);
+    }
+
+    /**
+     * Prints a list of sibling nodes.
+     *
+     * @param originals      The original nodes.
+     * @param nodes          The nodes to print.
+     * @param regionStart    The start of the text of the original nodes.
+     * @param regionEnd      The end of the text of the original nodes.
+     * @param firstSeparator The separator before the first new node if there are no original nodes.
+     * @param separator      The separator before other new nodes.
+     * @param indentation    The indentation of the nodes.
+     * @return the number of printed nodes.
+     */
+    private int printNodes(List<? extends Node> originals, List<? extends Node> nodes, int regionStart, int regionEnd,
+                           String firstSeparator, String separator, String indentation) {
+        boolean[] matched = new boolean[originals.size()];
+        int printed = 0;
+        for (Node node : nodes) {
+            int index = findOriginal(originals, matched, node);
+            if (printed == 0 && !originals.isEmpty()) {
+                // the text before the first original node, also if it was removed
+                out.append(source, regionStart, getBegin(originals.get(0)));
+            } else if (index < 0) {
+                out.append(printed == 0 ? firstSeparator : separator);
+            } else {
+                out.append(source, index == 0 ? regionStart : getEnd(originals.get(index - 1)),
+                        getBegin(originals.get(index)));
+            }
+            if (index < 0) {
+                out.append(indent(print(node), indentation));
+            } else {
+                matched[index] = true;
+                printNode(originals.get(index), node, indentation);
+            }
+            printed++;
+        }
+        out.append(source, originals.isEmpty() ? regionStart : getEnd(originals.get(originals.size() - 1)),
+                regionEnd);
+        return printed;
+    }
+
+    private static int findOriginal(List<? extends Node> originals, boolean[] matched, Node node) {
+        if (!node.getRange().isPresent()) {
+            return -1;
+        }
+        for (int i = 0; i < originals.size(); i++) {
+            Node original = originals.get(i);
+            if (!matched[i] && original.getClass() == node.getClass()
+                    && original.getRange().equals(node.getRange())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void printNode(Node original, Node node, String indentation) {
+        if (node.equals(original)) {
+            out.append(source, getBegin(original), getEnd(original));
+        } else if (node instanceof BodyDeclaration && original instanceof BodyDeclaration) {
+            printDeclaration((BodyDeclaration<?>) original, (BodyDeclaration<?>) node);
+        } else {
+            out.append(indent(print(node), indentation));
+        }
+    }
+
+    private void printDeclaration(BodyDeclaration<?> original, BodyDeclaration<?> declaration) {
+        int begin = getOffset(getRange(original).begin);
+        String indentation = getIndentation(begin);
+        // comment
+        if (Objects.equals(original.getComment(), declaration.getComment())) {
+            out.append(source, getBegin(original), begin);
+        } else if (declaration.getComment().isPresent()) {
+            out.append(indent(print(declaration.getComment().get()).trim(), indentation)).
+                    append(lineSeparator).append(indentation);
+        }
+        // annotations
+        int annotationsEnd = original.getAnnotations().isEmpty() ? begin :
+                getEnd(original.getAnnotations().get(original.getAnnotations().size() - 1));
+        int annotations = printNodes(original.getAnnotations(), declaration.getAnnotations(), begin, annotationsEnd,
+                EMPTY_INDENTATION, lineSeparator + indentation, indentation);
+        int restStart = annotationsEnd;
+        if (original.getAnnotations().isEmpty() && annotations > 0) {
+            out.append(lineSeparator).append(indentation);
+        } else if (!original.getAnnotations().isEmpty() && annotations == 0) {
+            // remove the line break after the removed annotations
+            restStart = skipWhitespace(annotationsEnd);
+        }
+        // remaining declaration
+        if (original instanceof ClassOrInterfaceDeclaration && declaration instanceof ClassOrInterfaceDeclaration) {
+            printType((ClassOrInterfaceDeclaration) original, (ClassOrInterfaceDeclaration) declaration, restStart,
+                    indentation);
+        } else if (removeAnnotations(original).equals(removeAnnotations(declaration))) {
+            out.append(source, restStart, getEnd(original));
+        } else {
+            int textStart = skipWhitespace(restStart);
+            out.append(source, restStart, textStart);
+            out.append(indent(print(removeAnnotations(declaration)), indentation));
+        }
+    }
+
+    private void printType(ClassOrInterfaceDeclaration original, ClassOrInterfaceDeclaration type, int restStart,
+                           String indentation) {
+        int bodyStart = getBodyStart(original);
+        if (isHeaderEqual(original, type)) {
+            out.append(source, restStart, bodyStart);
+        } else {
+            int textStart = skipWhitespace(restStart);
+            out.append(source, restStart, textStart);
+            ClassOrInterfaceDeclaration header = removeAnnotations(type);
+            header.setMembers(new NodeList<>());
+            String text = print(header);
+            out.append(indent(text.substring(0, text.lastIndexOf('{')).trim(), indentation)).append(" {");
+        }
+        String memberIndentation = original.getMembers().isEmpty() ? indentation + INDENTATION :
+                getIndentation(getBegin(original.getMembers().get(0)));
+        int bodyEnd = getOffset(getRange(original).end);
+        printNodes(original.getMembers(), type.getMembers(), bodyStart, bodyEnd,
+                lineSeparator + lineSeparator + memberIndentation, lineSeparator + lineSeparator + memberIndentation,
+                memberIndentation);
+        out.append(source, bodyEnd, getEnd(original));
+    }
+
+    private static boolean isHeaderEqual(ClassOrInterfaceDeclaration original, ClassOrInterfaceDeclaration type) {
+        return original.isInterface() == type.isInterface()
+                && original.getModifiers().equals(type.getModifiers())
+                && original.getName().equals(type.getName())
+                && original.getTypeParameters().equals(type.getTypeParameters())
+                && original.getExtendedTypes().equals(type.getExtendedTypes())
+                && original.getImplementedTypes().equals(type.getImplementedTypes());
+    }
+
+    /**
+     * Gets the offset after the opening brace of the type body.
+     */
+    private int getBodyStart(ClassOrInterfaceDeclaration type) {
+        List<Node> headerNodes = new ArrayList<>();
+        headerNodes.add(type.getName());
+        headerNodes.addAll(type.getTypeParameters());
+        headerNodes.addAll(type.getExtendedTypes());
+        headerNodes.addAll(type.getImplementedTypes());
+        int headerEnd = headerNodes.stream().mapToInt(this::getEnd).max().orElse(getBegin(type));
+        return source.indexOf('{', headerEnd) + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends BodyDeclaration<?>> T removeAnnotations(T declaration) {
+        T copy = (T) declaration.clone();
+        copy.setAnnotations(new NodeList<>());
+        copy.removeComment();
+        return copy;
+    }
+
+    private String print(Node node) {
+        return node.toString().replace(CRLF, LF).replace(LF, lineSeparator);
+    }
+
+    private String indent(String text, String indentation) {
+        if (indentation.isEmpty()) {
+            return text;
+        }
+        String[] lines = text.split(lineSeparator, -1);
+        StringBuilder indented = new StringBuilder(lines[0]);
+        for (int i = 1; i < lines.length; i++) {
+            indented.append(lineSeparator);
+            if (!lines[i].isEmpty()) {
+                indented.append(indentation);
+            }
+            indented.append(lines[i]);
+        }
+        return indented.toString();
+    }
+
+    private String getIndentation(int offset) {
+        int lineStart = source.lastIndexOf('\n', offset - 1) + 1;
+        int end = lineStart;
+        while (end < offset && (source.charAt(end) == ' ' || source.charAt(end) == '\t')) {
+            end++;
+        }
+        return source.substring(lineStart, end);
+    }
+
+    private int skipWhitespace(int offset) {
+        while (offset < source.length() && Character.isWhitespace(source.charAt(offset))) {
+            offset++;
+        }
+        return offset;
+    }
+
+    /**
+     * Gets the start of the text of a node including its comment.
+     */
+    private int getBegin(Node node) {
+        int begin = getOffset(getRange(node).begin);
+        if (node.getComment().isPresent() && node.getComment().get().getRange().isPresent()) {
+            begin = Math.min(begin, getOffset(node.getComment().get().getRange().get().begin));
+        }
+        return begin;
+    }
+
+    /**
+     * Gets the offset after the text of a node.
+     */
+    private int getEnd(Node node) {
+        return getOffset(getRange(node).end) + 1;
+    }
+
+    private int getOffset(Position position) {
+        return lineOffsets.get(position.line - 1) + position.column - 1;
+    }
+
+    private static Range getRange(Node node) {
+        return node.getRange().orElseThrow(() -> new IllegalStateException(
+                String.format("Node has no range: %s", node)));
+    }
+}
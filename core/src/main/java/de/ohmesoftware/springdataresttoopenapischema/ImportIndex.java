@@ -0,0 +1,287 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.observer.AstObserverAdapter;
+import com.github.javaparser.ast.observer.ObservableProperty;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolution table of the simple class names used in a compilation unit.
+ * <p>
+ * The table is built once per parsed source file from the single type imports, the wild card imports and the package
+ * of the compilation unit. A simple class name is resolved in the order of the Java language: single type imports,
+ * types of the same package, types of wild card imported packages and <code>java.lang</code>. Types of packages are
+ * looked up in the {@link PackageIndex} of the source paths, types of other packages, e.g. <code>java.util</code>, on
+ * the class path. A name which cannot be resolved at all is assumed to be in the same package. Resolved names are
+ * cached.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class ImportIndex {
+
+    private static final DataKey<Binding> IMPORT_INDEX = new DataKey<Binding>() {
+    };
+
+    private static final String DOT = ".";
+
+    private static final String JAVA_LANG = "java.lang";
+
+    /**
+     * The existence of the types on the class path by fully qualified class name.
+     */
+    private static final ConcurrentMap<String, Boolean> CLASS_PATH_TYPES = new ConcurrentHashMap<>();
+
+    /**
+     * The source root directory or <code>null</code> if the compilation unit has no source file.
+     */
+    private final File root;
+
+    private final PackageIndex packageIndex;
+
+    /**
+     * The package or <code>null</code> for the default package.
+     */
+    private final Package _package;
+
+    /**
+     * The single type imports by simple class name.
+     */
+    private final Map<String, String> singleTypeImports = new HashMap<>();
+
+    private final List<Package> wildcardImports = new ArrayList<>();
+
+    private final ConcurrentMap<String, String> resolvedNames = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param compilationUnit The compilation unit.
+     * @param root            The source root directory or <code>null</code> if the compilation unit has no source file.
+     * @param packageIndex    The index of the types of the source path or <code>null</code> if the compilation unit
+     *                        has no source file.
+     */
+    private ImportIndex(CompilationUnit compilationUnit, File root, PackageIndex packageIndex) {
+        this.root = root;
+        this.packageIndex = packageIndex;
+        this._package = compilationUnit.getPackageDeclaration().map(p -> new Package(p.getName().asString())).
+                orElse(null);
+        for (ImportDeclaration importDeclaration : compilationUnit.getImports()) {
+            if (importDeclaration.isStatic()) {
+                continue;
+            }
+            if (importDeclaration.isAsterisk()) {
+                wildcardImports.add(new Package(importDeclaration.getName().asString()));
+            } else {
+                singleTypeImports.putIfAbsent(importDeclaration.getName().getIdentifier(),
+                        importDeclaration.getName().asString());
+            }
+        }
+    }
+
+    /**
+     * Creates the table of a parsed source file.
+     *
+     * @param compilationUnit The compilation unit.
+     * @param sourceFile      The canonical source file.
+     * @param packageIndex    The index of the types of the source path.
+     * @return the table.
+     */
+    public static ImportIndex create(CompilationUnit compilationUnit, File sourceFile, PackageIndex packageIndex) {
+        File root = sourceFile.getParentFile();
+        int packageDirectories = compilationUnit.getPackageDeclaration().
+                map(p -> p.getName().asString().split("\\.").length).orElse(0);
+        for (int i = 0; i < packageDirectories && root != null; i++) {
+            root = root.getParentFile();
+        }
+        return new ImportIndex(compilationUnit, root, packageIndex);
+    }
+
+    /**
+     * Attaches the table of the parsed source file to a compilation unit, e.g. a copy. The table is rebuilt on the next
+     * lookup if the imports or the package of the compilation unit are changed.
+     *
+     * @param compilationUnit The compilation unit.
+     * @param importIndex     The table.
+     */
+    public static void attach(CompilationUnit compilationUnit, ImportIndex importIndex) {
+        Binding binding = new Binding(importIndex);
+        compilationUnit.setData(IMPORT_INDEX, binding);
+        compilationUnit.register(binding);
+        compilationUnit.getImports().register(binding);
+    }
+
+    /**
+     * Gets the table of a compilation unit. A compilation unit without attached table, e.g. created in memory, gets a
+     * table resolving names only by the imports and the class path.
+     *
+     * @param compilationUnit The compilation unit.
+     * @return the table.
+     */
+    public static ImportIndex of(CompilationUnit compilationUnit) {
+        if (!compilationUnit.containsData(IMPORT_INDEX)) {
+            attach(compilationUnit, new ImportIndex(compilationUnit, null, null));
+        }
+        Binding binding = compilationUnit.getData(IMPORT_INDEX);
+        ImportIndex importIndex = binding.importIndex;
+        if (importIndex == null) {
+            importIndex = new ImportIndex(compilationUnit, binding.root, binding.packageIndex);
+            binding.importIndex = importIndex;
+        }
+        return importIndex;
+    }
+
+    /**
+     * Resolves a simple class name.
+     *
+     * @param simpleName The simple class name.
+     * @return the fully qualified class name or <code>null</code> if the name cannot be resolved in the default
+     * package.
+     */
+    public String resolve(String simpleName) {
+        String resolvedName = resolvedNames.get(simpleName);
+        if (resolvedName == null) {
+            resolvedName = lookup(simpleName);
+            if (resolvedName != null) {
+                resolvedNames.putIfAbsent(simpleName, resolvedName);
+            }
+        }
+        return resolvedName;
+    }
+
+    private String lookup(String simpleName) {
+        String singleTypeImport = singleTypeImports.get(simpleName);
+        if (singleTypeImport != null) {
+            return singleTypeImport;
+        }
+        if (_package != null && containsSourceFile(_package, simpleName)) {
+            return _package.qualify(simpleName);
+        }
+        for (Package wildcardImport : wildcardImports) {
+            if (containsSourceFile(wildcardImport, simpleName)) {
+                return wildcardImport.qualify(simpleName);
+            }
+        }
+        for (Package wildcardImport : wildcardImports) {
+            if (isOnClassPath(wildcardImport.qualify(simpleName))) {
+                return wildcardImport.qualify(simpleName);
+            }
+        }
+        String javaLangClassName = JAVA_LANG + DOT + simpleName;
+        if (isOnClassPath(javaLangClassName)) {
+            return javaLangClassName;
+        }
+        // not part of the source path, e.g. created in this run
+        return _package == null ? null : _package.qualify(simpleName);
+    }
+
+    private boolean containsSourceFile(Package _package, String simpleName) {
+        if (root == null) {
+            return false;
+        }
+        if (packageIndex.contains(_package.getDirectory(root), simpleName)) {
+            return true;
+        }
+        for (File sourceRoot : packageIndex.getSourceRoots()) {
+            if (!sourceRoot.equals(root) && packageIndex.contains(new File(sourceRoot, _package.path), simpleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOnClassPath(String className) {
+        return CLASS_PATH_TYPES.computeIfAbsent(className, c -> {
+            try {
+                Class.forName(c, false, ImportIndex.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * The table of a compilation unit. The table is dropped when the imports or the package are changed. The change
+     * is notified before the imports are modified, so the table is rebuilt on the next lookup.
+     */
+    private static class Binding extends AstObserverAdapter {
+
+        private final File root;
+
+        private final PackageIndex packageIndex;
+
+        /**
+         * The table or <code>null</code> if changed.
+         */
+        private volatile ImportIndex importIndex;
+
+        private Binding(ImportIndex importIndex) {
+            this.root = importIndex.root;
+            this.packageIndex = importIndex.packageIndex;
+            this.importIndex = importIndex;
+        }
+
+        @Override
+        public void propertyChange(Node observedNode, ObservableProperty property, Object oldValue, Object newValue) {
+            if (property == ObservableProperty.IMPORTS) {
+                ((NodeList<?>) newValue).register(this);
+                importIndex = null;
+            } else if (property == ObservableProperty.PACKAGE_DECLARATION) {
+                importIndex = null;
+            }
+        }
+
+        @Override
+        public void listChange(NodeList observedNode, ListChangeType type, int index, Node nodeAddedOrRemoved) {
+            importIndex = null;
+        }
+
+        @Override
+        public void listReplacement(NodeList observedNode, int index, Node oldNode, Node newNode) {
+            importIndex = null;
+        }
+    }
+
+    /**
+     * A package with its directory in the source root.
+     */
+    private static class Package {
+
+        private final String name;
+
+        private final String path;
+
+        private volatile File directory;
+
+        private Package(String name) {
+            this.name = name;
+            this.path = name.replace('.', File.separatorChar);
+        }
+
+        private String qualify(String simpleName) {
+            return name + DOT + simpleName;
+        }
+
+        private File getDirectory(File root) {
+            File directory = this.directory;
+            if (directory == null) {
+                directory = new File(root, path);
+                this.directory = directory;
+            }
+            return directory;
+        }
+    }
+}
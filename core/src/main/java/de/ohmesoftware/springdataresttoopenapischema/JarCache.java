@@ -0,0 +1,227 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Cache of the open jar files of a class path and the class file headers read from them.
+ * <p>
+ * The cache is scoped to its owner, e.g. a single run or all runs of a daemon, and must be closed by it. A jar file
+ * stays open until the cache is closed or the modification time or the size of the jar file changes. A replaced jar
+ * file is closed when the last reader has finished, so a concurrent run still reading the old jar file is not
+ * disturbed.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class JarCache implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JarCache.class);
+
+    /**
+     * The jar files by canonical path.
+     */
+    private final ConcurrentMap<String, JarTypes> jars = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Gets the header of a class file of a jar file.
+     *
+     * @param jar       The jar file.
+     * @param canonical The canonical path of the jar file.
+     * @param name      The entry name of the class file.
+     * @param reader    The reader of the header from the bytes of the class file returning <code>null</code> for an
+     *                  invalid class file.
+     * @return the header or <code>null</code> if the jar file does not contain the class file or cannot be read.
+     */
+    ClassFileReader.ClassHeader getType(File jar, String canonical, String name,
+                                        Function<byte[], ClassFileReader.ClassHeader> reader) {
+        while (true) {
+            JarTypes jarTypes = get(jar, canonical);
+            if (jarTypes == null) {
+                throw new IllegalStateException(String.format("Jar cache is closed, could not read: %s", jar));
+            }
+            if (jarTypes.acquire()) {
+                try {
+                    return jarTypes.getType(name, reader);
+                } finally {
+                    jarTypes.release();
+                }
+            }
+            // replaced by another thread in between
+        }
+    }
+
+    private JarTypes get(File jar, String canonical) {
+        return jars.compute(canonical, (k, jarTypes) -> {
+            if (!closed && jarTypes != null && jarTypes.isUpToDate(jar)) {
+                return jarTypes;
+            }
+            if (jarTypes != null) {
+                jarTypes.retire();
+            }
+            return closed ? null : new JarTypes(jar);
+        });
+    }
+
+    /**
+     * Gets the number of class files read from a jar file since it was opened.
+     *
+     * @param jar The jar file.
+     * @return the number of read class files or 0 if the jar file is not open.
+     */
+    long getReads(File jar) {
+        JarTypes jarTypes;
+        try {
+            jarTypes = jars.get(jar.getCanonicalPath());
+        } catch (IOException e) {
+            return 0;
+        }
+        return jarTypes == null ? 0 : jarTypes.reads.get();
+    }
+
+    /**
+     * Gets the number of open jar files.
+     *
+     * @return the number of jar files.
+     */
+    public int size() {
+        return jars.size();
+    }
+
+    /**
+     * Closes all jar files. Jar files still read are closed when the last reader has finished. The cache must not be
+     * used afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<String> keys = new ArrayList<>(jars.keySet());
+        for (String key : keys) {
+            JarTypes jarTypes = jars.remove(key);
+            if (jarTypes != null) {
+                jarTypes.retire();
+            }
+        }
+    }
+
+    /**
+     * The class files of a jar file.
+     */
+    private static class JarTypes {
+
+        private final long lastModified;
+
+        private final long size;
+
+        private final ZipFile zipFile;
+
+        /**
+         * The headers of the read class files by entry name.
+         */
+        private final ConcurrentMap<String, Optional<ClassFileReader.ClassHeader>> types =
+                new ConcurrentHashMap<>();
+
+        private final AtomicLong reads = new AtomicLong();
+
+        /**
+         * The number of threads reading the jar file.
+         */
+        private int readers;
+
+        /**
+         * <code>true</code> if the jar file was replaced or the cache closed.
+         */
+        private boolean retired;
+
+        private JarTypes(File jar) {
+            this.lastModified = jar.lastModified();
+            this.size = jar.length();
+            ZipFile zipFile = null;
+            try {
+                zipFile = jar.isFile() ? new ZipFile(jar) : null;
+            } catch (IOException e) {
+                LOGGER.warn(String.format("Could not open jar file: %s", jar), e);
+            }
+            this.zipFile = zipFile;
+        }
+
+        private boolean isUpToDate(File jar) {
+            return jar.lastModified() == lastModified && jar.length() == size;
+        }
+
+        private synchronized boolean acquire() {
+            if (retired) {
+                return false;
+            }
+            readers++;
+            return true;
+        }
+
+        private synchronized void release() {
+            readers--;
+            if (retired && readers == 0) {
+                closeZipFile();
+            }
+        }
+
+        private synchronized void retire() {
+            retired = true;
+            if (readers == 0) {
+                closeZipFile();
+            }
+        }
+
+        private ClassFileReader.ClassHeader getType(String name, Function<byte[], ClassFileReader.ClassHeader> reader) {
+            if (zipFile == null) {
+                return null;
+            }
+            return types.computeIfAbsent(name, n -> {
+                ZipEntry entry = zipFile.getEntry(n);
+                if (entry == null) {
+                    return Optional.empty();
+                }
+                try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(
+                            entry.getSize() > 0 ? (int) entry.getSize() : 1024);
+                    byte[] buffer = new byte[8192];
+                    for (int read = inputStream.read(buffer); read >= 0; read = inputStream.read(buffer)) {
+                        outputStream.write(buffer, 0, read);
+                    }
+                    reads.incrementAndGet();
+                    return Optional.ofNullable(reader.apply(outputStream.toByteArray()));
+                } catch (IOException e) {
+                    LOGGER.warn(String.format("Could not read class file '%s' of '%s'", n, zipFile.getName()), e);
+                    return Optional.empty();
+                }
+            }).orElse(null);
+        }
+
+        private void closeZipFile() {
+            if (zipFile != null) {
+                try {
+                    zipFile.close();
+                } catch (IOException e) {
+                    LOGGER.debug(String.format("Could not close jar file: %s", zipFile.getName()), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Streaming writer for JSON documents. The output is indented by two spaces.
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class JsonWriter implements DocumentWriter {
+
+    private static final String INDENT = "  ";
+
+    private final Writer writer;
+
+    /**
+     * For each open object or array if it has no elements yet.
+     */
+    private final Deque<Boolean> empty = new ArrayDeque<>();
+
+    /**
+     * A name was written and its value is expected.
+     */
+    private boolean afterName;
+
+    /**
+     * Constructor.
+     *
+     * @param writer The writer to write to.
+     */
+    public JsonWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        beforeValue();
+        writer.write(quote(name));
+        writer.write(": ");
+        afterName = true;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        beforeValue();
+        writer.write(value == null ? "null" : quote(value));
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        writer.write(String.valueOf(value));
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        beforeValue();
+        writer.write(String.valueOf(value));
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.write(System.lineSeparator());
+        writer.close();
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        beforeValue();
+        writer.write(bracket);
+        empty.push(true);
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        if (!empty.pop()) {
+            newLine();
+        }
+        writer.write(bracket);
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!empty.isEmpty()) {
+            if (!empty.peek()) {
+                writer.write(',');
+            }
+            empty.pop();
+            empty.push(false);
+            newLine();
+        }
+    }
+
+    private void newLine() throws IOException {
+        writer.write(System.lineSeparator());
+        for (int i = 0; i < empty.size(); i++) {
+            writer.write(INDENT);
+        }
+    }
+
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                case '\\':
+                    quoted.append('\\').append(c);
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < ' ') {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,281 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Manifest of the last enrichment run for incremental enrichment.
+ * <p>
+ * For each enriched source file the content hashes of all source files read while enriching it are stored, i.e. the
+ * file itself, its supertypes, custom repository interfaces and domain classes. The hashes are taken right after the
+ * source file was enriched, so a source file is up to date if none of these files has changed since. This includes
+ * changes made by enriching later files.
+ * </p>
+ * <p>
+ * The manifest also records a hash of the enrichment options. If the options have changed all entries are dropped.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class Manifest {
+
+    /**
+     * The file name of the manifest.
+     */
+    public static final String MANIFEST_FILE_NAME = ".springdataresttoopenapischema.manifest";
+
+    private static final String VERSION = "1";
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final String SEPARATOR = "\t";
+
+    private static final String CONFIGURATION_KEY = "configuration";
+
+    /**
+     * The hash recorded for a file which does not exist. If the file is created later, its hash does not match.
+     */
+    private static final String MISSING = "-";
+
+    private final File file;
+
+    private final String configurationHash;
+
+    /**
+     * The hashes of the dependencies by enriched source file.
+     */
+    private final Map<String, Map<String, String>> entries = new TreeMap<>();
+
+    /**
+     * The hashes of the files by canonical path with the modification time and size they were taken for. A file
+     * shared by several source files, e.g. a common supertype or domain class, is only hashed again if it has
+     * changed.
+     */
+    private final ConcurrentMap<String, FileHash> fileHashes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param file          The manifest file.
+     * @param configuration The enrichment options influencing the output.
+     */
+    public Manifest(File file, String configuration) {
+        this.file = file;
+        this.configurationHash = hash(configuration.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Loads the manifest file if it exists and was written with the same options.
+     */
+    public synchronized void load() {
+        entries.clear();
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null || !line.equals(CONFIGURATION_KEY + SEPARATOR + VERSION + SEPARATOR + configurationHash)) {
+                return;
+            }
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split(SEPARATOR);
+                if (columns.length != 3) {
+                    throw new RuntimeException(String.format("Invalid manifest entry in %s: %s", file, line));
+                }
+                entries.computeIfAbsent(columns[0], k -> new TreeMap<>()).put(columns[1], columns[2]);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read manifest: %s", file), e);
+        }
+    }
+
+    /**
+     * Saves the manifest file.
+     */
+    public synchronized void save() {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new RuntimeException(String.format("Could not create directory for manifest: %s", parent));
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(CONFIGURATION_KEY + SEPARATOR + VERSION + SEPARATOR + configurationHash);
+            writer.newLine();
+            for (Map.Entry<String, Map<String, String>> entry : entries.entrySet()) {
+                if (!new File(entry.getKey()).exists()) {
+                    continue;
+                }
+                for (Map.Entry<String, String> dependency : entry.getValue().entrySet()) {
+                    writer.write(entry.getKey() + SEPARATOR + dependency.getKey() + SEPARATOR + dependency.getValue());
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not write manifest: %s", file), e);
+        }
+    }
+
+    /**
+     * Checks if the source file and all its dependencies are unchanged since the last run.
+     *
+     * @param sourceFile The canonical path of the source file.
+     * @return <code>true</code> if the source file does not have to be enriched.
+     */
+    public boolean isUpToDate(String sourceFile) {
+        Map<String, String> dependencies;
+        synchronized (this) {
+            dependencies = entries.get(sourceFile);
+        }
+        if (dependencies == null) {
+            return false;
+        }
+        for (Map.Entry<String, String> dependency : dependencies.entrySet()) {
+            if (!dependency.getValue().equals(hashFile(dependency.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the dependencies of a source file recorded in the last run.
+     *
+     * @param sourceFile The canonical path of the source file.
+     * @return the canonical paths of the dependencies.
+     */
+    public synchronized Set<String> getDependencies(String sourceFile) {
+        Map<String, String> dependencies = entries.get(sourceFile);
+        return dependencies == null ? Collections.emptySet() : new TreeSet<>(dependencies.keySet());
+    }
+
+    /**
+     * Gets the source files which have read a source file when they were enriched in the last run.
+     *
+     * @param dependency The canonical path of the read source file.
+     * @return the canonical paths of the enriched source files.
+     */
+    public synchronized Set<String> getDependents(String dependency) {
+        Set<String> dependents = new TreeSet<>();
+        for (Map.Entry<String, Map<String, String>> entry : entries.entrySet()) {
+            if (entry.getValue().containsKey(dependency)) {
+                dependents.add(entry.getKey());
+            }
+        }
+        return dependents;
+    }
+
+    /**
+     * Records the current content of the dependencies of an enriched source file.
+     *
+     * @param sourceFile   The canonical path of the source file.
+     * @param dependencies The canonical paths of the source files read while enriching the source file.
+     */
+    public void put(String sourceFile, Set<String> dependencies) {
+        put(sourceFile, dependencies, f -> null);
+    }
+
+    /**
+     * Records the content of the dependencies of an enriched source file as seen by the handlers. A file changed
+     * while the source file was enriched then does not match the recorded hash and is detected by the next run.
+     *
+     * @param sourceFile    The canonical path of the source file.
+     * @param dependencies  The canonical paths of the source files read while enriching the source file.
+     * @param contentHashes Gets the hash of the content the handlers have read or written or <code>null</code> to
+     *                      hash the current content.
+     */
+    public void put(String sourceFile, Set<String> dependencies, Function<String, String> contentHashes) {
+        Map<String, String> hashes = new TreeMap<>();
+        hashes.put(sourceFile, hashFile(sourceFile, contentHashes));
+        dependencies.forEach(d -> hashes.put(d, hashFile(d, contentHashes)));
+        synchronized (this) {
+            entries.put(sourceFile, hashes);
+        }
+    }
+
+    private String hashFile(String path, Function<String, String> contentHashes) {
+        String hash = contentHashes.apply(path);
+        return hash != null ? hash : hashFile(path);
+    }
+
+    private String hashFile(String path) {
+        Path file = new File(path).toPath();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            fileHashes.remove(path);
+            return MISSING;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read file attributes: %s", path), e);
+        }
+        FileHash fileHash = fileHashes.get(path);
+        if (fileHash != null && fileHash.matches(attributes)) {
+            return fileHash.hash;
+        }
+        String hash;
+        try {
+            hash = hash(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            fileHashes.remove(path);
+            return MISSING;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read file: %s", path), e);
+        }
+        fileHashes.put(path, new FileHash(attributes.lastModifiedTime(), attributes.size(), hash));
+        return hash;
+    }
+
+    static String hash(byte[] content) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(String.format("Hash algorithm not supported: %s", HASH_ALGORITHM), e);
+        }
+        StringBuilder hash = new StringBuilder();
+        for (byte b : messageDigest.digest(content)) {
+            hash.append(String.format("%02x", b));
+        }
+        return hash.toString();
+    }
+
+    /**
+     * The hash of a file for its modification time and size.
+     */
+    private static class FileHash {
+
+        private final FileTime lastModified;
+
+        private final long size;
+
+        private final String hash;
+
+        private FileHash(FileTime lastModified, long size, String hash) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hash = hash;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return lastModified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+        }
+    }
+}
@@ -16,8 +16,6 @@ import com.github.javaparser.ast.type.VoidType;
  */
 public abstract class MethodByIdResourceMethodHandler extends ResourceMethodHandler {
 
-    private static final String METHOD_BY_ID_PARAM = "id";
-
     private String methodByIdName;
 
     private boolean returnVoid;
@@ -29,13 +27,14 @@ public abstract class MethodByIdResourceMethodHandler extends ResourceMethodHand
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      * @param methodByIdName  The method name.
      * @param returnVoid      <code>true</code> if the method returns void.
      */
     protected MethodByIdResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
-                                              CompilationUnit compilationUnit,
+                                              CompilationUnit compilationUnit, EnrichmentContext context,
                                               String methodByIdName, boolean returnVoid) {
-        super(sourceFile, sourcePath, basePath, compilationUnit);
+        super(sourceFile, sourcePath, basePath, compilationUnit, context);
         this.methodByIdName = methodByIdName;
         this.returnVoid = returnVoid;
     }
@@ -84,7 +83,7 @@ public abstract class MethodByIdResourceMethodHandler extends ResourceMethodHand
                 ClassOrInterfaceType idClass = getIDClass(classOrInterfaceDeclaration);
                 methodDeclaration = addInterfaceMethod(classOrInterfaceDeclaration,
                         methodByIdName, returnVoid ? new VoidType() : getOptionalWrapper(domainClassOrInterfaceType), new Parameter(
-                                idClass, METHOD_BY_ID_PARAM));
+                                idClass, ResourceNaming.ID_PARAM));
             }
         }
         if (methodDeclaration == null) {
@@ -95,19 +94,16 @@ public abstract class MethodByIdResourceMethodHandler extends ResourceMethodHand
         // if resource is null take default empty path and it is exported
         boolean exported = true;
         // this has no special sub path
-        String methodPath = ID_PATH;
+        String methodPath = ResourceNaming.getMethodByIdPath(null);
         if (methodResource != null) {
             exported = checkResourceExported(methodResource);
-            String _path = getResourcePath(methodResource);
-            if (_path != null) {
-                methodPath = _path + ID_PATH;
-            }
+            methodPath = ResourceNaming.getMethodByIdPath(getResourcePath(methodResource));
         }
         if (exported) {
             if (methodPath != null) {
                 addPathAnnotation(methodDeclaration, methodPath);
             }
-            addPathParamAnnotation(methodDeclaration, METHOD_BY_ID_PARAM, true, "The database id.");
+            addPathParamAnnotation(methodDeclaration, ResourceNaming.ID_PARAM, true, ResourceNaming.ID_PARAM_DESCRIPTION);
             addMethodByIdOperation(methodDeclaration, classOrInterfaceDeclaration);
         }
     }
@@ -0,0 +1,175 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.observer.AstObserverAdapter;
+import com.github.javaparser.ast.observer.ObservableProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the methods of a class or interface by signature.
+ * <p>
+ * For each method the parameter types are normalized once to their printed and simple class names, so a lookup
+ * with fully qualified or simple parameter type names compares only strings and creates no objects. The index is built
+ * on the first lookup and kept as data of the declaration. It is rebuilt after methods are added to or removed from the
+ * declaration. The parameter types of indexed methods must not be changed.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class MethodIndex extends AstObserverAdapter {
+
+    private static final DataKey<MethodIndex> METHOD_INDEX = new DataKey<MethodIndex>() {
+    };
+
+    private static final char DOT = '.';
+
+    private final ClassOrInterfaceDeclaration classOrInterfaceDeclaration;
+
+    /**
+     * The methods by name or <code>null</code> if the methods have changed.
+     */
+    private volatile Map<String, List<Method>> methods;
+
+    private MethodIndex(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+        this.classOrInterfaceDeclaration = classOrInterfaceDeclaration;
+    }
+
+    /**
+     * Gets the index of a class or interface.
+     *
+     * @param classOrInterfaceDeclaration The class or interface declaration.
+     * @return the index.
+     */
+    public static MethodIndex of(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+        if (classOrInterfaceDeclaration.containsData(METHOD_INDEX)) {
+            return classOrInterfaceDeclaration.getData(METHOD_INDEX);
+        }
+        MethodIndex methodIndex = new MethodIndex(classOrInterfaceDeclaration);
+        classOrInterfaceDeclaration.setData(METHOD_INDEX, methodIndex);
+        classOrInterfaceDeclaration.register(methodIndex);
+        classOrInterfaceDeclaration.getMembers().register(methodIndex);
+        return methodIndex;
+    }
+
+    /**
+     * Finds a method by its name and parameter types. A parameter type matches if it is equal or if one of the types
+     * is a fully qualified class name and the other one its simple name.
+     *
+     * @param methodName The method name.
+     * @param paramTypes The parameter types as fully qualified or simple class names.
+     * @return the first matching method or <code>null</code>.
+     */
+    public MethodDeclaration find(String methodName, String... paramTypes) {
+        List<Method> candidates = getMethods().get(methodName);
+        if (candidates == null) {
+            return null;
+        }
+        for (Method candidate : candidates) {
+            if (candidate.matches(paramTypes)) {
+                return candidate.methodDeclaration;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void propertyChange(Node observedNode, ObservableProperty property, Object oldValue, Object newValue) {
+        if (property == ObservableProperty.MEMBERS) {
+            methods = null;
+            if (newValue != null) {
+                ((NodeList<?>) newValue).register(this);
+            }
+        }
+    }
+
+    @Override
+    public void listChange(NodeList observedNode, ListChangeType type, int index, Node nodeAddedOrRemoved) {
+        methods = null;
+    }
+
+    @Override
+    public void listReplacement(NodeList observedNode, int index, Node oldNode, Node newNode) {
+        methods = null;
+    }
+
+    private Map<String, List<Method>> getMethods() {
+        Map<String, List<Method>> methods = this.methods;
+        if (methods == null) {
+            methods = new HashMap<>();
+            for (BodyDeclaration<?> member : classOrInterfaceDeclaration.getMembers()) {
+                if (member.isMethodDeclaration()) {
+                    MethodDeclaration methodDeclaration = member.asMethodDeclaration();
+                    methods.computeIfAbsent(methodDeclaration.getNameAsString(), n -> new ArrayList<>(1)).
+                            add(new Method(methodDeclaration));
+                }
+            }
+            this.methods = methods;
+        }
+        return methods;
+    }
+
+    /**
+     * Checks if a fully qualified class name has a simple class name.
+     */
+    private static boolean hasSimpleName(String fqClassName, String simpleName) {
+        int start = fqClassName.lastIndexOf(DOT) + 1;
+        return fqClassName.length() - start == simpleName.length() &&
+                fqClassName.regionMatches(start, simpleName, 0, simpleName.length());
+    }
+
+    /**
+     * An indexed method.
+     */
+    private static class Method {
+
+        private final MethodDeclaration methodDeclaration;
+
+        private final String[] parameterTypes;
+
+        private final String[] simpleParameterTypes;
+
+        private Method(MethodDeclaration methodDeclaration) {
+            this.methodDeclaration = methodDeclaration;
+            int parameters = methodDeclaration.getParameters().size();
+            parameterTypes = new String[parameters];
+            simpleParameterTypes = new String[parameters];
+            for (int i = 0; i < parameters; i++) {
+                parameterTypes[i] = methodDeclaration.getParameter(i).getTypeAsString();
+                simpleParameterTypes[i] = ResourceHandler.getSimpleNameFromClass(parameterTypes[i]);
+            }
+        }
+
+        private boolean matches(String[] paramTypes) {
+            if (parameterTypes.length != paramTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < paramTypes.length; i++) {
+                boolean qualified = parameterTypes[i].indexOf(DOT) >= 0;
+                boolean paramQualified = paramTypes[i].indexOf(DOT) >= 0;
+                // align FQ names to simple names if necessary
+                boolean matches;
+                if (qualified && !paramQualified) {
+                    matches = simpleParameterTypes[i].equals(paramTypes[i]);
+                } else if (paramQualified && !qualified) {
+                    matches = hasSimpleName(paramTypes[i], parameterTypes[i]);
+                } else {
+                    matches = parameterTypes[i].equals(paramTypes[i]);
+                }
+                if (!matches) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
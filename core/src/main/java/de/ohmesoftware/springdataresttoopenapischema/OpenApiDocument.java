@@ -0,0 +1,536 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writer of an OpenAPI 3 document describing the operations of enriched repositories.
+ * <p>
+ * The document is streamed to a {@link DocumentWriter}, e.g. as JSON or YAML. The paths are written from the
+ * operations of one source file after the other, the operations are not kept. The schemas of the referenced domain
+ * classes are written to the components afterwards.
+ * The domain classes are read from a {@link SchemaModel}.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class OpenApiDocument {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenApiDocument.class);
+
+    public static final String OPENAPI_VERSION = "3.0.1";
+
+    public static final String DEFAULT_TITLE = "Spring Data REST API";
+
+    public static final String DEFAULT_VERSION = "1.0";
+
+    private static final String COMPONENTS_SCHEMAS = "#/components/schemas/";
+
+    private static final String PAGE = "Page";
+
+    private static final List<String> HTTP_METHODS = Arrays.asList("get", "put", "post", "delete", "patch");
+
+    private static final String QUERY = "query";
+
+    private static final String PATH = "path";
+
+    private static final String TYPE = "type";
+
+    private static final String FORMAT = "format";
+
+    private static final String OBJECT = "object";
+
+    private static final String ARRAY = "array";
+
+    private static final String STRING = "string";
+
+    private static final String INTEGER = "integer";
+
+    private static final String ITEMS = "items";
+
+    private static final String REF = "$ref";
+
+    private static final String DESCRIPTION = "description";
+
+    private static final String REQUIRED = "required";
+
+    private static final String CONTENT = "content";
+
+    private static final String SCHEMA = "schema";
+
+    private static final String PROPERTIES = "properties";
+
+    private static final String[] OPERATION_MEMBERS = {"summary", DESCRIPTION, "operationId"};
+
+    private final String title;
+
+    private final String version;
+
+    private final SchemaModel schemaModel;
+
+    /**
+     * The schemas to write to the components with the fully qualified name of their type in the order they are
+     * referenced. The name is <code>null</code> if the type is unknown.
+     */
+    private final Map<String, String> schemas = new LinkedHashMap<>();
+
+    /**
+     * The names of the page schemas with the name of the schema of their content.
+     */
+    private final Map<String, String> pages = new LinkedHashMap<>();
+
+    /**
+     * The written paths with the fully qualified name of the repository defining them.
+     */
+    private final Map<String, String> paths = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param title       The title of the API.
+     * @param version     The version of the API.
+     * @param schemaModel The model of the domain types with source code.
+     */
+    public OpenApiDocument(String title, String version, SchemaModel schemaModel) {
+        this.title = title;
+        this.version = version;
+        this.schemaModel = schemaModel;
+    }
+
+    /**
+     * Creates the writer for a document file. A file name ending with <code>.yaml</code> or <code>.yml</code> is
+     * written as YAML, otherwise as JSON.
+     *
+     * @param fileName The name of the document file.
+     * @param writer   The writer of the file.
+     * @return the document writer.
+     */
+    public static DocumentWriter createWriter(String fileName, Writer writer) {
+        String lowerCaseFileName = fileName.toLowerCase(Locale.ROOT);
+        if (lowerCaseFileName.endsWith(".yaml") || lowerCaseFileName.endsWith(".yml")) {
+            return new YamlWriter(writer);
+        }
+        return new JsonWriter(writer);
+    }
+
+    /**
+     * Writes the start of the document up to the start of the paths.
+     *
+     * @param writer The writer to write to. The writer is not closed.
+     * @throws IOException if the writer fails.
+     */
+    public void writeStart(DocumentWriter writer) throws IOException {
+        writer.beginObject().
+                name("openapi").value(OPENAPI_VERSION).
+                name("info").beginObject().name("title").value(title).name("version").value(version).endObject().
+                name("paths").beginObject();
+    }
+
+    /**
+     * Writes the paths of the operations of a source file. The operations are written sorted by path and HTTP method
+     * and not kept, only their paths and referenced schemas are remembered.
+     * <p>
+     * All operations of a path must be passed at once, which holds for the operations of a source file, as a
+     * repository and its extended interfaces are collected together. An operation of a path already written for the
+     * operations of another source file is skipped, as is an operation of the same path and HTTP method.
+     * </p>
+     *
+     * @param operations The operations of the repositories of a source file.
+     * @param writer     The writer to write to. The writer is not closed.
+     * @throws IOException if the writer fails.
+     */
+    public void writePaths(List<ApiOperation> operations, DocumentWriter writer) throws IOException {
+        List<ApiOperation> sortedOperations = new ArrayList<>(operations);
+        sortedOperations.sort(Comparator.comparing(ApiOperation::getPath).thenComparing(
+                o -> HTTP_METHODS.indexOf(o.getMethod())));
+        ApiOperation previous = null;
+        for (ApiOperation operation : sortedOperations) {
+            if (previous != null && previous.getPath().equals(operation.getPath())) {
+                if (previous.getMethod().equals(operation.getMethod())) {
+                    LOGGER.warn(String.format("Skipping operation '%s %s' of repository '%s' already defined by " +
+                                    "repository '%s'", operation.getMethod(), operation.getPath(),
+                            operation.getRepository(), previous.getRepository()));
+                    continue;
+                }
+            } else {
+                String repository = paths.get(operation.getPath());
+                if (repository != null) {
+                    LOGGER.warn(String.format("Skipping operation '%s %s' of repository '%s', the path is already " +
+                                    "defined by repository '%s'", operation.getMethod(), operation.getPath(),
+                            operation.getRepository(), repository));
+                    continue;
+                }
+                if (previous != null) {
+                    writer.endObject();
+                }
+                writer.name(operation.getPath()).beginObject();
+                paths.put(operation.getPath(), operation.getRepository());
+            }
+            writer.name(operation.getMethod());
+            writeOperation(operation, writer);
+            previous = operation;
+        }
+        if (previous != null) {
+            writer.endObject();
+        }
+    }
+
+    /**
+     * Writes the end of the document after the paths with the schemas of the components.
+     *
+     * @param writer The writer to write to. The writer is not closed.
+     * @throws IOException if the writer fails.
+     */
+    public void writeEnd(DocumentWriter writer) throws IOException {
+        writer.endObject();
+        writeComponents(writer);
+        writer.endObject();
+    }
+
+    private void writeOperation(ApiOperation operation, DocumentWriter writer) throws IOException {
+        Map<String, Object> members = operation.getOperation();
+        writer.beginObject();
+        if (!operation.getTags().isEmpty()) {
+            writer.name("tags").value((Object) operation.getTags());
+        }
+        for (String member : OPERATION_MEMBERS) {
+            if (members.get(member) instanceof String) {
+                writer.name(member).value((String) members.get(member));
+            }
+        }
+        List<Map<?, ?>> parameters = getMaps(members.get("parameters")).stream().
+                filter(p -> !Boolean.TRUE.equals(p.get("hidden"))).collect(Collectors.toList());
+        if (!parameters.isEmpty()) {
+            writer.name("parameters").beginArray();
+            for (Map<?, ?> parameter : parameters) {
+                writeParameter(parameter, operation, writer);
+            }
+            writer.endArray();
+        }
+        if (members.get("requestBody") instanceof Map) {
+            Map<?, ?> requestBody = (Map<?, ?>) members.get("requestBody");
+            writer.name("requestBody").beginObject();
+            writeDescription(requestBody, writer);
+            if (Boolean.TRUE.equals(requestBody.get(REQUIRED))) {
+                writer.name(REQUIRED).value(true);
+            }
+            writeContent(getMaps(requestBody.get(CONTENT)), operation, writer);
+            writer.endObject();
+        }
+        writer.name("responses").beginObject();
+        List<Map<?, ?>> responses = getMaps(members.get("responses"));
+        if (responses.isEmpty()) {
+            writer.name("default").beginObject().name(DESCRIPTION).value("default response").endObject();
+        }
+        for (Map<?, ?> response : responses) {
+            writer.name(getString(response, "responseCode", "default")).beginObject();
+            writeDescription(response, writer);
+            List<Map<?, ?>> content = getMaps(response.get(CONTENT));
+            if (!content.isEmpty()) {
+                writeContent(content, operation, writer);
+            }
+            writer.endObject();
+        }
+        writer.endObject();
+        if (Boolean.TRUE.equals(members.get("deprecated"))) {
+            writer.name("deprecated").value(true);
+        }
+        writer.endObject();
+    }
+
+    private void writeParameter(Map<?, ?> parameter, ApiOperation operation, DocumentWriter writer)
+            throws IOException {
+        String in = parameter.get("in") instanceof String ? ((String) parameter.get("in")).toLowerCase(Locale.ROOT) :
+                QUERY;
+        if (in.equals("default")) {
+            in = QUERY;
+        }
+        writer.beginObject().name("name").value(String.valueOf(parameter.get("name"))).name("in").value(in);
+        writeDescription(parameter, writer);
+        if (in.equals(PATH) || Boolean.TRUE.equals(parameter.get(REQUIRED))) {
+            writer.name(REQUIRED).value(true);
+        }
+        writer.name(SCHEMA);
+        writeSchema(parameter, operation, writer);
+        writer.endObject();
+    }
+
+    private void writeContent(List<Map<?, ?>> content, ApiOperation operation, DocumentWriter writer)
+            throws IOException {
+        writer.name(CONTENT).beginObject();
+        for (Map<?, ?> mediaType : content) {
+            writer.name(getString(mediaType, "mediaType", "*/*")).beginObject().name(SCHEMA);
+            writeSchema(mediaType, operation, writer);
+            writer.endObject();
+        }
+        writer.endObject();
+    }
+
+    private static void writeDescription(Map<?, ?> members, DocumentWriter writer) throws IOException {
+        if (members.get(DESCRIPTION) instanceof String) {
+            writer.name(DESCRIPTION).value((String) members.get(DESCRIPTION));
+        }
+    }
+
+    /**
+     * Writes the schema of a parameter or content given by the <code>schema</code> or <code>array</code> member.
+     */
+    private void writeSchema(Map<?, ?> members, ApiOperation operation, DocumentWriter writer) throws IOException {
+        if (members.get(ARRAY) instanceof Map) {
+            writer.beginObject().name(TYPE).value(ARRAY).name(ITEMS);
+            Object items = ((Map<?, ?>) members.get(ARRAY)).get(SCHEMA);
+            writeSchema(items instanceof Map ? Collections.singletonMap(SCHEMA, items) : Collections.emptyMap(),
+                    operation, writer);
+            writer.endObject();
+            return;
+        }
+        Map<?, ?> schema = members.get(SCHEMA) instanceof Map ? (Map<?, ?>) members.get(SCHEMA) :
+                Collections.emptyMap();
+        if (schema.get("ref") instanceof String) {
+            String ref = (String) schema.get("ref");
+            if (ref.startsWith(COMPONENTS_SCHEMAS)) {
+                addSchema(ref.substring(COMPONENTS_SCHEMAS.length()), operation);
+            }
+            writer.value(Collections.singletonMap(REF, ref));
+        } else if (schema.get("implementation") instanceof String) {
+            String className = (String) schema.get("implementation");
+            writer.value(getTypeSchema(ResourceHandler.getSimpleNameFromClass(className),
+                    operation.getTypes().get(className)));
+        } else if (schema.get(TYPE) instanceof String) {
+            Map<String, Object> typeSchema = new LinkedHashMap<>();
+            typeSchema.put(TYPE, schema.get(TYPE));
+            if (schema.get(FORMAT) instanceof String) {
+                typeSchema.put(FORMAT, schema.get(FORMAT));
+            }
+            writer.value(typeSchema);
+        } else {
+            writer.value(Collections.singletonMap(TYPE, STRING));
+        }
+    }
+
+    private void addSchema(String name, ApiOperation operation) {
+        if (operation.getTypes().containsKey(name)) {
+            schemas.putIfAbsent(name, operation.getTypes().get(name));
+        } else if (name.startsWith(PAGE) && operation.getTypes().containsKey(name.substring(PAGE.length()))) {
+            String contentName = name.substring(PAGE.length());
+            pages.put(name, contentName);
+            schemas.putIfAbsent(name, null);
+            schemas.putIfAbsent(contentName, operation.getTypes().get(contentName));
+        } else {
+            schemas.putIfAbsent(name, null);
+        }
+    }
+
+    /**
+     * Gets the schema of a type. Simple types are mapped to their OpenAPI types, other types are referenced and added
+     * to the schemas of the components.
+     *
+     * @param simpleName    The simple name of the type.
+     * @param qualifiedName The fully qualified name of the type or <code>null</code> if not known.
+     * @return the schema.
+     */
+    private Map<String, Object> getTypeSchema(String simpleName, String qualifiedName) {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        switch (simpleName) {
+            case "String":
+            case "char":
+            case "Character":
+                schema.put(TYPE, STRING);
+                break;
+            case "int":
+            case "Integer":
+            case "short":
+            case "Short":
+            case "byte":
+            case "Byte":
+                schema.put(TYPE, INTEGER);
+                schema.put(FORMAT, "int32");
+                break;
+            case "long":
+            case "Long":
+            case "BigInteger":
+                schema.put(TYPE, INTEGER);
+                schema.put(FORMAT, "int64");
+                break;
+            case "double":
+            case "Double":
+            case "BigDecimal":
+                schema.put(TYPE, "number");
+                schema.put(FORMAT, "double");
+                break;
+            case "float":
+            case "Float":
+                schema.put(TYPE, "number");
+                schema.put(FORMAT, "float");
+                break;
+            case "boolean":
+            case "Boolean":
+                schema.put(TYPE, "boolean");
+                break;
+            case "Date":
+            case "Instant":
+            case "LocalDateTime":
+            case "OffsetDateTime":
+            case "ZonedDateTime":
+                schema.put(TYPE, STRING);
+                schema.put(FORMAT, "date-time");
+                break;
+            case "LocalDate":
+                schema.put(TYPE, STRING);
+                schema.put(FORMAT, "date");
+                break;
+            case "Object":
+            case "Map":
+                schema.put(TYPE, OBJECT);
+                break;
+            default:
+                if (qualifiedName == null || !schemaModel.contains(qualifiedName)) {
+                    schema.put(TYPE, OBJECT);
+                } else {
+                    schemas.putIfAbsent(simpleName, qualifiedName);
+                    schema.put(REF, COMPONENTS_SCHEMAS + simpleName);
+                }
+        }
+        return schema;
+    }
+
+    private void writeComponents(DocumentWriter writer) throws IOException {
+        writer.name("components").beginObject().name("schemas").beginObject();
+        // writing a schema might add further schemas
+        Set<String> written = new HashSet<>();
+        List<String> names = new ArrayList<>(schemas.keySet());
+        while (!names.isEmpty()) {
+            for (String name : names) {
+                writer.name(name);
+                if (pages.containsKey(name)) {
+                    writePageSchema(pages.get(name), writer);
+                } else {
+                    writeTypeSchema(name, schemas.get(name), writer);
+                }
+                written.add(name);
+            }
+            names = schemas.keySet().stream().filter(n -> !written.contains(n)).collect(Collectors.toList());
+        }
+        writer.endObject().endObject();
+    }
+
+    /**
+     * Writes the schema of a page like serialized by Spring Data.
+     */
+    private static void writePageSchema(String contentName, DocumentWriter writer) throws IOException {
+        writer.beginObject().name(TYPE).value(OBJECT).name(PROPERTIES).beginObject().
+                name(CONTENT).beginObject().name(TYPE).value(ARRAY).
+                name(ITEMS).value(Collections.singletonMap(REF, COMPONENTS_SCHEMAS + contentName)).endObject();
+        for (String property : Arrays.asList("totalElements", "totalPages", "size", "number")) {
+            writer.name(property).beginObject().name(TYPE).value(INTEGER).
+                    name(FORMAT).value(property.equals("totalElements") ? "int64" : "int32").endObject();
+        }
+        writer.endObject().endObject();
+    }
+
+    private void writeTypeSchema(String name, String qualifiedName, DocumentWriter writer) throws IOException {
+        SchemaModel.SchemaType type = qualifiedName == null ? null : schemaModel.getType(qualifiedName);
+        if (type == null) {
+            writer.value(Collections.singletonMap(TYPE, OBJECT));
+            return;
+        }
+        writer.beginObject();
+        if (type.isEnum()) {
+            writer.name(TYPE).value(STRING);
+            writeJavadocSummary(type, writer);
+            writer.name("enum").value(type.getEnumConstants());
+        } else {
+            writer.name(TYPE).value(OBJECT);
+            writeJavadocSummary(type, writer);
+            writer.name(PROPERTIES).beginObject();
+            for (SchemaModel.SchemaProperty property : type.getProperties()) {
+                writer.name(property.getName()).value(getPropertySchema(property));
+            }
+            writer.endObject();
+        }
+        writer.endObject();
+    }
+
+    private static void writeJavadocSummary(SchemaModel.SchemaType type, DocumentWriter writer) throws IOException {
+        if (type.getJavadocSummary() != null) {
+            writer.name(DESCRIPTION).value(type.getJavadocSummary());
+        }
+    }
+
+    private Map<String, Object> getPropertySchema(SchemaModel.SchemaProperty property) {
+        Map<String, Object> schema = getSchema(property.getType());
+        if (schema.containsKey(REF)) {
+            // siblings of a reference are ignored
+            return schema;
+        }
+        if (property.getDescription() != null) {
+            schema.put(DESCRIPTION, property.getDescription());
+        }
+        if (ResourceMethodHandler.JSON_PROPERTY_WRITE_ONLY.equals(property.getAccess())) {
+            schema.put("writeOnly", true);
+        } else if ("READ_ONLY".equals(property.getAccess())) {
+            schema.put("readOnly", true);
+        }
+        return schema;
+    }
+
+    private Map<String, Object> getSchema(SchemaModel.TypeReference type) {
+        if (type.getComponentType() != null) {
+            Map<String, Object> schema = new LinkedHashMap<>();
+            if (type.getComponentType().getName().equals("byte")) {
+                schema.put(TYPE, STRING);
+                schema.put(FORMAT, "byte");
+                return schema;
+            }
+            schema.put(TYPE, ARRAY);
+            schema.put(ITEMS, getSchema(type.getComponentType()));
+            return schema;
+        }
+        switch (type.getName()) {
+            case "Iterable":
+            case "Collection":
+            case "List":
+            case "Set":
+                Map<String, Object> schema = new LinkedHashMap<>();
+                schema.put(TYPE, ARRAY);
+                schema.put(ITEMS, type.getTypeArguments().isEmpty() ? getTypeSchema(OBJECT, null) :
+                        getSchema(type.getTypeArguments().get(0)));
+                return schema;
+        }
+        return getTypeSchema(type.getName(), type.getQualifiedName());
+    }
+
+    private static String getString(Map<?, ?> members, String member, String defaultValue) {
+        return members.get(member) == null ? defaultValue : String.valueOf(members.get(member));
+    }
+
+    private static List<Map<?, ?>> getMaps(Object value) {
+        List<Map<?, ?>> maps = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object element : (List<?>) value) {
+                if (element instanceof Map) {
+                    maps.add((Map<?, ?>) element);
+                }
+            }
+        } else if (value instanceof Map) {
+            maps.add((Map<?, ?>) value);
+        }
+        return maps;
+    }
+}
@@ -0,0 +1,91 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Index of the types with source code per package directory.
+ * <p>
+ * A package directory is listed once on its first lookup. Only the top level types named like their source file are
+ * known. With several source paths the packages are also looked up in the source roots of the other source paths.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class PackageIndex {
+
+    private static final String JAVA_EXT = ".java";
+
+    /**
+     * The simple names of the types by package directory.
+     */
+    private final ConcurrentMap<File, Set<String>> types = new ConcurrentHashMap<>();
+
+    /**
+     * The source roots of all source paths or an empty list for a single source path.
+     */
+    private volatile List<File> sourceRoots = Collections.emptyList();
+
+    /**
+     * Sets the source roots of all source paths.
+     *
+     * @param sourceRoots The source roots.
+     */
+    public void setSourceRoots(Collection<File> sourceRoots) {
+        this.sourceRoots = Collections.unmodifiableList(new ArrayList<>(sourceRoots));
+    }
+
+    /**
+     * Gets the source roots of all source paths.
+     *
+     * @return the source roots or an empty list for a single source path.
+     */
+    public List<File> getSourceRoots() {
+        return sourceRoots;
+    }
+
+    /**
+     * Checks if a package directory contains the source file of a type.
+     *
+     * @param packageDirectory The package directory.
+     * @param simpleName       The simple class name.
+     * @return <code>true</code> if there is a source file for the type.
+     */
+    public boolean contains(File packageDirectory, String simpleName) {
+        return types.computeIfAbsent(packageDirectory, PackageIndex::listTypes).contains(simpleName);
+    }
+
+    /**
+     * Drops the listing of the package directory of a source file, e.g. because it was created or deleted.
+     *
+     * @param sourceFile The source file.
+     */
+    public void invalidate(File sourceFile) {
+        File packageDirectory = sourceFile.getParentFile();
+        if (packageDirectory != null) {
+            types.remove(packageDirectory);
+        }
+    }
+
+    private static Set<String> listTypes(File packageDirectory) {
+        String[] files = packageDirectory.list();
+        if (files == null) {
+            return Collections.emptySet();
+        }
+        Set<String> simpleNames = new HashSet<>();
+        for (String file : files) {
+            if (file.endsWith(JAVA_EXT)) {
+                simpleNames.add(file.substring(0, file.length() - JAVA_EXT.length()));
+            }
+        }
+        return simpleNames;
+    }
+}
@@ -22,7 +22,7 @@ import java.util.Arrays;
  */
 public class PatchResourceMethodHandler extends UpdateResourceMethodHandler {
 
-    private static final String UPDATE_METHOD = "patch";
+    private static final String UPDATE_METHOD = ResourceNaming.PATCH_METHOD;
 
     /**
      * Constructor.
@@ -31,9 +31,11 @@ public class PatchResourceMethodHandler extends UpdateResourceMethodHandler {
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      */
-    protected PatchResourceMethodHandler(String sourceFile, String sourcePath, String basePath, CompilationUnit compilationUnit) {
-        super(sourceFile, sourcePath, basePath, compilationUnit);
+    protected PatchResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
+                                         CompilationUnit compilationUnit, EnrichmentContext context) {
+        super(sourceFile, sourcePath, basePath, compilationUnit, context);
     }
 
     @Override
@@ -48,7 +50,7 @@ public class PatchResourceMethodHandler extends UpdateResourceMethodHandler {
 
     @Override
     protected String getDescription(String className) {
-        return String.format("Patches a(n) %s.", className);
+        return ResourceNaming.getPatchSummary(className);
     }
 
     @Override
@@ -0,0 +1,170 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The source files written by a run in patch mode.
+ * <p>
+ * The new contents are kept in memory instead of being written to disk. Later lookups of these files see the new
+ * contents, so the run behaves like a run writing the source files. At the end the changes are written as unified
+ * diffs relative to the source path.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class PendingChanges {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PendingChanges.class);
+
+    private static final String PATCH_EXT = ".patch";
+
+    private static final String ORIGINAL_PREFIX = "a/";
+
+    private static final String REVISED_PREFIX = "b/";
+
+    /**
+     * The source path the file names in the diffs are relative to.
+     */
+    private final Path root;
+
+    /**
+     * The new contents by canonical path.
+     */
+    private final ConcurrentMap<String, String> contents = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param root The source path the file names in the diffs are relative to.
+     */
+    public PendingChanges(Path root) {
+        try {
+            this.root = root.toFile().getCanonicalFile().toPath();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not resolve source path: %s", root), e);
+        }
+    }
+
+    /**
+     * Sets the new content of a source file.
+     *
+     * @param file    The canonical path of the source file.
+     * @param content The new content.
+     */
+    public void put(String file, String content) {
+        contents.put(file, content);
+    }
+
+    /**
+     * Gets the new content of a source file.
+     *
+     * @param file The canonical path of the source file.
+     * @return the content or <code>null</code> if the source file was not written.
+     */
+    public String get(String file) {
+        return contents.get(file);
+    }
+
+    /**
+     * Checks if a source file was written.
+     *
+     * @param file The canonical path of the source file.
+     * @return <code>true</code> if written.
+     */
+    public boolean contains(String file) {
+        return contents.containsKey(file);
+    }
+
+    /**
+     * Gets the diffs of all source files whose new content differs from the content on disk.
+     *
+     * @return the unified diffs by the path of the source file relative to the source path.
+     */
+    public Map<String, String> getDiffs() {
+        Map<String, String> diffs = new TreeMap<>();
+        for (Map.Entry<String, String> entry : contents.entrySet()) {
+            String name = root.relativize(Paths.get(entry.getKey())).toString().replace('\\', '/');
+            String original = readFile(entry.getKey());
+            String diff = UnifiedDiff.diff(original == null ? UnifiedDiff.DEV_NULL : ORIGINAL_PREFIX + name,
+                    REVISED_PREFIX + name, original == null ? "" : original, entry.getValue());
+            if (!diff.isEmpty()) {
+                diffs.put(name, diff);
+            }
+        }
+        return diffs;
+    }
+
+    /**
+     * Writes all changes into a single patch file.
+     *
+     * @param patchFile The patch file.
+     * @return the number of changed source files.
+     */
+    public int writePatch(File patchFile) {
+        Map<String, String> diffs = getDiffs();
+        createParentDirectory(patchFile);
+        try (BufferedWriter writer = Files.newBufferedWriter(patchFile.toPath(), StandardCharsets.UTF_8)) {
+            for (String diff : diffs.values()) {
+                writer.write(diff);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not write patch file: %s", patchFile), e);
+        }
+        LOGGER.info(String.format("Wrote changes of %d source files to patch '%s'", diffs.size(), patchFile));
+        return diffs.size();
+    }
+
+    /**
+     * Writes a patch file for each changed source file. The patch file is named like the source file relative to the
+     * source path with the extension <code>.patch</code> appended.
+     *
+     * @param patchDir The directory for the patch files.
+     * @return the number of changed source files.
+     */
+    public int writePatches(File patchDir) {
+        Map<String, String> diffs = getDiffs();
+        for (Map.Entry<String, String> diff : diffs.entrySet()) {
+            File patchFile = new File(patchDir, diff.getKey() + PATCH_EXT);
+            createParentDirectory(patchFile);
+            try (BufferedWriter writer = Files.newBufferedWriter(patchFile.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(diff.getValue());
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Could not write patch file: %s", patchFile), e);
+            }
+        }
+        LOGGER.info(String.format("Wrote changes of %d source files to patch directory '%s'", diffs.size(), patchDir));
+        return diffs.size();
+    }
+
+    private static void createParentDirectory(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new RuntimeException(String.format("Could not create directory: %s", parent));
+        }
+    }
+
+    private static String readFile(String file) {
+        try {
+            return new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read file: %s", file), e);
+        }
+    }
+}
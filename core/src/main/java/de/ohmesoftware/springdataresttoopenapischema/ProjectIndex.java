@@ -0,0 +1,452 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent index of the {@link ProjectModel.TypeModel}s of the source files shared across runs.
+ * <p>
+ * The index is a binary file in the state directory next to the manifest. For each source file it holds the
+ * modification time and size of the file when it was parsed and the type model, i.e. the declared type, the
+ * supertypes with their type arguments, the <code>RestResource</code> settings, the method signatures, the Javadoc
+ * summaries and the annotation values like for Sortable and Searchable. The file is memory-mapped on load and only the
+ * source file names are read. A type model is decoded on first use if its source file is unchanged, so a run only
+ * parses the source files changed since the index was saved.
+ * </p>
+ * <p>
+ * The index records the source paths it was built for. If they differ, e.g. because the resolution of wild card
+ * imports depends on them, the index is not used. A missing or invalid index is rebuilt.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class ProjectIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectIndex.class);
+
+    /**
+     * The file name of the index.
+     */
+    public static final String INDEX_FILE_NAME = ".springdataresttoopenapischema.index";
+
+    private static final int MAGIC = 0x53445249;
+
+    private static final int VERSION = 1;
+
+    private static final byte FALSE = 0;
+
+    private static final byte TRUE = 1;
+
+    private static final byte NONE = 2;
+
+    private final File file;
+
+    private final String configuration;
+
+    /**
+     * The mapped index file or <code>null</code> if not loaded.
+     */
+    private volatile ByteBuffer buffer;
+
+    /**
+     * The entries of the loaded index file by canonical path of the source file.
+     */
+    private volatile Map<String, Entry> loaded = Collections.emptyMap();
+
+    /**
+     * The entries of source files scanned in this run.
+     */
+    private final ConcurrentMap<String, Entry> added = new ConcurrentHashMap<>();
+
+    /**
+     * The source files reported as changed whose loaded entries must not be used.
+     */
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     *
+     * @param file          The index file.
+     * @param configuration The source paths the type models are resolved against.
+     */
+    public ProjectIndex(File file, String configuration) {
+        this.file = file;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Loads the index file if it exists and was written for the same source paths.
+     */
+    public synchronized void load() {
+        buffer = null;
+        loaded = Collections.emptyMap();
+        added.clear();
+        removed.clear();
+        if (!file.isFile()) {
+            return;
+        }
+        ByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            LOGGER.warn(String.format("Could not read index: %s", file), e);
+            return;
+        }
+        Map<String, Entry> entries = new HashMap<>();
+        try {
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION || !configuration.equals(readString(mapped))) {
+                LOGGER.info(String.format("Index '%s' was written for other source paths, rebuilding it.", file));
+                return;
+            }
+            int count = mapped.getInt();
+            for (int i = 0; i < count; i++) {
+                String sourceFile = readString(mapped);
+                long lastModified = mapped.getLong();
+                long size = mapped.getLong();
+                int length = mapped.getInt();
+                entries.put(sourceFile, new Entry(lastModified, size, mapped.position(), length, null));
+                mapped.position(mapped.position() + length);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            LOGGER.warn(String.format("Invalid index '%s', rebuilding it.", file), e);
+            return;
+        }
+        buffer = mapped;
+        loaded = entries;
+    }
+
+    /**
+     * Gets the indexed type model of a source file if the source file has not changed since it was indexed.
+     *
+     * @param sourceFile   The canonical path of the source file.
+     * @param lastModified The modification time of the source file.
+     * @param size         The size of the source file.
+     * @return the entry or <code>null</code> if the source file is not indexed or has changed.
+     */
+    public Entry get(String sourceFile, FileTime lastModified, long size) {
+        Entry entry = loaded.get(sourceFile);
+        if (entry == null || removed.contains(sourceFile) || !entry.matches(toNanos(lastModified), size)) {
+            return null;
+        }
+        if (entry.length == 0) {
+            return entry;
+        }
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(entry.offset);
+        try {
+            return new Entry(entry.lastModified, entry.size, entry.offset, entry.length, readTypeModel(payload));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            LOGGER.warn(String.format("Invalid index entry for '%s'", sourceFile), e);
+            return null;
+        }
+    }
+
+    /**
+     * Adds the type model of a parsed source file.
+     *
+     * @param sourceFile   The canonical path of the source file.
+     * @param lastModified The modification time of the parsed source file.
+     * @param size         The size of the parsed source file.
+     * @param typeModel    The type model or <code>null</code> if the source file does not declare a type.
+     */
+    public void put(String sourceFile, FileTime lastModified, long size, ProjectModel.TypeModel typeModel) {
+        added.put(sourceFile, new Entry(toNanos(lastModified), size, -1, -1, typeModel));
+    }
+
+    /**
+     * Drops the entry of a changed source file. The check of the modification time might not detect a change within
+     * its resolution.
+     *
+     * @param sourceFile The canonical path of the source file.
+     */
+    public void remove(String sourceFile) {
+        added.remove(sourceFile);
+        removed.add(sourceFile);
+    }
+
+    /**
+     * Saves the index file if entries were added or have become invalid. Entries of source files changed or deleted
+     * since they were indexed are dropped, e.g. of the files written by the enrichment.
+     */
+    public synchronized void save() {
+        Map<String, Entry> entries = new TreeMap<>();
+        boolean changed = !removed.isEmpty();
+        for (Map.Entry<String, Entry> entry : loaded.entrySet()) {
+            if (added.containsKey(entry.getKey()) || removed.contains(entry.getKey())) {
+                continue;
+            }
+            if (entry.getValue().isUpToDate(entry.getKey())) {
+                entries.put(entry.getKey(), entry.getValue());
+            } else {
+                changed = true;
+            }
+        }
+        for (Map.Entry<String, Entry> entry : added.entrySet()) {
+            changed = true;
+            if (entry.getValue().isUpToDate(entry.getKey())) {
+                entries.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new RuntimeException(String.format("Could not create directory for index: %s", parent));
+        }
+        Path tempFile = new File(parent, file.getName() + ".tmp").toPath();
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            writeString(output, configuration);
+            output.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writeString(output, entry.getKey());
+                output.writeLong(entry.getValue().lastModified);
+                output.writeLong(entry.getValue().size);
+                byte[] payload = getPayload(entry.getValue());
+                output.writeInt(payload.length);
+                output.write(payload);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not write index: %s", file), e);
+        }
+        try {
+            try {
+                Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // e.g. the mapped file cannot be replaced on Windows, the index is rebuilt in the next run
+            LOGGER.warn(String.format("Could not replace index: %s", file), e);
+            return;
+        }
+        load();
+    }
+
+    /**
+     * @return the number of indexed source files of the loaded index file.
+     */
+    public int size() {
+        return loaded.size();
+    }
+
+    private byte[] getPayload(Entry entry) throws IOException {
+        if (entry.offset >= 0) {
+            // copied from the loaded index file
+            byte[] payload = new byte[entry.length];
+            ByteBuffer source = buffer.duplicate();
+            source.position(entry.offset);
+            source.get(payload);
+            return payload;
+        }
+        if (entry.typeModel == null) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            writeTypeModel(output, entry.typeModel);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long toNanos(FileTime fileTime) {
+        return fileTime.to(TimeUnit.NANOSECONDS);
+    }
+
+    // encoding
+
+    private static void writeTypeModel(DataOutputStream output, ProjectModel.TypeModel typeModel)
+            throws IOException {
+        writeString(output, typeModel.getQualifiedName());
+        writeString(output, typeModel.getSourceFile());
+        output.writeBoolean(typeModel.isInterface());
+        output.writeBoolean(typeModel.isEnum());
+        output.writeInt(typeModel.getSupertypes().size());
+        for (String supertype : typeModel.getSupertypes()) {
+            writeString(output, supertype);
+            writeStrings(output, typeModel.getSupertypeArguments(supertype));
+        }
+        writeString(output, typeModel.getJavadocSummary());
+        output.writeInt(typeModel.getAllAnnotationValues().size());
+        for (Map.Entry<String, List<String>> annotation : typeModel.getAllAnnotationValues().entrySet()) {
+            writeString(output, annotation.getKey());
+            writeStrings(output, annotation.getValue());
+        }
+        writeBoolean(output, typeModel.getResourceExported());
+        writeString(output, typeModel.getResourcePath());
+        output.writeInt(typeModel.getMethods().size());
+        for (ProjectModel.MethodModel method : typeModel.getMethods()) {
+            writeString(output, method.getName());
+            writeStrings(output, method.getParameterTypes());
+            writeString(output, method.getReturnType());
+            writeString(output, method.getJavadocSummary());
+            writeBoolean(output, method.getResourceExported());
+            writeString(output, method.getResourcePath());
+        }
+    }
+
+    private static ProjectModel.TypeModel readTypeModel(ByteBuffer input) {
+        String qualifiedName = readString(input);
+        String sourceFile = readString(input);
+        boolean _interface = input.get() != 0;
+        boolean _enum = input.get() != 0;
+        int supertypeCount = input.getInt();
+        List<String> supertypes = new ArrayList<>(supertypeCount);
+        Map<String, List<String>> supertypeArguments = new LinkedHashMap<>();
+        for (int i = 0; i < supertypeCount; i++) {
+            String supertype = readString(input);
+            supertypes.add(supertype);
+            supertypeArguments.put(supertype, readStrings(input));
+        }
+        String javadocSummary = readString(input);
+        int annotationCount = input.getInt();
+        Map<String, List<String>> annotationValues = new LinkedHashMap<>();
+        for (int i = 0; i < annotationCount; i++) {
+            annotationValues.put(readString(input), readStrings(input));
+        }
+        Boolean resourceExported = readBoolean(input);
+        String resourcePath = readString(input);
+        int methodCount = input.getInt();
+        List<ProjectModel.MethodModel> methods = new ArrayList<>(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            methods.add(new ProjectModel.MethodModel(readString(input), readStrings(input), readString(input),
+                    readString(input), readBoolean(input), readString(input)));
+        }
+        return new ProjectModel.TypeModel(qualifiedName, sourceFile, _interface, _enum,
+                Collections.unmodifiableList(supertypes), Collections.unmodifiableMap(supertypeArguments),
+                javadocSummary, Collections.unmodifiableMap(annotationValues), resourceExported, resourcePath,
+                Collections.unmodifiableList(methods));
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer input) {
+        int length = input.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > input.remaining()) {
+            throw new IllegalArgumentException(String.format("Invalid string length: %d", length));
+        }
+        byte[] bytes = new byte[length];
+        input.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream output, List<String> values) throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            writeString(output, value);
+        }
+    }
+
+    private static List<String> readStrings(ByteBuffer input) {
+        int count = input.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(input));
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private static void writeBoolean(DataOutputStream output, Boolean value) throws IOException {
+        output.writeByte(value == null ? NONE : value ? TRUE : FALSE);
+    }
+
+    private static Boolean readBoolean(ByteBuffer input) {
+        byte value = input.get();
+        return value == NONE ? null : value == TRUE;
+    }
+
+    /**
+     * An indexed source file.
+     */
+    public static class Entry {
+
+        /**
+         * The modification time in nanoseconds.
+         */
+        private final long lastModified;
+
+        private final long size;
+
+        /**
+         * The offset of the encoded type model in the loaded index file or -1 if scanned in this run.
+         */
+        private final int offset;
+
+        private final int length;
+
+        private final ProjectModel.TypeModel typeModel;
+
+        private Entry(long lastModified, long size, int offset, int length, ProjectModel.TypeModel typeModel) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.offset = offset;
+            this.length = length;
+            this.typeModel = typeModel;
+        }
+
+        /**
+         * @return the type model or <code>null</code> if the source file does not declare a type.
+         */
+        public ProjectModel.TypeModel getTypeModel() {
+            return typeModel;
+        }
+
+        private boolean matches(long lastModified, long size) {
+            return this.lastModified == lastModified && this.size == size;
+        }
+
+        private boolean isUpToDate(String sourceFile) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(new File(sourceFile).toPath(),
+                        BasicFileAttributes.class);
+                return matches(toNanos(attributes.lastModifiedTime()), attributes.size());
+            } catch (IOException e) {
+                // deleted
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.javadoc.Javadoc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable model of the types of a source path.
+ * <p>
+ * The model is built in one pass over all Java source files before the handlers are asked questions about the type
+ * hierarchy, Javadoc summaries, resource settings or Sortable / Searchable values. It only contains information which
+ * is not changed by the enrichment, so it stays valid while the handlers are writing source files.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class ProjectModel {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectModel.class);
+
+    private static final String JAVA_EXT = ".java";
+
+    private final Map<String, TypeModel> typesByName;
+
+    private final Map<String, TypeModel> typesBySourceFile;
+
+    private ProjectModel(Collection<TypeModel> types) {
+        Map<String, TypeModel> typesByName = new LinkedHashMap<>();
+        Map<String, TypeModel> typesBySourceFile = new LinkedHashMap<>();
+        for (TypeModel type : types) {
+            typesByName.putIfAbsent(type.getQualifiedName(), type);
+            typesBySourceFile.put(type.getSourceFile(), type);
+        }
+        this.typesByName = Collections.unmodifiableMap(typesByName);
+        this.typesBySourceFile = Collections.unmodifiableMap(typesBySourceFile);
+    }
+
+    /**
+     * Builds the model from all Java source files below a source path. Files which cannot be parsed are left out.
+     *
+     * @param sourcePath           The source path.
+     * @param compilationUnitCache The cache for parsing the source files.
+     * @param threads              The number of threads for parsing.
+     * @return the model.
+     */
+    public static ProjectModel build(Path sourcePath, CompilationUnitCache compilationUnitCache, int threads) {
+        return build(Collections.singletonList(sourcePath), compilationUnitCache, threads);
+    }
+
+    /**
+     * Builds the model from all Java source files below several source paths. Files which cannot be parsed are left
+     * out. A type found in several source paths is taken from the first source path.
+     *
+     * @param sourcePaths          The source paths.
+     * @param compilationUnitCache The cache for parsing the source files.
+     * @param threads              The number of threads for parsing.
+     * @return the model.
+     */
+    public static ProjectModel build(List<Path> sourcePaths, CompilationUnitCache compilationUnitCache, int threads) {
+        long start = System.currentTimeMillis();
+        List<File> files = new ArrayList<>();
+        for (Path sourcePath : sourcePaths) {
+            try (Stream<Path> paths = Files.walk(sourcePath)) {
+                paths.filter(p -> p.getFileName().toString().endsWith(JAVA_EXT) && Files.isRegularFile(p)).
+                        map(Path::toFile).forEach(files::add);
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Could not walk through source path: %s", sourcePath), e);
+            }
+        }
+        List<TypeModel> types;
+        if (threads > 1) {
+            ExecutorService executorService = Executors.newFixedThreadPool(threads);
+            try {
+                List<CompletableFuture<TypeModel>> futures = files.stream().map(
+                        f -> CompletableFuture.supplyAsync(() -> scan(f, compilationUnitCache), executorService)
+                ).collect(Collectors.toList());
+                types = futures.stream().map(EnrichmentPipeline::join).filter(Objects::nonNull).
+                        collect(Collectors.toList());
+            } finally {
+                executorService.shutdownNow();
+            }
+        } else {
+            types = files.stream().map(f -> scan(f, compilationUnitCache)).filter(Objects::nonNull).
+                    collect(Collectors.toList());
+        }
+        ProjectModel projectModel = new ProjectModel(types);
+        LOGGER.info(String.format("Built project model with %d types from %d source files in %d ms.",
+                types.size(), files.size(), System.currentTimeMillis() - start));
+        return projectModel;
+    }
+
+    private static TypeModel scan(File file, CompilationUnitCache compilationUnitCache) {
+        try {
+            return compilationUnitCache.getTypeModel(file);
+        } catch (RuntimeException e) {
+            LOGGER.debug(String.format("Could not parse file '%s'", file), e);
+            return null;
+        }
+    }
+
+    /**
+     * Creates the model of the first type declared in a compilation unit.
+     *
+     * @param compilationUnit The compilation unit.
+     * @param sourceFile      The canonical path of the source file.
+     * @return the type model.
+     */
+    public static TypeModel createTypeModel(CompilationUnit compilationUnit, String sourceFile) {
+        TypeDeclaration<?> typeDeclaration = compilationUnit.findFirst(TypeDeclaration.class).
+                orElseThrow(() -> new RuntimeException(String.format("Could not parse type: %s", sourceFile)));
+        String _package = compilationUnit.getPackageDeclaration().map(p -> p.getName().asString() +
+                ResourceHandler.DOT).orElse(ResourceHandler.EMPTY_STRING);
+        List<String> supertypes = new ArrayList<>();
+        Map<String, List<String>> supertypeArguments = new LinkedHashMap<>();
+        List<MethodModel> methods = new ArrayList<>();
+        if (typeDeclaration.isClassOrInterfaceDeclaration()) {
+            ClassOrInterfaceDeclaration classOrInterfaceDeclaration = typeDeclaration.asClassOrInterfaceDeclaration();
+            for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
+                String supertype = getSupertypeName(compilationUnit, extent);
+                supertypes.add(supertype);
+                supertypeArguments.put(supertype, Collections.unmodifiableList(extent.getTypeArguments().
+                        map(a -> a.stream().map(t -> t.asString()).collect(Collectors.toList())).
+                        orElse(Collections.emptyList())));
+            }
+            for (MethodDeclaration methodDeclaration : classOrInterfaceDeclaration.getMethods()) {
+                methods.add(createMethodModel(methodDeclaration));
+            }
+        }
+        Map<String, List<String>> annotationValues = new LinkedHashMap<>();
+        for (AnnotationExpr annotationExpr : typeDeclaration.getAnnotations()) {
+            annotationValues.putIfAbsent(annotationExpr.getNameAsString(), getAnnotationValues(annotationExpr));
+        }
+        Optional<AnnotationExpr> resourceAnnotation = getResourceAnnotation(typeDeclaration);
+        return new TypeModel(_package + typeDeclaration.getNameAsString(), sourceFile,
+                typeDeclaration.isClassOrInterfaceDeclaration() &&
+                        typeDeclaration.asClassOrInterfaceDeclaration().isInterface(),
+                typeDeclaration.isEnumDeclaration(),
+                Collections.unmodifiableList(supertypes), Collections.unmodifiableMap(supertypeArguments),
+                getJavadocSummary(typeDeclaration),
+                Collections.unmodifiableMap(annotationValues),
+                getResourceExported(resourceAnnotation), getResourcePath(resourceAnnotation),
+                Collections.unmodifiableList(methods));
+    }
+
+    private static MethodModel createMethodModel(MethodDeclaration methodDeclaration) {
+        Optional<AnnotationExpr> resourceAnnotation = getResourceAnnotation(methodDeclaration);
+        return new MethodModel(methodDeclaration.getNameAsString(),
+                Collections.unmodifiableList(methodDeclaration.getParameters().stream().map(Parameter::getType).
+                        map(t -> t.asString()).collect(Collectors.toList())),
+                methodDeclaration.getType().asString(),
+                getJavadocSummary(methodDeclaration),
+                getResourceExported(resourceAnnotation), getResourcePath(resourceAnnotation));
+    }
+
+    private static Boolean getResourceExported(Optional<AnnotationExpr> resourceAnnotation) {
+        try {
+            return resourceAnnotation.map(r -> ResourceHandler.checkResourceExported(r, false)).orElse(null);
+        } catch (RuntimeException e) {
+            // no literal, left to the handlers
+            return null;
+        }
+    }
+
+    private static String getResourcePath(Optional<AnnotationExpr> resourceAnnotation) {
+        try {
+            return resourceAnnotation.map(ResourceHandler::getResourcePath).orElse(null);
+        } catch (RuntimeException e) {
+            // no literal, left to the handlers
+            return null;
+        }
+    }
+
+    private static String getSupertypeName(CompilationUnit compilationUnit, ClassOrInterfaceType extent) {
+        try {
+            return ResourceHandler.getExtendedClassName(compilationUnit, extent);
+        } catch (RuntimeException e) {
+            // not resolvable, the enrichment only fails if the type is needed
+            return extent.getNameAsString();
+        }
+    }
+
+    private static String getJavadocSummary(BodyDeclaration<?> bodyDeclaration) {
+        Javadoc javadoc = ResourceHandler.getJavadoc(bodyDeclaration);
+        if (javadoc == null) {
+            return null;
+        }
+        return ResourceHandler.getJavadocSummary(ResourceHandler.getJavadocText(javadoc));
+    }
+
+    private static Optional<AnnotationExpr> getResourceAnnotation(BodyDeclaration<?> bodyDeclaration) {
+        Optional<AnnotationExpr> restResourceOptional = bodyDeclaration.getAnnotationByName(
+                ResourceHandler.getSimpleNameFromClass(ResourceHandler.REPOSITORY_REST_RESOURCE_CLASS));
+        if (!restResourceOptional.isPresent()) {
+            restResourceOptional = bodyDeclaration.getAnnotationByName(
+                    ResourceHandler.getSimpleNameFromClass(ResourceHandler.RESOURCE_CLASS));
+        }
+        return restResourceOptional;
+    }
+
+    /**
+     * Gets the string values of the <code>value</code> member of an annotation like for the Sortable and Searchable
+     * annotations.
+     *
+     * @param annotationExpr The annotation.
+     * @return the values.
+     */
+    protected static List<String> getAnnotationValues(AnnotationExpr annotationExpr) {
+        List<String> values = new ArrayList<>();
+        if (annotationExpr.isNormalAnnotationExpr()) {
+            annotationExpr.asNormalAnnotationExpr().getPairs().stream().filter(
+                    p -> p.getName().asString().equals(ResourceMethodHandler.ANNOTATION_VALUE)
+            ).forEach(
+                    p -> {
+                        Expression value = p.getValue();
+                        if (value.isStringLiteralExpr()) {
+                            values.add(value.asStringLiteralExpr().getValue());
+                        }
+                        if (value.isArrayInitializerExpr()) {
+                            values.addAll(value.asArrayInitializerExpr().getValues().stream().filter(
+                                    Expression::isStringLiteralExpr
+                            ).map(v -> v.asStringLiteralExpr().asString()).collect(Collectors.toList()));
+                        }
+                    }
+            );
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Creates a model with the types of changed source files scanned again. The types of deleted source files are
+     * removed.
+     *
+     * @param sourceFiles          The canonical paths of the changed, created or deleted source files.
+     * @param compilationUnitCache The cache for parsing the source files.
+     * @return the updated model.
+     */
+    public ProjectModel update(Collection<String> sourceFiles, CompilationUnitCache compilationUnitCache) {
+        Map<String, TypeModel> types = new LinkedHashMap<>(typesBySourceFile);
+        for (String sourceFile : sourceFiles) {
+            File file = new File(sourceFile);
+            TypeModel type = sourceFile.endsWith(JAVA_EXT) && file.isFile() ? scan(file, compilationUnitCache) : null;
+            if (type == null) {
+                types.remove(sourceFile);
+            } else {
+                types.put(sourceFile, type);
+            }
+        }
+        return new ProjectModel(types.values());
+    }
+
+    /**
+     * Gets the path of a source file as used by the model.
+     *
+     * @param file The source file.
+     * @return the canonical path.
+     */
+    public static String getSourceFile(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not resolve source file: %s", file), e);
+        }
+    }
+
+    /**
+     * Gets a type by its fully qualified name.
+     *
+     * @param qualifiedName The fully qualified class name.
+     * @return the type or <code>null</code> if not part of the model.
+     */
+    public TypeModel getType(String qualifiedName) {
+        return typesByName.get(qualifiedName);
+    }
+
+    /**
+     * Gets the type declared in a source file.
+     *
+     * @param sourceFile The canonical path of the source file.
+     * @return the type or <code>null</code> if not part of the model.
+     */
+    public TypeModel getTypeBySourceFile(String sourceFile) {
+        return typesBySourceFile.get(sourceFile);
+    }
+
+    public Collection<TypeModel> getTypes() {
+        return typesByName.values();
+    }
+
+    /**
+     * Model of a type.
+     */
+    public static class TypeModel {
+
+        private final String qualifiedName;
+        private final String sourceFile;
+        private final boolean _interface;
+        private final boolean _enum;
+        private final List<String> supertypes;
+        private final Map<String, List<String>> supertypeArguments;
+        private final String javadocSummary;
+        private final Map<String, List<String>> annotationValues;
+        private final Boolean resourceExported;
+        private final String resourcePath;
+        private final List<MethodModel> methods;
+
+        TypeModel(String qualifiedName, String sourceFile, boolean _interface, boolean _enum,
+                          List<String> supertypes, Map<String, List<String>> supertypeArguments,
+                          String javadocSummary, Map<String, List<String>> annotationValues,
+                          Boolean resourceExported, String resourcePath, List<MethodModel> methods) {
+            this.qualifiedName = qualifiedName;
+            this.sourceFile = sourceFile;
+            this._interface = _interface;
+            this._enum = _enum;
+            this.supertypes = supertypes;
+            this.supertypeArguments = supertypeArguments;
+            this.javadocSummary = javadocSummary;
+            this.annotationValues = annotationValues;
+            this.resourceExported = resourceExported;
+            this.resourcePath = resourcePath;
+            this.methods = methods;
+        }
+
+        public String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        /**
+         * @return the canonical path of the source file.
+         */
+        public String getSourceFile() {
+            return sourceFile;
+        }
+
+        public boolean isInterface() {
+            return _interface;
+        }
+
+        public boolean isEnum() {
+            return _enum;
+        }
+
+        /**
+         * @return the fully qualified names of the extended types.
+         */
+        public List<String> getSupertypes() {
+            return supertypes;
+        }
+
+        /**
+         * Gets the type arguments of an extended type as declared in the source.
+         *
+         * @param supertype The fully qualified name of the extended type.
+         * @return the type arguments.
+         */
+        public List<String> getSupertypeArguments(String supertype) {
+            return supertypeArguments.getOrDefault(supertype, Collections.emptyList());
+        }
+
+        /**
+         * @return the summary of the Javadoc or <code>null</code> if the type is not documented.
+         */
+        public String getJavadocSummary() {
+            return javadocSummary;
+        }
+
+        /**
+         * Gets the string values of an annotation of the type.
+         *
+         * @param annotationName The annotation name as used in the source.
+         * @return the values or <code>null</code> if the type is not annotated.
+         */
+        public List<String> getAnnotationValues(String annotationName) {
+            return annotationValues.get(annotationName);
+        }
+
+        /**
+         * @return the string values by annotation name as used in the source.
+         */
+        Map<String, List<String>> getAllAnnotationValues() {
+            return annotationValues;
+        }
+
+        /**
+         * @return the exported setting of the <code>RepositoryRestResource</code> or <code>RestResource</code>
+         * annotation or <code>null</code> if not annotated.
+         */
+        public Boolean getResourceExported() {
+            return resourceExported;
+        }
+
+        /**
+         * @return the path of the <code>RepositoryRestResource</code> or <code>RestResource</code> annotation.
+         */
+        public String getResourcePath() {
+            return resourcePath;
+        }
+
+        public List<MethodModel> getMethods() {
+            return methods;
+        }
+    }
+
+    /**
+     * Model of a method.
+     */
+    public static class MethodModel {
+
+        private final String name;
+        private final List<String> parameterTypes;
+        private final String returnType;
+        private final String javadocSummary;
+        private final Boolean resourceExported;
+        private final String resourcePath;
+
+        MethodModel(String name, List<String> parameterTypes, String returnType, String javadocSummary,
+                            Boolean resourceExported, String resourcePath) {
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+            this.returnType = returnType;
+            this.javadocSummary = javadocSummary;
+            this.resourceExported = resourceExported;
+            this.resourcePath = resourcePath;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the parameter types as declared in the source.
+         */
+        public List<String> getParameterTypes() {
+            return parameterTypes;
+        }
+
+        /**
+         * @return the return type as declared in the source.
+         */
+        public String getReturnType() {
+            return returnType;
+        }
+
+        public String getJavadocSummary() {
+            return javadocSummary;
+        }
+
+        /**
+         * @return the exported setting of the <code>RestResource</code> annotation or <code>null</code> if not
+         * annotated.
+         */
+        public Boolean getResourceExported() {
+            return resourceExported;
+        }
+
+        public String getResourcePath() {
+            return resourcePath;
+        }
+    }
+}
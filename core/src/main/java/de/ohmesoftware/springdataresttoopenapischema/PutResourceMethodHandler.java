@@ -12,7 +12,7 @@ import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
  */
 public class PutResourceMethodHandler extends UpdateResourceMethodHandler {
 
-    private static final String UPDATE_METHOD = "update";
+    private static final String UPDATE_METHOD = ResourceNaming.UPDATE_METHOD;
 
     private boolean disablePut;
     /**
@@ -22,11 +22,12 @@ public class PutResourceMethodHandler extends UpdateResourceMethodHandler {
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      * @param disablePut <code>true</code> if PU is disabled.
      */
     protected PutResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
-                                       CompilationUnit compilationUnit, boolean disablePut) {
-        super(sourceFile, sourcePath, basePath, compilationUnit);
+                                       CompilationUnit compilationUnit, EnrichmentContext context, boolean disablePut) {
+        super(sourceFile, sourcePath, basePath, compilationUnit, context);
         this.disablePut = disablePut;
     }
 
@@ -47,7 +48,7 @@ public class PutResourceMethodHandler extends UpdateResourceMethodHandler {
 
     @Override
     protected String getDescription(String className) {
-        return String.format("Updates a(n) %s.", className);
+        return ResourceNaming.getUpdateSummary(className);
     }
 
     @Override
@@ -0,0 +1,141 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte level pre-filter for the source files which cannot contain an exported repository.
+ * <p>
+ * The only marker checked is <code>RestResource</code>, which also matches <code>RepositoryRestResource</code>. A
+ * source file not containing its bytes is skipped without parsing it, e.g. an entity or a service, but also a
+ * repository without annotation, even if it extends <code>Repository</code> or
+ * <code>QuerydslPredicateExecutor</code> and Spring Data REST exports it by its default detection. Such a repository
+ * is never enriched: only a class or interface annotated with <code>RepositoryRestResource</code> or
+ * <code>RestResource</code> is enriched by the {@link DomainResourceHandler} and the source file of an unannotated
+ * repository would be left unchanged anyway.
+ * </p>
+ * <p>
+ * The file is read into a buffer reused per thread and scanned as bytes, the marker is ASCII and so also found in
+ * UTF-8 encoded files. Types of filtered source files are still parsed if they are looked up, e.g. as domain class or
+ * supertype of a repository. The result is kept for the run.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class RepositoryPreFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RepositoryPreFilter.class);
+
+    private static final byte[] MARKER = ResourceHandler.getSimpleNameFromClass(ResourceHandler.RESOURCE_CLASS).
+            getBytes(StandardCharsets.US_ASCII);
+
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(
+            () -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+
+    private final RunMetrics metrics;
+
+    /**
+     * The result of the check by canonical path of the source file.
+     */
+    private final ConcurrentMap<String, Boolean> filtered = new ConcurrentHashMap<>();
+
+    private final AtomicLong filteredFiles = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param metrics The metrics of the run recording the read bytes.
+     */
+    public RepositoryPreFilter(RunMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Checks if a source file cannot contain an exported repository.
+     *
+     * @param file       The source file.
+     * @param sourceFile The canonical path of the source file.
+     * @return <code>true</code> if the source file does not have to be enriched.
+     */
+    public boolean isFiltered(File file, String sourceFile) {
+        return filtered.computeIfAbsent(sourceFile, f -> {
+            boolean noRepository = !containsMarker(file);
+            if (noRepository) {
+                LOGGER.debug(String.format("Filtered file without repository: '%s'", file.getName()));
+                filteredFiles.incrementAndGet();
+            }
+            return noRepository;
+        });
+    }
+
+    /**
+     * Gets the number of source files skipped without parsing.
+     *
+     * @return the number of filtered files.
+     */
+    public long getFilteredFiles() {
+        return filteredFiles.get();
+    }
+
+    private boolean containsMarker(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return true;
+            }
+            ByteBuffer buffer = BUFFERS.get();
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocate((int) size);
+                BUFFERS.set(buffer);
+            }
+            buffer.clear();
+            buffer.limit((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read the whole file
+            }
+            metrics.recordRead(buffer.position());
+            return indexOf(buffer.array(), buffer.position()) >= 0;
+        } catch (IOException e) {
+            // reported when the file is parsed
+            return true;
+        }
+    }
+
+    /**
+     * Finds the marker in the bytes.
+     *
+     * @param bytes  The bytes.
+     * @param length The number of bytes to search.
+     * @return the index or -1 if not found.
+     */
+    static int indexOf(byte[] bytes, int length) {
+        byte first = MARKER[0];
+        int last = length - MARKER.length;
+        for (int i = 0; i <= last; i++) {
+            if (bytes[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < MARKER.length && bytes[i + j] == MARKER[j]) {
+                j++;
+            }
+            if (j == MARKER.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
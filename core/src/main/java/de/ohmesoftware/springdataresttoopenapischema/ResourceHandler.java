@@ -10,12 +10,18 @@ import com.github.javaparser.ast.expr.AnnotationExpr;
 import com.github.javaparser.ast.expr.NameExpr;
 import com.github.javaparser.ast.expr.StringLiteralExpr;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.javadoc.Javadoc;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -44,7 +50,6 @@ public abstract class ResourceHandler {
     private static final String QUOTATION_MARK_STRING = "\"";
 
     protected static final String DOT = ".";
-    protected static final String PLURAL_S = "s";
     protected static final String SLASH = "/";
     private static final String JAVA_EXT = ".java";
 
@@ -54,8 +59,6 @@ public abstract class ResourceHandler {
     protected static final String REPOSITORY = "Repository";
 
     private static final String JAVADOC_PARAM_TAG = "param";
-    private static final String PARAGRAPH_START = "<p>";
-    private static final String PARAGRAPH_END = "</p>";
 
     /**
      * The source file.
@@ -79,6 +82,11 @@ public abstract class ResourceHandler {
 
     protected List<ClassOrInterfaceDeclaration> classOrInterfaceDeclarations;
 
+    /**
+     * The enrichment context of the current run.
+     */
+    protected EnrichmentContext context;
+
     /**
      * Constructor.
      *
@@ -86,12 +94,15 @@ public abstract class ResourceHandler {
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path not including package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      */
-    protected ResourceHandler(String sourceFile, String sourcePath, String basePath, CompilationUnit compilationUnit) {
+    protected ResourceHandler(String sourceFile, String sourcePath, String basePath,
+                              CompilationUnit compilationUnit, EnrichmentContext context) {
         this.sourceFile = sourceFile;
         this.sourcePath = sourcePath;
         this.compilationUnit = compilationUnit;
         this.basePath = basePath;
+        this.context = context;
     }
 
     public abstract void addResourceAnnotations();
@@ -112,24 +123,43 @@ public abstract class ResourceHandler {
         String _package = compilationUnit.getPackageDeclaration().map(p -> p.getName().asString()).orElse(EMPTY_STRING);
         String packagePath = _package.replace(".", SLASH);
         int overlap = 0;
-        for (int i = packagePath.length(); i >= 0; i--) {
-            if (sourcePath.endsWith(packagePath.substring(0, i))) {
+        for (int i = packagePath.length(); i > 0; i--) {
+            // only complete package directories
+            if ((i == packagePath.length() || packagePath.charAt(i) == '/') &&
+                    (sourcePath.equals(packagePath.substring(0, i)) ||
+                            sourcePath.endsWith(SLASH + packagePath.substring(0, i)))) {
                 overlap = i;
                 break;
             }
         }
-        return sourcePath.substring(0, sourcePath.length() - overlap);
+        String basePath = sourcePath.substring(0, sourcePath.length() - overlap);
+        // a source root
+        if (!basePath.isEmpty() && !basePath.endsWith(SLASH)) {
+            basePath += SLASH;
+        }
+        return basePath;
+    }
+
+    protected boolean sourceFileExists(File file) {
+        return context.sourceFileExists(file);
     }
 
     protected File getSourceFile(CompilationUnit compilationUnit, ClassOrInterfaceType extent) {
-        String className = getFullClassName(compilationUnit, extent);
-        // get File
+        return getSourceFile(getFullClassName(compilationUnit, extent));
+    }
+
+    protected File getSourceFile(String className) {
+        // a single lookup for several source paths
+        File file = context == null ? null : context.locateType(className);
+        if (file != null) {
+            return file;
+        }
         String sourcePath = basePath + className.replace('.', '/') + JAVA_EXT;
         return new File(sourcePath);
     }
 
-    private String getFullClassName(CompilationUnit compilationUnit,
-                                    String className) {
+    protected static String getFullClassName(CompilationUnit compilationUnit,
+                                             String className) {
         if (className.contains(DOT)) {
             return className;
         }
@@ -145,16 +175,14 @@ public abstract class ResourceHandler {
             case "Optional":
                 return Optional.class.getPackage().getName() + DOT + className;
         }
-        return compilationUnit.getImports().stream().filter(i -> !i.isAsterisk() && i.getName().getIdentifier().equals(className)).
-                map(i -> i.getName().asString()).findFirst().orElse(
-                        compilationUnit.getPackageDeclaration().map(p -> p.getName().asString() + DOT + className).
-                                orElseThrow(
-                                        () -> new RuntimeException(
-                                                String.format("Could not resolve import for type: %s", className))
-                                ));
+        String fullClassName = ImportIndex.of(compilationUnit).resolve(className);
+        if (fullClassName == null) {
+            throw new RuntimeException(String.format("Could not resolve import for type: %s", className));
+        }
+        return fullClassName;
     }
 
-    private String getFullClassName(CompilationUnit compilationUnit, ClassOrInterfaceType extent) {
+    protected static String getFullClassName(CompilationUnit compilationUnit, ClassOrInterfaceType extent) {
         return getFullClassName(compilationUnit, extent.getNameAsString());
     }
 
@@ -162,6 +190,7 @@ public abstract class ResourceHandler {
 
     protected void removeAnnotation(BodyDeclaration<?> bodyDeclaration,
                                     String annotationClass) {
+        context.getChangeTracker().beforeAnnotationChange(bodyDeclaration);
         bodyDeclaration.getAnnotationByName(getSimpleNameFromClass(annotationClass)).ifPresent(bodyDeclaration::remove);
     }
 
@@ -169,10 +198,13 @@ public abstract class ResourceHandler {
 
     protected void removeImport(CompilationUnit compilationUnit, String fqClassName) {
         compilationUnit.getImports().stream().filter(i -> !i.isAsterisk() &&
-                i.getName().asString().equals(fqClassName)).forEach(i -> i.remove());
+                i.getName().asString().equals(fqClassName)).collect(Collectors.toList()).forEach(i -> {
+            context.getChangeTracker().changed(i);
+            i.remove();
+        });
     }
 
-    protected String getSimpleNameFromClass(String fqClassName) {
+    protected static String getSimpleNameFromClass(String fqClassName) {
         String[] packages = fqClassName.split("\\.");
         return packages[packages.length - 1];
     }
@@ -189,84 +221,112 @@ public abstract class ResourceHandler {
     }
 
     protected boolean checkIfExtendingCrudInterface(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+        return (getRepositoryFlags(classOrInterfaceDeclaration) & TypeIndex.CRUD) != 0;
+    }
+
+    protected boolean checkIfExtendingQuerydslInterface(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+        return (getRepositoryFlags(classOrInterfaceDeclaration) & TypeIndex.QUERYDSL) != 0;
+    }
+
+    protected boolean checkIfExtendingRepository(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+        return (getRepositoryFlags(classOrInterfaceDeclaration) & TypeIndex.REPOSITORY) != 0;
+    }
+
+    protected boolean isCustomInterface(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+        return getRepositoryFlags(classOrInterfaceDeclaration) == 0;
+    }
+
+    /**
+     * Gets the repository properties of a class or interface.
+     * <p>
+     * The extended types of the passed declaration are inspected directly because the declaration might have been
+     * modified in this run. The properties of the extended types are taken from the {@link TypeIndex}.
+     * </p>
+     *
+     * @param classOrInterfaceDeclaration The class or interface declaration.
+     * @return the combination of {@link TypeIndex#CRUD}, {@link TypeIndex#QUERYDSL} and {@link TypeIndex#REPOSITORY}.
+     */
+    protected int getRepositoryFlags(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+        long start = context.getMetrics().start();
+        int flags = 0;
         for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
-            switch (extent.getName().getIdentifier()) {
-                case PAGING_AND_SORTING_REPOSITORY:
-                case CRUD_REPOSITORY:
-                    return true;
-                default:
-                    // visit interface to get information
-                    if (getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent).exists()) {
-                        TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
-                                classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
-                        boolean extending = checkIfExtendingCrudInterface(extendTypeDeclaration.asClassOrInterfaceDeclaration());
-                        if (extending) {
-                            return extending;
-                        }
-                    }
-            }
+            flags |= TypeIndex.getDeclaredFlags(extent.getName().getIdentifier());
+            String className = getExtendedClassName(classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
+            flags |= context.getTypeIndex().getFlags(className, this::loadSupertypes);
         }
-        return false;
+        context.getMetrics().stop(RunMetrics.HIERARCHY, start);
+        return flags;
     }
 
-    protected boolean checkIfExtendingQuerydslInterface(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+    /**
+     * Gets the transitive supertypes of a class or interface.
+     *
+     * @param classOrInterfaceDeclaration The class or interface declaration.
+     * @return the fully qualified class names of all supertypes.
+     */
+    protected Set<String> getSupertypeClassNames(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+        long start = context.getMetrics().start();
+        Set<String> classNames = new LinkedHashSet<>();
         for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
-            switch (extent.getName().getIdentifier()) {
-                case QUERYDSL_PREDICATE_EXECUTOR:
-                    return true;
-                default:
-                    // visit interface to get information
-                    if (getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent).exists()) {
-                        TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
-                                classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
-                        boolean extending = checkIfExtendingQuerydslInterface(extendTypeDeclaration.asClassOrInterfaceDeclaration());
-                        if (extending) {
-                            return extending;
-                        }
-                    }
-            }
+            String className = getExtendedClassName(classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
+            classNames.add(className);
+            classNames.addAll(context.getTypeIndex().getSupertypes(className, this::loadSupertypes));
         }
-        return false;
+        context.getMetrics().stop(RunMetrics.HIERARCHY, start);
+        return classNames;
     }
 
-    protected boolean checkIfExtendingRepository(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
-        if (checkIfExtendingCrudInterface(classOrInterfaceDeclaration)) {
-            return true;
+    private List<String> loadSupertypes(String fqClassName) {
+        File sourceFile = getSourceFile(fqClassName);
+        if (!sourceFileExists(sourceFile)) {
+            // e.g. a repository interface of a shared library
+            return context.getClassPathTypes().getSupertypes(fqClassName);
         }
-        for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
-            switch (extent.getName().getIdentifier()) {
-                case REPOSITORY:
-                    return true;
-                default:
-                    // visit interface to get information
-                    if (getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent).exists()) {
-                        TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
-                                classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
-                        boolean extending = checkIfExtendingRepository(extendTypeDeclaration.asClassOrInterfaceDeclaration());
-                        if (extending) {
-                            return extending;
-                        }
-                    }
-            }
+        return getTypeModel(fqClassName).getSupertypes();
+    }
+
+    /**
+     * Gets the model of a type with source code.
+     * <p>
+     * The type is taken from the project model if it is part of the source path. Otherwise, e.g. for types created in
+     * this run, the source file is parsed.
+     * </p>
+     *
+     * @param fqClassName The fully qualified class name.
+     * @return the type model.
+     */
+    protected ProjectModel.TypeModel getTypeModel(String fqClassName) {
+        File file = getSourceFile(fqClassName);
+        String typeSourceFile = ProjectModel.getSourceFile(file);
+        ProjectModel.TypeModel typeModel = context.getProjectModel().getTypeBySourceFile(typeSourceFile);
+        if (typeModel != null) {
+            context.getCompilationUnitCache().record(typeSourceFile);
+            return typeModel;
         }
-        return false;
+        return ProjectModel.createTypeModel(context.getWorkspace().get(file), typeSourceFile);
     }
 
-    protected boolean isCustomInterface(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
-        return !checkIfExtendingCrudInterface(
-                classOrInterfaceDeclaration)
-                &&
-                !checkIfExtendingQuerydslInterface(
-                        classOrInterfaceDeclaration)
-                &&
-                !checkIfExtendingRepository(
-                        classOrInterfaceDeclaration);
+    protected ProjectModel.TypeModel getTypeModel(CompilationUnit compilationUnit,
+                                                  ClassOrInterfaceType classOrInterfaceType) {
+        return getTypeModel(getFullClassName(compilationUnit, classOrInterfaceType));
+    }
+
+    protected static String getExtendedClassName(CompilationUnit compilationUnit, ClassOrInterfaceType extent) {
+        try {
+            return getFullClassName(compilationUnit, extent);
+        } catch (RuntimeException e) {
+            // the Spring Data interfaces are detected by their simple name and do not have to be resolvable
+            if (TypeIndex.getDeclaredFlags(extent.getName().getIdentifier()) != 0) {
+                return extent.getName().getIdentifier();
+            }
+            throw e;
+        }
     }
 
     protected ClassOrInterfaceDeclaration findCustomRepositoryInterface(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
         for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
             // visit interface to get information
-            if (getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent).exists()) {
+            if (sourceFileExists(getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent))) {
                 TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
                         classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
                 if (isCustomInterface(
@@ -295,6 +355,11 @@ public abstract class ResourceHandler {
                     }
                     return getClassOrInterfaceTypeFromClassName(compilationUnit, extent.getTypeArguments().get().get(1).asString());
                 default:
+                    List<String> typeArguments = getClassPathTypeArguments(classOrInterfaceDeclaration, extent,
+                            PAGING_AND_SORTING_REPOSITORY, CRUD_REPOSITORY);
+                    if (typeArguments != null && typeArguments.size() > 1) {
+                        return getClassOrInterfaceTypeFromClassName(compilationUnit, typeArguments.get(1));
+                    }
                     // visit interface to get information
                     TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
                             classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
@@ -332,6 +397,13 @@ public abstract class ResourceHandler {
                         return getClassOrInterfaceTypeFromClassName(extent.findCompilationUnit().get(), extent.getTypeArguments().get().get(0).asString());
                     }
                     else {
+                        List<String> typeArguments = getClassPathTypeArguments(classOrInterfaceDeclaration, extent,
+                                PAGING_AND_SORTING_REPOSITORY, QUERYDSL_PREDICATE_EXECUTOR, REPOSITORY,
+                                CRUD_REPOSITORY);
+                        if (typeArguments != null) {
+                            return getClassOrInterfaceTypeFromClassName(
+                                    classOrInterfaceDeclaration.findCompilationUnit().get(), typeArguments.get(0));
+                        }
                         // visit interface to get information
                         TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
                                 classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
@@ -345,6 +417,29 @@ public abstract class ResourceHandler {
         return null;
     }
 
+    /**
+     * Gets the type arguments of a Spring Data repository interface extended by an extended type without source code,
+     * e.g. a repository interface of a shared library.
+     *
+     * @param classOrInterfaceDeclaration The class or interface declaration.
+     * @param extent                      The extended type.
+     * @param repositories                The simple names of the Spring Data repository interfaces.
+     * @return the type arguments or <code>null</code> if the extended type has source code or is not on the class
+     * path.
+     */
+    private List<String> getClassPathTypeArguments(ClassOrInterfaceDeclaration classOrInterfaceDeclaration,
+                                                   ClassOrInterfaceType extent, String... repositories) {
+        CompilationUnit extentCompilationUnit = classOrInterfaceDeclaration.findCompilationUnit().get();
+        String className = getFullClassName(extentCompilationUnit, extent);
+        if (sourceFileExists(getSourceFile(className))) {
+            return null;
+        }
+        List<String> typeArguments = extent.getTypeArguments().map(a -> a.stream().map(Type::asString).
+                collect(Collectors.toList())).orElse(Collections.emptyList());
+        return context.getClassPathTypes().getTypeArguments(className, typeArguments,
+                new HashSet<>(Arrays.asList(repositories)));
+    }
+
     protected String getDomainPath(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
         ClassOrInterfaceType classOrInterfaceType = getDomainClass(classOrInterfaceDeclaration);
         if (classOrInterfaceType == null) {
@@ -354,11 +449,11 @@ public abstract class ResourceHandler {
     }
 
     protected String getDomainPath(String string) {
-        return toLowerCase(string) + PLURAL_S;
+        return ResourceNaming.getDomainPath(string);
     }
 
     protected String toLowerCase(String string) {
-        return string.substring(0, 1).toLowerCase() + string.substring(1);
+        return ResourceNaming.toLowerCase(string);
     }
 
     // JAX-RS
@@ -368,10 +463,12 @@ public abstract class ResourceHandler {
     }
 
     protected void addPathAnnotation(BodyDeclaration<?> bodyDeclaration, String path) {
+        context.getChangeTracker().beforeAnnotationChange(bodyDeclaration);
         bodyDeclaration.addSingleMemberAnnotation(JAXRS_PATH_CLASS, new NameExpr(quoteString(SLASH + path)));
     }
 
     protected void addTagAnnotation(BodyDeclaration<?> bodyDeclaration, String name) {
+        context.getChangeTracker().beforeAnnotationChange(bodyDeclaration);
         bodyDeclaration.addAndGetAnnotation(TAG_CLASS).addPair(TAG_NAME, new StringLiteralExpr(escapeString(name)));
     }
 
@@ -385,7 +482,7 @@ public abstract class ResourceHandler {
                 .findFirst().orElse(true);
     }
 
-    protected String getResourcePath(AnnotationExpr resource) {
+    protected static String getResourcePath(AnnotationExpr resource) {
         if (!resource.isNormalAnnotationExpr()) {
             return null;
         }
@@ -396,7 +493,8 @@ public abstract class ResourceHandler {
 
     protected TypeDeclaration parseClassOrInterfaceType(CompilationUnit compilationUnit, ClassOrInterfaceType classOrInterfaceType) {
 
-        CompilationUnit newCompilationUnit = parseFile(getSourceFile(compilationUnit, classOrInterfaceType));
+        CompilationUnit newCompilationUnit = context.getWorkspace().get(
+                getSourceFile(compilationUnit, classOrInterfaceType));
         TypeDeclaration newClassOrInterfaceDeclaration = newCompilationUnit.findFirst(TypeDeclaration.class).
                 orElseThrow(() -> new RuntimeException(
                         String.format("Could not parse type: %s", classOrInterfaceType.asString())));
@@ -427,8 +525,8 @@ public abstract class ResourceHandler {
                 .stream().filter(p -> p.getName().asString().equals(ResourceMethodHandler.OPERATION_HIDDEN)).findAny().isPresent();
     }
 
-    protected boolean checkResourceExported(AnnotationExpr resource,
-                                            boolean repoAnnotationRequired) {
+    protected static boolean checkResourceExported(AnnotationExpr resource,
+                                                   boolean repoAnnotationRequired) {
         if (resource.isMarkerAnnotationExpr()) {
             return true;
         }
@@ -443,45 +541,28 @@ public abstract class ResourceHandler {
     }
 
     protected String escapeString(String string) {
-        return string.trim().replace("\n", SPACE_STRING).
-                replace("\r", EMPTY_STRING).
-                replace("<", "&lt;").
-                replace(">", "&gt;").
-                replace("\"", "\\\"").
-                replaceAll("\\s+", SPACE_STRING);
+        return ResourceNaming.escapeString(string);
     }
 
-    protected Javadoc getJavadoc(BodyDeclaration bodyDeclaration) {
+    protected static Javadoc getJavadoc(BodyDeclaration bodyDeclaration) {
         return bodyDeclaration.getComment().filter(Comment::isJavadocComment).map(c -> c.asJavadocComment().parse()).orElse(null);
     }
 
-    protected String getJavadocParameter(Javadoc javadoc, String parameter) {
+    protected static String getJavadocParameter(Javadoc javadoc, String parameter) {
         return javadoc.getBlockTags().stream().filter(t -> t.getTagName() != null && t.getTagName().equals(JAVADOC_PARAM_TAG)
                 && t.getName().isPresent() && t.getName().get().equals(parameter)).
                 map(t -> t.getContent().toText().trim()).findFirst().orElse(null);
     }
 
-    protected String getJavadocText(Javadoc javadoc) {
+    protected static String getJavadocText(Javadoc javadoc) {
         return javadoc.getDescription().getElements().stream().map(d -> d.toText().trim()).collect(Collectors.joining(SPACE_STRING));
     }
 
-    protected String getJavadocSummary(String javadoc) {
-        String[] commentParts = javadoc.split(PARAGRAPH_START);
-        return commentParts[0].trim();
+    protected static String getJavadocSummary(String javadoc) {
+        return ResourceNaming.getJavadocSummary(javadoc);
     }
 
     protected String getJavadocDescription(String javadoc) {
-        String[] commentParts = javadoc.split(PARAGRAPH_START);
-        if (commentParts.length > 1) {
-            String description = commentParts[1].trim();
-            if (description.endsWith(PARAGRAPH_START)) {
-                description = description.substring(0, description.length()-PARAGRAPH_START.length());
-            }
-            if (description.endsWith(PARAGRAPH_END)) {
-                description = description.substring(0, description.length()-PARAGRAPH_END.length());
-            }
-            return description;
-        }
-        return null;
+        return ResourceNaming.getJavadocDescription(javadoc);
     }
 }
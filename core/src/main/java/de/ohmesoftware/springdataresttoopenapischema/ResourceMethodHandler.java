@@ -13,8 +13,6 @@ import com.github.javaparser.javadoc.Javadoc;
 import com.github.javaparser.utils.Pair;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -74,13 +72,9 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
     protected static final String PAGEABLE_PARAM = "pageable";
     protected static final String PAGEABLE_CLASS = "org.springframework.data.domain.Pageable";
     protected static final String PAGE_CLASS = "org.springframework.data.domain.Page";
-    protected static final String PAGE_PARAMETER_NAME = "page";
-    protected static final String SIZE_PARAMETER_NAME = "size";
     protected static final String SORT_CLASS = "org.springframework.data.domain.Sort";
-    protected static final String SORT_PARAM = "sort";
     protected static final String SINGLE_OBJECT_SEARCH_PARAM_ELLIPSIS = ".*";
     protected static final String SEARCH_ATTRIBUTE_OR = " or ";
-    private static final String UNDERSCORE = "_";
 
     protected static final String JSON_PROPERTY_CLASS = "com.fasterxml.jackson.annotation.JsonProperty";
     protected static final String JSON_PROPERTY_ACCESS = "access";
@@ -90,11 +84,8 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
     protected static final String QUERYDSL_PREDICATE_CLASS = "com.querydsl.core.types.Predicate";
     protected static final String ANNOTATION_VALUE = "value";
 
-    private static final String CUSTOM_METHOD_BY = "By";
     private static final String COMPONENTS_SCHEMAS = "#/components/schemas/";
 
-    protected static final String ID_PATH = "{id}";
-
     /**
      * Constructor.
      *
@@ -102,9 +93,11 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      */
-    protected ResourceMethodHandler(String sourceFile, String sourcePath, String basePath, CompilationUnit compilationUnit) {
-        super(sourceFile, sourcePath, basePath, compilationUnit);
+    protected ResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
+                                    CompilationUnit compilationUnit, EnrichmentContext context) {
+        super(sourceFile, sourcePath, basePath, compilationUnit, context);
     }
 
     public abstract void addResourceAnnotations();
@@ -123,11 +116,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
                         classOrInterfaceDeclaration.getNameAsString()
 
                 ));
-        try (FileWriter fileWriter = new FileWriter(newInterface)) {
-            fileWriter.write(compilationUnit.toString());
-        } catch (IOException e) {
-            throw new RuntimeException(String.format("Could not write Java file: %s", newInterface.getAbsolutePath()), e);
-        }
+        context.getWorkspace().save(newInterface, compilationUnit);
 
     }
 
@@ -176,6 +165,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
 
     protected void addMarkerAnnotation(BodyDeclaration<?> bodyDeclaration,
                                        String annotationClass) {
+        context.getChangeTracker().beforeAnnotationChange(bodyDeclaration);
         bodyDeclaration.addAndGetAnnotation(annotationClass);
     }
 
@@ -187,7 +177,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
                         ),
                         new MemberValuePair(PARAMETER_DESCRIPTION,
                                 new StringLiteralExpr(
-                                        escapeString(description == null ? "No description" : description)
+                                        escapeString(description == null ? ResourceNaming.NO_DESCRIPTION : description)
                                 )),
                         new MemberValuePair(PARAMETER_IN,
                                 new FieldAccessExpr(new TypeExpr(
@@ -200,18 +190,20 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
     // Operation annotations
 
     protected List<NormalAnnotationExpr> getPageableParams(MethodDeclaration methodDeclaration,
-                                                           ClassOrInterfaceDeclaration sortingDomainClassOrInterfaceDeclaration,
+                                                           ProjectModel.TypeModel sortingDomainType,
                                                            String sortableAnnotation) {
         return methodDeclaration.getParameters().stream().filter(p ->
                 p.getType().asString().endsWith(getSimpleNameFromClass(PAGEABLE_CLASS))).
                 findFirst().
                 map(p -> {
-                            List<NormalAnnotationExpr> annotationExprs = new ArrayList<>(addSortParams(sortingDomainClassOrInterfaceDeclaration,
+                            List<NormalAnnotationExpr> annotationExprs = new ArrayList<>(addSortParams(sortingDomainType,
                                     sortableAnnotation));
                             annotationExprs.addAll(
                                     Arrays.asList(
-                                            createParameter(PAGE_PARAMETER_NAME, "The page number to return."),
-                                            createParameter(SIZE_PARAMETER_NAME, "The page size.")
+                                            createParameter(ResourceNaming.PAGE_PARAM,
+                                                    ResourceNaming.PAGE_PARAM_DESCRIPTION),
+                                            createParameter(ResourceNaming.SIZE_PARAM,
+                                                    ResourceNaming.SIZE_PARAM_DESCRIPTION)
                                     ));
                             return annotationExprs;
                         }
@@ -219,79 +211,54 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
                 orElse(Collections.emptyList());
     }
 
-    private List<String> collectStringValuesFromAnnotation(ClassOrInterfaceDeclaration searchDomainClassDeclaration,
+    private List<String> collectStringValuesFromAnnotation(ProjectModel.TypeModel searchDomainType,
                                                            String annotation) {
         List<String> params = new ArrayList<>();
         if (annotation == null) {
             return params;
         }
-        Optional<AnnotationExpr> annotationExprOptional = searchDomainClassDeclaration.getAnnotationByName(getSimpleNameFromClass(annotation));
-        if (annotationExprOptional.isPresent()) {
-            AnnotationExpr annotationExpr = annotationExprOptional.get();
-                    if (annotationExpr.isNormalAnnotationExpr()) {
-                        if (!annotationExpr.asNormalAnnotationExpr().getPairs().isEmpty()) {
-                            annotationExpr.asNormalAnnotationExpr().getPairs().stream().filter(
-                                    p -> p.getName().asString().equals(
-                                            ANNOTATION_VALUE)
-                            ).forEach(
-                                    p -> {
-                                        Expression value = p.getValue();
-                                        if (value.isStringLiteralExpr()) {
-                                            params.add(value.asStringLiteralExpr().getValue());
-                                        }
-                                        if (value.isArrayInitializerExpr()) {
-                                            params.addAll(value.asArrayInitializerExpr().getValues().stream().filter(
-                                                    Expression::isStringLiteralExpr
-                                            ).map( v -> v.asStringLiteralExpr().asString()).collect(Collectors.toList()));
-                                        }
-                                    }
-                            );
-                        }
-                    }
-                }
+        List<String> values = searchDomainType.getAnnotationValues(getSimpleNameFromClass(annotation));
+        if (values != null) {
+            params.addAll(values);
+        }
         else {
             // look into super class
-            for (ClassOrInterfaceType extendedType : searchDomainClassDeclaration.getExtendedTypes()) {
-                Optional<Node> parent = searchDomainClassDeclaration.getParentNode();
-                if (parent.isPresent()) {
-                    Optional<CompilationUnit> compilationUnitOptional = parent.get().findCompilationUnit();
-                    if (compilationUnitOptional.isPresent()) {
-                        CompilationUnit compilationUnit = compilationUnitOptional.get();
-                        if (getSourceFile(compilationUnit, extendedType).exists()) {
-                            TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
-                                    compilationUnit, extendedType);
-                            return collectStringValuesFromAnnotation(extendTypeDeclaration.asClassOrInterfaceDeclaration(),
-                                    annotation);
-                        }
-                    }
+            for (String supertype : searchDomainType.getSupertypes()) {
+                if (sourceFileExists(getSourceFile(supertype))) {
+                    return collectStringValuesFromAnnotation(getTypeModel(supertype), annotation);
+                }
+                // a super class of a library
+                ClassFileReader.ClassHeader classHeader = context.getClassPathTypes().getType(supertype);
+                if (classHeader != null && classHeader.hasAnnotation(getSimpleNameFromClass(annotation))) {
+                    params.addAll(classHeader.getAnnotationValues(getSimpleNameFromClass(annotation)));
+                    return params;
                 }
-
             }
         }
         return params;
     }
 
-    private List<String> getSortParametersFromClass(ClassOrInterfaceDeclaration searchDomainClassDeclaration,
+    private List<String> getSortParametersFromClass(ProjectModel.TypeModel searchDomainType,
                                                       String sortableAnnotation) {
-        return collectStringValuesFromAnnotation(searchDomainClassDeclaration, sortableAnnotation);
+        return collectStringValuesFromAnnotation(searchDomainType, sortableAnnotation);
     }
 
-    private List<String> getSearchParametersFromClass(ClassOrInterfaceDeclaration searchDomainClassDeclaration,
+    private List<String> getSearchParametersFromClass(ProjectModel.TypeModel searchDomainType,
                                                       String searchableAnnotation) {
-        return collectStringValuesFromAnnotation(searchDomainClassDeclaration, searchableAnnotation);
+        return collectStringValuesFromAnnotation(searchDomainType, searchableAnnotation);
     }
 
     protected List<NormalAnnotationExpr> getPredicateParams(MethodDeclaration methodDeclaration,
-                                                            ClassOrInterfaceDeclaration predicateDomainClassOrInterfaceDeclaration,
+                                                            ProjectModel.TypeModel predicateDomainType,
                                                             String searchableAnnotation) {
-        List<String> searchParams = getSearchParametersFromClass(predicateDomainClassOrInterfaceDeclaration, searchableAnnotation);
+        List<String> searchParams = getSearchParametersFromClass(predicateDomainType, searchableAnnotation);
         if (methodDeclaration.getParameters().stream().anyMatch(p ->
                 p.getType().asString().endsWith(getSimpleNameFromClass(QUERYDSL_PREDICATE_CLASS)))) {
             List<NormalAnnotationExpr> annotationExprs = new ArrayList<>();
             searchParams.forEach(
                     p ->
                             annotationExprs.add(
-                                    createParameter(p, String.format("%s search criteria.", p))
+                                    createParameter(p, ResourceNaming.getSearchParamDescription(p))
                             )
             );
             return annotationExprs;
@@ -300,29 +267,24 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
     }
 
     protected List<NormalAnnotationExpr> getSortParams(MethodDeclaration methodDeclaration,
-                                                       ClassOrInterfaceDeclaration sortingDomainClassOrInterfaceDeclaration,
+                                                       ProjectModel.TypeModel sortingDomainType,
                                                        String sortableAnnotation) {
         if (methodDeclaration.getParameters().stream().anyMatch(p ->
                 p.getType().asString().endsWith(getSimpleNameFromClass(SORT_CLASS)))) {
-            return addSortParams(sortingDomainClassOrInterfaceDeclaration, sortableAnnotation);
+            return addSortParams(sortingDomainType, sortableAnnotation);
         }
         return Collections.emptyList();
     }
 
-    protected List<NormalAnnotationExpr> addSortParams(ClassOrInterfaceDeclaration sortingDomainClassOrInterfaceDeclaration,
+    protected List<NormalAnnotationExpr> addSortParams(ProjectModel.TypeModel sortingDomainType,
                                                        String sortableAnnotation) {
-        List<String> sortParams = getSortParametersFromClass(sortingDomainClassOrInterfaceDeclaration, sortableAnnotation);
+        List<String> sortParams = getSortParametersFromClass(sortingDomainType, sortableAnnotation);
         if (sortParams.isEmpty()) {
             return Collections.emptyList();
         }
         return
                 Collections.singletonList(
-                        createParameter(SORT_PARAM, String.format("The sorting criteria. Multiple sort criteria can be passed with the query with descending priority. Supported are: " +
-                                        "<ul>" +
-                                        "%s" +
-                                        "</ul>",
-                                sortParams.stream().map(s -> String.format("<li><i>sort=%s</i> followed by a comma (,) and either <i>asc</i> or <i>desc</i></li>", s)).collect(Collectors.joining())
-                   ))
+                        createParameter(ResourceNaming.SORT_PARAM, ResourceNaming.getSortParamDescription(sortParams))
                 );
     }
 
@@ -339,30 +301,24 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
                                                                                             List<String> methodParameterClasses,
                                                                                             String searchableAnnotation, String sortableAnnotation) {
         List<NormalAnnotationExpr> parameters = new ArrayList<>();
-        TypeDeclaration extendTypeDeclaration =
-                parseClassOrInterfaceType(classOrInterfaceDeclaration.findCompilationUnit().get(),
+        ProjectModel.TypeModel domainType =
+                getTypeModel(classOrInterfaceDeclaration.findCompilationUnit().get(),
                         getDomainClass(classOrInterfaceDeclaration));
         for (String paramClass : methodParameterClasses) {
             if (paramClass.endsWith(getSimpleNameFromClass(PAGEABLE_CLASS))) {
                 parameters.addAll(getPageableParams(methodDeclaration,
-                        extendTypeDeclaration.asClassOrInterfaceDeclaration(), sortableAnnotation));
+                        domainType, sortableAnnotation));
             } else if (paramClass.endsWith(getSimpleNameFromClass(QUERYDSL_PREDICATE_CLASS))) {
                 parameters.addAll(getPredicateParams(methodDeclaration,
-                        extendTypeDeclaration.asClassOrInterfaceDeclaration(), searchableAnnotation));
+                        domainType, searchableAnnotation));
             } else if (paramClass.endsWith(getSimpleNameFromClass(SORT_CLASS))) {
                 parameters.addAll(getSortParams(methodDeclaration,
-                        extendTypeDeclaration.asClassOrInterfaceDeclaration(), sortableAnnotation));
+                        domainType, sortableAnnotation));
             }
         }
         return parameters;
     }
 
-    protected String createCustomNaming(MethodDeclaration methodDeclaration) {
-        String methodName = methodDeclaration.getNameAsString();
-        methodName = methodName.substring(methodName.indexOf(CUSTOM_METHOD_BY) + CUSTOM_METHOD_BY.length());
-        return methodName;
-    }
-
     protected void addPathParamAnnotation(MethodDeclaration methodDeclaration, String parameterName, boolean required,
                                           String defaultParamDescription) {
         addParameterAnnotation(methodDeclaration, parameterName, JAXRS_PATH_PARAM_CLASS, required, defaultParamDescription);
@@ -384,7 +340,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
                 new NodeList<>(Collections.singletonList(new MemberValuePair(JAXRS_QUERY_PATH_PARAM_VALUE,
                         new StringLiteralExpr(parameterName)))));
         methodDeclaration.getParameters().stream().filter(p -> p.getNameAsString().equals(parameterName)).
-                forEach(p -> p.addAnnotation(jaxRsAnnotationExpr));
+                forEach(p -> context.getChangeTracker().beforeAnnotationChange(p).addAnnotation(jaxRsAnnotationExpr));
         if (required || paramDescription != null) {
             NormalAnnotationExpr openApiAnnotationExpr = new NormalAnnotationExpr(getNameFromClass(PARAMETER_CLASS), new NodeList<>());
             if (required) {
@@ -394,7 +350,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
                 openApiAnnotationExpr.addPair(PARAMETER_DESCRIPTION, new StringLiteralExpr(escapeString(paramDescription)));
             }
             methodDeclaration.getParameters().stream().filter(p -> p.getNameAsString().equals(parameterName)).
-                    forEach(p -> p.addAnnotation(openApiAnnotationExpr));
+                    forEach(p -> context.getChangeTracker().beforeAnnotationChange(p).addAnnotation(openApiAnnotationExpr));
         }
     }
 
@@ -403,7 +359,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
         openApiAnnotationExpr.addPair(PARAMETER_HIDDEN, new BooleanLiteralExpr(true));
         openApiAnnotationExpr.addPair(PARAMETER_NAME, new StringLiteralExpr(escapeString(parameterName)));
         methodDeclaration.getParameters().stream().filter(p -> p.getNameAsString().equals(parameterName)).
-                forEach(p -> p.addAnnotation(openApiAnnotationExpr));
+                forEach(p -> context.getChangeTracker().beforeAnnotationChange(p).addAnnotation(openApiAnnotationExpr));
     }
 
     protected void addJaxRsProducesAnnotation(MethodDeclaration methodDeclaration, String... contentTypes) {
@@ -412,6 +368,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
                         new ArrayInitializerExpr(new NodeList(
                                 Arrays.asList(contentTypes).stream().map(c -> new StringLiteralExpr(c)).collect(Collectors.toList())
                         ))))));
+        context.getChangeTracker().beforeAnnotationChange(methodDeclaration);
         methodDeclaration.addAnnotation(jaxRsProducesAnnotationExpr);
     }
 
@@ -530,7 +487,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
     }
 
     protected void removeMethodParameterAnnotation(MethodDeclaration methodDeclaration, String annotationClass) {
-        methodDeclaration.getParameters().stream().map(Parameter::getAnnotations).forEach(n -> n.removeIf(a -> a.getName().getIdentifier().equals(getSimpleNameFromClass(annotationClass))));
+        methodDeclaration.getParameters().stream().map(p -> context.getChangeTracker().beforeAnnotationChange(p).getAnnotations()).forEach(n -> n.removeIf(a -> a.getName().getIdentifier().equals(getSimpleNameFromClass(annotationClass))));
     }
 
     private String getDomainSummary(CompilationUnit compilationUnit, ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
@@ -538,6 +495,45 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
         return getTypeSummary(compilationUnit, domainClassOrInterfaceType);
     }
 
+    /**
+     * Gets the documentation of a domain type with source code from the cache of the run.
+     *
+     * @param compilationUnit      The compilation unit referencing the type.
+     * @param classOrInterfaceType The type.
+     * @return the domain type.
+     */
+    protected DomainTypeCache.DomainType getDomainType(CompilationUnit compilationUnit,
+                                                       ClassOrInterfaceType classOrInterfaceType) {
+        DomainTypeCache.DomainType domainType = context.getDomainTypeCache().get(
+                getFullClassName(compilationUnit, classOrInterfaceType), this::createDomainType);
+        // the enriched file depends on the domain type also if cached
+        context.getCompilationUnitCache().record(domainType.getSourceFile());
+        return domainType;
+    }
+
+    private DomainTypeCache.DomainType createDomainType(String fqClassName) {
+        ProjectModel.TypeModel typeModel = getTypeModel(fqClassName);
+        String simpleName = getSimpleNameFromClass(fqClassName);
+        String[] description = new String[1];
+        List<String> properties = new ArrayList<>();
+        context.getCompilationUnitCache().read(getSourceFile(fqClassName), c -> {
+            c.getTypes().stream().filter(t -> t.getNameAsString().equals(simpleName)).findFirst().ifPresent(t -> {
+                Javadoc javadoc = getJavadoc(t);
+                if (javadoc != null) {
+                    description[0] = getJavadocDescription(getJavadocText(javadoc));
+                }
+                for (FieldDeclaration fieldDeclaration : t.getFields()) {
+                    if (!fieldDeclaration.isStatic() && !isPropertyIgnored(fieldDeclaration)) {
+                        fieldDeclaration.getVariables().forEach(v -> properties.add(v.getNameAsString()));
+                    }
+                }
+            });
+            return null;
+        });
+        return new DomainTypeCache.DomainType(fqClassName, typeModel.getSourceFile(), typeModel.getJavadocSummary(),
+                description[0], typeModel.isEnum(), properties);
+    }
+
     private boolean isPropertyIgnored(FieldDeclaration fieldDeclaration) {
         if (fieldDeclaration.isAnnotationPresent(getSimpleNameFromClass(JSON_IGNORE_CLASS))) {
             return true;
@@ -565,9 +561,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
         if (!propertyClassOrInterfaceType.isClassOrInterfaceType()) {
             return false;
         }
-        TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(compilationUnit,
-                propertyClassOrInterfaceType.asClassOrInterfaceType());
-        return extendTypeDeclaration.isEnumDeclaration();
+        return getDomainType(compilationUnit, propertyClassOrInterfaceType.asClassOrInterfaceType()).isEnum();
     }
 
     private boolean isPrimitiveObject(Type classOrInterfaceType) {
@@ -622,15 +616,10 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
             return null;
         }
         if (isCollectionObject(classOrInterfaceType)) {
-            return String.format("Array of %s", toLowerCase(getTypeSummary(compilationUnit, getTypeOfCollection(classOrInterfaceType))));
-        }
-        TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(compilationUnit,
-                classOrInterfaceType.asClassOrInterfaceType());
-        Javadoc javadoc = getJavadoc(extendTypeDeclaration);
-        if (javadoc == null) {
-            return null;
+            return ResourceNaming.getArraySummary(getTypeSummary(compilationUnit,
+                    getTypeOfCollection(classOrInterfaceType)));
         }
-        return getJavadocSummary(getJavadocText(javadoc));
+        return getDomainType(compilationUnit, classOrInterfaceType.asClassOrInterfaceType()).getSummary();
     }
 
     protected NormalAnnotationExpr createRequestBodyAnnotation(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
@@ -682,6 +671,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
     protected MethodDeclaration addInterfaceMethod(ClassOrInterfaceDeclaration classOrInterfaceDeclaration,
                                                    String methodName, Type returnType,
                                                    Parameter... parameters) {
+        context.getChangeTracker().beforeMemberChange(classOrInterfaceDeclaration);
         return classOrInterfaceDeclaration.addMethod(methodName,
                 Modifier.Keyword.PUBLIC).setParameters(
                 new NodeList(Arrays.asList(parameters))).setType(returnType).removeBody().removeModifier(
@@ -707,7 +697,8 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
                         ifPresent(
                                 c -> {
                                     annotationExpr.addPair(OPERATION_ID, new StringLiteralExpr(
-                                            c.getName().getIdentifier() + UNDERSCORE + methodDeclaration.getNameAsString()));
+                                            ResourceNaming.getOperationId(c.getName().getIdentifier(),
+                                                    methodDeclaration.getNameAsString())));
                                 }
                         )
         );
@@ -726,6 +717,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
         if (responses != null && !responses.isEmpty()) {
             annotationExpr.addPair(OPERATION_RESPONSES, new ArrayInitializerExpr(new NodeList(responses)));
         }
+        context.getChangeTracker().beforeAnnotationChange(methodDeclaration);
         methodDeclaration.addAnnotation(annotationExpr);
     }
 
@@ -800,6 +792,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
         if (checkIfExtendingCrudInterface(classOrInterfaceDeclaration)) {
             // if a resource annotation was added it is marked as user added method and will not be removed
             if (!checkResourceAnnotationPresent(methodDeclaration).isPresent() && !isHidden(methodDeclaration)) {
+                context.getChangeTracker().beforeRemove(methodDeclaration);
                 methodDeclaration.remove();
             }
         }
@@ -817,6 +810,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
         if (checkIfExtendingQuerydslInterface(classOrInterfaceDeclaration)) {
             // if a resource annotation was added it is marked as user added method
             if (!checkResourceAnnotationPresent(methodDeclaration).isPresent()) {
+                context.getChangeTracker().beforeRemove(methodDeclaration);
                 methodDeclaration.remove();
             }
         }
@@ -897,7 +891,8 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
      * Method to search methods matching a name and the passed parameter types, which should be passed as FQ class name.
      * <p>
      * The default {@link ClassOrInterfaceDeclaration#getMethodsBySignature(String, String...)} is not checking
-     * if a FQ class name or simple class name is passed.
+     * if a FQ class name or simple class name is passed. The methods are looked up in the {@link MethodIndex} of the
+     * declaration.
      * </p>
      *
      * @param classOrInterfaceDeclaration The class or interface declaration.
@@ -912,36 +907,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
         if (repositoryMethodsOnly && !checkIfExtendingRepository(classOrInterfaceDeclaration)) {
             return null;
         }
-        List<MethodDeclaration> methodDeclarations = classOrInterfaceDeclaration.getMethodsByName(methodName);
-        // align FQ names to simple names if necessary
-        for (MethodDeclaration methodDeclaration : methodDeclarations) {
-            List<String> inspectedMethodParams = new ArrayList<>();
-            List<String> targetMethodParams = new ArrayList<>();
-            if (methodDeclaration.getParameters().size() != paramTypes.length) {
-                continue;
-            }
-            for (int i = 0; i < methodDeclaration.getParameters().size(); i++) {
-                if (methodDeclaration.getParameter(i).getTypeAsString().contains(DOT) &&
-                        !paramTypes[i].contains(DOT)) {
-                    inspectedMethodParams.add(getSimpleNameFromClass(methodDeclaration.getParameter(i).
-                            getTypeAsString()));
-                    targetMethodParams.add(paramTypes[i]);
-                } else if (paramTypes[i].contains(DOT) &&
-                        !methodDeclaration.getParameter(i).getTypeAsString().contains(DOT)) {
-                    inspectedMethodParams.add(methodDeclaration.getParameter(i).
-                            getTypeAsString());
-                    targetMethodParams.add(getSimpleNameFromClass(paramTypes[i]));
-                } else {
-                    inspectedMethodParams.add(methodDeclaration.getParameter(i).
-                            getTypeAsString());
-                    targetMethodParams.add(paramTypes[i]);
-                }
-            }
-            if (inspectedMethodParams.equals(targetMethodParams)) {
-                return methodDeclaration;
-            }
-        }
-        return null;
+        return MethodIndex.of(classOrInterfaceDeclaration).find(methodName, paramTypes);
     }
 
     protected MethodDeclaration findClosestMethod(ClassOrInterfaceDeclaration classOrInterfaceDeclaration,
@@ -953,7 +919,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
         }
         // check in implementations, too
         for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
-            if (getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent).exists()) {
+            if (sourceFileExists(getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent))) {
                 TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
                         classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
                 methodDeclaration = findClosestMethod(extendTypeDeclaration.asClassOrInterfaceDeclaration(),
@@ -975,7 +941,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
                 ).collect(Collectors.toList());
         // check in implementations, too
         for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
-            if (getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent).exists()) {
+            if (sourceFileExists(getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent))) {
                 TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
                         classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
                 List<MethodDeclaration> otherMethodDeclarations = findCustomMethods(
@@ -1022,7 +988,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
         }
         // check in implementations, too
         for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
-            if (getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent).exists()) {
+            if (sourceFileExists(getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent))) {
                 TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
                         classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
                 AnnotationExpr annotationExpr = findClosestMethodResourceAnnotation(
@@ -1047,7 +1013,7 @@ public abstract class ResourceMethodHandler extends ResourceHandler {
         }
         // check in implementations, too
         for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
-            if (getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent).exists()) {
+            if (sourceFileExists(getSourceFile(classOrInterfaceDeclaration.findCompilationUnit().get(), extent))) {
                 TypeDeclaration extendTypeDeclaration = parseClassOrInterfaceType(
                         classOrInterfaceDeclaration.findCompilationUnit().get(), extent);
                 Javadoc javadoc = findClosestMethodJavadoc(extendTypeDeclaration.asClassOrInterfaceDeclaration(),
@@ -0,0 +1,232 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The naming conventions of Spring Data REST for the paths, methods and operations of a repository.
+ * <p>
+ * The conventions do not depend on the source model: types are passed by their simple names and the documentation as
+ * Javadoc text. The handlers apply them to the source code parsed by JavaParser, the {@link ElementOperationCollector}
+ * to the elements of javac, so both produce the same operations.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class ResourceNaming {
+
+    public static final String FIND_BY_ID_METHOD = "findById";
+    public static final String DELETE_BY_ID_METHOD = "deleteById";
+    public static final String FIND_ALL_METHOD = "findAll";
+    public static final String SAVE_METHOD = "save";
+    public static final String UPDATE_METHOD = "update";
+    public static final String PATCH_METHOD = "patch";
+
+    public static final String CUSTOM_FIND_METHOD_PREFIX = "findBy";
+    public static final String CUSTOM_DELETE_METHOD_PREFIX = "deleteBy";
+    public static final String CUSTOM_REMOVE_METHOD_PREFIX = "removeBy";
+
+    public static final String ID_PARAM = "id";
+    public static final String ID_PARAM_DESCRIPTION = "The database id.";
+    public static final String ID_PATH = "{id}";
+
+    public static final String PAGE_PARAM = "page";
+    public static final String PAGE_PARAM_DESCRIPTION = "The page number to return.";
+    public static final String SIZE_PARAM = "size";
+    public static final String SIZE_PARAM_DESCRIPTION = "The page size.";
+    public static final String SORT_PARAM = "sort";
+    public static final String NO_DESCRIPTION = "No description";
+
+    public static final String CUSTOM_REPOSITORY_NAME_TEMPLATE = "Custom%sRepository";
+
+    private static final String SEARCH_PATH = "search/";
+    private static final String PLURAL_S = "s";
+    private static final String UNDERSCORE = "_";
+    private static final String CUSTOM_METHOD_BY = "By";
+    private static final String COMMA = ",";
+    private static final String SPACE_STRING = " ";
+    private static final String EMPTY_STRING = "";
+    private static final String PARAGRAPH_START = "<p>";
+    private static final String PARAGRAPH_END = "</p>";
+
+    private ResourceNaming() {
+    }
+
+    // paths
+
+    /**
+     * Gets the default path of the repository of a domain type.
+     *
+     * @param domainName The simple name of the domain type.
+     * @return the path without leading slash.
+     */
+    public static String getDomainPath(String domainName) {
+        return toLowerCase(domainName) + PLURAL_S;
+    }
+
+    /**
+     * Gets the path of a method by id.
+     *
+     * @param methodPath The path of the <code>RestResource</code> annotation of the method or <code>null</code>.
+     * @return the path relative to the path of the repository.
+     */
+    public static String getMethodByIdPath(String methodPath) {
+        return methodPath == null ? ID_PATH : methodPath + ID_PATH;
+    }
+
+    /**
+     * Gets the path of a custom finder or remover.
+     *
+     * @param methodPath The path of the <code>RestResource</code> annotation of the method or the method name.
+     * @return the path relative to the path of the repository.
+     */
+    public static String getSearchPath(String methodPath) {
+        return SEARCH_PATH + methodPath;
+    }
+
+    // names
+
+    public static String getTagName(String domainName) {
+        return String.format("%s Methods", domainName);
+    }
+
+    /**
+     * Gets the id of the operation of a method.
+     *
+     * @param typeName   The simple name of the interface declaring the method.
+     * @param methodName The method name.
+     * @return the operation id.
+     */
+    public static String getOperationId(String typeName, String methodName) {
+        return typeName + UNDERSCORE + methodName;
+    }
+
+    public static String getCustomRepositoryName(String domainName) {
+        return String.format(CUSTOM_REPOSITORY_NAME_TEMPLATE, domainName);
+    }
+
+    public static boolean isCustomFinder(String methodName) {
+        return methodName.startsWith(CUSTOM_FIND_METHOD_PREFIX) && !methodName.equals(FIND_BY_ID_METHOD);
+    }
+
+    public static boolean isCustomRemover(String methodName) {
+        return (methodName.startsWith(CUSTOM_REMOVE_METHOD_PREFIX) ||
+                methodName.startsWith(CUSTOM_DELETE_METHOD_PREFIX)) && !methodName.equals(DELETE_BY_ID_METHOD);
+    }
+
+    /**
+     * Gets the criteria of a custom method, the part of the method name after <code>By</code>.
+     *
+     * @param methodName The method name.
+     * @return the criteria.
+     */
+    public static String getCustomNaming(String methodName) {
+        return methodName.substring(methodName.indexOf(CUSTOM_METHOD_BY) + CUSTOM_METHOD_BY.length());
+    }
+
+    public static String toLowerCase(String string) {
+        return string.substring(0, 1).toLowerCase() + string.substring(1);
+    }
+
+    // default summaries
+
+    public static String getFindByIdSummary(String domainName) {
+        return String.format("Gets a(n) %s by its id.", domainName);
+    }
+
+    public static String getDeleteByIdSummary(String domainName) {
+        return String.format("Deletes a(n) %s by its id.", domainName);
+    }
+
+    public static String getCreateSummary(String domainName) {
+        return String.format("Creates a(n) %s.", domainName);
+    }
+
+    public static String getUpdateSummary(String domainName) {
+        return String.format("Updates a(n) %s.", domainName);
+    }
+
+    public static String getPatchSummary(String domainName) {
+        return String.format("Patches a(n) %s.", domainName);
+    }
+
+    public static String getFindAllSummary(String domainName, boolean paged) {
+        return paged ? String.format("Finds all %ss and returns the result paginated.", domainName) :
+                String.format("Finds all %ss and returns the result as array.", domainName);
+    }
+
+    /**
+     * @param methodName     The method name.
+     * @param parameterNames The names of the parameters which are not pageable or sort parameters.
+     * @return the summary.
+     */
+    public static String getCustomFinderSummary(String methodName, List<String> parameterNames) {
+        return String.format("Custom finder by %s for %s.", getCustomNaming(methodName),
+                String.join(COMMA, parameterNames));
+    }
+
+    public static String getCustomRemoverSummary(String methodName, List<String> parameterNames) {
+        return String.format("Custom remover by %s for %s.", getCustomNaming(methodName),
+                String.join(COMMA, parameterNames));
+    }
+
+    // response and parameter descriptions
+
+    public static String getPageSummary(String domainSummary) {
+        return String.format("Paged view with list of: %s", domainSummary);
+    }
+
+    public static String getArraySummary(String elementSummary) {
+        return String.format("Array of %s", toLowerCase(elementSummary));
+    }
+
+    public static String getSearchParamDescription(String property) {
+        return String.format("%s search criteria.", property);
+    }
+
+    public static String getSortParamDescription(List<String> properties) {
+        return String.format("The sorting criteria. Multiple sort criteria can be passed with the query with " +
+                        "descending priority. Supported are: <ul>%s</ul>",
+                properties.stream().map(s -> String.format("<li><i>sort=%s</i> followed by a comma (,) and either " +
+                        "<i>asc</i> or <i>desc</i></li>", s)).collect(Collectors.joining()));
+    }
+
+    // javadoc
+
+    public static String getJavadocSummary(String javadoc) {
+        String[] commentParts = javadoc.split(PARAGRAPH_START);
+        return commentParts[0].trim();
+    }
+
+    public static String getJavadocDescription(String javadoc) {
+        String[] commentParts = javadoc.split(PARAGRAPH_START);
+        if (commentParts.length > 1) {
+            String description = commentParts[1].trim();
+            if (description.endsWith(PARAGRAPH_START)) {
+                description = description.substring(0, description.length() - PARAGRAPH_START.length());
+            }
+            if (description.endsWith(PARAGRAPH_END)) {
+                description = description.substring(0, description.length() - PARAGRAPH_END.length());
+            }
+            return description;
+        }
+        return null;
+    }
+
+    /**
+     * Escapes a text for a string member of an annotation. Line breaks and whitespace are collapsed, HTML tags and
+     * quotation marks escaped.
+     *
+     * @param string The text.
+     * @return the escaped text.
+     */
+    public static String escapeString(String string) {
+        return string.trim().replace("\n", SPACE_STRING).
+                replace("\r", EMPTY_STRING).
+                replace("<", "&lt;").
+                replace(">", "&gt;").
+                replace("\"", "\\\"").
+                replaceAll("\\s+", SPACE_STRING);
+    }
+}
@@ -0,0 +1,680 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Counters and timings of a single {@link Enricher#enrich()} run.
+ * <p>
+ * The times of the phases and handlers are measured per invocation and summed up over all threads. They are inclusive,
+ * e.g. the time of a handler contains the time for parsing the supertypes it has looked up. Only the wall time is the
+ * elapsed time of the whole run.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class RunMetrics {
+
+    /**
+     * Walking the source path, without enriching the files in a sequential run.
+     */
+    public static final String WALK = "walk";
+
+    /**
+     * Loading, checking and saving the manifest.
+     */
+    public static final String MANIFEST = "manifest";
+
+    /**
+     * Loading and saving the persistent index of the type models.
+     */
+    public static final String INDEX = "index";
+
+    /**
+     * Parsing source files.
+     */
+    public static final String PARSE = "parse";
+
+    /**
+     * Building the project model.
+     */
+    public static final String PROJECT_MODEL = "projectModel";
+
+    /**
+     * Resolving the repository type hierarchy.
+     */
+    public static final String HIERARCHY = "hierarchy";
+
+    /**
+     * Determining the source files affected by a file for scheduling a parallel run.
+     */
+    public static final String DEPENDENCIES = "dependencies";
+
+    /**
+     * Enriching a source file with all handlers.
+     */
+    public static final String HANDLE = "handle";
+
+    /**
+     * The pre-filtering of the source files without repository.
+     */
+    public static final String FILTER = "filter";
+
+    /**
+     * Writing source files.
+     */
+    public static final String WRITE = "write";
+
+    /**
+     * Writing the patch files.
+     */
+    public static final String PATCH = "patch";
+
+    /**
+     * Writing the OpenAPI document.
+     */
+    public static final String OPENAPI = "openApi";
+
+    private static final double NANOS_PER_MILLI = 1000000d;
+
+    private final AtomicLong visitedFiles = new AtomicLong();
+
+    private final AtomicLong includedFiles = new AtomicLong();
+
+    private final AtomicLong excludedFiles = new AtomicLong();
+
+    private final AtomicLong parsedFiles = new AtomicLong();
+
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    private final AtomicLong writtenFiles = new AtomicLong();
+
+    private final AtomicLong cacheEvictions = new AtomicLong();
+
+    private final AtomicLong cacheReparses = new AtomicLong();
+
+    private final AtomicLong classFiles = new AtomicLong();
+
+    private final AtomicLong indexedTypeModels = new AtomicLong();
+
+    /**
+     * The written source files by canonical path.
+     */
+    private final ConcurrentMap<String, WrittenFile> changedFiles = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Timer> phases = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Timer> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * The stages of the {@link EnrichmentPipeline} in the order of the pipeline.
+     */
+    private final Map<String, Stage> stages = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private volatile long prunedDirectories;
+
+    private volatile long processedFiles;
+
+    private volatile long skippedFiles;
+
+    private volatile long filteredFiles;
+
+    private volatile long cacheHits;
+
+    private volatile long domainTypeHits;
+
+    private volatile long domainTypeMisses;
+
+    private volatile long wallTime;
+
+    /**
+     * Starts a measurement.
+     *
+     * @return the start time to pass to {@link #stop(String, long)} or {@link #stopHandler(Object, long)}.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Stops the measurement of a phase.
+     *
+     * @param phase The phase.
+     * @param start The start time returned by {@link #start()}.
+     */
+    public void stop(String phase, long start) {
+        phases.computeIfAbsent(phase, p -> new Timer()).add(System.nanoTime() - start);
+    }
+
+    /**
+     * Stops the measurement of a handler.
+     *
+     * @param handler The handler. The time is recorded for its class.
+     * @param start   The start time returned by {@link #start()}.
+     */
+    public void stopHandler(Object handler, long start) {
+        handlers.computeIfAbsent(handler.getClass().getSimpleName(), h -> new Timer()).add(System.nanoTime() - start);
+    }
+
+    public void incrementVisitedFiles() {
+        visitedFiles.incrementAndGet();
+    }
+
+    public void incrementIncludedFiles() {
+        includedFiles.incrementAndGet();
+    }
+
+    public void incrementExcludedFiles() {
+        excludedFiles.incrementAndGet();
+    }
+
+    /**
+     * Records the parsing of a source file.
+     *
+     * @param bytes The number of bytes read from disk for it.
+     */
+    public void recordParse(long bytes) {
+        parsedFiles.incrementAndGet();
+        bytesRead.addAndGet(bytes);
+    }
+
+    /**
+     * Records the eviction of a compilation unit from the cache because the heap budget was exceeded.
+     */
+    public void recordEviction() {
+        cacheEvictions.incrementAndGet();
+    }
+
+    /**
+     * Records the parsing of a source file whose compilation unit had been evicted from the cache.
+     */
+    public void recordReparse() {
+        cacheReparses.incrementAndGet();
+    }
+
+    /**
+     * Records the reading of a class file of a type without source code.
+     *
+     * @param bytes The number of bytes read for it.
+     */
+    public void recordClassFile(long bytes) {
+        classFiles.incrementAndGet();
+        bytesRead.addAndGet(bytes);
+    }
+
+    public long getClassFiles() {
+        return classFiles.get();
+    }
+
+    /**
+     * Records a type model read from the persistent index instead of parsing its source file.
+     */
+    public void recordIndexedTypeModel() {
+        indexedTypeModels.incrementAndGet();
+    }
+
+    public long getIndexedTypeModels() {
+        return indexedTypeModels.get();
+    }
+
+    public long getCacheEvictions() {
+        return cacheEvictions.get();
+    }
+
+    public long getCacheReparses() {
+        return cacheReparses.get();
+    }
+
+    /**
+     * Records bytes read from disk.
+     *
+     * @param bytes The number of bytes.
+     */
+    public void recordRead(long bytes) {
+        bytesRead.addAndGet(bytes);
+    }
+
+    /**
+     * Records the writing of a source file. A source file is changed if the last written content differs from the
+     * content before the first write, so a file modified and restored by several handlers is not changed.
+     *
+     * @param file     The canonical path of the source file.
+     * @param original The supplier for the content before the first write, <code>null</code> if the file did not exist.
+     *                 It is only called on the first write of the source file.
+     * @param content  The written content.
+     */
+    public void recordWrite(String file, Supplier<String> original, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        writtenFiles.incrementAndGet();
+        bytesWritten.addAndGet(bytes.length);
+        WrittenFile writtenFile = changedFiles.computeIfAbsent(file, f -> {
+            String originalContent = original.get();
+            return new WrittenFile(originalContent == null ? null :
+                    Manifest.hash(originalContent.getBytes(StandardCharsets.UTF_8)));
+        });
+        // writes of the same file are never concurrent
+        writtenFile.changed = !Manifest.hash(bytes).equals(writtenFile.originalHash);
+    }
+
+    public void setPrunedDirectories(long prunedDirectories) {
+        this.prunedDirectories = prunedDirectories;
+    }
+
+    public void setProcessedFiles(long processedFiles) {
+        this.processedFiles = processedFiles;
+    }
+
+    public void setSkippedFiles(long skippedFiles) {
+        this.skippedFiles = skippedFiles;
+    }
+
+    public void setFilteredFiles(long filteredFiles) {
+        this.filteredFiles = filteredFiles;
+    }
+
+    public void setCacheHits(long cacheHits) {
+        this.cacheHits = cacheHits;
+    }
+
+    /**
+     * Sets the lookups of the domain type cache.
+     *
+     * @param hits   The lookups served from the cache.
+     * @param misses The lookups creating a domain type.
+     */
+    public void setDomainTypeLookups(long hits, long misses) {
+        this.domainTypeHits = hits;
+        this.domainTypeMisses = misses;
+    }
+
+    public long getDomainTypeHits() {
+        return domainTypeHits;
+    }
+
+    public long getDomainTypeMisses() {
+        return domainTypeMisses;
+    }
+
+    /**
+     * Sets the elapsed time of the run.
+     *
+     * @param start The start time returned by {@link #start()}.
+     */
+    public void setWallTime(long start) {
+        this.wallTime = System.nanoTime() - start;
+    }
+
+    public long getProcessedFiles() {
+        return processedFiles;
+    }
+
+    public long getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    /**
+     * Gets the number of source files skipped without parsing because they cannot contain a repository.
+     *
+     * @return the number of filtered files.
+     */
+    public long getFilteredFiles() {
+        return filteredFiles;
+    }
+
+    /**
+     * Gets the elapsed time of the run.
+     *
+     * @return the formatted time in milliseconds.
+     */
+    public String getWallTimeMillis() {
+        return formatMillis(wallTime);
+    }
+
+    public long getVisitedFiles() {
+        return visitedFiles.get();
+    }
+
+    public long getIncludedFiles() {
+        return includedFiles.get();
+    }
+
+    public long getExcludedFiles() {
+        return excludedFiles.get();
+    }
+
+    /**
+     * Gets the number of parsed source files. A source file parsed again after it was written, e.g. a supertype, is
+     * counted again.
+     *
+     * @return the number of parsed files.
+     */
+    public long getParsedFiles() {
+        return parsedFiles.get();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Gets the number of write operations. A source file written by several handlers is counted for each write.
+     *
+     * @return the number of writes.
+     */
+    public long getWrittenFiles() {
+        return writtenFiles.get();
+    }
+
+    /**
+     * Gets the number of distinct source files whose content was changed by a write.
+     *
+     * @return the number of changed files.
+     */
+    public long getChangedFiles() {
+        return changedFiles.values().stream().filter(f -> f.changed).count();
+    }
+
+    /**
+     * Gets the source files whose content was changed by a write.
+     *
+     * @return the canonical paths of the changed files.
+     */
+    public Set<String> getChangedSourceFiles() {
+        Set<String> files = new TreeSet<>();
+        changedFiles.forEach((file, writtenFile) -> {
+            if (writtenFile.changed) {
+                files.add(file);
+            }
+        });
+        return files;
+    }
+
+    /**
+     * Gets the accumulated time of a phase.
+     *
+     * @param phase The phase.
+     * @return the time in nanoseconds.
+     */
+    public long getPhaseTime(String phase) {
+        Timer timer = phases.get(phase);
+        return timer == null ? 0 : timer.nanos.get();
+    }
+
+    /**
+     * Gets the accumulated times of the handlers.
+     *
+     * @return the times in nanoseconds by simple class name of the handler.
+     */
+    public Map<String, Long> getHandlerTimes() {
+        Map<String, Long> times = new TreeMap<>();
+        handlers.forEach((h, t) -> times.put(h, t.nanos.get()));
+        return times;
+    }
+
+    /**
+     * Records a stage of the {@link EnrichmentPipeline}.
+     *
+     * @param stage         The stage.
+     * @param files         The number of files passed through the stage.
+     * @param nanos         The accumulated busy time of the stage.
+     * @param maxQueueDepth The maximum number of files waiting for the stage.
+     */
+    public void recordStage(String stage, long files, long nanos, long maxQueueDepth) {
+        stages.put(stage, new Stage(files, nanos, maxQueueDepth));
+    }
+
+    /**
+     * Gets the number of files passed through a stage of the {@link EnrichmentPipeline}.
+     *
+     * @param stage The stage.
+     * @return the number of files.
+     */
+    public long getStageFiles(String stage) {
+        Stage counters = stages.get(stage);
+        return counters == null ? 0 : counters.files;
+    }
+
+    /**
+     * Gets the maximum number of files waiting for a stage of the {@link EnrichmentPipeline}.
+     *
+     * @param stage The stage.
+     * @return the maximum queue depth.
+     */
+    public long getStageMaxQueueDepth(String stage) {
+        Stage counters = stages.get(stage);
+        return counters == null ? 0 : counters.maxQueueDepth;
+    }
+
+    /**
+     * Creates a JSON report of the metrics.
+     *
+     * @return the JSON document.
+     */
+    public String toJson() {
+        Map<String, Long> files = new LinkedHashMap<>();
+        files.put("visited", getVisitedFiles());
+        files.put("included", getIncludedFiles());
+        files.put("excluded", getExcludedFiles());
+        files.put("prunedDirectories", prunedDirectories);
+        files.put("processed", processedFiles);
+        files.put("skipped", skippedFiles);
+        files.put("filtered", filteredFiles);
+        files.put("parsed", getParsedFiles());
+        files.put("classFiles", getClassFiles());
+        files.put("indexed", getIndexedTypeModels());
+        files.put("cacheHits", cacheHits);
+        files.put("cacheEvictions", getCacheEvictions());
+        files.put("cacheReparses", getCacheReparses());
+        files.put("written", getWrittenFiles());
+        files.put("changed", getChangedFiles());
+        Map<String, Long> bytes = new LinkedHashMap<>();
+        bytes.put("read", getBytesRead());
+        bytes.put("written", getBytesWritten());
+        Map<String, Long> domainTypes = new LinkedHashMap<>();
+        domainTypes.put("hits", domainTypeHits);
+        domainTypes.put("misses", domainTypeMisses);
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"wallTimeMillis\": ").append(formatMillis(wallTime)).append(",\n");
+        appendCounters(json, "files", files);
+        json.append(",\n");
+        appendCounters(json, "bytes", bytes);
+        json.append(",\n");
+        appendCounters(json, "domainTypes", domainTypes);
+        json.append(",\n");
+        appendTimers(json, "phases", phases);
+        json.append(",\n");
+        appendTimers(json, "handlers", handlers);
+        if (!stages.isEmpty()) {
+            json.append(",\n");
+            appendStages(json);
+        }
+        json.append("\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Writes the JSON report of the metrics.
+     *
+     * @param file The report file.
+     */
+    public void writeJson(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new RuntimeException(String.format("Could not create directory: %s", parent));
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not write metrics file: %s", file), e);
+        }
+    }
+
+    /**
+     * Creates a short summary of the metrics for the console.
+     *
+     * @return the summary lines.
+     */
+    public List<String> getSummary() {
+        List<String> summary = new ArrayList<>();
+        summary.add(String.format("Run took %s ms: visited %d files, included %d, excluded %d, filtered %d, " +
+                        "parsed %d, indexed %d, changed %d.", formatMillis(wallTime), getVisitedFiles(),
+                getIncludedFiles(), getExcludedFiles(), filteredFiles, getParsedFiles(), getIndexedTypeModels(),
+                getChangedFiles()));
+        summary.add(String.format("Read %d bytes and %d class files, wrote %d bytes in %d writes.", getBytesRead(),
+                getClassFiles(), getBytesWritten(), getWrittenFiles()));
+        summary.add(String.format("Evicted %d parsed files from the cache, parsed %d evicted files again.",
+                getCacheEvictions(), getCacheReparses()));
+        long domainTypeLookups = domainTypeHits + domainTypeMisses;
+        summary.add(String.format(Locale.ROOT, "Looked up %d domain types, %d served from cache (%.1f%%).",
+                domainTypeLookups, domainTypeHits,
+                domainTypeLookups == 0 ? 0d : 100d * domainTypeHits / domainTypeLookups));
+        summary.add(String.format("Phases (ms): %s", formatTimes(phases)));
+        summary.add(String.format("Handlers (ms): %s", formatTimes(handlers)));
+        if (!stages.isEmpty()) {
+            summary.add(String.format("Stages (files/max queue depth/files per s): %s", formatStages()));
+        }
+        return summary;
+    }
+
+    private static void appendCounters(StringBuilder json, String name, Map<String, Long> counters) {
+        json.append("  \"").append(name).append("\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Long> counter : counters.entrySet()) {
+            json.append(separator).append("    \"").append(counter.getKey()).append("\": ").append(counter.getValue());
+            separator = ",\n";
+        }
+        json.append("\n  }");
+    }
+
+    private static void appendTimers(StringBuilder json, String name, Map<String, Timer> timers) {
+        json.append("  \"").append(name).append("\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Timer> timer : new TreeMap<>(timers).entrySet()) {
+            json.append(separator).append("    \"").append(timer.getKey()).append("\": {\"count\": ").
+                    append(timer.getValue().count.get()).append(", \"millis\": ").
+                    append(formatMillis(timer.getValue().nanos.get())).append('}');
+            separator = ",\n";
+        }
+        json.append(separator.equals("\n") ? "}" : "\n  }");
+    }
+
+    private void appendStages(StringBuilder json) {
+        json.append("  \"stages\": {");
+        String separator = "\n";
+        synchronized (stages) {
+            for (Map.Entry<String, Stage> stage : stages.entrySet()) {
+                json.append(separator).append("    \"").append(stage.getKey()).append("\": {\"files\": ").
+                        append(stage.getValue().files).append(", \"millis\": ").
+                        append(formatMillis(stage.getValue().nanos)).append(", \"maxQueueDepth\": ").
+                        append(stage.getValue().maxQueueDepth).append(", \"filesPerSecond\": ").
+                        append(stage.getValue().getThroughput()).append('}');
+                separator = ",\n";
+            }
+        }
+        json.append("\n  }");
+    }
+
+    private String formatStages() {
+        StringBuilder text = new StringBuilder();
+        synchronized (stages) {
+            for (Map.Entry<String, Stage> stage : stages.entrySet()) {
+                if (text.length() > 0) {
+                    text.append(", ");
+                }
+                text.append(stage.getKey()).append('=').append(stage.getValue().files).append('/').
+                        append(stage.getValue().maxQueueDepth).append('/').append(stage.getValue().getThroughput());
+            }
+        }
+        return text.toString();
+    }
+
+    private static String formatTimes(Map<String, Timer> timers) {
+        StringBuilder times = new StringBuilder();
+        for (Map.Entry<String, Timer> timer : new TreeMap<>(timers).entrySet()) {
+            if (times.length() > 0) {
+                times.append(", ");
+            }
+            times.append(timer.getKey()).append('=').append(formatMillis(timer.getValue().nanos.get()));
+        }
+        return times.toString();
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI);
+    }
+
+    private static class WrittenFile {
+
+        /**
+         * The hash of the content before the first write or <code>null</code> if the file did not exist.
+         */
+        private final String originalHash;
+
+        private volatile boolean changed;
+
+        private WrittenFile(String originalHash) {
+            this.originalHash = originalHash;
+        }
+    }
+
+    private static class Stage {
+
+        private final long files;
+
+        /**
+         * The busy time summed up over all threads of the stage.
+         */
+        private final long nanos;
+
+        private final long maxQueueDepth;
+
+        private Stage(long files, long nanos, long maxQueueDepth) {
+            this.files = files;
+            this.nanos = nanos;
+            this.maxQueueDepth = maxQueueDepth;
+        }
+
+        /**
+         * Gets the files passed per second of busy time.
+         */
+        private String getThroughput() {
+            return String.format(Locale.ROOT, "%.1f", nanos == 0 ? 0d : files * NANOS_PER_MILLI * 1000d / nanos);
+        }
+    }
+
+    private static class Timer {
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        private void add(long nanos) {
+            count.incrementAndGet();
+            this.nanos.addAndGet(nanos);
+        }
+    }
+}
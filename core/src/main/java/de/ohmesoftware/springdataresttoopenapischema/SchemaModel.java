@@ -0,0 +1,160 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.util.List;
+
+/**
+ * Model of the domain types written as schemas to the components of an {@link OpenApiDocument}.
+ * <p>
+ * The model does not depend on the source model. The {@link SourceSchemaModel} reads the types from the source code
+ * parsed by JavaParser, the {@link ElementSchemaModel} from the elements of javac.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public interface SchemaModel {
+
+    /**
+     * Checks if a type has source code and is written as schema.
+     *
+     * @param qualifiedName The fully qualified class name.
+     * @return <code>true</code> if the type has source code.
+     */
+    boolean contains(String qualifiedName);
+
+    /**
+     * Gets a type with source code.
+     *
+     * @param qualifiedName The fully qualified class name.
+     * @return the type or <code>null</code> if the type has no source code.
+     */
+    SchemaType getType(String qualifiedName);
+
+    /**
+     * A domain type.
+     */
+    class SchemaType {
+
+        private final boolean _enum;
+        private final String javadocSummary;
+        private final List<String> enumConstants;
+        private final List<SchemaProperty> properties;
+
+        public SchemaType(boolean _enum, String javadocSummary, List<String> enumConstants,
+                          List<SchemaProperty> properties) {
+            this._enum = _enum;
+            this.javadocSummary = javadocSummary;
+            this.enumConstants = enumConstants;
+            this.properties = properties;
+        }
+
+        public boolean isEnum() {
+            return _enum;
+        }
+
+        /**
+         * @return the summary of the Javadoc or <code>null</code> if the type is not documented.
+         */
+        public String getJavadocSummary() {
+            return javadocSummary;
+        }
+
+        public List<String> getEnumConstants() {
+            return enumConstants;
+        }
+
+        /**
+         * @return the properties of the fields, starting with the fields of the superclasses.
+         */
+        public List<SchemaProperty> getProperties() {
+            return properties;
+        }
+    }
+
+    /**
+     * A property of a domain type.
+     */
+    class SchemaProperty {
+
+        private final String name;
+        private final TypeReference type;
+        private final String description;
+        private final String access;
+
+        /**
+         * Constructor.
+         *
+         * @param name        The name.
+         * @param type        The type.
+         * @param description The description of the <code>Schema</code> annotation or the Javadoc summary or
+         *                    <code>null</code>.
+         * @param access      The access of the <code>JsonProperty</code> annotation or <code>null</code>.
+         */
+        public SchemaProperty(String name, TypeReference type, String description, String access) {
+            this.name = name;
+            this.type = type;
+            this.description = description;
+            this.access = access;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public TypeReference getType() {
+            return type;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getAccess() {
+            return access;
+        }
+    }
+
+    /**
+     * A type as used by a property.
+     */
+    class TypeReference {
+
+        private final String name;
+        private final String qualifiedName;
+        private final TypeReference componentType;
+        private final List<TypeReference> typeArguments;
+
+        /**
+         * Constructor.
+         *
+         * @param name          The simple name, the name of a primitive type or <code>Object</code> for a type
+         *                      variable or wildcard.
+         * @param qualifiedName The fully qualified class name or <code>null</code> if not known.
+         * @param componentType The component type of an array or <code>null</code>.
+         * @param typeArguments The type arguments.
+         */
+        public TypeReference(String name, String qualifiedName, TypeReference componentType,
+                             List<TypeReference> typeArguments) {
+            this.name = name;
+            this.qualifiedName = qualifiedName;
+            this.componentType = componentType;
+            this.typeArguments = typeArguments;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        public TypeReference getComponentType() {
+            return componentType;
+        }
+
+        public List<TypeReference> getTypeArguments() {
+            return typeArguments;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Filter for the source files to enrich built from include and exclude glob expressions.
+ * <p>
+ * The path matchers are compiled once. Excluded directories are pruned before they are entered.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class SourceFileFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SourceFileFilter.class);
+
+    private static final String GLOB = "glob:";
+
+    private final List<PathMatcher> includeMatchers;
+
+    private final List<PathMatcher> excludeMatchers;
+
+    private int prunedDirectories;
+
+    private int excludedFiles;
+
+    /**
+     * Constructor.
+     *
+     * @param includes The include glob expressions. If empty all files are included.
+     * @param excludes The exclude glob expressions.
+     */
+    public SourceFileFilter(Set<String> includes, Set<String> excludes) {
+        this.includeMatchers = compile(includes);
+        this.excludeMatchers = compile(excludes);
+    }
+
+    private static List<PathMatcher> compile(Set<String> globs) {
+        if (globs == null) {
+            return Collections.emptyList();
+        }
+        return globs.stream().map(g -> FileSystems.getDefault().getPathMatcher(GLOB + g)).collect(Collectors.toList());
+    }
+
+    /**
+     * Checks if a directory is excluded. The subtree of an excluded directory does not have to be visited.
+     *
+     * @param path The directory.
+     * @return <code>true</code> if excluded.
+     */
+    public boolean isExcludedDirectory(Path path) {
+        for (PathMatcher excludeMatcher : excludeMatchers) {
+            if (excludeMatcher.matches(path)) {
+                LOGGER.debug(String.format("Excluded directory: '%s'", path.getFileName().toString()));
+                prunedDirectories++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a file is included and not excluded.
+     *
+     * @param path       The file.
+     * @param attributes The file attributes from visiting the file.
+     * @return <code>true</code> if the file must be enriched.
+     */
+    public boolean isIncludedFile(Path path, BasicFileAttributes attributes) {
+        if (!includeMatchers.isEmpty()) {
+            boolean included = attributes.isRegularFile() && includeMatchers.stream().anyMatch(m -> m.matches(path));
+            if (!included) {
+                LOGGER.debug(String.format("Not included file: '%s'", path.getFileName().toString()));
+                excludedFiles++;
+                return false;
+            }
+            LOGGER.debug(String.format("Included file: '%s'", path.getFileName().toString()));
+        }
+        for (PathMatcher excludeMatcher : excludeMatchers) {
+            if (excludeMatcher.matches(path)) {
+                LOGGER.debug(String.format("Excluded file: '%s'", path.getFileName().toString()));
+                excludedFiles++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of excluded directories which were not visited.
+     *
+     * @return the number of pruned directories.
+     */
+    public int getPrunedDirectories() {
+        return prunedDirectories;
+    }
+
+    /**
+     * Gets the number of visited files which are not included or excluded.
+     *
+     * @return the number of excluded files.
+     */
+    public int getExcludedFiles() {
+        return excludedFiles;
+    }
+}
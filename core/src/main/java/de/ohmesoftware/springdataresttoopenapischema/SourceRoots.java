@@ -0,0 +1,213 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The source paths of a run, e.g. the source directories of the modules of a multi-module project.
+ * <p>
+ * The source files below the enriched paths are enriched and may be written. The source files below the reference
+ * paths are only read, e.g. the supertypes and domain classes of the repositories located in a sibling module. A
+ * source path may also be a package directory below its source root. The first enriched path is the primary path
+ * keeping the manifest and relativizing the patches.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class SourceRoots {
+
+    /**
+     * The separator of several source paths.
+     */
+    public static final String SEPARATOR = ",";
+
+    private static final String JAVA_EXT = ".java";
+
+    private static final Pattern PACKAGE_PATTERN = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;",
+            Pattern.MULTILINE);
+
+    private final List<Path> enrichedPaths;
+
+    private final List<Path> referencePaths;
+
+    /**
+     * The source root by source path, determined on first use.
+     */
+    private volatile Map<Path, Path> sourceRoots;
+
+    /**
+     * Constructor for enriched source paths only.
+     *
+     * @param sourcePaths The comma separated enriched source paths.
+     */
+    public SourceRoots(String sourcePaths) {
+        this(sourcePaths, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sourcePaths    The comma separated enriched source paths.
+     * @param referencePaths The comma separated source paths only read or <code>null</code>.
+     */
+    public SourceRoots(String sourcePaths, String referencePaths) {
+        this.enrichedPaths = split(sourcePaths);
+        if (enrichedPaths.isEmpty()) {
+            throw new IllegalArgumentException(String.format("No source path passed: %s", sourcePaths));
+        }
+        List<Path> paths = split(referencePaths);
+        paths.removeIf(p -> enrichedPaths.stream().anyMatch(e -> normalize(e).equals(normalize(p))));
+        this.referencePaths = paths;
+    }
+
+    private static List<Path> split(String paths) {
+        List<Path> split = new ArrayList<>();
+        if (paths == null) {
+            return split;
+        }
+        for (String path : paths.split(SEPARATOR)) {
+            if (!path.trim().isEmpty()) {
+                Path sourcePath = Paths.get(path.trim());
+                if (split.stream().noneMatch(p -> normalize(p).equals(normalize(sourcePath)))) {
+                    split.add(sourcePath);
+                }
+            }
+        }
+        return split;
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Gets the primary source path.
+     *
+     * @return the first enriched source path as passed.
+     */
+    public Path getPrimaryPath() {
+        return enrichedPaths.get(0);
+    }
+
+    /**
+     * Gets the enriched source paths.
+     *
+     * @return the paths as passed.
+     */
+    public List<Path> getEnrichedPaths() {
+        return Collections.unmodifiableList(enrichedPaths);
+    }
+
+    /**
+     * Gets all source paths.
+     *
+     * @return the enriched source paths followed by the reference paths as passed.
+     */
+    public List<Path> getPaths() {
+        List<Path> paths = new ArrayList<>(enrichedPaths);
+        paths.addAll(referencePaths);
+        return paths;
+    }
+
+    /**
+     * Checks if there are several source paths.
+     *
+     * @return <code>true</code> if more than one source path is passed.
+     */
+    public boolean isMultiRoot() {
+        return enrichedPaths.size() + referencePaths.size() > 1;
+    }
+
+    /**
+     * Gets the enriched source path containing a file.
+     *
+     * @param file The file.
+     * @return the source path or <code>null</code> if the file is not part of an enriched source path.
+     */
+    public Path getEnrichedPath(Path file) {
+        Path absoluteFile = normalize(file);
+        Path enrichedPath = null;
+        for (Path path : enrichedPaths) {
+            // the innermost path for nested paths
+            if (absoluteFile.startsWith(normalize(path)) && (enrichedPath == null ||
+                    normalize(path).getNameCount() > normalize(enrichedPath).getNameCount())) {
+                enrichedPath = path;
+            }
+        }
+        return enrichedPath;
+    }
+
+    /**
+     * Checks if a file may be written.
+     *
+     * @param file The file.
+     * @return <code>true</code> if the file is part of an enriched source path.
+     */
+    public boolean isEnriched(File file) {
+        return getEnrichedPath(file.toPath()) != null;
+    }
+
+    /**
+     * Gets the source roots of the source paths. The source root of a source path is determined by the package of
+     * the first source file found in it. A source path without source files is its own source root.
+     *
+     * @return the source root by source path in the order of {@link #getPaths()}.
+     */
+    public Map<Path, Path> getSourceRoots() {
+        Map<Path, Path> sourceRoots = this.sourceRoots;
+        if (sourceRoots == null) {
+            sourceRoots = new LinkedHashMap<>();
+            for (Path path : getPaths()) {
+                sourceRoots.put(path, findSourceRoot(path));
+            }
+            this.sourceRoots = Collections.unmodifiableMap(sourceRoots);
+        }
+        return sourceRoots;
+    }
+
+    private static Path findSourceRoot(Path path) {
+        Optional<Path> sourceFile;
+        try (Stream<Path> paths = Files.walk(path)) {
+            sourceFile = paths.filter(p -> p.getFileName().toString().endsWith(JAVA_EXT) && Files.isRegularFile(p)).
+                    findFirst();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not walk through source path: %s", path), e);
+        }
+        if (!sourceFile.isPresent()) {
+            return path;
+        }
+        String _package;
+        try {
+            Matcher matcher = PACKAGE_PATTERN.matcher(new String(Files.readAllBytes(sourceFile.get()),
+                    StandardCharsets.UTF_8));
+            _package = matcher.find() ? matcher.group(1) : "";
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read file: %s", sourceFile.get()), e);
+        }
+        Path sourceRoot = sourceFile.get().getParent();
+        for (int i = _package.isEmpty() ? 0 : _package.split("\\.").length; i > 0 && sourceRoot != null; i--) {
+            sourceRoot = sourceRoot.getParent();
+        }
+        return sourceRoot == null ? path : sourceRoot;
+    }
+
+    @Override
+    public String toString() {
+        return getPaths().stream().map(Path::toString).collect(Collectors.joining(SEPARATOR));
+    }
+}
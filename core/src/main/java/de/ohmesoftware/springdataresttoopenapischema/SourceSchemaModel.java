@@ -0,0 +1,161 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.javadoc.Javadoc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Model of the domain types read from the source code parsed by JavaParser.
+ * <p>
+ * The properties of a domain class are derived from its fields and the fields of its superclasses with source code,
+ * considering the Jackson annotations like the {@link ResourceMethodHandler} does.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class SourceSchemaModel implements SchemaModel {
+
+    private static final String OBJECT = "Object";
+
+    private static final String DESCRIPTION = "description";
+
+    private final Function<String, CompilationUnit> typeLoader;
+
+    /**
+     * Constructor.
+     *
+     * @param typeLoader Loads the compilation unit of a fully qualified type name or returns <code>null</code> if there
+     *                   is no source code.
+     */
+    public SourceSchemaModel(Function<String, CompilationUnit> typeLoader) {
+        this.typeLoader = typeLoader;
+    }
+
+    @Override
+    public boolean contains(String qualifiedName) {
+        return typeLoader.apply(qualifiedName) != null;
+    }
+
+    @Override
+    public SchemaType getType(String qualifiedName) {
+        CompilationUnit compilationUnit = typeLoader.apply(qualifiedName);
+        Optional<TypeDeclaration<?>> typeDeclaration = compilationUnit == null ? Optional.empty() :
+                compilationUnit.getTypes().stream().filter(t -> t.getNameAsString().equals(
+                        ResourceHandler.getSimpleNameFromClass(qualifiedName))).findFirst();
+        if (!typeDeclaration.isPresent()) {
+            return null;
+        }
+        if (typeDeclaration.get().isEnumDeclaration()) {
+            return new SchemaType(true, getJavadocSummary(typeDeclaration.get()),
+                    typeDeclaration.get().asEnumDeclaration().getEntries().stream().
+                            map(EnumConstantDeclaration::getNameAsString).collect(Collectors.toList()),
+                    Collections.emptyList());
+        }
+        List<SchemaProperty> properties = new ArrayList<>();
+        if (typeDeclaration.get().isClassOrInterfaceDeclaration()) {
+            addProperties(typeDeclaration.get().asClassOrInterfaceDeclaration(), new HashSet<>(), properties);
+        }
+        return new SchemaType(false, getJavadocSummary(typeDeclaration.get()), Collections.emptyList(),
+                properties);
+    }
+
+    private static String getJavadocSummary(BodyDeclaration<?> bodyDeclaration) {
+        Javadoc javadoc = ResourceHandler.getJavadoc(bodyDeclaration);
+        return javadoc == null ? null : ResourceHandler.getJavadocSummary(ResourceHandler.getJavadocText(javadoc));
+    }
+
+    /**
+     * Adds the properties of the fields of a class, starting with the fields of the superclasses.
+     */
+    private void addProperties(ClassOrInterfaceDeclaration classOrInterfaceDeclaration, Set<String> names,
+                               List<SchemaProperty> properties) {
+        CompilationUnit compilationUnit = classOrInterfaceDeclaration.findCompilationUnit().get();
+        for (ClassOrInterfaceType extent : classOrInterfaceDeclaration.getExtendedTypes()) {
+            String className = resolve(compilationUnit, extent.getNameAsString());
+            CompilationUnit extendedCompilationUnit = className == null ? null : typeLoader.apply(className);
+            if (extendedCompilationUnit != null) {
+                Optional<ClassOrInterfaceDeclaration> extendedDeclaration = extendedCompilationUnit.getClassByName(
+                        ResourceHandler.getSimpleNameFromClass(className));
+                if (extendedDeclaration.isPresent()) {
+                    addProperties(extendedDeclaration.get(), names, properties);
+                }
+            }
+        }
+        for (FieldDeclaration fieldDeclaration : classOrInterfaceDeclaration.getFields()) {
+            if (fieldDeclaration.hasModifier(Modifier.Keyword.STATIC) ||
+                    fieldDeclaration.hasModifier(Modifier.Keyword.TRANSIENT) ||
+                    getAnnotation(fieldDeclaration, ResourceMethodHandler.JSON_IGNORE_CLASS).isPresent()) {
+                continue;
+            }
+            Object description = getAnnotation(fieldDeclaration, ResourceMethodHandler.SCHEMA_ANNOTATION_CLASS).
+                    map(a -> ApiOperation.toMap(a).get(DESCRIPTION)).orElse(null);
+            if (description == null) {
+                description = getJavadocSummary(fieldDeclaration);
+            }
+            Object access = getAnnotation(fieldDeclaration, ResourceMethodHandler.JSON_PROPERTY_CLASS).
+                    map(a -> ApiOperation.toMap(a).get(ResourceMethodHandler.JSON_PROPERTY_ACCESS)).orElse(null);
+            for (VariableDeclarator variable : fieldDeclaration.getVariables()) {
+                if (!names.add(variable.getNameAsString())) {
+                    continue;
+                }
+                properties.add(new SchemaProperty(variable.getNameAsString(),
+                        getTypeReference(variable.getType(), compilationUnit),
+                        description == null ? null : description.toString(),
+                        access == null ? null : access.toString()));
+            }
+        }
+    }
+
+    private static TypeReference getTypeReference(Type type, CompilationUnit compilationUnit) {
+        if (type.isArrayType()) {
+            return new TypeReference(type.asString(), null,
+                    getTypeReference(type.asArrayType().getComponentType(), compilationUnit),
+                    Collections.emptyList());
+        }
+        if (type.isPrimitiveType()) {
+            return new TypeReference(type.asString(), null, null, Collections.emptyList());
+        }
+        if (!type.isClassOrInterfaceType()) {
+            return new TypeReference(OBJECT, null, null, Collections.emptyList());
+        }
+        ClassOrInterfaceType classOrInterfaceType = type.asClassOrInterfaceType();
+        return new TypeReference(classOrInterfaceType.getNameAsString(),
+                resolve(compilationUnit, classOrInterfaceType.asString().replaceAll("<.*", "")), null,
+                classOrInterfaceType.getTypeArguments().map(a -> a.stream().
+                        map(t -> getTypeReference(t, compilationUnit)).collect(Collectors.toList())).
+                        orElse(Collections.emptyList()));
+    }
+
+    private static String resolve(CompilationUnit compilationUnit, String className) {
+        try {
+            return ResourceHandler.getFullClassName(compilationUnit, className);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Optional<AnnotationExpr> getAnnotation(FieldDeclaration fieldDeclaration, String annotationClass) {
+        String simpleName = ResourceHandler.getSimpleNameFromClass(annotationClass);
+        return fieldDeclaration.getAnnotations().stream().filter(a -> a.getName().getIdentifier().equals(simpleName)).
+                findFirst();
+    }
+}
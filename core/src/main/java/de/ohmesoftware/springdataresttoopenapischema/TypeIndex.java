@@ -0,0 +1,214 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Project wide index of the repository type hierarchy.
+ * <p>
+ * Fully qualified type names are interned to integer ids. For each type with source code the ids of the direct
+ * supertypes are stored. The transitive repository properties of a type are computed once and kept in bit sets
+ * indexed by the type id, so later checks are a single bit lookup.
+ * </p>
+ * <p>
+ * Types are loaded on their first use and not when the index is created. A run which never asks for the
+ * hierarchy of a type does not parse it.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class TypeIndex {
+
+    /**
+     * The type is or extends a CRUD repository.
+     */
+    public static final int CRUD = 1;
+
+    /**
+     * The type is or extends the Querydsl predicate executor.
+     */
+    public static final int QUERYDSL = 2;
+
+    /**
+     * The type is or extends a repository. CRUD repositories are also repositories.
+     */
+    public static final int REPOSITORY = 4;
+
+    /**
+     * Loads the direct supertypes of a type.
+     */
+    public interface TypeLoader {
+
+        /**
+         * Loads the direct supertypes of a type.
+         *
+         * @param fqClassName The fully qualified class name.
+         * @return the fully qualified class names of the extended types or <code>null</code> if there is no
+         * source code for the type.
+         */
+        List<String> loadSupertypes(String fqClassName);
+    }
+
+    private final Map<String, Integer> typeIds = new HashMap<>();
+
+    private final List<String> typeNames = new ArrayList<>();
+
+    private final List<int[]> supertypes = new ArrayList<>();
+
+    private final BitSet loaded = new BitSet();
+
+    private final BitSet resolved = new BitSet();
+
+    private final BitSet resolving = new BitSet();
+
+    private final BitSet crud = new BitSet();
+
+    private final BitSet querydsl = new BitSet();
+
+    private final BitSet repository = new BitSet();
+
+    /**
+     * Gets the repository properties of a type declared by its name.
+     * <p>
+     * This only considers the simple name of the type like the Spring Data interfaces are detected.
+     * </p>
+     *
+     * @param simpleClassName The simple class name.
+     * @return the combination of {@link #CRUD}, {@link #QUERYDSL} and {@link #REPOSITORY}.
+     */
+    public static int getDeclaredFlags(String simpleClassName) {
+        switch (simpleClassName) {
+            case ResourceHandler.PAGING_AND_SORTING_REPOSITORY:
+            case ResourceHandler.CRUD_REPOSITORY:
+                return CRUD | REPOSITORY;
+            case ResourceHandler.QUERYDSL_PREDICATE_EXECUTOR:
+                return QUERYDSL;
+            case ResourceHandler.REPOSITORY:
+                return REPOSITORY;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Gets the transitive repository properties of a type.
+     *
+     * @param fqClassName The fully qualified class name.
+     * @param typeLoader  The loader for types not indexed yet.
+     * @return the combination of {@link #CRUD}, {@link #QUERYDSL} and {@link #REPOSITORY}.
+     */
+    public synchronized int getFlags(String fqClassName, TypeLoader typeLoader) {
+        int typeId = getTypeId(fqClassName);
+        resolve(typeId, typeLoader);
+        return getFlags(typeId);
+    }
+
+    /**
+     * Gets the transitive supertypes of a type.
+     *
+     * @param fqClassName The fully qualified class name.
+     * @param typeLoader  The loader for types not indexed yet.
+     * @return the fully qualified class names of all supertypes.
+     */
+    public synchronized Set<String> getSupertypes(String fqClassName, TypeLoader typeLoader) {
+        int typeId = getTypeId(fqClassName);
+        resolve(typeId, typeLoader);
+        BitSet visited = new BitSet();
+        collectSupertypes(typeId, visited);
+        visited.clear(typeId);
+        Set<String> supertypeNames = new LinkedHashSet<>();
+        visited.stream().forEach(i -> supertypeNames.add(typeNames.get(i)));
+        return supertypeNames;
+    }
+
+    /**
+     * Gets the number of interned types.
+     *
+     * @return the number of types.
+     */
+    public synchronized int size() {
+        return typeNames.size();
+    }
+
+    private static String getSimpleName(String fqClassName) {
+        return fqClassName.substring(fqClassName.lastIndexOf('.') + 1);
+    }
+
+    private int getTypeId(String fqClassName) {
+        Integer typeId = typeIds.get(fqClassName);
+        if (typeId == null) {
+            typeId = typeNames.size();
+            typeIds.put(fqClassName, typeId);
+            typeNames.add(fqClassName);
+            supertypes.add(null);
+        }
+        return typeId;
+    }
+
+    private int getFlags(int typeId) {
+        return (crud.get(typeId) ? CRUD : 0)
+                | (querydsl.get(typeId) ? QUERYDSL : 0)
+                | (repository.get(typeId) ? REPOSITORY : 0);
+    }
+
+    private void setFlags(int typeId, int flags) {
+        crud.set(typeId, (flags & CRUD) != 0);
+        querydsl.set(typeId, (flags & QUERYDSL) != 0);
+        repository.set(typeId, (flags & REPOSITORY) != 0);
+    }
+
+    private void collectSupertypes(int typeId, BitSet visited) {
+        int[] supertypeIds = supertypes.get(typeId);
+        if (supertypeIds == null) {
+            return;
+        }
+        for (int supertypeId : supertypeIds) {
+            if (!visited.get(supertypeId)) {
+                visited.set(supertypeId);
+                collectSupertypes(supertypeId, visited);
+            }
+        }
+    }
+
+    private void load(int typeId, TypeLoader typeLoader) {
+        if (loaded.get(typeId)) {
+            return;
+        }
+        loaded.set(typeId);
+        List<String> supertypeNames = typeLoader.loadSupertypes(typeNames.get(typeId));
+        if (supertypeNames == null) {
+            return;
+        }
+        int[] supertypeIds = new int[supertypeNames.size()];
+        for (int i = 0; i < supertypeIds.length; i++) {
+            supertypeIds[i] = getTypeId(supertypeNames.get(i));
+        }
+        supertypes.set(typeId, supertypeIds);
+    }
+
+    private void resolve(int typeId, TypeLoader typeLoader) {
+        if (resolved.get(typeId) || resolving.get(typeId)) {
+            return;
+        }
+        resolving.set(typeId);
+        load(typeId, typeLoader);
+        int flags = 0;
+        int[] supertypeIds = supertypes.get(typeId);
+        if (supertypeIds != null) {
+            for (int supertypeId : supertypeIds) {
+                flags |= getDeclaredFlags(getSimpleName(typeNames.get(supertypeId)));
+                resolve(supertypeId, typeLoader);
+                flags |= getFlags(supertypeId);
+            }
+        }
+        setFlags(typeId, flags);
+        resolving.clear(typeId);
+        resolved.set(typeId);
+    }
+}
@@ -0,0 +1,150 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Index of the source files of the types of all source paths by fully qualified class name.
+ * <p>
+ * With several source paths a type is looked up by a single hash lookup instead of probing the file system for each
+ * source path. The index is built by walking all source paths once on the first lookup. The fully qualified class name
+ * is derived from the location of the source file below the source root of its source path. If a type is found in
+ * several source paths the first source path wins, the enriched paths are walked before the reference paths.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class TypeLocationIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TypeLocationIndex.class);
+
+    private static final String JAVA_EXT = ".java";
+
+    private final SourceRoots sourceRoots;
+
+    /**
+     * The source files by fully qualified class name or <code>null</code> if not built.
+     */
+    private volatile Map<String, File> sourceFiles;
+
+    /**
+     * The absolute paths of the indexed source files.
+     */
+    private volatile Set<String> indexedFiles;
+
+    /**
+     * Constructor.
+     *
+     * @param sourceRoots The source paths.
+     */
+    public TypeLocationIndex(SourceRoots sourceRoots) {
+        this.sourceRoots = sourceRoots;
+    }
+
+    /**
+     * Gets the source file of a type.
+     *
+     * @param className The fully qualified class name.
+     * @return the source file or <code>null</code> if the type has no source file in the source paths.
+     */
+    public File locate(String className) {
+        return getSourceFiles().get(className);
+    }
+
+    /**
+     * Gets the number of indexed types.
+     *
+     * @return the number of types.
+     */
+    public int size() {
+        return getSourceFiles().size();
+    }
+
+    /**
+     * Drops the index if source files were created or deleted. It is rebuilt on the next lookup.
+     *
+     * @param changedFiles The canonical paths of the changed, created or deleted source files.
+     */
+    public void update(Collection<String> changedFiles) {
+        Set<String> indexedFiles = this.indexedFiles;
+        if (indexedFiles == null) {
+            return;
+        }
+        for (String changedFile : changedFiles) {
+            if (!indexedFiles.contains(changedFile) || !new File(changedFile).exists()) {
+                invalidate();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops the index. It is rebuilt on the next lookup.
+     */
+    public synchronized void invalidate() {
+        sourceFiles = null;
+        indexedFiles = null;
+    }
+
+    private Map<String, File> getSourceFiles() {
+        Map<String, File> sourceFiles = this.sourceFiles;
+        if (sourceFiles == null) {
+            synchronized (this) {
+                sourceFiles = this.sourceFiles;
+                if (sourceFiles == null) {
+                    sourceFiles = build();
+                    this.sourceFiles = sourceFiles;
+                }
+            }
+        }
+        return sourceFiles;
+    }
+
+    private Map<String, File> build() {
+        long start = System.currentTimeMillis();
+        Map<String, File> sourceFiles = new HashMap<>();
+        Set<String> indexedFiles = new HashSet<>();
+        for (Map.Entry<Path, Path> sourceRoot : sourceRoots.getSourceRoots().entrySet()) {
+            Path root = sourceRoot.getValue().toAbsolutePath().normalize();
+            try (Stream<Path> paths = Files.walk(sourceRoot.getKey())) {
+                paths.filter(p -> p.getFileName().toString().endsWith(JAVA_EXT) && Files.isRegularFile(p)).
+                        forEach(p -> {
+                            Path absolutePath = p.toAbsolutePath().normalize();
+                            indexedFiles.add(absolutePath.toString());
+                            sourceFiles.putIfAbsent(getClassName(root.relativize(absolutePath)), p.toFile());
+                        });
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Could not walk through source path: %s",
+                        sourceRoot.getKey()), e);
+            }
+        }
+        this.indexedFiles = Collections.unmodifiableSet(indexedFiles);
+        LOGGER.info(String.format("Indexed %d types of %d source paths in %d ms.", sourceFiles.size(),
+                sourceRoots.getSourceRoots().size(), System.currentTimeMillis() - start));
+        return Collections.unmodifiableMap(sourceFiles);
+    }
+
+    private static String getClassName(Path relativePath) {
+        StringBuilder className = new StringBuilder();
+        for (Path name : relativePath) {
+            if (className.length() > 0) {
+                className.append('.');
+            }
+            className.append(name.toString());
+        }
+        return className.substring(0, className.length() - JAVA_EXT.length());
+    }
+}
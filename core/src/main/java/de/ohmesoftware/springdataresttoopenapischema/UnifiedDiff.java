@@ -0,0 +1,217 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Creates unified diffs of text files.
+ * <p>
+ * The line differences are computed with the O(ND) algorithm of Myers. Lines are compared including their line
+ * terminator, so a missing newline at the end of a file is reported like <code>diff -u</code> does.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class UnifiedDiff {
+
+    /**
+     * The name of a file which does not exist.
+     */
+    public static final String DEV_NULL = "/dev/null";
+
+    private static final int CONTEXT_LINES = 3;
+
+    private static final String NO_NEWLINE = "\\ No newline at end of file\n";
+
+    private static final char EQUAL = ' ';
+
+    private static final char DELETE = '-';
+
+    private static final char INSERT = '+';
+
+    private UnifiedDiff() {
+    }
+
+    /**
+     * Creates the unified diff of two versions of a file.
+     *
+     * @param originalName The name of the original file.
+     * @param revisedName  The name of the revised file.
+     * @param original     The original content.
+     * @param revised      The revised content.
+     * @return the diff or an empty string if the contents are equal.
+     */
+    public static String diff(String originalName, String revisedName, String original, String revised) {
+        if (original.equals(revised)) {
+            return "";
+        }
+        List<String> originalLines = splitLines(original);
+        List<String> revisedLines = splitLines(revised);
+        List<Edit> edits = computeEdits(originalLines, revisedLines);
+        StringBuilder diff = new StringBuilder();
+        diff.append("--- ").append(originalName).append('\n');
+        diff.append("+++ ").append(revisedName).append('\n');
+        int i = 0;
+        while (i < edits.size()) {
+            if (edits.get(i).type == EQUAL) {
+                i++;
+                continue;
+            }
+            // extend the hunk while the next change is close enough to share the context
+            int start = Math.max(0, i - CONTEXT_LINES);
+            int end = i;
+            int equalLines = 0;
+            for (int j = i; j < edits.size() && equalLines <= 2 * CONTEXT_LINES; j++) {
+                if (edits.get(j).type == EQUAL) {
+                    equalLines++;
+                } else {
+                    equalLines = 0;
+                    end = j;
+                }
+            }
+            end = Math.min(edits.size(), end + CONTEXT_LINES + 1);
+            appendHunk(diff, edits.subList(start, end));
+            i = end;
+        }
+        return diff.toString();
+    }
+
+    private static void appendHunk(StringBuilder diff, List<Edit> hunk) {
+        int originalStart = hunk.get(0).originalLine;
+        int revisedStart = hunk.get(0).revisedLine;
+        int originalCount = 0;
+        int revisedCount = 0;
+        for (Edit edit : hunk) {
+            if (edit.type != INSERT) {
+                originalCount++;
+            }
+            if (edit.type != DELETE) {
+                revisedCount++;
+            }
+        }
+        diff.append("@@ -").append(formatRange(originalStart, originalCount)).
+                append(" +").append(formatRange(revisedStart, revisedCount)).append(" @@\n");
+        for (Edit edit : hunk) {
+            diff.append(edit.type).append(edit.line);
+            if (!edit.line.endsWith("\n")) {
+                diff.append('\n').append(NO_NEWLINE);
+            }
+        }
+    }
+
+    /**
+     * Formats a line range. An empty range starts at the line before it.
+     */
+    private static String formatRange(int start, int count) {
+        if (count == 0) {
+            return start + ",0";
+        }
+        if (count == 1) {
+            return String.valueOf(start + 1);
+        }
+        return (start + 1) + "," + count;
+    }
+
+    private static List<String> splitLines(String content) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') {
+                lines.add(content.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < content.length()) {
+            lines.add(content.substring(start));
+        }
+        return lines;
+    }
+
+    private static List<Edit> computeEdits(List<String> original, List<String> revised) {
+        int n = original.size();
+        int m = revised.size();
+        int max = n + m;
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+        search:
+        for (int d = 0; d <= max; d++) {
+            trace.add(v.clone());
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && original.get(x).equals(revised.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    break search;
+                }
+            }
+        }
+        // backtrack through the furthest reaching paths
+        List<Edit> edits = new ArrayList<>();
+        int x = n;
+        int y = m;
+        for (int d = trace.size() - 1; d >= 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            int previousK;
+            if (k == -d || (k != d && previous[offset + k - 1] < previous[offset + k + 1])) {
+                previousK = k + 1;
+            } else {
+                previousK = k - 1;
+            }
+            int previousX = previous[offset + previousK];
+            int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                x--;
+                y--;
+                edits.add(new Edit(EQUAL, original.get(x), x, y));
+            }
+            if (d > 0) {
+                if (x == previousX) {
+                    edits.add(new Edit(INSERT, revised.get(previousY), previousX, previousY));
+                } else {
+                    edits.add(new Edit(DELETE, original.get(previousX), previousX, previousY));
+                }
+            }
+            x = previousX;
+            y = previousY;
+        }
+        Collections.reverse(edits);
+        return edits;
+    }
+
+    private static class Edit {
+
+        private final char type;
+
+        private final String line;
+
+        /**
+         * The number of original lines before this edit.
+         */
+        private final int originalLine;
+
+        /**
+         * The number of revised lines before this edit.
+         */
+        private final int revisedLine;
+
+        private Edit(char type, String line, int originalLine, int revisedLine) {
+            this.type = type;
+            this.line = line;
+            this.originalLine = originalLine;
+            this.revisedLine = revisedLine;
+        }
+    }
+}
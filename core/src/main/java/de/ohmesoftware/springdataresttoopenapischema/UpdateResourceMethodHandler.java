@@ -27,9 +27,8 @@ import java.util.Collections;
  */
 public abstract class UpdateResourceMethodHandler extends ResourceMethodHandler {
 
-    private static final String SAVE_METHOD = "save";
+    private static final String SAVE_METHOD = ResourceNaming.SAVE_METHOD;
     private static final String UPDATE_METHOD_PARAM = "entity";
-    private static final String CUSTOM_REPOSITORY_NAME_TEMPLATE = "Custom%sRepository";
 
     /**
      * Constructor.
@@ -38,10 +37,11 @@ public abstract class UpdateResourceMethodHandler extends ResourceMethodHandler
      * @param sourcePath      The source path of the Java sources.
      * @param basePath        The base path no not include package directories.
      * @param compilationUnit The compilation unit to enrich with annotations.
+     * @param context         The enrichment context.
      */
     protected UpdateResourceMethodHandler(String sourceFile, String sourcePath, String basePath,
-                                          CompilationUnit compilationUnit) {
-        super(sourceFile, sourcePath, basePath, compilationUnit);
+                                          CompilationUnit compilationUnit, EnrichmentContext context) {
+        super(sourceFile, sourcePath, basePath, compilationUnit, context);
     }
 
     /**
@@ -95,6 +95,7 @@ public abstract class UpdateResourceMethodHandler extends ResourceMethodHandler
             MethodDeclaration methodDeclaration = findMethodByMethodNameAndParameters(customRepositoryClassOrInterfaceDeclaration, getUpdateMethodName(),
                     false, domainClassOrInterfaceType.asString());
             if (methodDeclaration != null && !checkResourceAnnotationPresent(methodDeclaration).isPresent()) {
+                context.getChangeTracker().beforeRemove(methodDeclaration);
                 methodDeclaration.remove();
                 saveClassOrInterfaceToFile(customRepositoryClassOrInterfaceDeclaration);
             }
@@ -120,12 +121,14 @@ public abstract class UpdateResourceMethodHandler extends ResourceMethodHandler
             else {
                 customInterfaceCompilationUnit = new CompilationUnit(EMPTY_STRING).removePackageDeclaration();
             }
-            String customInterfaceClassName = String.format(CUSTOM_REPOSITORY_NAME_TEMPLATE,
+            String customInterfaceClassName = ResourceNaming.getCustomRepositoryName(
                     domainClassOrInterfaceType.getName().getIdentifier());
             customInterfaceCompilationUnit.addImport(domainClassOrInterfaceType.asString());
             customRepositoryClassOrInterfaceDeclaration = customInterfaceCompilationUnit.addInterface(customInterfaceClassName);
+            context.getChangeTracker().changed(customRepositoryClassOrInterfaceDeclaration);
             // add to initial search class as extension
             classOrInterfaceDeclaration.addExtendedType(customInterfaceClassName);
+            context.getChangeTracker().changed(classOrInterfaceDeclaration);
         }
         if (exportPathConfig.b != null) {
             addPathAnnotation(customRepositoryClassOrInterfaceDeclaration, exportPathConfig.b);
@@ -143,7 +146,7 @@ public abstract class UpdateResourceMethodHandler extends ResourceMethodHandler
                     .setBody(new BlockStmt(new NodeList<>(new ReturnStmt(new NullLiteralExpr())))).setDefault(true);
         }
         addUpdateAnnotation(methodDeclaration);
-        addPathAnnotation(methodDeclaration, ID_PATH);
+        addPathAnnotation(methodDeclaration, ResourceNaming.ID_PATH);
         addOperationAnnotation(methodDeclaration,
                 createRequestBodyAnnotation(classOrInterfaceDeclaration),
                 include200Response() ? Arrays.asList(
@@ -0,0 +1,224 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import com.github.javaparser.ast.CompilationUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Run-scoped workspace of the compilation units changed by the handlers.
+ * <p>
+ * A compilation unit saved by a handler is owned by the workspace for the rest of the run and marked dirty. Later
+ * lookups of its source file return this instance, so all handlers continue with the same tree instead of separately
+ * parsed copies overwriting each other, e.g. for a parent interface shared by several repositories or a custom
+ * repository interface. The dirty compilation units are written once at the end of the run by {@link #flush}.
+ * </p>
+ * <p>
+ * A thread only reading source files while other threads enrich, e.g. for determining the dependencies of a file in
+ * the parse stage of the {@link EnrichmentPipeline}, must not see the dirty compilation units changed concurrently. It
+ * reads by {@link #readParsed} and gets copies of the parsed source files or, for a source file created in this run,
+ * a copy of the compilation unit as it was last saved.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class Workspace {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Workspace.class);
+
+    private final CompilationUnitCache compilationUnitCache;
+
+    /**
+     * The dirty compilation units by canonical path of the source file.
+     */
+    private final ConcurrentMap<String, Unit> units = new ConcurrentHashMap<>();
+
+    private final AtomicLong saves = new AtomicLong();
+
+    /**
+     * Set while the current thread reads by {@link #readParsed}.
+     */
+    private final ThreadLocal<Boolean> readingParsed = new ThreadLocal<>();
+
+    /**
+     * Constructor.
+     *
+     * @param compilationUnitCache The cache of the parsed source files.
+     */
+    public Workspace(CompilationUnitCache compilationUnitCache) {
+        this.compilationUnitCache = compilationUnitCache;
+    }
+
+    /**
+     * Gets the compilation unit of a source file. The file is recorded as requested by the compilation unit cache.
+     *
+     * @param file The source file.
+     * @return the dirty compilation unit of the workspace or a copy of the parsed compilation unit. When reading by
+     * {@link #readParsed} a copy of the parsed compilation unit or of the last saved created compilation unit.
+     */
+    public CompilationUnit get(File file) {
+        Unit unit = units.get(ProjectModel.getSourceFile(file));
+        if (unit == null || (readingParsed.get() != null && unit.created == null)) {
+            return compilationUnitCache.get(file);
+        }
+        compilationUnitCache.record(unit.sourceFile);
+        if (readingParsed.get() != null) {
+            return unit.created.clone();
+        }
+        return unit.compilationUnit;
+    }
+
+    /**
+     * Runs a reader getting copies of the parsed compilation units instead of the dirty compilation units changed
+     * concurrently by other threads.
+     *
+     * @param reader The reader.
+     * @param <T>    The result type.
+     * @return the result of the reader.
+     */
+    public <T> T readParsed(Supplier<T> reader) {
+        readingParsed.set(Boolean.TRUE);
+        try {
+            return reader.get();
+        } finally {
+            readingParsed.remove();
+        }
+    }
+
+    /**
+     * Checks if a source file is created in this run and not written yet.
+     *
+     * @param file The source file.
+     * @return <code>true</code> if the workspace contains the source file.
+     */
+    public boolean contains(File file) {
+        return units.containsKey(ProjectModel.getSourceFile(file));
+    }
+
+    /**
+     * Saves a changed compilation unit. The compilation unit is owned by the workspace until it is flushed.
+     *
+     * @param file            The source file.
+     * @param compilationUnit The changed compilation unit.
+     */
+    public void save(File file, CompilationUnit compilationUnit) {
+        saves.incrementAndGet();
+        String sourceFile = ProjectModel.getSourceFile(file);
+        // a created source file cannot be parsed by a reader, it reads a copy taken by the saving thread
+        CompilationUnit created = compilationUnitCache.getContentHash(sourceFile) == null ?
+                compilationUnit.clone() : null;
+        Unit previous = units.put(sourceFile, new Unit(file, sourceFile, compilationUnit, created));
+        if (previous != null && previous.compilationUnit != compilationUnit) {
+            // the last saved copy wins as when writing each copy
+            LOGGER.debug(String.format("Replacing changed copy of source file '%s'", sourceFile));
+        }
+    }
+
+    /**
+     * Gets the number of dirty compilation units.
+     *
+     * @return the number of source files to write.
+     */
+    public int size() {
+        return units.size();
+    }
+
+    /**
+     * Writes all dirty compilation units and empties the workspace. A compilation unit printed as the content its
+     * source file had when it was parsed is not written.
+     *
+     * @param writer  Writes the content of a source file.
+     * @param threads The number of threads for printing and writing.
+     * @return the number of written source files.
+     */
+    public int flush(BiConsumer<File, String> writer, int threads) {
+        List<Unit> dirtyUnits = new ArrayList<>(units.values());
+        units.clear();
+        long written;
+        if (threads > 1 && dirtyUnits.size() > 1) {
+            ExecutorService executorService = Executors.newFixedThreadPool(Math.min(threads, dirtyUnits.size()));
+            try {
+                List<CompletableFuture<Boolean>> writes = dirtyUnits.stream().map(
+                        u -> CompletableFuture.supplyAsync(() -> write(u, writer), executorService)
+                ).collect(Collectors.toList());
+                written = writes.stream().filter(EnrichmentPipeline::join).count();
+            } finally {
+                executorService.shutdownNow();
+            }
+        } else {
+            written = dirtyUnits.stream().filter(u -> write(u, writer)).count();
+        }
+        LOGGER.info(String.format("Flushed %d changed source files saved %d times, wrote %d source files.",
+                dirtyUnits.size(), saves.getAndSet(0), written));
+        return (int) written;
+    }
+
+    private boolean write(Unit unit, BiConsumer<File, String> writer) {
+        String content = print(unit.compilationUnit);
+        if (Manifest.hash(content.getBytes(StandardCharsets.UTF_8)).equals(
+                compilationUnitCache.getContentHash(unit.sourceFile))) {
+            return false;
+        }
+        writer.accept(unit.file, content);
+        return true;
+    }
+
+    /**
+     * Prints a compilation unit.
+     * <p>
+     * If the compilation unit was set up for the {@link FormattingPreservingPrinter} only the changed declarations are
+     * printed and all other code keeps its original formatting. Otherwise, e.g. for new compilation units, the whole
+     * compilation unit is pretty printed.
+     * </p>
+     *
+     * @param compilationUnit The compilation unit.
+     * @return the source code.
+     */
+    static String print(CompilationUnit compilationUnit) {
+        if (FormattingPreservingPrinter.isSetUp(compilationUnit)) {
+            return FormattingPreservingPrinter.print(compilationUnit);
+        }
+        return compilationUnit.toString();
+    }
+
+    /**
+     * A dirty compilation unit.
+     */
+    private static class Unit {
+
+        private final File file;
+
+        /**
+         * The canonical path of the source file.
+         */
+        private final String sourceFile;
+
+        private final CompilationUnit compilationUnit;
+
+        /**
+         * A copy of the compilation unit of a source file created in this run as saved or <code>null</code>.
+         */
+        private final CompilationUnit created;
+
+        private Unit(File file, String sourceFile, CompilationUnit compilationUnit, CompilationUnit created) {
+            this.file = file;
+            this.sourceFile = sourceFile;
+            this.compilationUnit = compilationUnit;
+            this.created = created;
+        }
+    }
+}
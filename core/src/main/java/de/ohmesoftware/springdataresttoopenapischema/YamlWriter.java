@@ -0,0 +1,203 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming writer for YAML documents in block style. The output is indented by two spaces.
+ * <p>
+ * Strings are written as plain scalars if they cannot be read as something else, i.e. a boolean, null, integer or
+ * float of YAML 1.1 or 1.2, otherwise as double quoted scalars escaped like JSON strings.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class YamlWriter implements DocumentWriter {
+
+    private static final String INDENT = "  ";
+
+    private static final String EMPTY_INDENT = "";
+
+    private static final Pattern PLAIN_SCALAR = Pattern.compile("[A-Za-z_/$.][^:#\"'{}\\[\\],&*!|>%@`\\p{Cntrl}]*");
+
+    /**
+     * The booleans, nulls and special floats of YAML 1.1 and 1.2 in lower case.
+     */
+    private static final Set<String> RESERVED_SCALARS = new HashSet<>(Arrays.asList("true", "false", "null", "~",
+            "yes", "no", "on", "off", "y", "n", ".inf", "+.inf", "-.inf", ".nan"));
+
+    /**
+     * The floats without integer part read as numbers, e.g. <code>.5</code> or <code>.5e3</code>.
+     */
+    private static final Pattern FLOAT_SCALAR = Pattern.compile("\\.[0-9._]*([eE][-+]?[0-9]+)?");
+
+    private final Writer writer;
+
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    /**
+     * A name was written and its value is expected.
+     */
+    private boolean afterName;
+
+    /**
+     * Anything was written.
+     */
+    private boolean started;
+
+    /**
+     * Constructor.
+     *
+     * @param writer The writer to write to.
+     */
+    public YamlWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public YamlWriter beginObject() throws IOException {
+        return open();
+    }
+
+    @Override
+    public YamlWriter endObject() throws IOException {
+        return close("{}");
+    }
+
+    @Override
+    public YamlWriter beginArray() throws IOException {
+        return open();
+    }
+
+    @Override
+    public YamlWriter endArray() throws IOException {
+        return close("[]");
+    }
+
+    @Override
+    public YamlWriter name(String name) throws IOException {
+        Frame frame = frames.peek();
+        position(frame);
+        write(quote(name));
+        write(":");
+        frame.count++;
+        afterName = true;
+        return this;
+    }
+
+    @Override
+    public YamlWriter value(String value) throws IOException {
+        return scalar(value == null ? "null" : quote(value));
+    }
+
+    @Override
+    public YamlWriter value(boolean value) throws IOException {
+        return scalar(String.valueOf(value));
+    }
+
+    @Override
+    public YamlWriter value(Number value) throws IOException {
+        return scalar(String.valueOf(value));
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.write(System.lineSeparator());
+        writer.close();
+    }
+
+    private YamlWriter open() throws IOException {
+        Frame parent = frames.peek();
+        if (parent == null) {
+            frames.push(new Frame(EMPTY_INDENT, false));
+        } else if (afterName) {
+            afterName = false;
+            frames.push(new Frame(parent.indent + INDENT, false));
+        } else {
+            // item of an array, the first member or item is written after the dash
+            startItem(parent);
+            frames.push(new Frame(parent.indent + INDENT, true));
+        }
+        return this;
+    }
+
+    private YamlWriter close(String empty) throws IOException {
+        if (frames.pop().count == 0) {
+            write(started ? " " + empty : empty);
+        }
+        return this;
+    }
+
+    private YamlWriter scalar(String scalar) throws IOException {
+        if (afterName) {
+            afterName = false;
+        } else {
+            startItem(frames.peek());
+        }
+        write(" ");
+        write(scalar);
+        return this;
+    }
+
+    private void startItem(Frame frame) throws IOException {
+        position(frame);
+        write("-");
+        frame.count++;
+    }
+
+    /**
+     * Moves to the start of the next member or item of an object or array.
+     */
+    private void position(Frame frame) throws IOException {
+        if (frame.inline && frame.count == 0) {
+            write(" ");
+        } else if (started) {
+            write(System.lineSeparator());
+            write(frame.indent);
+        }
+    }
+
+    private void write(String value) throws IOException {
+        writer.write(value);
+        started = true;
+    }
+
+    static String quote(String value) {
+        if (PLAIN_SCALAR.matcher(value).matches() && !value.endsWith(" ") &&
+                !RESERVED_SCALARS.contains(value.toLowerCase(Locale.ROOT)) && !FLOAT_SCALAR.matcher(value).matches()) {
+            return value;
+        }
+        return JsonWriter.quote(value);
+    }
+
+    /**
+     * An open object or array.
+     */
+    private static class Frame {
+
+        /**
+         * The indentation of the members or items.
+         */
+        private final String indent;
+
+        /**
+         * The first member or item is written on the line of the dash of the enclosing array.
+         */
+        private final boolean inline;
+
+        private int count;
+
+        private Frame(String indent, boolean inline) {
+            this.indent = indent;
+            this.inline = inline;
+        }
+    }
+}
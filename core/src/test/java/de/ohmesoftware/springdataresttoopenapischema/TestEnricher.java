@@ -0,0 +1,1212 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import de.ohmesoftware.springdataresttoopenapischema.model.subdir.User;
+import de.ohmesoftware.springdataresttoopenapischema.model.subdir.Searchable;
+import de.ohmesoftware.springdataresttoopenapischema.model.subdir.Sortable;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import de.ohmesoftware.springdataresttoopenapischema.repository.*;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Test.
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class TestEnricher {
+
+    /**
+     * The checked-in source files of the test package rewritten by the enrichment.
+     */
+    private static final Map<File, byte[]> CHECKED_IN_SOURCES = new TreeMap<>();
+
+    private static String buildPath(String classOrPackageName) {
+        return "src/test/java/" + classOrPackageName.replace(".", "/");
+    }
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        for (File file : FileUtils.listFiles(new File(buildPath(TestEnricher.class.getPackage().getName())),
+                new String[]{"java", "bak"}, true)) {
+            CHECKED_IN_SOURCES.put(file, FileUtils.readFileToByteArray(file));
+        }
+    }
+
+    /**
+     * Restores the checked-in source files, so the tests do not depend on the output of the test run before and
+     * leave the sources unchanged.
+     */
+    @After
+    public void after() throws Exception {
+        for (Map.Entry<File, byte[]> source : CHECKED_IN_SOURCES.entrySet()) {
+            if (!source.getKey().isFile() ||
+                    !Arrays.equals(source.getValue(), FileUtils.readFileToByteArray(source.getKey()))) {
+                FileUtils.writeByteArrayToFile(source.getKey(), source.getValue());
+            }
+        }
+        for (File file : FileUtils.listFiles(new File(buildPath(TestEnricher.class.getPackage().getName())),
+                new String[]{"java"}, true)) {
+            if (!CHECKED_IN_SOURCES.containsKey(file)) {
+                assertTrue(file.delete());
+            }
+        }
+    }
+
+    @Before
+    public void before() throws Exception {
+        FileUtils.copyFile(new File(buildPath(FooRepository.class.getName()) + ".bak"), new File(buildPath(FooRepository.class.getName()) + ".java"));
+        FileUtils.copyFile(new File(buildPath(UserRepository.class.getName()) + ".bak"), new File(buildPath(UserRepository.class.getName()) + ".java"));
+        FileUtils.copyFile(new File(buildPath(OrganisationRepository.class.getName()) + ".bak"), new File(buildPath(OrganisationRepository.class.getName()) + ".java"));
+        FileUtils.copyFile(new File(buildPath(MiddleRepository.class.getName()) + ".bak"), new File(buildPath(MiddleRepository.class.getName()) + ".java"));
+        FileUtils.copyFile(new File(buildPath(MyCustomOrganisationRepository.class.getName()) + ".bak"),
+                new File(buildPath(MyCustomOrganisationRepository.class.getName()) + ".java"));
+        new File(buildPath(MiddleRepository.class.getPackage().getName()) + "CustomUserRepository.java").delete();
+        new File(buildPath(MiddleRepository.class.getPackage().getName()) + "CustomOrganisationRepository.java").delete();
+        new File(buildPath(TestEnricher.class.getPackage().getName()), ProjectIndex.INDEX_FILE_NAME).delete();
+    }
+
+    @Test
+    public void testFindByIdEnrich() throws Exception {
+        Enricher enricher = new Enricher(buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf("."))), null,
+                Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(UserRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("package de.ohmesoftware.springdataresttoopenapischema.repository;"));
+        assertTrue(newContent.contains("java.util.Optional<de.ohmesoftware.springdataresttoopenapischema.model.subdir.User> findById("));
+        assertTrue(newContent.contains("@javax.ws.rs.Path(\"/people\""));
+        assertTrue(newContent.contains("@javax.ws.rs.Path(\"/{id}\")"));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"UserRepository_findById\", summary = \"Gets a(n) User by its id.\""));
+        assertTrue(newContent.contains("@javax.ws.rs.GET"));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Parameter(required = true, description = \"The database id.\")"));
+        assertTrue(newContent.contains("javax.ws.rs.PathParam(value = \"id\""));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"UserRepository_findById\", summary = \"Gets a(n) User by its id.\", responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"200\", description = \"A user being able to log-in.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.User.class)), @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/hal+json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.User.class)) }) })"));
+        assertTrue(newContent.contains("responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"200\", " +
+                "description = \"A user being able to log-in.\", content = { " +
+                "@io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", " +
+                "schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.User.class)), " +
+                "@io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/hal+json;charset=UTF-8\", " +
+                "schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.User.class)) }) }"));
+    }
+
+    @Test
+    public void testFindByUsernameEnrich() throws Exception {
+        Enricher enricher = new Enricher(buildPath(UserRepository.class.getPackage().getName().substring(0, UserRepository.class.getPackage().getName().lastIndexOf("."))),
+                null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(UserRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"UserRepository_findByFirstName\", summary = \"Find by username.\", description = \"Escape \\\"Test\\\"\""));
+        assertTrue(newContent.contains("@javax.ws.rs.GET"));
+        assertTrue(newContent.contains("@javax.ws.rs.Path(\"/search/findByFirstName\")"));
+        assertFalse(newContent.contains("@io.swagger.v3.oas.annotations.Operation()"));
+        assertTrue(newContent.contains("responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"200\", " +
+                "description = \"A user being able to log-in.\", " +
+                "content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", " +
+                "schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = User.class)), " +
+                "@io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/hal+json;charset=UTF-8\", " +
+                "schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = User.class)) }) }"));
+    }
+
+    @Test
+    public void testFindBetweenWithList() throws Exception {
+        Enricher enricher = new Enricher(buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf("."))), null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(UserRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"UserRepository_findByFirstName\", summary = \"Find by username.\", description = \"Escape \\\"Test\\\"\""));
+        assertTrue(newContent.contains("@javax.ws.rs.GET"));
+        assertTrue(newContent.contains("@javax.ws.rs.Path(\"/search/findByFirstName\")"));
+        assertFalse(newContent.contains("@io.swagger.v3.oas.annotations.Operation()"));
+        assertTrue(newContent.contains("responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"200\", " +
+                "description = \"A user being able to log-in.\", " +
+                "content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", " +
+                "schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = User.class)), " +
+                "@io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/hal+json;charset=UTF-8\", " +
+                "schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = User.class)) }) }"));
+    }
+
+    @Test
+    public void testRemoveByUsernameEnrich() throws Exception {
+        Enricher enricher = new Enricher(buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf("."))), null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(UserRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.tags.Tag(name = \"User Methods\""));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"UserRepository_removeByUsername\", summary = \"Deletes the user.\""));
+        assertTrue(newContent.contains("@javax.ws.rs.DELETE"));
+        assertTrue(newContent.contains("@javax.ws.rs.Path(\"/search/deleteUser\")"));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Parameter(required = true, description = \"The username.\")"));
+        assertTrue(newContent.contains("javax.ws.rs.QueryParam(value = \"username\""));
+        assertTrue(newContent.contains("responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"204\", description = \"No Content.\") }"));
+    }
+
+    @Test
+    public void testFindersEnrich() throws Exception {
+        Enricher enricher = new Enricher(buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf("."))), null, Collections.singleton("**.bak"), false,
+                Searchable.class.getName(), Sortable.class.getName());
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(UserRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"UserRepository_findAll\", summary = \"Finds all Users and returns the result paginated.\", parameters = { @io.swagger.v3.oas.annotations.Parameter(name = \"username\", description = \"username search criteria.\", in = io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY), @io.swagger.v3.oas.annotations.Parameter(name = \"emailAddress\", description = \"emailAddress search criteria.\", in = io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY), @io.swagger.v3.oas.annotations.Parameter(name = \"page\", description = \"The page number to return.\", in = io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY), @io.swagger.v3.oas.annotations.Parameter(name = \"size\", description = \"The page size.\", in = io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY) }, responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"200\", description = \"Paged view with list of: A user being able to log-in.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(ref = \"#/components/schemas/PageUser\")), @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/hal+json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(ref = \"#/components/schemas/PageUser\")) }) })"));
+    }
+
+    @Test
+    public void testFooNoExport() throws Exception {
+        Enricher enricher = new Enricher(buildPath(FooRepository.class.getPackage().getName().substring(0,
+                FooRepository.class.getPackage().getName().lastIndexOf("."))), null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(FooRepository.class.getName()) + ".java")));
+        assertFalse(newContent.contains("@javax.ws.rs.GET"));
+        assertFalse(newContent.contains("@javax.ws.rs.POST"));
+        assertFalse(newContent.contains("@javax.ws.rs.DELETE"));
+        assertFalse(newContent.contains("@io.swagger.v3.oas.annotations.Parameter"));
+    }
+
+    @Test
+    public void testFindersEnrichExistingQuerydslFinder() throws Exception {
+        Enricher enricher = new Enricher(buildPath(OrganisationRepository.class.getPackage().getName().substring(0,
+                OrganisationRepository.class.getPackage().getName().lastIndexOf("."))), null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(OrganisationRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"OrganisationRepository_findAll\", summary = \"Finds all Organisations and returns the result as array.\", responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"200\", description = \"Array of an organisation.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", array = @io.swagger.v3.oas.annotations.media.ArraySchema(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = Organisation.class))), @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/hal+json;charset=UTF-8\", array = @io.swagger.v3.oas.annotations.media.ArraySchema(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = Organisation.class))) }) })"));
+        assertTrue(newContent.contains("Iterable<Organisation> findAll(@io.swagger.v3.oas.annotations.Parameter(hidden = true, name = \"sort\") Sort sort)"));
+        assertTrue(newContent.contains("@javax.ws.rs.GET"));
+        assertTrue(newContent.contains("ArraySchema"));
+    }
+
+    @Test
+    public void testCustomFinderListReturned() throws Exception {
+        Enricher enricher = new Enricher(buildPath(OrganisationRepository.class.getPackage().getName().substring(0,
+                OrganisationRepository.class.getPackage().getName().lastIndexOf("."))), null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(OrganisationRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"OrganisationRepository_findByCreationDateBetween\", summary = \"Custom finder by CreationDateBetween for startDate,endDate.\", responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"200\", description = \"Array of an organisation.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", array = @io.swagger.v3.oas.annotations.media.ArraySchema(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = Organisation.class))), @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/hal+json;charset=UTF-8\", array = @io.swagger.v3.oas.annotations.media.ArraySchema(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = Organisation.class))) }) })"));
+        assertTrue(newContent.contains("List<Organisation> findByCreationDateBetween(@javax.ws.rs.QueryParam(value = \"startDate\") @io.swagger.v3.oas.annotations.Parameter(required = true) Date startDate, @javax.ws.rs.QueryParam(value = \"endDate\") @io.swagger.v3.oas.annotations.Parameter(required = true) Date endDate);"));
+    }
+
+    @Test
+    public void testCustomFinderPageReturned() throws Exception {
+        Enricher enricher = new Enricher(buildPath(OrganisationRepository.class.getPackage().getName().substring(0,
+                OrganisationRepository.class.getPackage().getName().lastIndexOf("."))), null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(OrganisationRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains(" @io.swagger.v3.oas.annotations.Operation(operationId = \"OrganisationRepository_findByNameContaining\", summary = \"Custom finder by NameContaining for name.\", parameters = { @io.swagger.v3.oas.annotations.Parameter(name = \"page\", description = \"The page number to return.\", in = io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY), @io.swagger.v3.oas.annotations.Parameter(name = \"size\", description = \"The page size.\", in = io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY), @io.swagger.v3.oas.annotations.Parameter(name = \"name\", description = \"No description\", in = io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY) })"));
+        assertTrue(newContent.contains("Page<Organisation> findByNameContaining(@io.swagger.v3.oas.annotations.Parameter(hidden = true, name = \"name\") String name, @io.swagger.v3.oas.annotations.Parameter(hidden = true, name = \"pageable\") Pageable pageable);"));
+    }
+
+    @Test
+    public void testDeleteByIdEnricher() throws Exception {
+        Enricher enricher = new Enricher(buildPath(OrganisationRepository.class.getPackage().getName().substring(0,
+                OrganisationRepository.class.getPackage().getName().lastIndexOf("."))), null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(OrganisationRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("@javax.ws.rs.DELETE"));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"OrganisationRepository_deleteById\", summary = \"Deletes a(n) Organisation by its id.\", responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"204\", description = \"No Content.\") })"));
+        assertTrue(newContent.contains("void deleteById(@javax.ws.rs.PathParam(value = \"id\") @io.swagger.v3.oas.annotations.Parameter(required = true, description = \"The database id.\") java.lang.String id)"));
+    }
+
+    @Test
+    public void testCreateEnricher() throws Exception {
+        Enricher enricher = new Enricher(buildPath(OrganisationRepository.class.getPackage().getName().substring(0,
+                OrganisationRepository.class.getPackage().getName().lastIndexOf("."))), null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(OrganisationRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("@javax.ws.rs.POST"));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"OrganisationRepository_save\", summary = \"Creates a(n) Organisation.\", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = \"An organisation.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation.class)) }), responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"201\", description = \"An organisation.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation.class)), @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/hal+json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation.class)) }) })"));
+        assertTrue(newContent.contains("de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation save(de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation entity)"));
+    }
+
+    @Test
+    public void testPutEnricher() throws Exception {
+        Enricher enricher = new Enricher(buildPath(OrganisationRepository.class.getPackage().getName().substring(0, OrganisationRepository.class.getPackage().getName().lastIndexOf("."))), null, Collections.singleton("**.bak"), false,
+                null, null);
+        enricher.enrich();
+        assertFalse(new File(buildPath(OrganisationRepository.class.getPackage().getName()) + "/CustomOrganisationRepository.java").exists());
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(MyCustomOrganisationRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("@javax.ws.rs.PUT"));
+        assertTrue(newContent.contains("@javax.ws.rs.Path(\"/{id}\")"));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"MyCustomOrganisationRepository_update\", summary = \"Updates a(n) Organisation.\", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = \"An organisation.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation.class)) }), responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"204\", description = \"No Content.\"), @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"200\", description = \"An organisation.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation.class)), @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/hal+json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation.class)) }) })"));
+        assertTrue(newContent.replace("\n", "").replace("\r", "").contains("default de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation update(de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation entity) {" +
+                "        return null;" +
+                "    }"));
+    }
+
+    @Test
+    public void testPatchEnricher() throws Exception {
+        Enricher enricher = new Enricher(buildPath(OrganisationRepository.class.getPackage().getName().substring(0, OrganisationRepository.class.getPackage().getName().lastIndexOf("."))),
+                null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        assertFalse(new File(buildPath(OrganisationRepository.class.getPackage().getName()) + "/CustomOrganisationRepository.java").exists());
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(MyCustomOrganisationRepository.class.getName()) + ".java")));
+        assertTrue(newContent.contains("@javax.ws.rs.PATCH"));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"MyCustomOrganisationRepository_patch\", summary = \"Patches a(n) Organisation.\", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = \"An organisation.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation.class)) }), responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"204\", description = \"No Content.\") })"));
+        assertTrue(newContent.replace("\n", "").replace("\r", "").contains("default de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation update(de.ohmesoftware.springdataresttoopenapischema.model.subdir.Organisation entity) {" +
+                "        return null;" +
+                "    }"));
+    }
+
+    @Test
+    public void testPutUserEnricher() throws Exception {
+        Enricher enricher = new Enricher(buildPath(
+                OrganisationRepository.class.getPackage().getName().substring(0, OrganisationRepository.class.getPackage().getName().lastIndexOf("."))),
+                null, Collections.singleton("**.bak"), false, null, null);
+        enricher.enrich();
+        String newContent = IOUtils.toString(new FileReader(new File(buildPath(UserRepository.class.getPackage().getName()) + "/CustomUserRepository.java")));
+        assertTrue(newContent.contains("@javax.ws.rs.PUT"));
+        assertTrue(newContent.contains("@io.swagger.v3.oas.annotations.Operation(operationId = \"CustomUserRepository_update\", summary = \"Updates a(n) User.\", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = \"A user being able to log-in.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.User.class)) }), responses = { @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"204\", description = \"No Content.\"), @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = \"200\", description = \"A user being able to log-in.\", content = { @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.User.class)), @io.swagger.v3.oas.annotations.media.Content(mediaType = \"application/hal+json;charset=UTF-8\", schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = de.ohmesoftware.springdataresttoopenapischema.model.subdir.User.class)) }) })"));
+        assertTrue(newContent.replace("\n", "").replace("\r", "").contains("default de.ohmesoftware.springdataresttoopenapischema.model.subdir.User update(de.ohmesoftware.springdataresttoopenapischema.model.subdir.User entity) {" +
+                "        return null;" +
+                "    }"));
+    }
+
+    @Test
+    public void testCompilationUnitCache() throws Exception {
+        CompilationUnitCache compilationUnitCache = new CompilationUnitCache();
+        File file = new File(buildPath(MiddleRepository.class.getName()) + ".java");
+        String content = compilationUnitCache.get(file).toString();
+        assertEquals(content, compilationUnitCache.get(file).toString());
+        assertEquals(1, compilationUnitCache.getMisses());
+        assertEquals(1, compilationUnitCache.getHits());
+        // copies must not share modifications
+        compilationUnitCache.get(file).getTypes().clear();
+        assertEquals(content, compilationUnitCache.get(file).toString());
+        assertEquals(1, compilationUnitCache.getMisses());
+    }
+
+    @Test
+    public void testTypeIndex() throws Exception {
+        TypeIndex typeIndex = new TypeIndex();
+        String middleRepository = MiddleRepository.class.getName();
+        String pagingAndSortingRepository = "org.springframework.data.repository.PagingAndSortingRepository";
+        String querydslPredicateExecutor = "org.springframework.data.querydsl.QuerydslPredicateExecutor";
+        TypeIndex.TypeLoader typeLoader = c -> c.equals(FooRepository.class.getName()) ?
+                Collections.singletonList(middleRepository) :
+                c.equals(middleRepository) ? Arrays.asList(pagingAndSortingRepository, querydslPredicateExecutor) :
+                        c.equals(CustomFooRepository.class.getName()) ? Collections.emptyList() : null;
+        assertEquals(TypeIndex.CRUD | TypeIndex.QUERYDSL | TypeIndex.REPOSITORY,
+                typeIndex.getFlags(FooRepository.class.getName(), typeLoader));
+        assertEquals(0, typeIndex.getFlags(CustomFooRepository.class.getName(), typeLoader));
+        assertEquals(5, typeIndex.size());
+        // resolved types must not be loaded again
+        assertEquals(TypeIndex.CRUD | TypeIndex.QUERYDSL | TypeIndex.REPOSITORY,
+                typeIndex.getFlags(middleRepository, c -> {
+                    throw new IllegalStateException(c);
+                }));
+    }
+
+    @Test
+    public void testMethodIndex() throws Exception {
+        CompilationUnit compilationUnit = JavaParser.parse("package a; interface R { " +
+                "a.b.User save(a.b.User entity); void delete(User entity); void delete(Long id); }");
+        ClassOrInterfaceDeclaration repository = compilationUnit.getInterfaceByName("R").get();
+        MethodIndex methodIndex = MethodIndex.of(repository);
+        assertSame(methodIndex, MethodIndex.of(repository));
+        // fully qualified and simple class names are aligned
+        assertEquals("save", methodIndex.find("save", "User").getNameAsString());
+        assertEquals("save", methodIndex.find("save", "a.b.User").getNameAsString());
+        assertEquals("entity", methodIndex.find("delete", "x.User").getParameter(0).getNameAsString());
+        assertEquals("id", methodIndex.find("delete", "Long").getParameter(0).getNameAsString());
+        assertNull(methodIndex.find("save", "a.b.Other"));
+        assertNull(methodIndex.find("save"));
+        // changed methods are indexed again
+        repository.addMethod("findAll");
+        methodIndex.find("save", "User").remove();
+        assertNotNull(methodIndex.find("findAll"));
+        assertNull(methodIndex.find("save", "User"));
+    }
+
+    @Test
+    public void testImportIndex() throws Exception {
+        File root = new File("target/imports");
+        FileUtils.deleteQuietly(root);
+        FileUtils.write(new File(root, "a/model/Person.java"), "package a.model; public class Person {}",
+                StandardCharsets.UTF_8);
+        FileUtils.write(new File(root, "a/repository/Local.java"), "package a.repository; public class Local {}",
+                StandardCharsets.UTF_8);
+        File repository = new File(root, "a/repository/PersonRepository.java");
+        FileUtils.write(repository, "package a.repository; import a.model.*; import java.util.*; " +
+                "import org.springframework.data.repository.*; import b.Single; " +
+                "interface PersonRepository {}", StandardCharsets.UTF_8);
+        CompilationUnit compilationUnit = new CompilationUnitCache().get(repository);
+        assertEquals("a.model.Person", ResourceHandler.getFullClassName(compilationUnit, "Person"));
+        assertEquals("a.repository.Local", ResourceHandler.getFullClassName(compilationUnit, "Local"));
+        assertEquals("b.Single", ResourceHandler.getFullClassName(compilationUnit, "Single"));
+        assertEquals("java.util.List", ResourceHandler.getFullClassName(compilationUnit, "List"));
+        assertEquals("java.lang.Number", ResourceHandler.getFullClassName(compilationUnit, "Number"));
+        // unknown types, e.g. created in this run, are in the same package
+        assertEquals("a.repository.CustomPersonRepository",
+                ResourceHandler.getFullClassName(compilationUnit, "CustomPersonRepository"));
+        // changed imports are taken into account
+        compilationUnit.addImport("c.Person");
+        assertEquals("c.Person", ResourceHandler.getFullClassName(compilationUnit, "Person"));
+    }
+
+    @Test
+    public void testCacheBudget() throws Exception {
+        File root = new File("target/cache");
+        FileUtils.deleteQuietly(root);
+        StringBuilder fields = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            fields.append(String.format("    private String field%d;%n", i));
+        }
+        File[] files = new File[3];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new File(root, String.format("a/Type%d.java", i));
+            FileUtils.write(files[i], String.format("package a;%n/**%n * Type %d.%n */%npublic class Type%d " +
+                    "extends Base {%n%s}%n", i, i, fields), StandardCharsets.UTF_8);
+        }
+        RunMetrics metrics = new RunMetrics();
+        // a parsed file is estimated with more than 0.5 MB
+        CompilationUnitCache compilationUnitCache = new CompilationUnitCache(null, false, metrics, 1);
+        for (File file : files) {
+            assertNotNull(compilationUnitCache.getTypeModel(file));
+        }
+        assertEquals(2, metrics.getCacheEvictions());
+        assertEquals(1, compilationUnitCache.size());
+        assertTrue(compilationUnitCache.getUsedBytes() > 0);
+        // the type model is kept after the compilation unit was evicted
+        ProjectModel.TypeModel typeModel = compilationUnitCache.getTypeModel(files[0]);
+        assertEquals("a.Type0", typeModel.getQualifiedName());
+        assertEquals(Collections.singletonList("a.Base"), typeModel.getSupertypes());
+        assertEquals(3, metrics.getParsedFiles());
+        assertEquals(0, metrics.getCacheReparses());
+        // the compilation unit is parsed again
+        assertEquals("Type0", compilationUnitCache.get(files[0]).getType(0).getNameAsString());
+        assertEquals(4, metrics.getParsedFiles());
+        assertEquals(1, metrics.getCacheReparses());
+        assertEquals(3, metrics.getCacheEvictions());
+    }
+
+    @Test
+    public void testWorkspaceReadParsed() throws Exception {
+        Workspace workspace = new Workspace(new CompilationUnitCache());
+        File repository = new File(buildPath(UserRepository.class.getName()) + ".java");
+        CompilationUnit dirty = workspace.get(repository);
+        dirty.getType(0).addMarkerAnnotation("Dirty");
+        workspace.save(repository, dirty);
+        assertSame(dirty, workspace.get(repository));
+        // a reader gets the parsed source file instead of the dirty compilation unit
+        CompilationUnit parsed = workspace.readParsed(() -> workspace.get(repository));
+        assertTrue(parsed != dirty);
+        assertFalse(parsed.getType(0).getAnnotationByName("Dirty").isPresent());
+        // a created source file is read as saved
+        File created = new File(repository.getParentFile(), "CreatedRepository.java");
+        CompilationUnit createdUnit = new CompilationUnit("a");
+        createdUnit.addInterface("CreatedRepository");
+        workspace.save(created, createdUnit);
+        createdUnit.getType(0).addMarkerAnnotation("Dirty");
+        CompilationUnit saved = workspace.readParsed(() -> workspace.get(created));
+        assertTrue(saved != createdUnit);
+        assertEquals("CreatedRepository", saved.getType(0).getNameAsString());
+        assertFalse(saved.getType(0).getAnnotationByName("Dirty").isPresent());
+    }
+
+    @Test
+    public void testManifestDependencies() throws Exception {
+        File root = new File("target/manifest");
+        FileUtils.deleteQuietly(root);
+        File repository = new File(root, "Repository.java");
+        File supertype = new File(root, "Supertype.java");
+        File missing = new File(root, "Missing.java");
+        FileUtils.write(repository, "interface Repository extends Supertype {}", StandardCharsets.UTF_8);
+        FileUtils.write(supertype, "interface Supertype {}", StandardCharsets.UTF_8);
+        Manifest manifest = new Manifest(new File(root, Manifest.MANIFEST_FILE_NAME), "");
+        manifest.put(repository.getCanonicalPath(), new HashSet<>(Arrays.asList(supertype.getCanonicalPath(),
+                missing.getCanonicalPath())));
+        assertTrue(manifest.isUpToDate(repository.getCanonicalPath()));
+        // the shared supertype is hashed again after it has changed
+        FileUtils.write(supertype, "interface Supertype extends Other {}", StandardCharsets.UTF_8);
+        assertFalse(manifest.isUpToDate(repository.getCanonicalPath()));
+        FileUtils.write(supertype, "interface Supertype {}", StandardCharsets.UTF_8);
+        assertTrue(manifest.isUpToDate(repository.getCanonicalPath()));
+        // a missing dependency is recorded as missing until it is created
+        FileUtils.write(missing, "interface Missing {}", StandardCharsets.UTF_8);
+        assertFalse(manifest.isUpToDate(repository.getCanonicalPath()));
+        assertTrue(missing.delete());
+        assertTrue(manifest.isUpToDate(repository.getCanonicalPath()));
+    }
+
+    @Test
+    public void testParallelEnrich() throws Exception {
+        String sourcePath = buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf(".")));
+        File repositoryDir = new File(buildPath(UserRepository.class.getPackage().getName()));
+        new Enricher(sourcePath, null, Collections.singleton("**.bak"), false, null, null).enrich();
+        Map<String, String> sequentialContents = new HashMap<>();
+        for (File file : FileUtils.listFiles(repositoryDir, new String[]{"java"}, false)) {
+            sequentialContents.put(file.getName(), FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        }
+        before();
+        new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).threads(4).build().enrich();
+        for (File file : FileUtils.listFiles(repositoryDir, new String[]{"java"}, false)) {
+            assertEquals(file.getName(), sequentialContents.get(file.getName()),
+                    FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testIncrementalEnrich() throws Exception {
+        String sourcePath = buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf(".")));
+        Enricher enricher = new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).full(true).
+                build();
+        enricher.enrich();
+        assertEquals(0, enricher.getSkippedFiles());
+        // stable after the first run
+        enricher.enrich();
+        int files = enricher.getProcessedFiles();
+        enricher = new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).build();
+        enricher.enrich();
+        assertEquals(0, enricher.getProcessedFiles());
+        assertEquals(files, enricher.getSkippedFiles());
+        // changed files and files depending on them are enriched again
+        File organisationRepository = new File(buildPath(OrganisationRepository.class.getName()) + ".java");
+        String content = FileUtils.readFileToString(organisationRepository, StandardCharsets.UTF_8);
+        FileUtils.copyFile(new File(buildPath(MyCustomOrganisationRepository.class.getName()) + ".bak"),
+                new File(buildPath(MyCustomOrganisationRepository.class.getName()) + ".java"));
+        enricher.enrich();
+        assertTrue(enricher.getProcessedFiles() > 0);
+        assertEquals(files, enricher.getProcessedFiles() + enricher.getSkippedFiles());
+        assertEquals(content, FileUtils.readFileToString(organisationRepository, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSourceFileFilter() throws Exception {
+        SourceFileFilter sourceFileFilter = new SourceFileFilter(Collections.singleton("**Repository.java"),
+                new HashSet<>(Arrays.asList("**.bak", "**/model")));
+        assertTrue(sourceFileFilter.isExcludedDirectory(Paths.get(buildPath(Searchable.class.getPackage().getName())).
+                getParent()));
+        assertFalse(sourceFileFilter.isExcludedDirectory(Paths.get(buildPath(UserRepository.class.getPackage().getName()))));
+        Path userRepository = Paths.get(buildPath(UserRepository.class.getName()) + ".java");
+        assertTrue(sourceFileFilter.isIncludedFile(userRepository,
+                Files.readAttributes(userRepository, BasicFileAttributes.class)));
+        Path userRepositoryBackup = Paths.get(buildPath(UserRepository.class.getName()) + ".bak");
+        assertFalse(sourceFileFilter.isIncludedFile(userRepositoryBackup,
+                Files.readAttributes(userRepositoryBackup, BasicFileAttributes.class)));
+        assertEquals(1, sourceFileFilter.getPrunedDirectories());
+        assertEquals(1, sourceFileFilter.getExcludedFiles());
+    }
+
+    @Test
+    public void testProjectModel() throws Exception {
+        String sourcePath = buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf(".")));
+        new Enricher(sourcePath, null, Collections.singleton("**.bak"), false, null, null).enrich();
+        ProjectModel projectModel = ProjectModel.build(Paths.get(sourcePath), new CompilationUnitCache(), 2);
+        ProjectModel.TypeModel userRepository = projectModel.getType(UserRepository.class.getName());
+        assertTrue(userRepository.isInterface());
+        assertEquals(Arrays.asList("org.springframework.data.repository.PagingAndSortingRepository",
+                "org.springframework.data.querydsl.QuerydslPredicateExecutor", CustomUserRepository.class.getName()),
+                userRepository.getSupertypes());
+        assertEquals(Arrays.asList("User", "String"),
+                userRepository.getSupertypeArguments("org.springframework.data.repository.PagingAndSortingRepository"));
+        assertEquals("people", userRepository.getResourcePath());
+        assertTrue(userRepository.getResourceExported());
+        ProjectModel.TypeModel user = projectModel.getType("de.ohmesoftware.springdataresttoopenapischema.model.subdir.User");
+        assertEquals("A user being able to log-in.", user.getJavadocSummary());
+        assertEquals(Arrays.asList("username", "emailAddress"), user.getAnnotationValues("Searchable"));
+        assertEquals(Collections.singletonList("de.ohmesoftware.springdataresttoopenapischema.model.subdir.Base"),
+                user.getSupertypes());
+    }
+
+    @Test
+    public void testPatchEnrich() throws Exception {
+        assertEquals("--- a/x\n+++ b/x\n@@ -1,3 +1,3 @@\n a\n-b\n+c\n d\n",
+                UnifiedDiff.diff("a/x", "b/x", "a\nb\nd\n", "a\nc\nd\n"));
+        String sourcePath = buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf(".")));
+        Map<String, String> contents = new HashMap<>();
+        for (File file : FileUtils.listFiles(new File(sourcePath), new String[]{"java"}, true)) {
+            contents.put(file.getPath(), FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        }
+        File patchFile = new File("target/patch/enrich.patch");
+        File patchDir = new File("target/patch/files");
+        FileUtils.deleteQuietly(patchFile.getParentFile());
+        new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).patchFile(patchFile.getPath()).
+                patchDir(patchDir.getPath()).build().enrich();
+        Collection<File> files = FileUtils.listFiles(new File(sourcePath), new String[]{"java"}, true);
+        assertEquals(contents.size(), files.size());
+        for (File file : files) {
+            assertEquals(file.getPath(), contents.get(file.getPath()),
+                    FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        }
+        // the patch covers exactly the source files changed by writing them
+        new Enricher(sourcePath, null, Collections.singleton("**.bak"), false, null, null).enrich();
+        String patch = FileUtils.readFileToString(patchFile, StandardCharsets.UTF_8);
+        int changedFiles = 0;
+        for (File file : FileUtils.listFiles(new File(sourcePath), new String[]{"java"}, true)) {
+            String name = Paths.get(sourcePath).relativize(file.toPath()).toString().replace('\\', '/');
+            if (!FileUtils.readFileToString(file, StandardCharsets.UTF_8).equals(contents.get(file.getPath()))) {
+                changedFiles++;
+                assertTrue(name, patch.contains("+++ b/" + name + "\n"));
+                assertTrue(name, new File(patchDir, name + ".patch").exists());
+            } else {
+                assertFalse(name, patch.contains("+++ b/" + name + "\n"));
+            }
+        }
+        assertTrue(changedFiles > 0);
+        assertEquals(changedFiles, FileUtils.listFiles(patchDir, new String[]{"patch"}, true).size());
+    }
+
+    @Test
+    public void testPreserveFormattingEnrich() throws Exception {
+        String sourcePath = buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf(".")));
+        File repositoryDir = new File(buildPath(UserRepository.class.getPackage().getName()));
+        new Enricher(sourcePath, null, Collections.singleton("**.bak"), false, null, null).enrich();
+        Map<String, CompilationUnit> printedUnits = new HashMap<>();
+        for (File file : FileUtils.listFiles(repositoryDir, new String[]{"java"}, false)) {
+            printedUnits.put(file.getName(), JavaParser.parse(file));
+        }
+        before();
+        Enricher enricher = new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).
+                preserveFormatting(true).full(true).build();
+        enricher.enrich();
+        // only the annotations are added, the blank line between the imports is kept
+        String fooRepository = FileUtils.readFileToString(new File(buildPath(FooRepository.class.getName()) + ".java"),
+                StandardCharsets.UTF_8);
+        assertEquals(FileUtils.readFileToString(new File(buildPath(FooRepository.class.getName()) + ".bak"),
+                StandardCharsets.UTF_8),
+                fooRepository.replace("@javax.ws.rs.Path(\"/foos\")\n", "").
+                        replace("@io.swagger.v3.oas.annotations.tags.Tag(name = \"Foo Methods\")\n", ""));
+        // same code as printed
+        Map<String, String> contents = new HashMap<>();
+        for (File file : FileUtils.listFiles(repositoryDir, new String[]{"java"}, false)) {
+            assertEquals(file.getName(), printedUnits.get(file.getName()), JavaParser.parse(file));
+            contents.put(file.getName(), FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        }
+        // stable bytes
+        enricher.enrich();
+        for (File file : FileUtils.listFiles(repositoryDir, new String[]{"java"}, false)) {
+            assertEquals(file.getName(), contents.get(file.getName()),
+                    FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        }
+        new Enricher(sourcePath, null, Collections.singleton("**.bak"), false, null, null).enrich();
+    }
+
+    @Test
+    public void testOpenApiDocument() throws Exception {
+        String sourcePath = buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf(".")));
+        File jsonFile = new File("target/openapi/openapi.json");
+        File yamlFile = new File("target/openapi/openapi.yaml");
+        FileUtils.deleteQuietly(jsonFile.getParentFile());
+        jsonFile.getParentFile().mkdirs();
+        new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).
+                openApiOut(jsonFile.getPath()).build().enrich();
+        String json = FileUtils.readFileToString(jsonFile, StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("{\n  \"openapi\": \"3.0.1\",".replace("\n", System.lineSeparator())));
+        assertTrue(json.contains("\"/people/search/findByFirstName\": {"));
+        assertTrue(json.contains("\"operationId\": \"UserRepository_findByFirstName\""));
+        assertTrue(json.contains("\"$ref\": \"#/components/schemas/User\""));
+        // the update method of the custom repository interface
+        assertTrue(json.contains("\"operationId\": \"CustomUserRepository_update\""));
+        // the schemas of the components
+        assertTrue(json.contains("\"PageUser\": {"));
+        assertTrue(json.contains("\"description\": \"A user being able to log-in.\""));
+        assertTrue(json.contains("\"writeOnly\": true"));
+        assertFalse(json.contains("\"extra\""));
+        // the operations of the skipped unchanged files are also written, files without repository are only parsed
+        // for the schemas
+        Enricher enricher = new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).
+                openApiOut(yamlFile.getPath()).build();
+        enricher.enrich();
+        assertTrue(enricher.getMetrics().getParsedFiles() < enricher.getMetrics().getIncludedFiles());
+        String yaml = FileUtils.readFileToString(yamlFile, StandardCharsets.UTF_8);
+        assertTrue(yaml.startsWith("openapi: \"3.0.1\"\ninfo:\n  title: Spring Data REST API\n".replace("\n",
+                System.lineSeparator())));
+        assertTrue(yaml.contains("\n  /people/search/findByFirstName:\n    get:\n      tags:\n        - User Methods\n".
+                replace("\n", System.lineSeparator())));
+        assertTrue(yaml.contains("\n        - name: firstName\n          in: query\n".replace("\n",
+                System.lineSeparator())));
+        assertTrue(yaml.contains("\n        \"200\":\n".replace("\n", System.lineSeparator())));
+        assertTrue(yaml.contains("$ref: \"#/components/schemas/User\""));
+        assertEquals(json.split("\"operationId\"").length, yaml.split(" operationId: ").length);
+    }
+
+    @Test
+    public void testYamlScalars() throws Exception {
+        for (String value : Arrays.asList("~", "null", "Null", "true", "No", "off", "y", ".inf", ".Inf", "-.inf",
+                "+.INF", ".nan", ".NaN", ".NAN", ".", ".5", ".5e3", "1", "0x1F", "-1.5", "1_000", "")) {
+            assertEquals(value, "\"" + value + "\"", YamlWriter.quote(value));
+        }
+        for (String value : Arrays.asList("User Methods", "/people/search/findByFirstName", "application/json",
+                "$ref", ".info", "infinity", "nan")) {
+            assertEquals(value, value, YamlWriter.quote(value));
+        }
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        String sourcePath = buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf(".")));
+        File metricsFile = new File("target/metrics/metrics.json");
+        FileUtils.deleteQuietly(metricsFile);
+        Enricher enricher = new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).
+                metricsOut(metricsFile.getPath()).build();
+        enricher.enrich();
+        RunMetrics metrics = enricher.getMetrics();
+        assertEquals(metrics.getVisitedFiles(), metrics.getIncludedFiles() + metrics.getExcludedFiles());
+        assertTrue(metrics.getExcludedFiles() > 0);
+        assertTrue(metrics.getParsedFiles() >= metrics.getIncludedFiles());
+        assertTrue(metrics.getChangedFiles() > 0);
+        // each changed file is written once at the end of the run
+        assertEquals(metrics.getChangedFiles(), metrics.getWrittenFiles());
+        assertTrue(metrics.getBytesRead() > 0);
+        assertTrue(metrics.getBytesWritten() > 0);
+        assertTrue(metrics.getPhaseTime(RunMetrics.HANDLE) > 0);
+        assertTrue(metrics.getPhaseTime(RunMetrics.PARSE) > 0);
+        assertEquals(8, metrics.getHandlerTimes().size());
+        assertTrue(metrics.getHandlerTimes().containsKey(FindByIdResourceMethodHandler.class.getSimpleName()));
+        // the domain types are documented once per run and looked up by several handlers
+        assertTrue(metrics.getDomainTypeMisses() > 0);
+        assertTrue(metrics.getDomainTypeHits() > metrics.getDomainTypeMisses());
+        String json = FileUtils.readFileToString(metricsFile, StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"included\": " + metrics.getIncludedFiles()));
+        assertTrue(json.contains("\"" + RunMetrics.WALK + "\": {\"count\": 1"));
+        assertTrue(json.contains("\"" + PatchResourceMethodHandler.class.getSimpleName() + "\""));
+        assertTrue(json.contains("\"domainTypes\": {\n    \"hits\": " + metrics.getDomainTypeHits()));
+        // enriching again does not change anything, so nothing is written
+        File userRepository = new File(buildPath(UserRepository.class.getName()) + ".java");
+        assertTrue(userRepository.setLastModified(1000L));
+        enricher = new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).full(true).build();
+        enricher.enrich();
+        assertEquals(0, enricher.getMetrics().getWrittenFiles());
+        assertEquals(0, enricher.getMetrics().getChangedFiles());
+        assertEquals(1000L, userRepository.lastModified());
+    }
+
+    @Test
+    public void testRepositoryPreFilter() throws Exception {
+        String sourcePath = buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf(".")));
+        Enricher enricher = new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).full(true).
+                build();
+        enricher.enrich();
+        RunMetrics metrics = enricher.getMetrics();
+        // the domain classes are not enriched, but still parsed for the documentation
+        assertTrue(metrics.getFilteredFiles() > 0);
+        assertEquals(metrics.getIncludedFiles(), metrics.getFilteredFiles() + metrics.getProcessedFiles());
+        assertTrue(metrics.toJson().contains("\"filtered\": " + metrics.getFilteredFiles()));
+        assertTrue(FileUtils.readFileToString(new File(buildPath(UserRepository.class.getName()) + ".java"),
+                StandardCharsets.UTF_8).
+                contains("@javax.ws.rs.Path(\"/people\")"));
+        RepositoryPreFilter repositoryPreFilter = new RepositoryPreFilter(metrics);
+        assertFalse(repositoryPreFilter.isFiltered(new File(buildPath(FooRepository.class.getName()) + ".java"),
+                "FooRepository"));
+        assertTrue(repositoryPreFilter.isFiltered(new File(buildPath(User.class.getName()) + ".java"), "User"));
+        assertEquals(1, repositoryPreFilter.getFilteredFiles());
+        byte[] bytes = "@RepositoryRestResource".getBytes(StandardCharsets.UTF_8);
+        assertEquals(11, RepositoryPreFilter.indexOf(bytes, bytes.length));
+        assertEquals(-1, RepositoryPreFilter.indexOf(bytes, bytes.length - 1));
+    }
+
+    @Test
+    public void testRepositoryPreFilterUnannotatedRepository() throws Exception {
+        File root = new File("target/prefilter");
+        FileUtils.deleteQuietly(root);
+        FileUtils.write(new File(root, "a/model/Item.java"), String.format("package a.model;%n%n/**%n * An item.%n */%n" +
+                "public class Item {%n%n    public String name;%n%n}%n"), StandardCharsets.UTF_8);
+        File itemRepository = new File(root, "a/repository/ItemRepository.java");
+        String itemContent = String.format("package a.repository;%n%n" +
+                "import a.model.Item;%n" +
+                "import org.springframework.data.querydsl.QuerydslPredicateExecutor;%n" +
+                "import org.springframework.data.repository.CrudRepository;%n%n" +
+                "public interface ItemRepository extends CrudRepository<Item, String>, " +
+                "QuerydslPredicateExecutor<Item> {%n}%n");
+        FileUtils.write(itemRepository, itemContent, StandardCharsets.UTF_8);
+        Enricher enricher = new Enricher.Builder(root.getPath()).build();
+        enricher.enrich();
+        // a repository exported by the default detection of Spring Data REST without annotation is not enriched
+        assertEquals(2, enricher.getMetrics().getFilteredFiles());
+        assertEquals(0, enricher.getMetrics().getProcessedFiles());
+        assertEquals(itemContent, FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8));
+        // it is enriched once annotated
+        FileUtils.write(itemRepository, itemContent.replace("public interface",
+                "@org.springframework.data.rest.core.annotation.RepositoryRestResource" + System.lineSeparator() +
+                        "public interface"), StandardCharsets.UTF_8);
+        enricher = new Enricher.Builder(root.getPath()).build();
+        enricher.enrich();
+        assertEquals(1, enricher.getMetrics().getFilteredFiles());
+        assertTrue(FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8).
+                contains("@javax.ws.rs.Path(\"/items\")"));
+    }
+
+    @Test
+    public void testEnrichmentPipeline() throws Exception {
+        String sourcePath = buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf(".")));
+        Enricher enricher = new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).full(true).
+                threads(2).build();
+        enricher.enrich();
+        RunMetrics metrics = enricher.getMetrics();
+        assertEquals(metrics.getIncludedFiles(), metrics.getStageFiles(EnrichmentPipeline.DISCOVER));
+        assertEquals(metrics.getIncludedFiles(), metrics.getStageFiles(EnrichmentPipeline.READ));
+        assertEquals(metrics.getProcessedFiles(), metrics.getStageFiles(EnrichmentPipeline.PARSE));
+        assertEquals(metrics.getProcessedFiles(), metrics.getStageFiles(EnrichmentPipeline.ENRICH));
+        assertTrue(metrics.getStageMaxQueueDepth(EnrichmentPipeline.READ) > 0);
+        assertTrue(metrics.getStageMaxQueueDepth(EnrichmentPipeline.DISCOVER) <=
+                EnrichmentPipeline.QUEUED_PER_THREAD * 2);
+        assertTrue(metrics.toJson().contains("\"" + EnrichmentPipeline.ENRICH + "\": {\"files\": " +
+                metrics.getProcessedFiles()));
+        assertTrue(FileUtils.readFileToString(new File(buildPath(UserRepository.class.getName()) + ".java"),
+                StandardCharsets.UTF_8).
+                contains("@javax.ws.rs.Path(\"/people\")"));
+    }
+
+    @Test
+    public void testSourceRoots() throws Exception {
+        File root = new File("target/modules");
+        FileUtils.deleteQuietly(root);
+        File item = new File(root, "model/src/main/java/a/model/Item.java");
+        FileUtils.write(item, String.format("package a.model;%n%n/**%n * An item.%n */%npublic class Item {%n%n" +
+                "    /**%n     * The name.%n     */%n    public String name;%n%n}%n"), StandardCharsets.UTF_8);
+        File itemRepository = new File(root, "api/src/main/java/a/repository/ItemRepository.java");
+        FileUtils.write(itemRepository, String.format("package a.repository;%n%n" +
+                "import a.model.*;%n" +
+                "import org.springframework.data.repository.CrudRepository;%n" +
+                "import org.springframework.data.rest.core.annotation.RepositoryRestResource;%n%n" +
+                "@RepositoryRestResource%n" +
+                "public interface ItemRepository extends CrudRepository<Item, Long> {%n}%n"), StandardCharsets.UTF_8);
+        String itemContent = FileUtils.readFileToString(item, StandardCharsets.UTF_8);
+        // the repository module is passed as package directory
+        String sourcePath = new File(root, "api/src/main/java/a").getPath();
+        String referencePath = new File(root, "model/src/main/java").getPath();
+        SourceRoots sourceRoots = new SourceRoots(sourcePath, referencePath + SourceRoots.SEPARATOR + sourcePath);
+        assertEquals(2, sourceRoots.getPaths().size());
+        assertEquals(Paths.get(root.getPath(), "api/src/main/java"), sourceRoots.getSourceRoots().get(
+                Paths.get(sourcePath)));
+        assertTrue(sourceRoots.isEnriched(itemRepository));
+        assertFalse(sourceRoots.isEnriched(item));
+        TypeLocationIndex typeLocationIndex = new TypeLocationIndex(sourceRoots);
+        assertEquals(item.getPath(), typeLocationIndex.locate("a.model.Item").getPath());
+        assertNull(typeLocationIndex.locate("a.Item"));
+        assertEquals(2, typeLocationIndex.size());
+
+        Enricher enricher = new Enricher.Builder(sourcePath).referencePath(referencePath).build();
+        enricher.enrich();
+        String repositoryContent = FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8);
+        // the domain class of the other module is resolved by the wild card import
+        assertTrue(repositoryContent, repositoryContent.contains("An item."));
+        assertEquals(itemContent, FileUtils.readFileToString(item, StandardCharsets.UTF_8));
+        assertEquals(1, enricher.getMetrics().getProcessedFiles());
+        // the located domain class of the reference path is a dependency
+        FileUtils.write(item, itemContent.replace("An item.", "A changed item."), StandardCharsets.UTF_8);
+        enricher = new Enricher.Builder(sourcePath).referencePath(referencePath).build();
+        enricher.enrich();
+        assertTrue(FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8).contains("A changed item."));
+        // an added reference path resolving the domain class first is part of the configuration
+        File otherItem = new File(root, "other/src/main/java/a/model/Item.java");
+        FileUtils.write(otherItem, itemContent.replace("An item.", "Another item."), StandardCharsets.UTF_8);
+        enricher = new Enricher.Builder(sourcePath).referencePath(otherItem.getParentFile().getParentFile().
+                getParent() + SourceRoots.SEPARATOR + referencePath).build();
+        enricher.enrich();
+        assertTrue(FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8).contains("Another item."));
+    }
+
+    @Test
+    public void testChangeTracker() throws Exception {
+        File root = new File("target/changetracker");
+        FileUtils.deleteQuietly(root);
+        FileUtils.write(new File(root, "a/model/Item.java"), String.format("package a.model;%n%n/**%n * An item.%n */%n" +
+                "public class Item {%n%n    /**%n     * The name.%n     */%n    public String name;%n%n}%n"),
+                StandardCharsets.UTF_8);
+        File customRepository = new File(root, "a/repository/CustomItemRepository.java");
+        FileUtils.write(customRepository, String.format("package a.repository;%n%n" +
+                "import a.model.Item;%n" +
+                "import java.util.List;%n%n" +
+                "public interface CustomItemRepository {%n%n" +
+                "    List<Item> findByName(String name);%n}%n"), StandardCharsets.UTF_8);
+        File itemRepository = new File(root, "a/repository/ItemRepository.java");
+        FileUtils.write(itemRepository, String.format("package a.repository;%n%n" +
+                "import a.model.Item;%n" +
+                "import org.springframework.data.repository.CrudRepository;%n" +
+                "import org.springframework.data.rest.core.annotation.RepositoryRestResource;%n%n" +
+                "@RepositoryRestResource%n" +
+                "interface SpecialRepository {%n}%n%n" +
+                "@RepositoryRestResource%n" +
+                "public interface ItemRepository extends CrudRepository<Item, String>, CustomItemRepository {%n}%n"),
+                StandardCharsets.UTF_8);
+        new Enricher.Builder(root.getPath()).preserveFormatting(true).build().enrich();
+        // the repository without domain type is skipped, the repository after it is still enriched
+        CompilationUnit compilationUnit = JavaParser.parse(itemRepository);
+        assertFalse(compilationUnit.getInterfaceByName("SpecialRepository").get().
+                getAnnotationByName("Path").isPresent());
+        assertEquals("@javax.ws.rs.Path(\"/items\")", compilationUnit.getInterfaceByName("ItemRepository").get().
+                getAnnotationByName("Path").get().toString());
+        String customContent = FileUtils.readFileToString(customRepository, StandardCharsets.UTF_8);
+        assertTrue(customContent, customContent.contains("@javax.ws.rs.Path(\"/search/findByName\")"));
+        // the unchanged annotations and methods of the custom interface are kept, its formatting is kept
+        customContent = customContent.replace("List<Item> findByName(", "List<Item>  findByName(").
+                replace("Item update(", "Item  update(");
+        FileUtils.write(customRepository, customContent, StandardCharsets.UTF_8);
+        String itemContent = FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8);
+        Enricher enricher = new Enricher.Builder(root.getPath()).preserveFormatting(true).full(true).build();
+        enricher.enrich();
+        assertEquals(customContent, FileUtils.readFileToString(customRepository, StandardCharsets.UTF_8));
+        assertEquals(itemContent, FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8));
+        // a changed domain summary only replaces the annotations containing it
+        FileUtils.write(new File(root, "a/model/Item.java"), FileUtils.readFileToString(
+                new File(root, "a/model/Item.java"), StandardCharsets.UTF_8).replace("An item.", "A thing."),
+                StandardCharsets.UTF_8);
+        new Enricher.Builder(root.getPath()).preserveFormatting(true).full(true).build().enrich();
+        assertEquals(customContent, FileUtils.readFileToString(customRepository, StandardCharsets.UTF_8).
+                replace("a thing.", "an item.").replace("A thing.", "An item."));
+        assertEquals(itemContent, FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8).
+                replace("a thing.", "an item.").replace("A thing.", "An item."));
+    }
+
+    @Test
+    public void testClassPathTypes() throws Exception {
+        File root = new File("target/library");
+        FileUtils.deleteQuietly(root);
+        File baseRepository = new File(root, "library/shared/BaseRepository.java");
+        FileUtils.write(baseRepository, String.format("package shared;%n%n" +
+                "public interface BaseRepository<T> extends " +
+                "org.springframework.data.repository.PagingAndSortingRepository<T, Long> {%n}%n"),
+                StandardCharsets.UTF_8);
+        File baseEntity = new File(root, "library/shared/BaseEntity.java");
+        FileUtils.write(baseEntity, String.format("package shared;%n%n" +
+                "@%s({\"name\", \"created\"})%n" +
+                "public abstract class BaseEntity {%n%n    public java.util.Date created;%n}%n",
+                Sortable.class.getName()), StandardCharsets.UTF_8);
+        File classes = new File(root, "classes");
+        File jar = new File(root, "shared.jar");
+        buildJar(jar, classes, baseRepository, baseEntity);
+        ClassFileReader.ClassHeader classHeader = ClassFileReader.read(FileUtils.readFileToByteArray(
+                new File(classes, "shared/BaseRepository.class")));
+        assertEquals("shared.BaseRepository", classHeader.getName());
+        assertTrue(classHeader.isInterface());
+        assertEquals(Collections.singletonList("T"), classHeader.getTypeParameters());
+        assertEquals(Arrays.asList("T", "java.lang.Long"),
+                classHeader.getGenericSupertypes().get(0).getTypeArguments());
+        RunMetrics metrics = new RunMetrics();
+        JarCache jarCache = new JarCache();
+        ClassPathTypeProvider classPathTypes = new ClassPathTypeProvider(Collections.singletonList(jar), jarCache,
+                metrics, f -> {
+        });
+        assertEquals(Collections.singletonList("org.springframework.data.repository.PagingAndSortingRepository"),
+                classPathTypes.getSupertypes("shared.BaseRepository"));
+        assertEquals(Arrays.asList("Item", "java.lang.Long"), classPathTypes.getTypeArguments(
+                "shared.BaseRepository", Collections.singletonList("Item"),
+                Collections.singleton("PagingAndSortingRepository")));
+        assertEquals(Arrays.asList("name", "created"), classPathTypes.getType("shared.BaseEntity").
+                getAnnotationValues(Sortable.class.getSimpleName()));
+        assertNull(classPathTypes.getType("shared.Missing"));
+        assertEquals(2, metrics.getClassFiles());
+        // cached per jar
+        long jarReads = jarCache.getReads(jar);
+        assertNotNull(new ClassPathTypeProvider(Collections.singletonList(jar), jarCache, new RunMetrics(), f -> {
+        }).getType("shared.BaseRepository"));
+        assertEquals(jarReads, jarCache.getReads(jar));
+        assertEquals(1, jarCache.size());
+        // a shared jar cache is closed by its owner
+        classPathTypes.close();
+        assertEquals(1, jarCache.size());
+        jarCache.close();
+        assertEquals(0, jarCache.size());
+
+        File itemRepository = new File(root, "src/a/ItemRepository.java");
+        FileUtils.write(itemRepository, String.format("package a;%n%n" +
+                "import org.springframework.data.rest.core.annotation.RepositoryRestResource;%n" +
+                "import shared.BaseRepository;%n%n" +
+                "@RepositoryRestResource%n" +
+                "public interface ItemRepository extends BaseRepository<Item> {%n}%n"), StandardCharsets.UTF_8);
+        FileUtils.write(new File(root, "src/a/Item.java"), String.format("package a;%n%n" +
+                "import shared.BaseEntity;%n%n" +
+                "/**%n * An item.%n */%npublic class Item extends BaseEntity {%n%n" +
+                "    /**%n     * The name.%n     */%n    public String name;%n}%n"), StandardCharsets.UTF_8);
+        Enricher enricher = new Enricher.Builder(new File(root, "src").getPath()).classPath(jar.getPath()).
+                sortableAnnotation(Sortable.class.getName()).build();
+        enricher.enrich();
+        String content = FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8);
+        // ID type from the binary repository interface
+        assertTrue(content.contains("void deleteById(@javax.ws.rs.PathParam(value = \"id\") " +
+                "@io.swagger.v3.oas.annotations.Parameter(required = true, description = \"The database id.\") " +
+                "java.lang.Long id);"));
+        assertTrue(content.contains("org.springframework.data.domain.Page<a.Item> findAll("));
+        // sortable values from the binary super class
+        assertTrue(content.contains("&lt;i&gt;sort=created&lt;/i&gt;"));
+
+        // a replaced jar is a changed dependency
+        FileUtils.write(baseEntity, String.format("package shared;%n%n" +
+                "@%s({\"name\", \"modified\"})%n" +
+                "public abstract class BaseEntity {%n%n    public java.util.Date modified;%n}%n",
+                Sortable.class.getName()), StandardCharsets.UTF_8);
+        buildJar(jar, classes, baseRepository, baseEntity);
+        enricher = new Enricher.Builder(new File(root, "src").getPath()).classPath(jar.getPath()).
+                sortableAnnotation(Sortable.class.getName()).build();
+        enricher.enrich();
+        content = FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8);
+        assertTrue(content.contains("&lt;i&gt;sort=modified&lt;/i&gt;"));
+        assertFalse(content.contains("&lt;i&gt;sort=created&lt;/i&gt;"));
+        // the class path is part of the configuration
+        enricher = new Enricher.Builder(new File(root, "src").getPath()).classPath(classes.getPath() +
+                File.pathSeparator + jar.getPath()).sortableAnnotation(Sortable.class.getName()).build();
+        enricher.enrich();
+        assertTrue(enricher.getMetrics().getProcessedFiles() > 0);
+    }
+
+    private static void buildJar(File jar, File classes, File... sourceFiles) throws IOException {
+        FileUtils.deleteQuietly(classes);
+        assertTrue(classes.mkdirs());
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null,
+                StandardCharsets.UTF_8)) {
+            assertTrue(compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", classes.getPath()),
+                    null, fileManager.getJavaFileObjects(sourceFiles)).call());
+        }
+        try (JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(jar))) {
+            for (File sourceFile : sourceFiles) {
+                String name = "shared/" + sourceFile.getName().replace(".java", ".class");
+                jarOutputStream.putNextEntry(new JarEntry(name));
+                jarOutputStream.write(FileUtils.readFileToByteArray(new File(classes, name)));
+                jarOutputStream.closeEntry();
+            }
+        }
+    }
+
+    @Test
+    public void testProjectIndex() throws Exception {
+        File root = new File("target/index");
+        FileUtils.deleteQuietly(root);
+        File item = new File(root, "src/a/Item.java");
+        FileUtils.write(item, String.format("package a;%n%n" +
+                "/**%n * An item.%n */%n@%s(value = {\"name\"})%npublic class Item {%n%n" +
+                "    /**%n     * The name.%n     */%n    public String name;%n}%n",
+                Sortable.class.getName()), StandardCharsets.UTF_8);
+        File itemRepository = new File(root, "src/a/ItemRepository.java");
+        String repositoryContent = String.format("package a;%n%n" +
+                "import org.springframework.data.repository.PagingAndSortingRepository;%n" +
+                "import org.springframework.data.rest.core.annotation.RepositoryRestResource;%n" +
+                "import org.springframework.data.rest.core.annotation.RestResource;%n%n" +
+                "/**%n * The items.%n */%n" +
+                "@RepositoryRestResource(path = \"things\")%n" +
+                "public interface ItemRepository extends PagingAndSortingRepository<Item, Long> {%n%n" +
+                "    /**%n     * Finds items by name.%n     */%n" +
+                "    @RestResource(exported = false)%n" +
+                "    java.util.List<Item> findByName(String name);%n}%n");
+        FileUtils.write(itemRepository, repositoryContent, StandardCharsets.UTF_8);
+        File indexFile = new File(root, "state/" + ProjectIndex.INDEX_FILE_NAME);
+        ProjectIndex projectIndex = new ProjectIndex(indexFile, "src");
+        projectIndex.load();
+        assertEquals(0, projectIndex.size());
+        CompilationUnitCache compilationUnitCache = new CompilationUnitCache(null, false);
+        compilationUnitCache.setProjectIndex(projectIndex);
+        ProjectModel.TypeModel parsed = compilationUnitCache.getTypeModel(itemRepository);
+        assertNotNull(compilationUnitCache.getTypeModel(item));
+        projectIndex.save();
+        assertTrue(indexFile.isFile());
+        assertEquals(2, projectIndex.size());
+
+        // a new run reads the unchanged type models from the index
+        projectIndex = new ProjectIndex(indexFile, "src");
+        projectIndex.load();
+        RunMetrics metrics = new RunMetrics();
+        compilationUnitCache = new CompilationUnitCache(null, false, metrics);
+        compilationUnitCache.setProjectIndex(projectIndex);
+        ProjectModel.TypeModel indexed = compilationUnitCache.getTypeModel(itemRepository);
+        assertEquals(0, metrics.getParsedFiles());
+        assertEquals(1, metrics.getIndexedTypeModels());
+        assertEquals(parsed.getQualifiedName(), indexed.getQualifiedName());
+        assertEquals(parsed.getSourceFile(), indexed.getSourceFile());
+        assertTrue(indexed.isInterface());
+        assertEquals(Collections.singletonList("org.springframework.data.repository.PagingAndSortingRepository"),
+                indexed.getSupertypes());
+        assertEquals(Arrays.asList("Item", "Long"), indexed.getSupertypeArguments(
+                "org.springframework.data.repository.PagingAndSortingRepository"));
+        assertEquals("The items.", indexed.getJavadocSummary());
+        assertEquals("things", indexed.getResourcePath());
+        assertEquals(Boolean.TRUE, indexed.getResourceExported());
+        assertEquals(1, indexed.getMethods().size());
+        ProjectModel.MethodModel method = indexed.getMethods().get(0);
+        assertEquals("findByName", method.getName());
+        assertEquals(Collections.singletonList("String"), method.getParameterTypes());
+        assertEquals("java.util.List<Item>", method.getReturnType());
+        assertEquals(parsed.getMethods().get(0).getJavadocSummary(), method.getJavadocSummary());
+        assertEquals(Boolean.FALSE, method.getResourceExported());
+        assertEquals(Collections.singletonList("name"), compilationUnitCache.getTypeModel(item).
+                getAnnotationValues(Sortable.class.getName()));
+        assertEquals(0, metrics.getParsedFiles());
+        // a changed source file is parsed again
+        FileUtils.write(item, String.format("package a;%n%n/**%n * An item.%n */%npublic class Item {%n}%n"),
+                StandardCharsets.UTF_8);
+        compilationUnitCache = new CompilationUnitCache(null, false, metrics);
+        compilationUnitCache.setProjectIndex(projectIndex);
+        assertNull(compilationUnitCache.getTypeModel(item).getAnnotationValues(Sortable.class.getName()));
+        assertEquals(1, metrics.getParsedFiles());
+        projectIndex.save();
+        // an index of other source paths is not used
+        projectIndex = new ProjectIndex(indexFile, "other");
+        projectIndex.load();
+        assertEquals(0, projectIndex.size());
+
+        // a cold run of the enricher only parses the source files changed since the last run
+        FileUtils.deleteQuietly(indexFile);
+        String sourcePath = new File(root, "src").getPath();
+        String stateDir = new File(root, "state").getPath();
+        new Enricher.Builder(sourcePath).stateDir(stateDir).build().enrich();
+        String enriched = FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8);
+        assertTrue(enriched.contains("findAll("));
+        FileUtils.write(itemRepository, repositoryContent, StandardCharsets.UTF_8);
+        Enricher enricher = new Enricher.Builder(sourcePath).stateDir(stateDir).build();
+        enricher.enrich();
+        assertEquals(enriched, FileUtils.readFileToString(itemRepository, StandardCharsets.UTF_8));
+        assertEquals(1, enricher.getMetrics().getIndexedTypeModels());
+        // a full run rebuilds the index
+        enricher = new Enricher.Builder(sourcePath).stateDir(stateDir).full(true).build();
+        enricher.enrich();
+        assertEquals(0, enricher.getMetrics().getIndexedTypeModels());
+    }
+
+    @Test
+    public void testDaemon() throws Exception {
+        String sourcePath = buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf(".")));
+        File fooRepository = new File(buildPath(FooRepository.class.getName()) + ".java");
+        File user = new File(buildPath(User.class.getName()) + ".java");
+        File userRepository = new File(buildPath(UserRepository.class.getName()) + ".java");
+        String userContent = FileUtils.readFileToString(user, StandardCharsets.UTF_8);
+        Enricher enricher = new Enricher.Builder(sourcePath).excludes(Collections.singleton("**.bak")).build();
+        try (EnricherDaemon daemon = new EnricherDaemon(enricher, 0)) {
+            daemon.start();
+            assertTrue(FileUtils.readFileToString(fooRepository, StandardCharsets.UTF_8).
+                    contains("@javax.ws.rs.Path(\"/foos\")"));
+            assertEquals("{\"status\": \"ok\"}", request(daemon, "ping"));
+            // the repositories of a changed domain class are enriched
+            FileUtils.writeStringToFile(user, userContent.replace(" * A user being able to log-in.",
+                    " * A changed user."), StandardCharsets.UTF_8);
+            String response = request(daemon, "enrich " + user.getAbsolutePath());
+            assertTrue(response, response.startsWith("{\"status\": \"ok\""));
+            assertTrue(response.contains(userRepository.getCanonicalPath()));
+            assertTrue(FileUtils.readFileToString(userRepository, StandardCharsets.UTF_8).
+                    contains("description = \"A changed user.\""));
+            // the watcher enriches a changed repository and the repositories of a changed domain class
+            FileUtils.writeStringToFile(user, userContent, StandardCharsets.UTF_8);
+            FileUtils.copyFile(new File(buildPath(FooRepository.class.getName()) + ".bak"), fooRepository);
+            long timeout = System.currentTimeMillis() + 10000;
+            while (System.currentTimeMillis() < timeout &&
+                    (!FileUtils.readFileToString(fooRepository, StandardCharsets.UTF_8).
+                            contains("@javax.ws.rs.Path(\"/foos\")") ||
+                            FileUtils.readFileToString(userRepository, StandardCharsets.UTF_8).
+                                    contains("A changed user."))) {
+                Thread.sleep(50);
+            }
+            assertTrue(FileUtils.readFileToString(fooRepository, StandardCharsets.UTF_8).
+                    contains("@javax.ws.rs.Path(\"/foos\")"));
+            assertFalse(FileUtils.readFileToString(userRepository, StandardCharsets.UTF_8).contains("A changed user."));
+            response = request(daemon, "unknown");
+            assertTrue(response, response.startsWith("{\"status\": \"error\""));
+        } finally {
+            FileUtils.writeStringToFile(user, userContent, StandardCharsets.UTF_8);
+        }
+        new Enricher(sourcePath, null, Collections.singleton("**.bak"), false, null, null).enrich();
+    }
+
+    @Test
+    public void testAnnotationProcessor() throws Exception {
+        File userRepository = new File(buildPath(UserRepository.class.getName()) + ".java");
+        File customUserRepository = new File(buildPath(UserRepository.class.getPackage().getName()) +
+                "/CustomUserRepository.java");
+        String content = FileUtils.readFileToString(userRepository, StandardCharsets.UTF_8);
+        String customContent = FileUtils.readFileToString(customUserRepository, StandardCharsets.UTF_8);
+        Collection<File> repositories = FileUtils.listFiles(new File(buildPath(
+                UserRepository.class.getPackage().getName())), new String[]{"java"}, false);
+        Path classOutput = Files.createTempDirectory("classes");
+        try {
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null,
+                    StandardCharsets.UTF_8)) {
+                // the test classes are also on the class path, but have no doc comments
+                JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                        Arrays.asList("-proc:only", "-classpath", System.getProperty("java.class.path"),
+                                "-sourcepath", "src/test/java", "-Xprefer:source", "-d", classOutput.toString(),
+                                "-A" + EnricherProcessor.OPENAPI_OUTPUT_OPTION + "=openapi.json"),
+                        null, fileManager.getJavaFileObjectsFromFiles(repositories));
+                task.setProcessors(Collections.singletonList(new EnricherProcessor()));
+                assertTrue(task.call());
+            }
+            // the sources are not rewritten
+            assertEquals(content, FileUtils.readFileToString(userRepository, StandardCharsets.UTF_8));
+            assertEquals(customContent, FileUtils.readFileToString(customUserRepository, StandardCharsets.UTF_8));
+            String operations = FileUtils.readFileToString(classOutput.resolve(
+                    "META-INF/springdataresttoopenapischema/operations.json").toFile(), StandardCharsets.UTF_8);
+            assertTrue(operations.contains("\"repository\": \"" + UserRepository.class.getName() + "\""));
+            assertTrue(operations.contains("\"path\": \"/people/search/findByFirstName\""));
+            assertTrue(operations.contains("\"operationId\": \"UserRepository_findByFirstName\""));
+            assertTrue(operations.contains("\"description\": \"Escape \\\"Test\\\"\""));
+            assertTrue(operations.contains("\"name\": \"firstName\""));
+            // the update method of the custom interface added by the handlers
+            assertTrue(operations.contains("\"operationId\": \"CustomUserRepository_update\""));
+            assertTrue(operations.contains("\"path\": \"/people/{id}\""));
+            assertTrue(operations.contains("\"tags\": [\n        \"User Methods\"\n      ]".replace("\n",
+                    System.lineSeparator())));
+            // the document built from the javac model equals the document of the enriched sources
+            String openApi = FileUtils.readFileToString(classOutput.resolve("openapi.json").toFile(),
+                    StandardCharsets.UTF_8);
+            File jsonFile = new File("target/openapi/processor.json");
+            jsonFile.getParentFile().mkdirs();
+            new Enricher.Builder(buildPath(UserRepository.class.getPackage().getName().substring(0,
+                    UserRepository.class.getPackage().getName().lastIndexOf(".")))).
+                    excludes(Collections.singleton("**.bak")).openApiOut(jsonFile.getPath()).build().enrich();
+            assertEquals(FileUtils.readFileToString(jsonFile, StandardCharsets.UTF_8), openApi);
+        } finally {
+            FileUtils.deleteDirectory(classOutput.toFile());
+        }
+        new Enricher(buildPath(UserRepository.class.getPackage().getName().substring(0,
+                UserRepository.class.getPackage().getName().lastIndexOf("."))), null,
+                Collections.singleton("**.bak"), false, null, null).enrich();
+    }
+
+    private static String request(EnricherDaemon daemon, String request) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                     StandardCharsets.UTF_8));
+             Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            writer.write(request + "\n");
+            writer.flush();
+            return reader.readLine();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.codehaus.plexus.util.Scanner;
+import org.sonatype.plexus.build.incremental.BuildContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Enriches the Spring Data REST repositories of the project in-process.
+ * <p>
+ * The enrichment is incremental, only source files changed since the last run or depending on changed supertypes and
+ * domain classes are enriched. In an incremental build of the IDE the changed and deleted Java source files reported
+ * by the build context are enriched together with the source files depending on them without walking the source
+ * path, the enrichment is skipped completely if no Java source file has changed. Enriched source files are refreshed
+ * in the build context.
+ * </p>
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+@Mojo(name = "enrich", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class EnrichMojo extends AbstractMojo {
+
+    private static final String JAVA_SOURCES = "**/*.java";
+
+    private static final String DEFAULT_INCLUDES = "**.java";
+
+    /**
+     * The source path to enrich.
+     */
+    @Parameter(property = "springdataresttoopenapischema.sourcePath", defaultValue = "${project.build.sourceDirectory}",
+            required = true)
+    private File sourcePath;
+
+    /**
+     * The glob expressions of the source files to include. Two asterisks match over path separators. Defaults to all
+     * Java source files.
+     */
+    @Parameter
+    private String[] includes;
+
+    /**
+     * The glob expressions of the source files and directories to exclude. Two asterisks match over path separators.
+     */
+    @Parameter
+    private String[] excludes;
+
+    /**
+     * Disables the PUT command.
+     */
+    @Parameter(property = "springdataresttoopenapischema.disablePut", defaultValue = "false")
+    private boolean disablePut;
+
+    /**
+     * The Searchable annotation.
+     */
+    @Parameter(property = "springdataresttoopenapischema.searchableAnnotation")
+    private String searchableAnnotation;
+
+    /**
+     * The Sortable annotation.
+     */
+    @Parameter(property = "springdataresttoopenapischema.sortableAnnotation")
+    private String sortableAnnotation;
+
+    /**
+     * The number of threads for enriching source files.
+     */
+    @Parameter(property = "springdataresttoopenapischema.threads", defaultValue = "1")
+    private int threads;
+
+    /**
+     * The directory for the manifest of the incremental enrichment and the index of the types.
+     */
+    @Parameter(property = "springdataresttoopenapischema.stateDir",
+            defaultValue = "${project.build.directory}/springdataresttoopenapischema")
+    private File stateDir;
+
+    /**
+     * Enriches all source files, also the unchanged ones.
+     */
+    @Parameter(property = "springdataresttoopenapischema.full", defaultValue = "false")
+    private boolean full;
+
+    /**
+     * Keeps the formatting of the code not changed by the enrichment.
+     */
+    @Parameter(property = "springdataresttoopenapischema.preserveFormatting", defaultValue = "false")
+    private boolean preserveFormatting;
+
+    /**
+     * Skips the enrichment.
+     */
+    @Parameter(property = "springdataresttoopenapischema.skip", defaultValue = "false")
+    private boolean skip;
+
+    /**
+     * The build context of the IDE or the command line build.
+     */
+    @Component
+    private BuildContext buildContext;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Skipping enrichment.");
+            return;
+        }
+        if (!sourcePath.isDirectory()) {
+            getLog().info(String.format("Source path '%s' does not exist, skipping enrichment.", sourcePath));
+            return;
+        }
+        List<File> changedSources = null;
+        if (buildContext.isIncremental() && !full) {
+            changedSources = getChangedSources();
+            if (changedSources.isEmpty()) {
+                getLog().debug(String.format("No changed source files in '%s', skipping enrichment.", sourcePath));
+                return;
+            }
+        }
+        Enricher enricher = new Enricher.Builder(sourcePath.getPath()).
+                includes(includes == null || includes.length == 0 ? Collections.singleton(DEFAULT_INCLUDES) :
+                        toSet(includes)).
+                excludes(toSet(excludes)).
+                disablePut(disablePut).
+                searchableAnnotation(searchableAnnotation).sortableAnnotation(sortableAnnotation).
+                threads(threads).full(full).stateDir(stateDir.getPath()).
+                preserveFormatting(preserveFormatting).
+                build();
+        RunMetrics metrics;
+        try {
+            if (changedSources == null) {
+                enricher.enrich();
+                metrics = enricher.getMetrics();
+            } else {
+                metrics = enricher.enrich(changedSources);
+            }
+        } catch (RuntimeException e) {
+            buildContext.addMessage(sourcePath, 0, 0, e.getMessage(), BuildContext.SEVERITY_ERROR, e);
+            throw new MojoExecutionException(String.format("Could not enrich source path: %s", sourcePath), e);
+        }
+        for (String sourceFile : metrics.getChangedSourceFiles()) {
+            buildContext.refresh(new File(sourceFile));
+        }
+    }
+
+    /**
+     * Gets the Java source files changed or deleted since the last incremental build.
+     */
+    private List<File> getChangedSources() {
+        List<File> changedSources = new ArrayList<>();
+        addFiles(buildContext.newScanner(sourcePath), changedSources);
+        addFiles(buildContext.newDeleteScanner(sourcePath), changedSources);
+        return changedSources;
+    }
+
+    private void addFiles(Scanner scanner, List<File> files) {
+        scanner.setIncludes(new String[]{JAVA_SOURCES});
+        scanner.scan();
+        for (String file : scanner.getIncludedFiles()) {
+            files.add(new File(sourcePath, file));
+        }
+    }
+
+    private static Set<String> toSet(String[] values) {
+        return values == null || values.length == 0 ? null : new HashSet<>(Arrays.asList(values));
+    }
+}
@@ -0,0 +1,152 @@
+package de.ohmesoftware.springdataresttoopenapischema;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.Scanner;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonatype.plexus.build.incremental.BuildContext;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Test of the Maven plugin running the mojo against the fixture project in <code>src/test/resources/project</code>.
+ *
+ * @author <a href="mailto:k_o_@users.sourceforge.net">Karsten Ohme
+ * (k_o_@users.sourceforge.net)</a>
+ */
+public class TestEnrichMojo {
+
+    private static final Path FIXTURE_PROJECT = Paths.get("src/test/resources/project");
+
+    private static final Path PROJECT = Paths.get("target/test-project");
+
+    private File sourcePath;
+
+    @Before
+    public void before() throws Exception {
+        if (Files.exists(PROJECT)) {
+            try (Stream<Path> paths = Files.walk(PROJECT)) {
+                for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+        try (Stream<Path> paths = Files.walk(FIXTURE_PROJECT)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path target = PROJECT.resolve(FIXTURE_PROJECT.relativize(path));
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.copy(path, target);
+                }
+            }
+        }
+        sourcePath = PROJECT.resolve("src/main/java").toFile();
+    }
+
+    @Test
+    public void testEnrich() throws Exception {
+        createMojo(new DefaultBuildContext()).execute();
+        assertTrue(read("a/repository/ItemRepository.java").contains("@javax.ws.rs.Path(\"/items\")"));
+        assertTrue(read("a/repository/TagRepository.java").contains("@javax.ws.rs.Path(\"/tags\")"));
+        assertTrue(Files.isDirectory(PROJECT.resolve("target/springdataresttoopenapischema")));
+    }
+
+    @Test
+    public void testIncrementalEnrich() throws Exception {
+        createMojo(new DefaultBuildContext()).execute();
+        // skipped without changed source files
+        IncrementalBuildContext buildContext = new IncrementalBuildContext();
+        createMojo(buildContext).execute();
+        assertTrue(buildContext.refreshed.isEmpty());
+        // only the reported changed source files and their dependents are enriched, the source path is not walked
+        write("a/model/Item.java", read("a/model/Item.java").replace("An item.", "A changed item."));
+        write("a/model/Tag.java", read("a/model/Tag.java").replace("A tag.", "A changed tag."));
+        buildContext = new IncrementalBuildContext("a/model/Item.java");
+        createMojo(buildContext).execute();
+        assertTrue(read("a/repository/ItemRepository.java").contains("A changed item."));
+        assertFalse(read("a/repository/TagRepository.java").contains("A changed tag."));
+        assertTrue(buildContext.refreshed.contains(new File(sourcePath, "a/repository/ItemRepository.java").
+                getCanonicalPath()));
+        assertFalse(buildContext.refreshed.contains(new File(sourcePath, "a/repository/TagRepository.java").
+                getCanonicalPath()));
+    }
+
+    private EnrichMojo createMojo(BuildContext buildContext) throws Exception {
+        EnrichMojo enrichMojo = new EnrichMojo();
+        set(enrichMojo, "sourcePath", sourcePath);
+        set(enrichMojo, "threads", 1);
+        set(enrichMojo, "stateDir", PROJECT.resolve("target/springdataresttoopenapischema").toFile());
+        set(enrichMojo, "buildContext", buildContext);
+        return enrichMojo;
+    }
+
+    private static void set(EnrichMojo enrichMojo, String name, Object value) throws Exception {
+        Field field = EnrichMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(enrichMojo, value);
+    }
+
+    private String read(String sourceFile) throws IOException {
+        return new String(Files.readAllBytes(new File(sourcePath, sourceFile).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private void write(String sourceFile, String content) throws IOException {
+        Files.write(new File(sourcePath, sourceFile).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Build context of an incremental build of the IDE reporting changed source files.
+     */
+    private static class IncrementalBuildContext extends DefaultBuildContext {
+
+        private final String[] changedFiles;
+
+        private final Set<String> refreshed = new TreeSet<>();
+
+        private IncrementalBuildContext(String... changedFiles) {
+            this.changedFiles = changedFiles;
+        }
+
+        @Override
+        public boolean isIncremental() {
+            return true;
+        }
+
+        @Override
+        public Scanner newScanner(File basedir) {
+            DirectoryScanner scanner = new DirectoryScanner() {
+                @Override
+                public void setIncludes(String[] includes) {
+                    // only the changed files
+                    super.setIncludes(changedFiles.length == 0 ? new String[]{"-"} : changedFiles);
+                }
+            };
+            scanner.setBasedir(basedir);
+            return scanner;
+        }
+
+        @Override
+        public void refresh(File file) {
+            try {
+                refreshed.add(file.getCanonicalPath());
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Could not resolve file: %s", file), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package a.model;
+
+/**
+ * An item.
+ */
+public class Item {
+
+    /**
+     * The name.
+     */
+    public String name;
+
+}
@@ -0,0 +1,13 @@
+package a.model;
+
+/**
+ * A tag.
+ */
+public class Tag {
+
+    /**
+     * The name.
+     */
+    public String name;
+
+}
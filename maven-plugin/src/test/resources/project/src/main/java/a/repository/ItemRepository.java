@@ -0,0 +1,9 @@
+package a.repository;
+
+import a.model.Item;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+@RepositoryRestResource
+public interface ItemRepository extends CrudRepository<Item, String> {
+}
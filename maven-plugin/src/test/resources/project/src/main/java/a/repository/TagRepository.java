@@ -0,0 +1,9 @@
+package a.repository;
+
+import a.model.Tag;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+@RepositoryRestResource
+public interface TagRepository extends CrudRepository<Tag, String> {
+}